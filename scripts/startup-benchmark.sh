@@ -0,0 +1,49 @@
+#!/usr/bin/env bash
+# Startup benchmark: default jar vs fast-start (Spring AOT + JDK AOT cache).
+#
+# Records, for each run, the time from process launch until
+#   - the readiness probe answers 200 (time-to-ready)
+#   - the first GET /products answers 200 (time-to-first-request)
+# and prints one CSV line per run. Requires a reachable database (see compose.yaml).
+#
+# Usage:
+#   ./mvnw -Pfast-start -DskipTests package
+#   scripts/startup-benchmark.sh [runs] > startup.csv
+set -euo pipefail
+
+RUNS="${1:-5}"
+PORT="${PORT:-8080}"
+BASE_URL="http://localhost:${PORT}/petshop"
+JAR="target/petshop-0.0.1-SNAPSHOT.jar"
+FAST_DIR="target/fast-start"
+
+now_ms() { date +%s%3N; }
+
+wait_for() {
+  local url="$1"
+  until curl -sf -o /dev/null "$url"; do sleep 0.01; done
+}
+
+run_once() {
+  local mode="$1"; shift
+  local start ready first pid
+  start=$(now_ms)
+  java "$@" --server.port="${PORT}" > "target/startup-${mode}.log" 2>&1 &
+  pid=$!
+  wait_for "${BASE_URL}/actuator/health/readiness"
+  ready=$(now_ms)
+  wait_for "${BASE_URL}/products"
+  first=$(now_ms)
+  kill "$pid"; wait "$pid" 2>/dev/null || true
+  echo "${mode},$((ready - start)),$((first - start))"
+}
+
+[ -f "$JAR" ] || { echo "missing $JAR, build with -Pfast-start first" >&2; exit 1; }
+[ -f "${FAST_DIR}/app.aot" ] || { echo "missing ${FAST_DIR}/app.aot, build with -Pfast-start first" >&2; exit 1; }
+
+echo "mode,time_to_ready_ms,time_to_first_get_products_ms"
+for _ in $(seq "$RUNS"); do
+  run_once default -jar "$JAR"
+  run_once fast-start -XX:AOTCache="${FAST_DIR}/app.aot" -Dspring.aot.enabled=true \
+    -jar "${FAST_DIR}/petshop-0.0.1-SNAPSHOT.jar"
+done
@@ -0,0 +1,45 @@
+package com.lucas.petshop.actuator;
+
+import com.lucas.petshop.dto.BoughtTogetherRebuildResultDTO;
+import com.lucas.petshop.service.BoughtTogetherService;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Actuator endpoint of the bought-together matrix.
+ *
+ * <p>{@code GET /actuator/boughttogether} shows its size and the last checkpoint;
+ * {@code POST /actuator/boughttogether} rebuilds it from the order history (to repair
+ * drift, or pick up other nodes' orders) and checkpoints the result.</p>
+ */
+@Component
+@Endpoint(id = "boughttogether")
+public class BoughtTogetherEndpoint {
+
+    private final BoughtTogetherService boughtTogetherService;
+
+    public BoughtTogetherEndpoint(BoughtTogetherService boughtTogetherService) {
+        this.boughtTogetherService = boughtTogetherService;
+    }
+
+    @ReadOperation
+    public Map<String, Object> status() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("products", boughtTogetherService.products());
+        result.put("pairs", boughtTogetherService.pairs());
+        result.put("lastCheckpointAt", boughtTogetherService.lastCheckpointAt());
+        return result;
+    }
+
+    @WriteOperation
+    public BoughtTogetherRebuildResultDTO rebuild() {
+        BoughtTogetherRebuildResultDTO result = boughtTogetherService.rebuild();
+        boughtTogetherService.checkpoint();
+        return result;
+    }
+}
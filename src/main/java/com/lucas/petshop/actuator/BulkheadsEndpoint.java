@@ -0,0 +1,47 @@
+package com.lucas.petshop.actuator;
+
+import com.lucas.petshop.bulkhead.AimdLimit;
+import com.lucas.petshop.bulkhead.Bulkhead;
+import com.lucas.petshop.bulkhead.BulkheadFilter;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Actuator endpoint of the endpoint-group bulkheads.
+ *
+ * <p>{@code GET /actuator/bulkheads} shows, per group, its current adaptive limit and bounds,
+ * the requests in flight and the requests accepted and rejected (503) since startup.</p>
+ */
+@Component
+@ConditionalOnProperty(prefix = "petshop.bulkhead", name = "enabled", matchIfMissing = true)
+@Endpoint(id = "bulkheads")
+public class BulkheadsEndpoint {
+
+    private final BulkheadFilter filter;
+
+    public BulkheadsEndpoint(BulkheadFilter filter) {
+        this.filter = filter;
+    }
+
+    @ReadOperation
+    public Map<String, Object> bulkheads() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        for (Bulkhead bulkhead : filter.bulkheads()) {
+            AimdLimit limit = bulkhead.limit();
+            Map<String, Object> values = new LinkedHashMap<>();
+            values.put("limit", limit.limit());
+            values.put("minLimit", limit.minLimit());
+            values.put("maxLimit", limit.maxLimit());
+            values.put("inFlight", limit.inFlight());
+            values.put("accepted", bulkhead.accepted());
+            values.put("rejected", bulkhead.rejected());
+            result.put(bulkhead.name(), values);
+        }
+        return result;
+    }
+}
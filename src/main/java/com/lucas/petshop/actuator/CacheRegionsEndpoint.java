@@ -0,0 +1,62 @@
+package com.lucas.petshop.actuator;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Actuator endpoint exposing Hibernate second-level cache statistics per region.
+ *
+ * <p>{@code GET /actuator/cacheregions} lists every region with its hit, miss and put
+ * counts; {@code GET /actuator/cacheregions/{region}} returns a single one.
+ * Requires {@code hibernate.generate_statistics=true}.</p>
+ */
+@Component
+@Endpoint(id = "cacheregions")
+public class CacheRegionsEndpoint {
+
+    private final Statistics statistics;
+
+    public CacheRegionsEndpoint(EntityManagerFactory entityManagerFactory) {
+        this.statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @ReadOperation
+    public Map<String, Object> regions() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        for (String region : statistics.getSecondLevelCacheRegionNames()) {
+            result.put(region, toMap(statistics.getCacheRegionStatistics(region)));
+        }
+        Map<String, Object> queryCache = new LinkedHashMap<>();
+        queryCache.put("hits", statistics.getQueryCacheHitCount());
+        queryCache.put("misses", statistics.getQueryCacheMissCount());
+        queryCache.put("puts", statistics.getQueryCachePutCount());
+        result.put("queryCache", queryCache);
+        return result;
+    }
+
+    @ReadOperation
+    public Map<String, Object> region(@Selector String region) {
+        return toMap(statistics.getCacheRegionStatistics(region));
+    }
+
+    private static Map<String, Object> toMap(CacheRegionStatistics region) {
+        Map<String, Object> values = new LinkedHashMap<>();
+        if (region == null) {
+            return values;
+        }
+        values.put("hits", region.getHitCount());
+        values.put("misses", region.getMissCount());
+        values.put("puts", region.getPutCount());
+        values.put("elementsInMemory", region.getElementCountInMemory());
+        return values;
+    }
+}
@@ -0,0 +1,29 @@
+package com.lucas.petshop.actuator;
+
+import com.lucas.petshop.dto.ClientSummaryBackfillResultDTO;
+import com.lucas.petshop.service.ClientSummaryService;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+/**
+ * Actuator endpoint running the client summary backfill.
+ *
+ * <p>{@code POST /actuator/clientsummaries} rebuilds tb_client_summary from tb_orders (after
+ * the table is first deployed, or to repair drift) and returns once every chunk is done.</p>
+ */
+@Component
+@Endpoint(id = "clientsummaries")
+public class ClientSummariesEndpoint {
+
+    private final ClientSummaryService clientSummaryService;
+
+    public ClientSummariesEndpoint(ClientSummaryService clientSummaryService) {
+        this.clientSummaryService = clientSummaryService;
+    }
+
+    @WriteOperation
+    public ClientSummaryBackfillResultDTO backfill() {
+        return clientSummaryService.backfill();
+    }
+}
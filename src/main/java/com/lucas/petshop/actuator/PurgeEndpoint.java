@@ -0,0 +1,53 @@
+package com.lucas.petshop.actuator;
+
+import com.lucas.petshop.config.PurgeProperties;
+import com.lucas.petshop.purge.PurgeRunResult;
+import com.lucas.petshop.purge.SoftDeletePurgeJob;
+import org.jspecify.annotations.Nullable;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Actuator endpoint of the soft-delete purge.
+ *
+ * <p>{@code GET /actuator/purge} shows the run in progress (rows per table so far) and the
+ * last finished run; {@code POST /actuator/purge} starts a run and returns its result, with
+ * optional {@code dryRun} and {@code archive} overriding the configured values. Rows purged
+ * and batch durations are also published as {@code petshop.purge.rows} and
+ * {@code petshop.purge.batch}.</p>
+ */
+@Component
+@Endpoint(id = "purge")
+public class PurgeEndpoint {
+
+    private final SoftDeletePurgeJob job;
+    private final PurgeProperties properties;
+
+    public PurgeEndpoint(SoftDeletePurgeJob job, PurgeProperties properties) {
+        this.job = job;
+        this.properties = properties;
+    }
+
+    @ReadOperation
+    public Map<String, Object> status() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("running", job.isRunning());
+        if (job.isRunning()) {
+            result.put("startedAt", job.progressStartedAt());
+            result.put("rows", job.progress());
+        }
+        result.put("lastRun", job.lastRun());
+        return result;
+    }
+
+    @WriteOperation
+    public PurgeRunResult run(@Nullable Boolean dryRun, @Nullable Boolean archive) {
+        return job.run(dryRun != null ? dryRun : properties.isDryRun(),
+                archive != null ? archive : properties.isArchive());
+    }
+}
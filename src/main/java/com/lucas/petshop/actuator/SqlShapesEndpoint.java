@@ -0,0 +1,86 @@
+package com.lucas.petshop.actuator;
+
+import com.lucas.petshop.config.SlowQueryListener;
+import com.lucas.petshop.config.SqlShape;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Actuator endpoint exposing SQL latency per query shape.
+ *
+ * <p>{@code GET /actuator/sqlshapes} lists every shape seen, slowest total time first, with
+ * its count, mean, max and p50/p95/p99 in milliseconds; {@code GET /actuator/sqlshapes/{key}}
+ * returns one. The same histograms are published as the {@code petshop.sql.query} metric.</p>
+ */
+@Component
+@ConditionalOnProperty(prefix = "petshop.sql-log", name = "enabled", matchIfMissing = true)
+@Endpoint(id = "sqlshapes")
+public class SqlShapesEndpoint {
+
+    private final SlowQueryListener listener;
+    private final MeterRegistry meterRegistry;
+
+    public SqlShapesEndpoint(SlowQueryListener listener, MeterRegistry meterRegistry) {
+        this.listener = listener;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @ReadOperation
+    public Map<String, Object> shapes() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        listener.shapes().stream()
+                .map(shape -> Map.entry(shape, timer(shape.key())))
+                .filter(entry -> entry.getValue() != null)
+                .sorted(Comparator.comparingDouble(
+                        (Map.Entry<SqlShape, Timer> entry) -> entry.getValue().totalTime(TimeUnit.MILLISECONDS)).reversed())
+                .forEach(entry -> result.put(entry.getKey().key(), toMap(entry.getKey(), entry.getValue())));
+        // statements past max-shapes, timed together
+        Timer other = timer(SlowQueryListener.OTHER_SHAPE);
+        if (other != null && other.count() > 0) {
+            result.put(SlowQueryListener.OTHER_SHAPE, toMap(new SqlShape(SlowQueryListener.OTHER_SHAPE,
+                    SlowQueryListener.OTHER_SHAPE, SlowQueryListener.OTHER_SHAPE, "(past max-shapes)"), other));
+        }
+        return result;
+    }
+
+    @ReadOperation
+    public Map<String, Object> shape(@Selector String key) {
+        return listener.shapes().stream()
+                .filter(shape -> shape.key().equals(key))
+                .findFirst()
+                .map(shape -> toMap(shape, timer(key)))
+                .orElseGet(LinkedHashMap::new);
+    }
+
+    private Timer timer(String key) {
+        return meterRegistry.find(SlowQueryListener.METRIC).tag("shape", key).timer();
+    }
+
+    private static Map<String, Object> toMap(SqlShape shape, Timer timer) {
+        Map<String, Object> values = new LinkedHashMap<>();
+        values.put("sql", shape.sql());
+        if (timer == null) {
+            return values;
+        }
+        HistogramSnapshot snapshot = timer.takeSnapshot();
+        values.put("count", snapshot.count());
+        values.put("meanMs", snapshot.mean(TimeUnit.MILLISECONDS));
+        values.put("maxMs", snapshot.max(TimeUnit.MILLISECONDS));
+        for (ValueAtPercentile percentile : snapshot.percentileValues()) {
+            values.put("p" + Math.round(percentile.percentile() * 100) + "Ms", percentile.value(TimeUnit.MILLISECONDS));
+        }
+        return values;
+    }
+}
@@ -0,0 +1,108 @@
+package com.lucas.petshop.bulkhead;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Concurrency limit adjusted by AIMD (additive increase, multiplicative decrease) on the
+ * latency of the requests it admits, as TCP does with its congestion window.
+ *
+ * <ul>
+ *   <li>A request slower than the latency threshold is taken as a sign of overload (a full
+ *   connection pool, a saturated database): the limit is multiplied by the backoff ratio.
+ *   Only requests admitted after the last decrease can trigger the next one, so a cohort
+ *   of slow requests shrinks the limit once, not once per request.</li>
+ *   <li>A faster request grows the limit by {@code 1 / limit}, about one per limit's worth
+ *   of requests, but only while at least half of it is in use: an idle group does not
+ *   drift up to its maximum and then let a burst through.</li>
+ * </ul>
+ *
+ * <p>{@link #tryAcquire} never waits: past the limit the caller rejects the request.</p>
+ */
+public class AimdLimit {
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final long latencyThresholdNanos;
+    private final double backoffRatio;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    // guarded by this; limit is read without the lock through currentLimit
+    private double limit;
+    private long lastDecreaseNanos;
+    private boolean decreased;
+    private volatile int currentLimit;
+
+    public AimdLimit(int initialLimit, int minLimit, int maxLimit, long latencyThresholdNanos, double backoffRatio) {
+        if (minLimit < 1 || maxLimit < minLimit || initialLimit < minLimit || initialLimit > maxLimit) {
+            throw new IllegalArgumentException("limits must satisfy 1 <= min <= initial <= max");
+        }
+        if (backoffRatio <= 0 || backoffRatio >= 1) {
+            throw new IllegalArgumentException("backoffRatio must be in (0, 1)");
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.latencyThresholdNanos = latencyThresholdNanos;
+        this.backoffRatio = backoffRatio;
+        this.limit = initialLimit;
+        this.currentLimit = initialLimit;
+    }
+
+    /**
+     * Takes a slot if fewer than {@link #limit()} requests are in flight.
+     */
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= currentLimit) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Frees the slot of a request admitted at {@code startNanos} that took {@code latencyNanos},
+     * and adjusts the limit on that sample.
+     */
+    public void release(long startNanos, long latencyNanos) {
+        int busy = inFlight.getAndDecrement();
+        synchronized (this) {
+            if (latencyNanos > latencyThresholdNanos) {
+                if (!decreased || startNanos - lastDecreaseNanos > 0) {
+                    limit = Math.max(minLimit, limit * backoffRatio);
+                    lastDecreaseNanos = startNanos + latencyNanos;
+                    decreased = true;
+                }
+            } else if (busy * 2 >= limit) {
+                limit = Math.min(maxLimit, limit + 1 / limit);
+            }
+            currentLimit = (int) limit;
+        }
+    }
+
+    /**
+     * Frees the slot without taking the request as a latency sample.
+     */
+    public void release() {
+        inFlight.decrementAndGet();
+    }
+
+    public int limit() {
+        return currentLimit;
+    }
+
+    public int inFlight() {
+        return inFlight.get();
+    }
+
+    public int minLimit() {
+        return minLimit;
+    }
+
+    public int maxLimit() {
+        return maxLimit;
+    }
+}
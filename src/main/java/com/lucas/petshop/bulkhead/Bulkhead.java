@@ -0,0 +1,78 @@
+package com.lucas.petshop.bulkhead;
+
+import org.springframework.http.server.PathContainer;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * One endpoint group (catalog reads, order writes, listings...) with its own
+ * {@link AimdLimit}: requests of one group never wait for, or take slots from, another's.
+ *
+ * <p>Endpoints are given as {@code "METHOD /path"}, the path a Spring {@link PathPattern}
+ * within the context path ({@code /orders/*}, {@code /products/**}) and the method
+ * {@code *} for any.</p>
+ */
+public class Bulkhead {
+
+    private final String name;
+    private final List<Endpoint> endpoints;
+    private final AimdLimit limit;
+    private final LongAdder accepted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    public Bulkhead(String name, List<String> endpoints, AimdLimit limit) {
+        this.name = name;
+        this.endpoints = endpoints.stream().map(Endpoint::parse).toList();
+        this.limit = limit;
+    }
+
+    public boolean matches(String method, PathContainer path) {
+        for (Endpoint endpoint : endpoints) {
+            if ((endpoint.method == null || endpoint.method.equals(method)) && endpoint.path.matches(path)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public boolean tryAcquire() {
+        if (limit.tryAcquire()) {
+            accepted.increment();
+            return true;
+        }
+        rejected.increment();
+        return false;
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public AimdLimit limit() {
+        return limit;
+    }
+
+    public long accepted() {
+        return accepted.sum();
+    }
+
+    public long rejected() {
+        return rejected.sum();
+    }
+
+    private record Endpoint(String method, PathPattern path) {
+
+        private static Endpoint parse(String endpoint) {
+            String[] parts = endpoint.trim().split("\\s+");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("bulkhead endpoint must be \"METHOD /path\": " + endpoint);
+            }
+            String method = parts[0].equals("*") ? null : parts[0].toUpperCase(Locale.ROOT);
+            return new Endpoint(method, PathPatternParser.defaultInstance.parse(parts[1]));
+        }
+    }
+}
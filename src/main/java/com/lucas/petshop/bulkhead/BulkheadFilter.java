@@ -0,0 +1,125 @@
+package com.lucas.petshop.bulkhead;
+
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.PathContainer;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Admits each request into the first {@link Bulkhead} whose endpoints match it, or answers
+ * 503 with {@code Retry-After} right away when that group is at its limit: an overloaded
+ * group sheds its own excess instead of queueing on Tomcat threads and pool connections
+ * that the other groups need. Requests of no group pass through.
+ *
+ * <p>A streamed response (the order export) keeps its slot until the stream completes, but
+ * its duration is not taken as a latency sample: it reflects the size of the range, not
+ * the load of the service.</p>
+ */
+public class BulkheadFilter extends OncePerRequestFilter {
+
+    private final List<Bulkhead> bulkheads;
+    private final String retryAfter;
+
+    public BulkheadFilter(List<Bulkhead> bulkheads, Duration retryAfter) {
+        this.bulkheads = bulkheads;
+        this.retryAfter = String.valueOf(Math.max(1, retryAfter.toSeconds()));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        Bulkhead bulkhead = match(request);
+        if (bulkhead == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+        if (!bulkhead.tryAcquire()) {
+            reject(response, bulkhead);
+            return;
+        }
+        long startNanos = System.nanoTime();
+        boolean streaming = false;
+        try {
+            chain.doFilter(request, response);
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new ReleaseOnCompletion(bulkhead));
+                streaming = true;
+            }
+        } finally {
+            if (!streaming) {
+                bulkhead.limit().release(startNanos, System.nanoTime() - startNanos);
+            }
+        }
+    }
+
+    public List<Bulkhead> bulkheads() {
+        return bulkheads;
+    }
+
+    private Bulkhead match(HttpServletRequest request) {
+        PathContainer path = PathContainer.parsePath(
+                request.getRequestURI().substring(request.getContextPath().length()));
+        for (Bulkhead bulkhead : bulkheads) {
+            if (bulkhead.matches(request.getMethod(), path)) {
+                return bulkhead;
+            }
+        }
+        return null;
+    }
+
+    private void reject(HttpServletResponse response, Bulkhead bulkhead) throws IOException {
+        response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, retryAfter);
+        response.setContentType(MediaType.APPLICATION_PROBLEM_JSON_VALUE);
+        response.getWriter().write("{\"status\":503,\"title\":\"Service Unavailable\",\"detail\":\"BULKHEAD "
+                + bulkhead.name() + " IS FULL\"}");
+    }
+
+    // the stream may end in complete, error or timeout (then complete): release exactly once
+    private static final class ReleaseOnCompletion implements AsyncListener {
+
+        private final Bulkhead bulkhead;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private ReleaseOnCompletion(Bulkhead bulkhead) {
+            this.bulkhead = bulkhead;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+        }
+
+        private void release() {
+            if (released.compareAndSet(false, true)) {
+                bulkhead.limit().release();
+            }
+        }
+    }
+}
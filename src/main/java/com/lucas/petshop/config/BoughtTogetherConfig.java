@@ -0,0 +1,29 @@
+package com.lucas.petshop.config;
+
+import com.lucas.petshop.service.BoughtTogetherCheckpointer;
+import com.lucas.petshop.service.BoughtTogetherService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Bought-together recommendations: the matrix is always maintained; its periodic checkpoint
+ * runs unless {@code petshop.bought-together.checkpoint-enabled} is false.
+ */
+@Configuration
+@EnableConfigurationProperties(BoughtTogetherProperties.class)
+public class BoughtTogetherConfig {
+
+    @Configuration
+    @EnableScheduling
+    @ConditionalOnProperty(prefix = "petshop.bought-together", name = "checkpoint-enabled", matchIfMissing = true)
+    static class Scheduling {
+
+        @Bean
+        public BoughtTogetherCheckpointer boughtTogetherCheckpointer(BoughtTogetherService boughtTogetherService) {
+            return new BoughtTogetherCheckpointer(boughtTogetherService);
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.lucas.petshop.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Settings of the bought-together recommendations ({@code petshop.bought-together.*}).
+ */
+@Data
+@ConfigurationProperties(prefix = "petshop.bought-together")
+public class BoughtTogetherProperties {
+
+    // Neighbours kept sorted per product: the most /products/{id}/bought-together can return
+    private int topK = 20;
+
+    // Writes the matrix to tb_product_cooccurrence on a schedule, when it changed
+    private boolean checkpointEnabled = true;
+
+    // Pause between checkpoints; changes since the last one are replayed from tb_orders on restart
+    private Duration checkpointInterval = Duration.ofMinutes(10);
+
+    // Orders per rebuild chunk (an order id range, one transaction each)
+    private int rebuildChunkSize = 20000;
+
+    // Concurrent rebuild chunks; each holds one pooled connection
+    private int rebuildThreads = 4;
+}
@@ -0,0 +1,74 @@
+package com.lucas.petshop.config;
+
+import com.lucas.petshop.bulkhead.AimdLimit;
+import com.lucas.petshop.bulkhead.Bulkhead;
+import com.lucas.petshop.bulkhead.BulkheadFilter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import java.util.List;
+
+/**
+ * Bulkheads per endpoint group, with limits and request counts published as
+ * {@code petshop.bulkhead.limit}, {@code petshop.bulkhead.inflight} and
+ * {@code petshop.bulkhead.requests} (tagged group and outcome), and shown at
+ * {@code /actuator/bulkheads}.
+ */
+@Configuration
+@EnableConfigurationProperties(BulkheadProperties.class)
+@ConditionalOnProperty(prefix = "petshop.bulkhead", name = "enabled", matchIfMissing = true)
+public class BulkheadConfig {
+
+    public static final String LIMIT_METRIC = "petshop.bulkhead.limit";
+    public static final String INFLIGHT_METRIC = "petshop.bulkhead.inflight";
+    public static final String REQUESTS_METRIC = "petshop.bulkhead.requests";
+
+    @Bean
+    public BulkheadFilter bulkheadFilter(BulkheadProperties properties, MeterRegistry meterRegistry) {
+        List<Bulkhead> bulkheads = properties.getGroups().stream()
+                .map(group -> new Bulkhead(group.getName(), group.getEndpoints(), new AimdLimit(
+                        group.getInitialLimit(), group.getMinLimit(), group.getMaxLimit(),
+                        group.getLatencyThreshold().toNanos(), group.getBackoffRatio())))
+                .toList();
+        for (Bulkhead bulkhead : bulkheads) {
+            register(bulkhead, meterRegistry);
+        }
+        return new BulkheadFilter(bulkheads, properties.getRetryAfter());
+    }
+
+    @Bean
+    public FilterRegistrationBean<BulkheadFilter> bulkheadFilterRegistration(BulkheadFilter filter) {
+        FilterRegistrationBean<BulkheadFilter> registration = new FilterRegistrationBean<>(filter);
+        // first of all, so a rejected request costs as little as possible
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+
+    private static void register(Bulkhead bulkhead, MeterRegistry meterRegistry) {
+        Gauge.builder(LIMIT_METRIC, bulkhead, b -> b.limit().limit())
+                .description("Concurrent requests currently admitted into the endpoint group")
+                .tag("group", bulkhead.name())
+                .register(meterRegistry);
+        Gauge.builder(INFLIGHT_METRIC, bulkhead, b -> b.limit().inFlight())
+                .description("Requests of the endpoint group in progress")
+                .tag("group", bulkhead.name())
+                .register(meterRegistry);
+        FunctionCounter.builder(REQUESTS_METRIC, bulkhead, Bulkhead::accepted)
+                .description("Requests admitted into or rejected by the endpoint group's bulkhead")
+                .tag("group", bulkhead.name())
+                .tag("outcome", "accepted")
+                .register(meterRegistry);
+        FunctionCounter.builder(REQUESTS_METRIC, bulkhead, Bulkhead::rejected)
+                .description("Requests admitted into or rejected by the endpoint group's bulkhead")
+                .tag("group", bulkhead.name())
+                .tag("outcome", "rejected")
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,54 @@
+package com.lucas.petshop.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Settings of the per-endpoint-group concurrency limits ({@code petshop.bulkhead.*}).
+ *
+ * <p>A request belongs to the first group with a matching endpoint. Each group's limit moves
+ * between {@code min-limit} and {@code max-limit} with the latency of its requests; past it,
+ * requests get 503 with {@code Retry-After: retry-after}.</p>
+ */
+@Data
+@ConfigurationProperties(prefix = "petshop.bulkhead")
+public class BulkheadProperties {
+
+    // Limit concurrent requests per endpoint group; off: every request is admitted
+    private boolean enabled = true;
+
+    // Sent with a 503, in whole seconds (at least 1)
+    private Duration retryAfter = Duration.ofSeconds(1);
+
+    // Endpoint groups, matched in order
+    private List<Group> groups = new ArrayList<>();
+
+    @Data
+    public static class Group {
+
+        // Tag of the group's metrics and key in /actuator/bulkheads
+        private String name;
+
+        // "METHOD /path" with a Spring path pattern within the context path; METHOD * for any
+        private List<String> endpoints = new ArrayList<>();
+
+        // Concurrent requests admitted at startup, before any latency has been observed
+        private int initialLimit = 20;
+
+        // The limit never drops below this, however slow the requests get
+        private int minLimit = 1;
+
+        // Nor grows above this; keep the sum over groups within the pool and Tomcat threads
+        private int maxLimit = 100;
+
+        // A request slower than this shrinks the limit
+        private Duration latencyThreshold = Duration.ofMillis(500);
+
+        // Factor applied to the limit on a slow request
+        private double backoffRatio = 0.9;
+    }
+}
@@ -0,0 +1,82 @@
+package com.lucas.petshop.config;
+
+import com.lucas.petshop.invalidation.InMemoryInvalidationBus;
+import com.lucas.petshop.invalidation.InvalidationBus;
+import com.lucas.petshop.invalidation.InvalidationHandler;
+import com.lucas.petshop.invalidation.InvalidationPublisher;
+import com.lucas.petshop.invalidation.LocalCacheInvalidator;
+import com.lucas.petshop.invalidation.PostgresInvalidationBus;
+import com.lucas.petshop.invalidation.SecondLevelCacheInvalidationHandler;
+import com.lucas.petshop.invalidation.VersionClock;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.jdbc.autoconfigure.JdbcConnectionDetails;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.util.StringUtils;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Cross-node cache invalidation: services publish the ids they changed after commit, every
+ * node receives them on the {@link InvalidationBus} selected by
+ * {@code petshop.invalidation.transport} and evicts its local copies.
+ */
+@Configuration
+@EnableConfigurationProperties(InvalidationProperties.class)
+public class InvalidationConfig {
+
+    @Bean
+    @ConditionalOnProperty(prefix = "petshop.invalidation", name = "transport", havingValue = "postgres",
+            matchIfMissing = true)
+    public PostgresInvalidationBus postgresInvalidationBus(InvalidationProperties properties,
+                                                           JdbcTemplate jdbcTemplate,
+                                                           JdbcConnectionDetails connectionDetails) {
+        return new PostgresInvalidationBus(jdbcTemplate,
+                connectionDetails.getJdbcUrl(), connectionDetails.getUsername(), connectionDetails.getPassword(),
+                properties.getChannel(), properties.getReconnectDelay(), properties.getPollTimeout());
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "petshop.invalidation", name = "transport", havingValue = "memory")
+    public InMemoryInvalidationBus inMemoryInvalidationBus() {
+        return new InMemoryInvalidationBus();
+    }
+
+    @Bean
+    public VersionClock invalidationVersionClock() {
+        return new VersionClock();
+    }
+
+    @Bean
+    public InvalidationPublisher invalidationPublisher(InvalidationBus bus, VersionClock clock,
+                                                       InvalidationProperties properties,
+                                                       MeterRegistry meterRegistry) {
+        String nodeId = StringUtils.hasText(properties.getNodeId())
+                ? properties.getNodeId()
+                : UUID.randomUUID().toString().substring(0, 8);
+        return new InvalidationPublisher(bus, clock, nodeId, meterRegistry);
+    }
+
+    @Bean
+    public SecondLevelCacheInvalidationHandler secondLevelCacheInvalidationHandler(
+            EntityManagerFactory entityManagerFactory) {
+        return new SecondLevelCacheInvalidationHandler(entityManagerFactory.unwrap(SessionFactory.class));
+    }
+
+    @Bean
+    public LocalCacheInvalidator localCacheInvalidator(InvalidationBus bus, VersionClock clock,
+                                                       InvalidationPublisher publisher,
+                                                       List<InvalidationHandler> handlers,
+                                                       MeterRegistry meterRegistry) {
+        LocalCacheInvalidator invalidator =
+                new LocalCacheInvalidator(publisher.nodeId(), clock, handlers, meterRegistry);
+        bus.subscribe(invalidator);
+        return invalidator;
+    }
+}
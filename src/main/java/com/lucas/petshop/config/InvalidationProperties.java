@@ -0,0 +1,35 @@
+package com.lucas.petshop.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Settings of the cross-node cache invalidation bus ({@code petshop.invalidation.*}).
+ */
+@Data
+@ConfigurationProperties(prefix = "petshop.invalidation")
+public class InvalidationProperties {
+
+    public enum Transport {
+        // LISTEN/NOTIFY on the application database, for several replicas
+        POSTGRES,
+        // in-process only: tests and single-node deployments
+        MEMORY
+    }
+
+    private Transport transport = Transport.POSTGRES;
+
+    // NOTIFY channel shared by all the nodes of one deployment
+    private String channel = "petshop_invalidation";
+
+    // Identifies this node in the messages; a random id per start when empty
+    private String nodeId;
+
+    // First wait before reopening a lost listener connection (doubles up to 30s)
+    private Duration reconnectDelay = Duration.ofSeconds(1);
+
+    // How long the listener blocks waiting for notifications before checking for shutdown
+    private Duration pollTimeout = Duration.ofSeconds(5);
+}
@@ -0,0 +1,26 @@
+package com.lucas.petshop.config;
+
+import com.lucas.petshop.intake.OrderIntake;
+import com.lucas.petshop.service.OrderService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Asynchronous order intake, only when {@code petshop.intake.enabled} is set; otherwise
+ * {@code POST /orders} creates the order in the request.
+ */
+@Configuration
+@EnableConfigurationProperties(OrderIntakeProperties.class)
+public class OrderIntakeConfig {
+
+    @Bean
+    @ConditionalOnProperty(prefix = "petshop.intake", name = "enabled")
+    public OrderIntake orderIntake(OrderService orderService, TransactionTemplate transactionTemplate,
+                                   OrderIntakeProperties properties, MeterRegistry meterRegistry) {
+        return new OrderIntake(orderService, transactionTemplate, properties, meterRegistry);
+    }
+}
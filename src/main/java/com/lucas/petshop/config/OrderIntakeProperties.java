@@ -0,0 +1,41 @@
+package com.lucas.petshop.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Settings of the asynchronous order intake ({@code petshop.intake.*}).
+ *
+ * <p>When enabled, {@code POST /orders} only validates and queues the order; writer threads
+ * create up to {@link #batchSize} queued orders per transaction.</p>
+ */
+@Data
+@ConfigurationProperties(prefix = "petshop.intake")
+public class OrderIntakeProperties {
+
+    // Accept orders with 202 and write them in the background instead of 201 after the commit
+    private boolean enabled = false;
+
+    // Orders waiting to be written; beyond this POST /orders answers 429
+    private int queueCapacity = 10_000;
+
+    // Writer threads, each with its own transaction (and connection) per batch
+    private int writers = 2;
+
+    // Orders created in one transaction at most
+    private int batchSize = 100;
+
+    // How long a writer waits for more orders before it commits a batch that is not full
+    private Duration batchDelay = Duration.ofMillis(2);
+
+    // How long the outcome of a written order can still be read at /orders/intake/{handle}
+    private Duration handleRetention = Duration.ofMinutes(10);
+
+    // Outcomes kept at most, oldest dropped first
+    private int maxTrackedHandles = 100_000;
+
+    // On shutdown, time given to the writers to empty the queue
+    private Duration drainTimeout = Duration.ofSeconds(30);
+}
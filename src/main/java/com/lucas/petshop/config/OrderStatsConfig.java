@@ -0,0 +1,24 @@
+package com.lucas.petshop.config;
+
+import com.lucas.petshop.service.OrderStatsReconciler;
+import com.lucas.petshop.service.OrderStatsService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Periodic reconciliation of the in-memory order counters, on unless
+ * {@code petshop.order-stats.reconcile-enabled} is false (the counters are then
+ * reconciled once, on the first read).
+ */
+@Configuration
+@EnableScheduling
+@ConditionalOnProperty(prefix = "petshop.order-stats", name = "reconcile-enabled", matchIfMissing = true)
+public class OrderStatsConfig {
+
+    @Bean
+    public OrderStatsReconciler orderStatsReconciler(OrderStatsService orderStatsService) {
+        return new OrderStatsReconciler(orderStatsService);
+    }
+}
@@ -0,0 +1,12 @@
+package com.lucas.petshop.config;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Product facets: the index itself is {@link com.lucas.petshop.service.ProductFacetServiceImpl}.
+ */
+@Configuration
+@EnableConfigurationProperties(ProductFacetProperties.class)
+public class ProductFacetConfig {
+}
@@ -0,0 +1,26 @@
+package com.lucas.petshop.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Settings of the product facet index ({@code petshop.facets.*}).
+ */
+@Data
+@ConfigurationProperties(prefix = "petshop.facets")
+public class ProductFacetProperties {
+
+    // Price bucket boundaries, ascending: 10, 25 gives the buckets 0-10, 10-25 and 25+
+    private List<BigDecimal> priceEdges = List.of(
+            new BigDecimal("10"), new BigDecimal("25"), new BigDecimal("50"),
+            new BigDecimal("100"), new BigDecimal("250"));
+
+    // Brands listed in a facet response, most matches first (selected brands are always listed)
+    private int maxBrands = 50;
+
+    // Products read per query when the index is loaded from tb_products
+    private int loadBatchSize = 50000;
+}
@@ -0,0 +1,43 @@
+package com.lucas.petshop.config;
+
+import com.lucas.petshop.invalidation.InvalidationPublisher;
+import com.lucas.petshop.purge.PurgeScheduler;
+import com.lucas.petshop.purge.SoftDeletePurgeJob;
+import com.lucas.petshop.repository.ProductRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Purge of soft-deleted rows: the job is always available (see the purge actuator endpoint);
+ * it is scheduled only when {@code petshop.purge.enabled} is set.
+ */
+@Configuration
+@EnableConfigurationProperties(PurgeProperties.class)
+public class PurgeConfig {
+
+    @Bean
+    public SoftDeletePurgeJob softDeletePurgeJob(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+                                                 ProductRepository productRepository,
+                                                 InvalidationPublisher invalidationPublisher,
+                                                 PurgeProperties properties, MeterRegistry meterRegistry) {
+        return new SoftDeletePurgeJob(jdbcTemplate, transactionTemplate, productRepository, invalidationPublisher,
+                properties, meterRegistry);
+    }
+
+    @Configuration
+    @EnableScheduling
+    @ConditionalOnProperty(prefix = "petshop.purge", name = "enabled")
+    static class Scheduling {
+
+        @Bean
+        public PurgeScheduler purgeScheduler(SoftDeletePurgeJob job) {
+            return new PurgeScheduler(job);
+        }
+    }
+}
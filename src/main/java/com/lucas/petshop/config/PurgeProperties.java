@@ -0,0 +1,41 @@
+package com.lucas.petshop.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Settings of the background purge of soft-deleted rows ({@code petshop.purge.*}).
+ *
+ * <p>Rows are removed once they have been soft-deleted for longer than {@link #retention},
+ * {@link #batchSize} at a time, never faster than {@link #maxRowsPerSecond}.</p>
+ */
+@Data
+@ConfigurationProperties(prefix = "petshop.purge")
+public class PurgeProperties {
+
+    // Runs the purge on a schedule; it can always be started by hand at /actuator/purge
+    private boolean enabled = false;
+
+    // Pause between the end of a run and the start of the next
+    private Duration interval = Duration.ofHours(1);
+
+    // Wait after startup before the first run
+    private Duration initialDelay = Duration.ofMinutes(10);
+
+    // How long a soft-deleted row stays recoverable before it is purged
+    private Duration retention = Duration.ofDays(30);
+
+    // Rows per batch, one short transaction each
+    private int batchSize = 500;
+
+    // Upper bound of rows removed (or counted, in dry-run) per second
+    private int maxRowsPerSecond = 2000;
+
+    // Only count what would be purged
+    private boolean dryRun = false;
+
+    // Copy purged rows into the tb_*_archive tables before deleting them
+    private boolean archive = false;
+}
@@ -0,0 +1,43 @@
+package com.lucas.petshop.config;
+
+import com.lucas.petshop.timing.MapperTimingPostProcessor;
+import com.lucas.petshop.timing.ServerTimingFilter;
+import com.lucas.petshop.timing.TimingQueryListener;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+/**
+ * Request phase timing: DB time from the datasource proxy, flush time from a Hibernate
+ * session listener ({@code hibernate.session.events.auto}), mapping time from proxied
+ * MapStruct mappers and serialization time from a response body advice.
+ */
+@Configuration
+@EnableConfigurationProperties(ServerTimingProperties.class)
+@ConditionalOnProperty(prefix = "petshop.server-timing", name = "enabled", matchIfMissing = true)
+public class ServerTimingConfig {
+
+    @Bean
+    public FilterRegistrationBean<ServerTimingFilter> serverTimingFilter(ServerTimingProperties properties,
+                                                                         MeterRegistry meterRegistry) {
+        FilterRegistrationBean<ServerTimingFilter> registration =
+                new FilterRegistrationBean<>(new ServerTimingFilter(properties, meterRegistry));
+        // outermost application filter, so the total covers the whole request
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 1);
+        return registration;
+    }
+
+    @Bean
+    public TimingQueryListener timingQueryListener() {
+        return new TimingQueryListener();
+    }
+
+    @Bean
+    public static MapperTimingPostProcessor mapperTimingPostProcessor() {
+        return new MapperTimingPostProcessor();
+    }
+}
@@ -0,0 +1,21 @@
+package com.lucas.petshop.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings of the per-request phase timing ({@code petshop.server-timing.*}).
+ *
+ * <p>Phase metrics are collected whenever {@link #enabled} is set; the {@code Server-Timing}
+ * response header is opt-in because it requires buffering the response body.</p>
+ */
+@Data
+@ConfigurationProperties(prefix = "petshop.server-timing")
+public class ServerTimingProperties {
+
+    // Attribute request time to db, flush, mapping and serialization and publish it as metrics
+    private boolean enabled = true;
+
+    // Also report the breakdown to the client in a Server-Timing header
+    private boolean header = false;
+}
@@ -0,0 +1,175 @@
+package com.lucas.petshop.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times every statement into a per-shape histogram and logs the slow ones (plus a sample).
+ *
+ * <p>The common path is a map lookup and a histogram update. Normalizing the SQL, walking the
+ * stack for the caller and formatting parameters only happen for statements that are logged.</p>
+ */
+@Slf4j
+public class SlowQueryListener implements QueryExecutionListener {
+
+    public static final String METRIC = "petshop.sql.query";
+
+    // shape tag of the statements past max-shapes, all timed together
+    public static final String OTHER_SHAPE = "other";
+
+    private static final String START_NANOS = SlowQueryListener.class.getName() + ".startNanos";
+
+    private static final StackWalker STACK_WALKER = StackWalker.getInstance();
+
+    private record Tracked(SqlShape shape, Timer timer) {
+    }
+
+    private final SqlLoggingProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final long slowThresholdNanos;
+
+    // raw SQL text -> shape and its timer; bounded by properties.maxShapes
+    private final Map<String, Tracked> tracked = new ConcurrentHashMap<>();
+
+    // past the bound: no shape is computed and no meter registered, one shared timer instead
+    private final Tracked other;
+
+    public SlowQueryListener(SqlLoggingProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.slowThresholdNanos = properties.getSlowThreshold().toNanos();
+        this.other = new Tracked(null, timer(OTHER_SHAPE, OTHER_SHAPE, OTHER_SHAPE));
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        // ExecutionInfo's own elapsed time is in whole milliseconds: most statements would record 0
+        execInfo.addCustomValue(START_NANOS, System.nanoTime());
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        Long startNanos = execInfo.getCustomValue(START_NANOS, Long.class);
+        long elapsed = startNanos != null
+                ? System.nanoTime() - startNanos
+                : TimeUnit.MILLISECONDS.toNanos(execInfo.getElapsedTime());
+        // a statement batch shares one round trip; split its time between the statements
+        long perQuery = queryInfoList.size() > 1 ? elapsed / queryInfoList.size() : elapsed;
+
+        for (QueryInfo queryInfo : queryInfoList) {
+            track(queryInfo.getQuery()).timer().record(perQuery, TimeUnit.NANOSECONDS);
+        }
+
+        boolean slow = elapsed >= slowThresholdNanos;
+        boolean sampled = !slow && properties.getSampleRate() > 0
+                && ThreadLocalRandom.current().nextDouble() < properties.getSampleRate();
+        if (!slow && !sampled) {
+            return;
+        }
+
+        String caller = caller();
+        String millis = String.format("%.3f", elapsed / 1e6);
+        for (QueryInfo queryInfo : queryInfoList) {
+            SqlShape shape = track(queryInfo.getQuery()).shape();
+            if (shape == null) {
+                shape = SqlShape.of(queryInfo.getQuery());
+            }
+            String params = describeParameters(queryInfo.getParametersList());
+            if (slow) {
+                log.warn("[SLOW SQL] {} ms caller={} shape={} sql={} params={} success={}",
+                        millis, caller, shape.key(), shape.sql(), params, execInfo.isSuccess());
+            } else {
+                log.info("[SAMPLED SQL] {} ms caller={} shape={} sql={} params={}",
+                        millis, caller, shape.key(), shape.sql(), params);
+            }
+        }
+    }
+
+    /**
+     * Shapes seen so far, one entry per shape key (several raw SQL strings may share one).
+     */
+    public Collection<SqlShape> shapes() {
+        Map<String, SqlShape> byKey = new HashMap<>();
+        tracked.values().forEach(t -> byKey.putIfAbsent(t.shape().key(), t.shape()));
+        return byKey.values();
+    }
+
+    private Tracked track(String sql) {
+        Tracked existing = tracked.get(sql);
+        if (existing != null) {
+            return existing;
+        }
+        if (tracked.size() >= properties.getMaxShapes()) {
+            return other;
+        }
+        return tracked.computeIfAbsent(sql, this::newTracked);
+    }
+
+    private Tracked newTracked(String sql) {
+        SqlShape shape = SqlShape.of(sql);
+        return new Tracked(shape, timer(shape.key(), shape.operation(), shape.table()));
+    }
+
+    private Timer timer(String shape, String operation, String table) {
+        return Timer.builder(METRIC)
+                .description("Latency of SQL statements per query shape")
+                .tag("shape", shape)
+                .tag("operation", operation)
+                .tag("table", table)
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofNanos(50_000))
+                .maximumExpectedValue(Duration.ofSeconds(10))
+                .register(meterRegistry);
+    }
+
+    // first application frame below the configured package, skipping Spring proxies
+    private String caller() {
+        String callerPackage = properties.getCallerPackage();
+        return STACK_WALKER.walk(frames -> frames
+                .filter(frame -> frame.getClassName().startsWith(callerPackage)
+                        && !frame.getClassName().contains("$$"))
+                .findFirst()
+                .map(frame -> {
+                    String className = frame.getClassName();
+                    return className.substring(className.lastIndexOf('.') + 1) + "." + frame.getMethodName();
+                })
+                .orElse("unknown"));
+    }
+
+    private String describeParameters(List<List<ParameterSetOperation>> parametersList) {
+        if (parametersList.isEmpty()) {
+            return "[]";
+        }
+        List<String> values = new ArrayList<>();
+        for (ParameterSetOperation operation : parametersList.get(0)) {
+            Object[] args = operation.getArgs();
+            Object value = args.length > 1 ? args[1] : null;
+            if (value == null || "setNull".equals(operation.getMethod().getName())) {
+                values.add("null");
+            } else if (properties.isRedactParameters()) {
+                values.add("<" + value.getClass().getSimpleName() + ">");
+            } else {
+                values.add(String.valueOf(value));
+            }
+        }
+        String first = values.toString();
+        int more = parametersList.size() - 1;
+        return more > 0 ? first + " (+" + more + " more in batch)" : first;
+    }
+}
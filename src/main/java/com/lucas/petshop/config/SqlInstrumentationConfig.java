@@ -0,0 +1,52 @@
+package com.lucas.petshop.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+/**
+ * Statement-level instrumentation of the datasource, replacing Hibernate's show-sql output.
+ *
+ * <p>The application DataSource is wrapped in a datasource-proxy carrying every
+ * {@link QueryExecutionListener} bean: {@link SlowQueryListener} (nothing is printed per
+ * statement, only slow or sampled ones) and the DB phase of the request timing.</p>
+ */
+@Configuration
+@EnableConfigurationProperties(SqlLoggingProperties.class)
+public class SqlInstrumentationConfig {
+
+    @Bean
+    @ConditionalOnProperty(prefix = "petshop.sql-log", name = "enabled", matchIfMissing = true)
+    public SlowQueryListener slowQueryListener(SqlLoggingProperties properties, MeterRegistry meterRegistry) {
+        return new SlowQueryListener(properties, meterRegistry);
+    }
+
+    // static: post-processors are created before regular beans; the listeners are resolved lazily
+    @Bean
+    public static BeanPostProcessor sqlLoggingDataSourceWrapper(ObjectProvider<QueryExecutionListener> listeners) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource) {
+                    List<QueryExecutionListener> resolved = listeners.orderedStream().toList();
+                    if (resolved.isEmpty()) {
+                        return bean;
+                    }
+                    ProxyDataSourceBuilder builder = ProxyDataSourceBuilder.create(dataSource).name(beanName);
+                    resolved.forEach(builder::listener);
+                    return builder.build();
+                }
+                return bean;
+            }
+        };
+    }
+}
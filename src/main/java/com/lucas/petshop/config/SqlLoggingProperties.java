@@ -0,0 +1,36 @@
+package com.lucas.petshop.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Settings of the statement-level SQL instrumentation ({@code petshop.sql-log.*}).
+ *
+ * <p>Every statement is timed into a per-shape histogram; only statements slower than
+ * {@link #slowThreshold}, plus a random {@link #sampleRate} fraction of the rest, are logged.</p>
+ */
+@Data
+@ConfigurationProperties(prefix = "petshop.sql-log")
+public class SqlLoggingProperties {
+
+    // Turns the datasource proxy off entirely (no logging, no histograms)
+    private boolean enabled = true;
+
+    // Statements at or above this latency are logged at WARN
+    private Duration slowThreshold = Duration.ofMillis(200);
+
+    // Fraction (0.0 - 1.0) of the remaining statements logged at INFO
+    private double sampleRate = 0.0;
+
+    // Log bind parameters as their types only; values may contain personal data
+    private boolean redactParameters = true;
+
+    // First stack frame in this package is reported as the caller of the statement
+    private String callerPackage = "com.lucas.petshop.service";
+
+    // Upper bound of distinct SQL strings remembered; protects against unbounded IN lists.
+    // Statements beyond it are timed together under shape=other
+    private int maxShapes = 1000;
+}
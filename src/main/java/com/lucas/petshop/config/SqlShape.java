@@ -0,0 +1,39 @@
+package com.lucas.petshop.config;
+
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * The shape of a SQL statement: its text with literals and IN-list lengths removed, so that
+ * every execution of the same query groups under one key whatever its parameters.
+ *
+ * @param key       short, stable identifier used as metric tag ("select tb_products 1f2e3d4c")
+ * @param operation first keyword of the statement (select, insert, update, delete, ...)
+ * @param table     first table referenced, or "-" when none is found
+ * @param sql       normalized statement text
+ */
+public record SqlShape(String key, String operation, String table, String sql) {
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("(?<![\\w.])-?\\d+(?:\\.\\d+)?\\b");
+    private static final Pattern IN_LIST = Pattern.compile("(?i)\\bin\\s*\\(\\s*\\?(?:\\s*,\\s*\\?)*\\s*\\)");
+    private static final Pattern TABLE = Pattern.compile("(?i)\\b(?:from|into|update|join)\\s+([\\w.\"]+)");
+
+    public static SqlShape of(String rawSql) {
+        String sql = WHITESPACE.matcher(rawSql.strip()).replaceAll(" ");
+        sql = STRING_LITERAL.matcher(sql).replaceAll("?");
+        sql = NUMBER_LITERAL.matcher(sql).replaceAll("?");
+        sql = IN_LIST.matcher(sql).replaceAll("in (?)");
+
+        int space = sql.indexOf(' ');
+        String operation = (space < 0 ? sql : sql.substring(0, space)).toLowerCase(Locale.ROOT);
+
+        Matcher table = TABLE.matcher(sql);
+        String tableName = table.find() ? table.group(1).replace("\"", "").toLowerCase(Locale.ROOT) : "-";
+
+        String key = operation + " " + tableName + " " + String.format("%08x", sql.hashCode());
+        return new SqlShape(key, operation, tableName, sql);
+    }
+}
@@ -0,0 +1,21 @@
+package com.lucas.petshop.controller;
+
+import com.lucas.petshop.dto.ClientSummaryResponseDTO;
+import com.lucas.petshop.service.ClientSummaryService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/clients")
+public class ClientController {
+
+    @Autowired
+    private ClientSummaryService clientSummaryService;
+
+    // order count, lifetime spend and last order date of the client (loyalty program)
+    @GetMapping("/{client}/summary")
+    public ResponseEntity<ClientSummaryResponseDTO> getSummary(@PathVariable String client){
+        return ResponseEntity.ok(clientSummaryService.getSummary(client));
+    }
+}
@@ -0,0 +1,36 @@
+package com.lucas.petshop.controller;
+
+/**
+ * Entity versions as strong ETags ({@code "3"}) and back from {@code If-Match}.
+ */
+final class ETags {
+
+    // never a version: a malformed or weak If-Match matches nothing and fails with 412
+    private static final long NO_MATCH = -1L;
+
+    private ETags() {
+    }
+
+    static String of(Long version) {
+        return "\"" + version + "\"";
+    }
+
+    /**
+     * The version an {@code If-Match} asks for; null for {@code *} (any current version).
+     * Weak tags never match: If-Match uses the strong comparison.
+     */
+    static Long expectedVersion(String ifMatch) {
+        String tag = ifMatch.trim();
+        if (tag.equals("*")) {
+            return null;
+        }
+        if (tag.length() < 3 || tag.charAt(0) != '"' || tag.charAt(tag.length() - 1) != '"') {
+            return NO_MATCH;
+        }
+        try {
+            return Long.parseLong(tag.substring(1, tag.length() - 1));
+        } catch (NumberFormatException e) {
+            return NO_MATCH;
+        }
+    }
+}
@@ -1,15 +1,34 @@
 package com.lucas.petshop.controller;
 
+import com.lucas.petshop.dto.KeysetPageResponseDTO;
+import com.lucas.petshop.dto.OrderIntakeResponseDTO;
+import com.lucas.petshop.dto.OrderItemResponseDTO;
 import com.lucas.petshop.dto.OrderRequestDTO;
 import com.lucas.petshop.dto.OrderResponseDTO;
+import com.lucas.petshop.dto.OrderStatsResponseDTO;
+import com.lucas.petshop.dto.SliceResponseDTO;
+import com.lucas.petshop.intake.OrderIntake;
+import com.lucas.petshop.service.ClientMatchEnum;
 import com.lucas.petshop.service.OrderService;
+import com.lucas.petshop.service.OrderStatsService;
+import com.lucas.petshop.service.OrderStatusEnum;
+import com.lucas.petshop.util.CreationRange;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+import tools.jackson.databind.json.JsonMapper;
 
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
@@ -19,36 +38,133 @@ public class OrderController {
     @Autowired
     private OrderService orderService;
 
+    @Autowired
+    private OrderStatsService orderStatsService;
+
+    @Autowired
+    private JsonMapper jsonMapper;
+
+    // only with petshop.intake.enabled
+    @Autowired(required = false)
+    private OrderIntake orderIntake;
+
     @GetMapping()
     public ResponseEntity<List<OrderResponseDTO>> getAllOrders(){
 
         return ResponseEntity.ok(orderService.getAllOrders());
     }
 
+    // GET /orders?client=ana&match=PREFIX&page=0&size=20
+    // Support lookup by customer name, newest orders first. match: EXACT (default), PREFIX or FUZZY.
+    @GetMapping(params = "client")
+    public ResponseEntity<SliceResponseDTO<OrderResponseDTO>> findByClient(
+            @RequestParam String client,
+            @RequestParam(defaultValue = "EXACT") ClientMatchEnum match,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size){
+        return ResponseEntity.ok(orderService.findOrdersByClient(client, match, page, size));
+    }
+
+    // GET /orders?from=2025-01-01T00:00&to=2025-02-01T00:00&status=PAID&cursor=...&size=20
+    // Orders created in [from, to), oldest first. Keyset paginated: pass the returned nextCursor to get the next page.
+    @GetMapping(params = {"from", "to"})
+    public ResponseEntity<KeysetPageResponseDTO<OrderResponseDTO>> findByCreation(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) OrderStatusEnum status,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size){
+        return ResponseEntity.ok(orderService.findOrdersByCreation(from, to, status, cursor, size));
+    }
 
+    // GET /orders/export?from=...&to=...&status=PAID
+    // The whole range as newline-delimited JSON, oldest first, streamed while later sub-ranges are still being read.
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportByCreation(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) OrderStatusEnum status){
+        // checked before the 200 goes out: once the stream has started an error can only cut it short
+        CreationRange.check(from, to);
+        StreamingResponseBody body = out -> orderService.exportOrdersByCreation(from, to, status, chunk -> {
+            try {
+                for (OrderResponseDTO order : chunk) {
+                    out.write(jsonMapper.writeValueAsBytes(order));
+                    out.write('\n');
+                }
+                out.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
+    // counts per status for dashboards: served from in-memory counters, no table read
+    @GetMapping("/stats")
+    public ResponseEntity<OrderStatsResponseDTO> getStats(){
+        return ResponseEntity.ok(orderStatsService.getStats());
+    }
+
+    // the ETag is the order's version: send it back as If-Match to update or delete
     @GetMapping("/{id}")
     public ResponseEntity<OrderResponseDTO> getById(@PathVariable Long id){
-        return ResponseEntity.ok(orderService.getOrderById(id));
+        OrderResponseDTO order = orderService.getOrderById(id);
+        return ResponseEntity.ok().eTag(ETags.of(order.getVersion())).body(order);
+    }
+
+    @GetMapping("/{id}/items")
+    public ResponseEntity<List<OrderItemResponseDTO>> getItems(@PathVariable Long id){
+        return ResponseEntity.ok(orderService.getOrderItems(id));
     }
 
 
+    // with the asynchronous intake: 202 and a handle to poll, or 429 while its queue is full
     @PostMapping
-    public ResponseEntity<Void> createOrder(@Valid @RequestBody OrderRequestDTO dto){
-        Long id = orderService.createOrder(dto);
-        return ResponseEntity.status(HttpStatus.CREATED).build();
+    public ResponseEntity<?> createOrder(@Valid @RequestBody OrderRequestDTO dto){
+        if (orderIntake == null) {
+            Long id = orderService.createOrder(dto);
+            return ResponseEntity.status(HttpStatus.CREATED).build();
+        }
+        return orderIntake.submit(dto)
+                .<ResponseEntity<?>>map(accepted -> ResponseEntity.accepted()
+                        .location(ServletUriComponentsBuilder.fromCurrentContextPath()
+                                .path("/orders/intake/{handle}").buildAndExpand(accepted.handle()).toUri())
+                        .body(accepted))
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                        .header(HttpHeaders.RETRY_AFTER, "1")
+                        .build());
+    }
+
+    @GetMapping("/intake/{handle}")
+    public ResponseEntity<OrderIntakeResponseDTO> getIntakeStatus(@PathVariable String handle){
+        if (orderIntake == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.of(orderIntake.status(handle));
     }
 
 
+    // conditional: 428 without If-Match, 412 when the order changed since that ETag was read
     @PutMapping("/{id}")
-    public ResponseEntity updateOrder(@PathVariable Long id, @Valid @RequestBody OrderRequestDTO dto){
-        orderService.updateOrder(id, dto);
-        return ResponseEntity.noContent().build();
+    public ResponseEntity updateOrder(@PathVariable Long id,
+                                      @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                      @Valid @RequestBody OrderRequestDTO dto){
+        if (ifMatch == null) {
+            return ResponseEntity.status(HttpStatus.PRECONDITION_REQUIRED).build();
+        }
+        long version = orderService.updateOrder(id, dto, ETags.expectedVersion(ifMatch));
+        return ResponseEntity.noContent().eTag(ETags.of(version)).build();
     }
 
 
     @DeleteMapping("/{id}")
-    public ResponseEntity<Void> deleteOrder(@PathVariable Long id){
-        orderService.deleteOrder(id);
+    public ResponseEntity<Void> deleteOrder(@PathVariable Long id,
+                                            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch){
+        if (ifMatch == null) {
+            return ResponseEntity.status(HttpStatus.PRECONDITION_REQUIRED).build();
+        }
+        orderService.deleteOrder(id, ETags.expectedVersion(ifMatch));
         return ResponseEntity.noContent().build();
     }
 }
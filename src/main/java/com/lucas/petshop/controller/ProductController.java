@@ -1,16 +1,31 @@
 package com.lucas.petshop.controller;
 
+import com.lucas.petshop.dto.BoughtTogetherResponseDTO;
+import com.lucas.petshop.dto.KeysetPageResponseDTO;
+import com.lucas.petshop.dto.ProductBulkUpdateDTO;
+import com.lucas.petshop.dto.ProductBulkUpdateResultDTO;
+import com.lucas.petshop.dto.ProductFacetsResponseDTO;
+import com.lucas.petshop.dto.ProductMultiGetResponseDTO;
 import com.lucas.petshop.dto.ProductRequestDTO;
 import com.lucas.petshop.dto.ProductResponseDTO;
 import com.lucas.petshop.dto.ProductUpdateDTO;
+import com.lucas.petshop.dto.RatingResponseDTO;
+import com.lucas.petshop.service.BoughtTogetherService;
+import com.lucas.petshop.service.ProductAnimalTypeEnum;
+import com.lucas.petshop.service.ProductFacetService;
 import com.lucas.petshop.service.ProductService;
+import com.lucas.petshop.service.ProductTypeEnum;
+import com.lucas.petshop.service.RatingService;
+import com.lucas.petshop.service.RatingStarsEnum;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.Map;
 
 // REST controller exposing product-related HTTP endpoints under the '/products' path
 // Spring will detect this class via component scanning because of @RestController
@@ -23,6 +38,17 @@ public class ProductController {
     @Autowired
     private ProductService productService;
 
+    // Ratings are exposed under their product for the review widgets
+    @Autowired
+    private RatingService ratingService;
+
+    @Autowired
+    private BoughtTogetherService boughtTogetherService;
+
+    // Sidebar filter counts come from the in-memory facet index
+    @Autowired
+    private ProductFacetService productFacetService;
+
     // GET /products
     // Returns a list of ProductResponseDTO wrapped in a ResponseEntity with HTTP 200 OK.
     @GetMapping()
@@ -31,12 +57,59 @@ public class ProductController {
         return ResponseEntity.ok(productService.getAllProducts());
     }
 
+    // GET /products?ids=1,2,3
+    // Several products in one call (cart, order review). Keyed by id; unknown or deleted ids are listed in "missing".
+    @GetMapping(params = "ids")
+    public ResponseEntity<ProductMultiGetResponseDTO> getByIds(@RequestParam List<Long> ids){
+        return ResponseEntity.ok(productService.getProductsByIds(ids));
+    }
+
+    // POST /products/lookup
+    // Same as GET /products?ids=... for id lists too long for a URL. Body: [1, 2, 3]
+    @PostMapping("/lookup")
+    public ResponseEntity<ProductMultiGetResponseDTO> lookup(@RequestBody List<Long> ids){
+        return ResponseEntity.ok(productService.getProductsByIds(ids));
+    }
+
+    // GET /products/facets?type=FOOD&animalType=DOG&brand=Acme&price=10-25&size=20
+    // Products matching every given filter (repeat a filter to accept several values) and the match counts per filter value.
+    @GetMapping("/facets")
+    public ResponseEntity<ProductFacetsResponseDTO> getFacets(
+            @RequestParam(required = false) List<ProductTypeEnum> type,
+            @RequestParam(required = false) List<ProductAnimalTypeEnum> animalType,
+            @RequestParam(required = false) List<String> brand,
+            @RequestParam(required = false) List<String> price,
+            @RequestParam(defaultValue = "20") int size){
+        return ResponseEntity.ok(productFacetService.getFacets(type, animalType, brand, price, size));
+    }
+
     // GET /products/{id}
     // Returns a single product by id. @PathVariable binds the path segment to the method param.
     @GetMapping("/{id}")
     public ResponseEntity<ProductResponseDTO> getById(@PathVariable Long id){
-        // Service returns a DTO for the product; ResponseEntity.ok(...) produces 200 OK
-        return ResponseEntity.ok(productService.getProductById(id));
+        // Service returns a DTO for the product; its version goes out as the ETag for a later PATCH
+        ProductResponseDTO product = productService.getProductById(id);
+        return ResponseEntity.ok().eTag(ETags.of(product.getVersion())).body(product);
+    }
+
+    // GET /products/{id}/ratings?stars=FIVE&cursor=...&size=20
+    // Reviews of one product, newest first. Keyset paginated: pass the returned nextCursor to get the next page.
+    @GetMapping("/{id}/ratings")
+    public ResponseEntity<KeysetPageResponseDTO<RatingResponseDTO>> getRatings(
+            @PathVariable Long id,
+            @RequestParam(required = false) RatingStarsEnum stars,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size){
+        return ResponseEntity.ok(ratingService.getRatingsByProduct(id, stars, cursor, size));
+    }
+
+    // GET /products/{id}/bought-together?limit=10
+    // Products most often in the same order as this one, from in-memory co-occurrence counts.
+    @GetMapping("/{id}/bought-together")
+    public ResponseEntity<List<BoughtTogetherResponseDTO>> getBoughtTogether(
+            @PathVariable Long id,
+            @RequestParam(defaultValue = "10") int limit){
+        return ResponseEntity.ok(boughtTogetherService.getBoughtTogether(id, limit));
     }
 
     // POST /products
@@ -63,10 +136,25 @@ public class ProductController {
     // PATCH /products/{id}
     // Partial update: update only provided fields. Using ProductUpdateDTO to represent optional fields.
     @PatchMapping("/{id}")
-    public ResponseEntity<Void> partialUpdate(@PathVariable Long id, @Valid @RequestBody ProductUpdateDTO dto){
-        // Service applies the patch and returns the updated DTO (if you need it). Here we ignore and return 204.
-        ProductResponseDTO update = productService.partialUpdateProduct(id, dto);
-        return ResponseEntity.noContent().build();
+    public ResponseEntity<Void> partialUpdate(@PathVariable Long id,
+                                              @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                              @Valid @RequestBody ProductUpdateDTO dto){
+        // Conditional on the ETag read with GET: 428 without If-Match, 412 if the product changed since.
+        if (ifMatch == null) {
+            return ResponseEntity.status(HttpStatus.PRECONDITION_REQUIRED).build();
+        }
+        // Service applies the patch and returns the updated DTO; only its new version is sent back, with 204.
+        ProductResponseDTO update = productService.partialUpdateProduct(id, dto, ETags.expectedVersion(ifMatch));
+        return ResponseEntity.noContent().eTag(ETags.of(update.getVersion())).build();
+    }
+
+    // PATCH /products/bulk
+    // Add price and/or stock deltas to many products in one call: {"12": {"price": -1.50}, "15": {"stock": 20}}.
+    // Applied with batched SQL in chunked transactions; returns counts plus the ids that were skipped.
+    @PatchMapping("/bulk")
+    public ResponseEntity<ProductBulkUpdateResultDTO> bulkUpdate(
+            @RequestBody Map<Long, @Valid ProductBulkUpdateDTO> changes){
+        return ResponseEntity.ok(productService.bulkUpdateProducts(changes));
     }
 
     // DELETE /products/{id}
@@ -0,0 +1,55 @@
+package com.lucas.petshop.controller;
+
+import com.lucas.petshop.exception.BadRequestException;
+import com.lucas.petshop.exception.ConflictException;
+import com.lucas.petshop.exception.OrderNotFoundException;
+import com.lucas.petshop.exception.OrderStatusInvalid;
+import com.lucas.petshop.exception.ProductNotFoundException;
+import com.lucas.petshop.exception.RatingNotFoundException;
+import com.lucas.petshop.exception.VersionMismatchException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ProblemDetail;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+/**
+ * Maps the service layer's domain exceptions to problem-details responses.
+ *
+ * <p>The domain exceptions are stackless, so a miss costs one small allocation here
+ * rather than a stack walk; the body carries the status and the exception's message
+ * as {@code detail}.</p>
+ */
+@RestControllerAdvice
+public class RestExceptionHandler {
+
+    // unknown id, or an entity that has been (soft) deleted: gone either way for the client
+    @ExceptionHandler({ProductNotFoundException.class, OrderNotFoundException.class, RatingNotFoundException.class})
+    public ProblemDetail notFound(RuntimeException e) {
+        return ProblemDetail.forStatusAndDetail(HttpStatus.NOT_FOUND, e.getMessage());
+    }
+
+    // values the client has to change: a range, a filter value, a cursor, a status
+    @ExceptionHandler({BadRequestException.class, OrderStatusInvalid.class})
+    public ProblemDetail badRequest(RuntimeException e) {
+        return ProblemDetail.forStatusAndDetail(HttpStatus.BAD_REQUEST, e.getMessage());
+    }
+
+    // a rebuild, backfill or purge asked for while another one is running
+    @ExceptionHandler(ConflictException.class)
+    public ProblemDetail conflict(ConflictException e) {
+        return ProblemDetail.forStatusAndDetail(HttpStatus.CONFLICT, e.getMessage());
+    }
+
+    // stale If-Match: the client reads the entity again and retries on the new version
+    @ExceptionHandler(VersionMismatchException.class)
+    public ProblemDetail versionMismatch(VersionMismatchException e) {
+        return ProblemDetail.forStatusAndDetail(HttpStatus.PRECONDITION_FAILED, e.getMessage());
+    }
+
+    // an unconditional write (no If-Match) that lost a race at commit
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ProblemDetail concurrentUpdate(OptimisticLockingFailureException e) {
+        return ProblemDetail.forStatusAndDetail(HttpStatus.CONFLICT, "CONCURRENT UPDATE");
+    }
+}
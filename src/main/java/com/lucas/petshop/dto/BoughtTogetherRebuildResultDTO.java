@@ -0,0 +1,12 @@
+package com.lucas.petshop.dto;
+
+/**
+ * Outcome of a rebuild of the bought-together matrix from the order history.
+ *
+ * @param orders   live orders read
+ * @param pairs    distinct product pairs found
+ * @param chunks   order id ranges the work was split into
+ * @param millis   wall-clock duration
+ */
+public record BoughtTogetherRebuildResultDTO(long orders, long pairs, int chunks, long millis) {
+}
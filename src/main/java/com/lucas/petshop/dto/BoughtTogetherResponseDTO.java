@@ -0,0 +1,11 @@
+package com.lucas.petshop.dto;
+
+/**
+ * A product often ordered together with the requested one.
+ *
+ * @param productId id of the other product
+ * @param name      its name
+ * @param orders    live orders containing both products
+ */
+public record BoughtTogetherResponseDTO(Long productId, String name, int orders) {
+}
@@ -0,0 +1,12 @@
+package com.lucas.petshop.dto;
+
+/**
+ * Outcome of a client summary backfill.
+ *
+ * @param clients  distinct clients found in tb_orders
+ * @param rows     summary rows written
+ * @param chunks   transactions the work was split into
+ * @param millis   wall-clock duration
+ */
+public record ClientSummaryBackfillResultDTO(int clients, int rows, int chunks, long millis) {
+}
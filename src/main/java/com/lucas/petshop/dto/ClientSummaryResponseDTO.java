@@ -0,0 +1,18 @@
+package com.lucas.petshop.dto;
+
+import com.lucas.petshop.model.Money;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+public class ClientSummaryResponseDTO {
+
+    private String client;
+
+    private Long orderCount;
+
+    private Money lifetimeSpend;
+
+    private LocalDateTime lastOrderAt;
+}
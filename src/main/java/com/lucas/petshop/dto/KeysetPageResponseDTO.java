@@ -0,0 +1,21 @@
+package com.lucas.petshop.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * One page of a keyset-paginated listing. Pass {@code nextCursor} back as the
+ * {@code cursor} parameter to get the following page; it is null on the last page.
+ */
+@Data
+@AllArgsConstructor
+public class KeysetPageResponseDTO<T> {
+
+    private List<T> content;
+
+    private int size;
+
+    private String nextCursor;
+}
@@ -0,0 +1,34 @@
+package com.lucas.petshop.dto;
+
+import com.lucas.petshop.model.Money;
+import org.springframework.boot.jackson.JacksonComponent;
+import tools.jackson.core.JsonGenerator;
+import tools.jackson.core.JsonParser;
+import tools.jackson.databind.DeserializationContext;
+import tools.jackson.databind.SerializationContext;
+import tools.jackson.databind.ValueDeserializer;
+import tools.jackson.databind.ValueSerializer;
+
+/**
+ * Jackson (de)serializers for {@link Money}.
+ *
+ * <p>Amounts are written as plain JSON numbers with two decimal places (e.g. {@code 29.99}),
+ * so API payloads keep the same shape they had when prices were {@code BigDecimal}/{@code Double}.</p>
+ */
+@JacksonComponent
+public class MoneyJacksonComponent {
+
+    public static class Serializer extends ValueSerializer<Money> {
+        @Override
+        public void serialize(Money value, JsonGenerator gen, SerializationContext ctxt) {
+            gen.writeNumber(value.toBigDecimal());
+        }
+    }
+
+    public static class Deserializer extends ValueDeserializer<Money> {
+        @Override
+        public Money deserialize(JsonParser p, DeserializationContext ctxt) {
+            return Money.of(p.getDecimalValue());
+        }
+    }
+}
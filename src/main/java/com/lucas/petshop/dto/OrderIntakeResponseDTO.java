@@ -0,0 +1,25 @@
+package com.lucas.petshop.dto;
+
+import com.lucas.petshop.intake.OrderIntakeStateEnum;
+
+import java.time.LocalDateTime;
+
+/**
+ * State of an order accepted by the asynchronous intake.
+ *
+ * @param handle      id to poll at /orders/intake/{handle}
+ * @param state       QUEUED, WRITING, CREATED or FAILED
+ * @param orderId     id of the created order (CREATED only)
+ * @param error       why the order was not created (FAILED only)
+ * @param acceptedAt  when the request was queued
+ * @param completedAt when the order was created or failed
+ */
+public record OrderIntakeResponseDTO(
+        String handle,
+        OrderIntakeStateEnum state,
+        Long orderId,
+        String error,
+        LocalDateTime acceptedAt,
+        LocalDateTime completedAt
+) {
+}
@@ -0,0 +1,15 @@
+package com.lucas.petshop.dto;
+
+import com.lucas.petshop.model.Money;
+import lombok.Data;
+
+@Data
+public class OrderItemResponseDTO {
+    private Long productId;
+
+    private String productName;
+
+    private Integer quantity;
+
+    private Money unitPrice;
+}
@@ -1,5 +1,6 @@
 package com.lucas.petshop.dto;
 
+import com.lucas.petshop.model.Money;
 import com.lucas.petshop.service.OrderStatusEnum;
 import lombok.Data;
 
@@ -13,9 +14,12 @@ public class OrderResponseDTO {
 
     private String client;
 
-    private Double totalAmount;
+    private Money totalAmount;
 
     private OrderStatusEnum status;
 
     private LocalDateTime orderCreation;
+
+    // optimistic-lock version, also sent as the ETag of GET /orders/{id}
+    private Long version;
 }
@@ -0,0 +1,26 @@
+package com.lucas.petshop.dto;
+
+import com.lucas.petshop.service.OrderStatusEnum;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * Order counts per status, from the in-memory counters.
+ *
+ * @param live         live orders per status
+ * @param deleted      soft-deleted (or canceled) orders per status
+ * @param totalLive    sum of {@code live}
+ * @param totalDeleted sum of {@code deleted}
+ * @param reconciledAt last time the counters were checked against tb_orders
+ * @param lastDrift    orders the counters were off by at that check (changes made by other nodes show up here)
+ */
+public record OrderStatsResponseDTO(
+        Map<OrderStatusEnum, Long> live,
+        Map<OrderStatusEnum, Long> deleted,
+        long totalLive,
+        long totalDeleted,
+        LocalDateTime reconciledAt,
+        long lastDrift
+) {
+}
@@ -0,0 +1,28 @@
+package com.lucas.petshop.dto;
+
+import jakarta.validation.constraints.Digits;
+
+import java.math.BigDecimal;
+
+/**
+ * Price and/or stock change of one product in a bulk update ({@code PATCH /products/bulk}).
+ *
+ * <p>Values are deltas added to the current ones, unlike the absolute values of
+ * {@link ProductUpdateDTO}: {@code {"price": -1.50, "stock": 20}} takes 1.50 off the price
+ * and receives 20 units. A null or zero field leaves the column unchanged.</p>
+ */
+public record ProductBulkUpdateDTO(
+
+        // Optional price change, up or down, with at most 2 decimal places.
+        @Digits(integer = 8, fraction = 2, message = "PRODUCT PRICE SHOULD HAVE AT MOST 8 DIGITS AND 2 DECIMAL PLACES")
+        BigDecimal price,
+
+        // Optional stock change, up or down.
+        Integer stock
+
+) {
+
+    public boolean isEmpty() {
+        return (price == null || price.signum() == 0) && (stock == null || stock == 0);
+    }
+}
@@ -0,0 +1,24 @@
+package com.lucas.petshop.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Outcome of a bulk update: how many products changed and which ids did not.
+ *
+ * <p>Only the exceptions are listed, so the response stays small for large batches. An id is
+ * skipped when the product does not exist, is soft-deleted, the entry carried no change, or
+ * applying it would leave a negative stock or a price of 0 or below.</p>
+ */
+@Data
+@AllArgsConstructor
+public class ProductBulkUpdateResultDTO {
+
+    private int requested;
+
+    private int updated;
+
+    private List<Long> skipped;
+}
@@ -0,0 +1,30 @@
+package com.lucas.petshop.dto;
+
+import com.lucas.petshop.service.ProductAnimalTypeEnum;
+import com.lucas.petshop.service.ProductTypeEnum;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Products matching a facet selection and the count next to every filter value
+ * ({@code GET /products/facets}). A value's count is the number of matches if the selection
+ * of its own facet were that value alone, so counts of unselected values show what a click
+ * would add.
+ *
+ * @param matched     active products matching the whole selection
+ * @param productIds  the first matches, oldest first (at most {@code size})
+ * @param types       count per product type
+ * @param animalTypes count per animal type
+ * @param brands      count per brand, most matches first, without brands at 0 unless selected
+ * @param prices      count per price bucket ("0-10", "10-25", ..., "250+"), cheapest first
+ */
+public record ProductFacetsResponseDTO(
+        int matched,
+        List<Long> productIds,
+        Map<ProductTypeEnum, Integer> types,
+        Map<ProductAnimalTypeEnum, Integer> animalTypes,
+        Map<String, Integer> brands,
+        Map<String, Integer> prices
+) {
+}
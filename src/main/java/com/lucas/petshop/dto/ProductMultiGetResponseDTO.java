@@ -0,0 +1,20 @@
+package com.lucas.petshop.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Products requested by id, keyed by id, plus the ids that could not be returned
+ * (unknown or soft-deleted), so clients never have to diff the request against the response.
+ */
+@Data
+@AllArgsConstructor
+public class ProductMultiGetResponseDTO {
+
+    private Map<Long, ProductResponseDTO> products;
+
+    private List<Long> missing;
+}
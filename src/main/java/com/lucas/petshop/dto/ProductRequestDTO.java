@@ -1,5 +1,6 @@
 package com.lucas.petshop.dto;
 
+import jakarta.validation.constraints.Digits;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
@@ -36,6 +37,7 @@ public class ProductRequestDTO {
 
     @NotNull(message = "PRODUCT PRICE IS REQUIRED")
     @Positive(message = "PRODUCT PRICE SHOULD BE GREATER THAN 0 (ZERO)")
+    @Digits(integer = 8, fraction = 2, message = "PRODUCT PRICE SHOULD HAVE AT MOST 8 DIGITS AND 2 DECIMAL PLACES")
     BigDecimal price;
 
     @NotNull(message = "PRODUCT SIZE AND/OR WEIGHT IS REQUIRED")
@@ -1,11 +1,10 @@
 package com.lucas.petshop.dto;
 
+import com.lucas.petshop.model.Money;
 import com.lucas.petshop.service.ProductAnimalTypeEnum;
 import com.lucas.petshop.service.ProductTypeEnum;
 import lombok.Data;
 
-import java.math.BigDecimal;
-
 @Data
 public class ProductResponseDTO {
     String name;
@@ -18,9 +17,12 @@ public class ProductResponseDTO {
 
     String description;
 
-    BigDecimal price;
+    Money price;
 
     Double sizeWeight;
+
+    // optimistic-lock version, also sent as the ETag of GET /products/{id}
+    Long version;
 }
 
 
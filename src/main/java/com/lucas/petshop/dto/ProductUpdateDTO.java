@@ -1,8 +1,10 @@
 package com.lucas.petshop.dto;
 
+import com.lucas.petshop.model.Money;
 import com.lucas.petshop.model.Product;
 import com.lucas.petshop.service.ProductAnimalTypeEnum;
 import com.lucas.petshop.service.ProductTypeEnum;
+import jakarta.validation.constraints.Digits;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.Positive;
 import jakarta.validation.constraints.Size;
@@ -47,8 +49,9 @@ public record ProductUpdateDTO(
         @Min(value = 0, message = "PRODUCT STOCK CANNOT BE NEGATIVE")
         Integer stock,
 
-        // Optional price. Must be positive when provided.
+        // Optional price. Must be positive, with at most 2 decimal places, when provided.
         @Positive(message = "PRODUCT PRICE SHOULD BE HIGHER THAN 0 (ZERO)")
+        @Digits(integer = 8, fraction = 2, message = "PRODUCT PRICE SHOULD HAVE AT MOST 8 DIGITS AND 2 DECIMAL PLACES")
         BigDecimal price,
 
         // Optional size/weight. Must be positive when provided.
@@ -71,7 +74,7 @@ public record ProductUpdateDTO(
         if (brand != null) product.setBrand(brand);
         if (description != null) product.setDescription(description);
         if (stock != null) product.setStock(stock);
-        if (price != null) product.setPrice(price);
+        if (price != null) product.setPrice(Money.of(price));
         if (sizeWeight != null) product.setSizeWeight(sizeWeight);
 
         // update timestamp to indicate the entity was modified
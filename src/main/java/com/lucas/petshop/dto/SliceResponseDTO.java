@@ -0,0 +1,30 @@
+package com.lucas.petshop.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import org.springframework.data.domain.Slice;
+
+import java.util.List;
+
+/**
+ * One page of results without a total count.
+ *
+ * <p>Counting every match is as expensive as the search itself on large tables, so
+ * paged endpoints only report whether a next page exists.</p>
+ */
+@Data
+@AllArgsConstructor
+public class SliceResponseDTO<T> {
+
+    private List<T> content;
+
+    private int page;
+
+    private int size;
+
+    private boolean hasNext;
+
+    public static <T> SliceResponseDTO<T> of(Slice<T> slice) {
+        return new SliceResponseDTO<>(slice.getContent(), slice.getNumber(), slice.getSize(), slice.hasNext());
+    }
+}
@@ -0,0 +1,16 @@
+package com.lucas.petshop.exception;
+
+/**
+ * Thrown when a request's own values are invalid in a way bean validation cannot see
+ * (an inverted range, an unknown filter value, a malformed cursor, too many ids).
+ *
+ * <p>{@code RestExceptionHandler} maps it to 400 Bad Request with the message as the
+ * detail. The client has to change the request, so it records no stack trace.</p>
+ */
+public class BadRequestException extends RuntimeException {
+
+    // Construct the exception with a descriptive message (e.g. "INVALID ORDER CREATION RANGE").
+    public BadRequestException(String message) {
+        super(message, null, false, false);
+    }
+}
@@ -0,0 +1,16 @@
+package com.lucas.petshop.exception;
+
+/**
+ * Thrown when a request is valid but conflicts with work already in progress, such as
+ * starting a rebuild or a purge while another one runs.
+ *
+ * <p>{@code RestExceptionHandler} maps it to 409 Conflict; the client retries once the
+ * running work is done. It records no stack trace.</p>
+ */
+public class ConflictException extends RuntimeException {
+
+    // Construct the exception with a descriptive message (e.g. "PURGE ALREADY RUNNING").
+    public ConflictException(String message) {
+        super(message, null, false, false);
+    }
+}
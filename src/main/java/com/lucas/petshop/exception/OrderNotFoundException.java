@@ -1,16 +1,19 @@
 package com.lucas.petshop.exception;
 
 /**
- * Thrown when an Order identified by a given id cannot be found.
+ * Thrown when an Order identified by a given id cannot be found, or has been deleted.
  *
  * <p>This is an unchecked (runtime) exception intended to be thrown by the service
- * layer when a requested Order is missing. A web layer can map this exception to
- * an HTTP 404 Not Found response via a @ControllerAdvice handler.</p>
+ * layer when a requested Order is missing. {@code RestExceptionHandler} maps it to
+ * an HTTP 404 Not Found response.</p>
+ *
+ * <p>Clients asking for ids that do not exist is routine, so the exception is created
+ * without a stack trace: it carries nothing a log reader would need.</p>
  */
 public class OrderNotFoundException extends RuntimeException {
 
-    // Create the exception with a human-readable message (e.g. "Order not found with id 123").
+    // Create the exception with a human-readable message (e.g. "ORDER NOT FOUND").
     public OrderNotFoundException(String message) {
-        super(message);
+        super(message, null, false, false);
     }
 }
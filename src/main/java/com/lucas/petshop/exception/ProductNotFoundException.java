@@ -1,15 +1,18 @@
 package com.lucas.petshop.exception;
 
 /**
- * Exception thrown when a Product with a given id cannot be found.
+ * Exception thrown when a Product with a given id cannot be found, or has been deleted.
  *
  * <p>This is an unchecked runtime exception intended to be used by the service
- * layer when a requested Product is missing. A controller advice can map this
- * exception to an HTTP 404 Not Found response for REST endpoints.</p>
+ * layer when a requested Product is missing. {@code RestExceptionHandler} maps it
+ * to an HTTP 404 Not Found response for REST endpoints.</p>
+ *
+ * <p>A miss is an expected outcome, not a bug: the exception records no stack trace,
+ * which is most of the cost of throwing it.</p>
  */
 public class ProductNotFoundException extends RuntimeException {
-    // Construct the exception with a descriptive message (e.g. "Product not found with id 123").
+    // Construct the exception with a descriptive message (e.g. "PRODUCT NOT FOUND").
     public ProductNotFoundException(String message) {
-        super(message);
+        super(message, null, false, false);
     }
 }
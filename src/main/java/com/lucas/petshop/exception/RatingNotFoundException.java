@@ -1,7 +1,13 @@
 package com.lucas.petshop.exception;
 
+/**
+ * Thrown when a Rating with a given id cannot be found, or has been deleted.
+ *
+ * <p>Mapped to 404 Not Found; like the other not-found exceptions it records no
+ * stack trace.</p>
+ */
 public class RatingNotFoundException extends RuntimeException {
     public RatingNotFoundException(String message) {
-        super(message);
+        super(message, null, false, false);
     }
 }
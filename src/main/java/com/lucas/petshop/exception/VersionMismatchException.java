@@ -0,0 +1,19 @@
+package com.lucas.petshop.exception;
+
+/**
+ * Thrown when a conditional write names a version of an Order or Product that is no
+ * longer the current one.
+ *
+ * <p>The client sent {@code If-Match} with the ETag it last read, and someone else has
+ * changed the entity since: the write is refused rather than overwriting that change.
+ * The web layer maps it to 412 Precondition Failed; the client reads the entity again
+ * and retries on top of the new version. Being an expected outcome of
+ * concurrent writers, it records no stack trace.</p>
+ */
+public class VersionMismatchException extends RuntimeException {
+
+    // Construct the exception with a descriptive message (e.g. "ORDER VERSION MISMATCH").
+    public VersionMismatchException(String message) {
+        super(message, null, false, false);
+    }
+}
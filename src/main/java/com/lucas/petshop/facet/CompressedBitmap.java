@@ -0,0 +1,217 @@
+package com.lucas.petshop.facet;
+
+import java.util.Arrays;
+
+/**
+ * Set of non-negative ints split into chunks of 65536 values (the Roaring bitmap layout): a
+ * chunk is a sorted array of its low 16 bits while it holds at most {@link #ARRAY_MAX} values
+ * and a 1024-word bitmap once it is denser. A rare brand costs 2 bytes per product, a common
+ * product type 1 bit per ordinal, and neither pays for the ordinals it does not contain.
+ *
+ * <p>Queries combine it with plain {@code long[]} masks over the whole ordinal range
+ * ({@link #orInto}, {@link #andCardinality}). Not thread-safe: {@link FacetIndex} guards it
+ * with its lock.</p>
+ */
+final class CompressedBitmap {
+
+    // words of a bitmap container: 65536 bits
+    static final int CHUNK_WORDS = 1024;
+
+    // above this an array container would take more room than a bitmap container
+    static final int ARRAY_MAX = 4096;
+
+    static final int ARRAY_VALUE_COST = 3;
+
+    // high 16 bits of the values in each chunk, sorted
+    private char[] keys = new char[4];
+    // per chunk: char[] (array container, sorted) or long[] (bitmap container)
+    private Object[] containers = new Object[4];
+    private int[] sizes = new int[4];
+    private int chunks;
+    private int cardinality;
+
+    boolean add(int value) {
+        int chunk = find(value >>> 16);
+        if (chunk < 0) {
+            chunk = insertChunk(-chunk - 1, value >>> 16);
+        }
+        char low = (char) value;
+        if (containers[chunk] instanceof long[] bits) {
+            long bit = 1L << low;
+            if ((bits[low >>> 6] & bit) != 0) {
+                return false;
+            }
+            bits[low >>> 6] |= bit;
+        } else {
+            char[] values = (char[]) containers[chunk];
+            int size = sizes[chunk];
+            int at = Arrays.binarySearch(values, 0, size, low);
+            if (at >= 0) {
+                return false;
+            }
+            if (size == ARRAY_MAX) {
+                long[] bits = toBitmap(values, size);
+                bits[low >>> 6] |= 1L << low;
+                containers[chunk] = bits;
+            } else {
+                if (size == values.length) {
+                    values = Arrays.copyOf(values, Math.min(size * 2, ARRAY_MAX));
+                    containers[chunk] = values;
+                }
+                at = -at - 1;
+                System.arraycopy(values, at, values, at + 1, size - at);
+                values[at] = low;
+            }
+        }
+        sizes[chunk]++;
+        cardinality++;
+        return true;
+    }
+
+    boolean remove(int value) {
+        int chunk = find(value >>> 16);
+        if (chunk < 0) {
+            return false;
+        }
+        char low = (char) value;
+        if (containers[chunk] instanceof long[] bits) {
+            long bit = 1L << low;
+            if ((bits[low >>> 6] & bit) == 0) {
+                return false;
+            }
+            bits[low >>> 6] &= ~bit;
+            // back to an array well below the limit, so a chunk at the boundary does not flip on every change
+            if (sizes[chunk] - 1 == ARRAY_MAX / 2) {
+                containers[chunk] = toArray(bits, ARRAY_MAX / 2);
+            }
+        } else {
+            char[] values = (char[]) containers[chunk];
+            int at = Arrays.binarySearch(values, 0, sizes[chunk], low);
+            if (at < 0) {
+                return false;
+            }
+            System.arraycopy(values, at + 1, values, at, sizes[chunk] - at - 1);
+        }
+        cardinality--;
+        if (--sizes[chunk] == 0) {
+            removeChunk(chunk);
+        }
+        return true;
+    }
+
+    boolean contains(int value) {
+        int chunk = find(value >>> 16);
+        if (chunk < 0) {
+            return false;
+        }
+        char low = (char) value;
+        if (containers[chunk] instanceof long[] bits) {
+            return (bits[low >>> 6] & (1L << low)) != 0;
+        }
+        return Arrays.binarySearch((char[]) containers[chunk], 0, sizes[chunk], low) >= 0;
+    }
+
+    int cardinality() {
+        return cardinality;
+    }
+
+    /**
+     * Rough cost of {@link #andCardinality}, in sequential word reads: 1024 per bitmap chunk,
+     * and {@link #ARRAY_VALUE_COST} per value of an array chunk, each a random read of the mask.
+     */
+    int andCost() {
+        int cost = 0;
+        for (int i = 0; i < chunks; i++) {
+            cost += containers[i] instanceof long[] ? CHUNK_WORDS : sizes[i] * ARRAY_VALUE_COST;
+        }
+        return cost;
+    }
+
+    /**
+     * Sets the bits of this set's values in {@code words}, which must cover all of them.
+     */
+    void orInto(long[] words) {
+        for (int i = 0; i < chunks; i++) {
+            int base = keys[i] * CHUNK_WORDS;
+            if (containers[i] instanceof long[] bits) {
+                int n = Math.min(CHUNK_WORDS, words.length - base);
+                for (int w = 0; w < n; w++) {
+                    words[base + w] |= bits[w];
+                }
+            } else {
+                char[] values = (char[]) containers[i];
+                for (int v = 0; v < sizes[i]; v++) {
+                    words[base + (values[v] >>> 6)] |= 1L << values[v];
+                }
+            }
+        }
+    }
+
+    /**
+     * Number of this set's values whose bit is set in {@code words}.
+     */
+    int andCardinality(long[] words) {
+        int count = 0;
+        for (int i = 0; i < chunks; i++) {
+            int base = keys[i] * CHUNK_WORDS;
+            if (containers[i] instanceof long[] bits) {
+                int n = Math.min(CHUNK_WORDS, words.length - base);
+                for (int w = 0; w < n; w++) {
+                    count += Long.bitCount(bits[w] & words[base + w]);
+                }
+            } else {
+                char[] values = (char[]) containers[i];
+                for (int v = 0; v < sizes[i]; v++) {
+                    count += (int) (words[base + (values[v] >>> 6)] >>> values[v]) & 1;
+                }
+            }
+        }
+        return count;
+    }
+
+    private int find(int key) {
+        return Arrays.binarySearch(keys, 0, chunks, (char) key);
+    }
+
+    private int insertChunk(int at, int key) {
+        if (chunks == keys.length) {
+            keys = Arrays.copyOf(keys, chunks * 2);
+            containers = Arrays.copyOf(containers, chunks * 2);
+            sizes = Arrays.copyOf(sizes, chunks * 2);
+        }
+        System.arraycopy(keys, at, keys, at + 1, chunks - at);
+        System.arraycopy(containers, at, containers, at + 1, chunks - at);
+        System.arraycopy(sizes, at, sizes, at + 1, chunks - at);
+        keys[at] = (char) key;
+        containers[at] = new char[4];
+        sizes[at] = 0;
+        chunks++;
+        return at;
+    }
+
+    private void removeChunk(int at) {
+        System.arraycopy(keys, at + 1, keys, at, chunks - at - 1);
+        System.arraycopy(containers, at + 1, containers, at, chunks - at - 1);
+        System.arraycopy(sizes, at + 1, sizes, at, chunks - at - 1);
+        containers[--chunks] = null;
+    }
+
+    private static long[] toBitmap(char[] values, int size) {
+        long[] bits = new long[CHUNK_WORDS];
+        for (int i = 0; i < size; i++) {
+            bits[values[i] >>> 6] |= 1L << values[i];
+        }
+        return bits;
+    }
+
+    private static char[] toArray(long[] bits, int size) {
+        char[] values = new char[size];
+        int n = 0;
+        for (int w = 0; w < CHUNK_WORDS; w++) {
+            for (long word = bits[w]; word != 0; word &= word - 1) {
+                values[n++] = (char) (w << 6 | Long.numberOfTrailingZeros(word));
+            }
+        }
+        return values;
+    }
+}
@@ -0,0 +1,349 @@
+package com.lucas.petshop.facet;
+
+import com.lucas.petshop.util.LongIntHashMap;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory bitmap index for faceted filtering: every indexed product gets a dense ordinal,
+ * and every value of every dimension (type, brand, price bucket...) a {@link CompressedBitmap}
+ * of the ordinals that have it. Values are int codes chosen by the caller; -1 means none.
+ *
+ * <p>{@link #query} evaluates a selection (OR within a dimension, AND across dimensions) and
+ * the count of every value of every dimension under the selection of the other dimensions:</p>
+ * <ul>
+ *   <li>with no other dimension selected, the counts are the bitmaps' cardinalities;</li>
+ *   <li>with one, they come from the product count kept per pair of values of two dimensions
+ *   (a few thousand entries), so the first click on the sidebar reads no bitmap at all;</li>
+ *   <li>otherwise the mask of the other selections is built word by word, and each value's
+ *   bitmap is ANDed with it and counted, or the mask's bits are walked and each ordinal's
+ *   value read from a column, whichever reads less (the walk wins for brands).</li>
+ * </ul>
+ *
+ * <p>Ordinals are handed out in insertion order and never reused: a removed product leaves a
+ * hole until the index is rebuilt. Queries share a read lock; changes take the write lock.</p>
+ */
+public class FacetIndex {
+
+    // walking the bits of a mask costs about ten sequential word reads per bit (see CompressedBitmap#andCost)
+    private static final int SCAN_COST_PER_BIT = 10;
+
+    private final int dimensions;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // product id -> ordinal + 1
+    private final LongIntHashMap ordinals = new LongIntHashMap();
+    // ordinal -> product id
+    private long[] products = new long[1024];
+    // [dimension][ordinal] -> value code, -1 when none or not active
+    private final int[][] columns;
+    // [dimension][value code] -> ordinals with that value
+    private final List<List<CompressedBitmap>> postings;
+    // [d][e], d < e: active products per (value in d, value in e), keyed by pairKey
+    private final LongIntHashMap[][] pairs;
+    private final CompressedBitmap active = new CompressedBitmap();
+    private int nextOrdinal;
+
+    public FacetIndex(int dimensions) {
+        this.dimensions = dimensions;
+        this.columns = new int[dimensions][products.length];
+        this.postings = new ArrayList<>(dimensions);
+        this.pairs = new LongIntHashMap[dimensions][dimensions];
+        for (int d = 0; d < dimensions; d++) {
+            Arrays.fill(columns[d], -1);
+            postings.add(new ArrayList<>());
+            for (int e = d + 1; e < dimensions; e++) {
+                pairs[d][e] = new LongIntHashMap();
+            }
+        }
+    }
+
+    /**
+     * Adds the product, or moves it to the given values: {@code codes[d]} is its value in
+     * dimension {@code d}.
+     */
+    public void put(long productId, int[] codes) {
+        lock.writeLock().lock();
+        try {
+            int ordinal = ordinals.get(productId) - 1;
+            if (ordinal < 0) {
+                ordinal = newOrdinal(productId);
+            }
+            if (!active.add(ordinal)) {
+                countPairs(ordinal, -1);
+            }
+            for (int d = 0; d < dimensions; d++) {
+                move(d, ordinal, codes[d]);
+            }
+            countPairs(ordinal, 1);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Changes one dimension of an indexed product; returns false if it is not indexed.
+     */
+    public boolean set(long productId, int dimension, int code) {
+        lock.writeLock().lock();
+        try {
+            int ordinal = ordinals.get(productId) - 1;
+            if (ordinal < 0 || !active.contains(ordinal)) {
+                return false;
+            }
+            countPairs(ordinal, -1);
+            move(dimension, ordinal, code);
+            countPairs(ordinal, 1);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean remove(long productId) {
+        lock.writeLock().lock();
+        try {
+            int ordinal = ordinals.get(productId) - 1;
+            if (ordinal < 0 || !active.remove(ordinal)) {
+                return false;
+            }
+            countPairs(ordinal, -1);
+            for (int d = 0; d < dimensions; d++) {
+                move(d, ordinal, -1);
+            }
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return active.cardinality();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Products matching {@code selected} and the facet counts under it.
+     *
+     * @param selected per dimension, the accepted value codes; null or empty accepts any value
+     *                 (and products without one)
+     * @param limit    most product ids to return
+     */
+    public Result query(int[][] selected, int limit) {
+        lock.readLock().lock();
+        try {
+            int words = (nextOrdinal + 63) >>> 6;
+            long[][] selections = new long[dimensions][];
+            int selectedDimensions = 0;
+            for (int d = 0; d < dimensions; d++) {
+                if (selected[d] != null && selected[d].length > 0) {
+                    selections[d] = new long[words];
+                    for (int code : selected[d]) {
+                        if (code >= 0 && code < postings.get(d).size()) {
+                            postings.get(d).get(code).orInto(selections[d]);
+                        }
+                    }
+                    selectedDimensions++;
+                }
+            }
+
+            long[] matched = new long[words];
+            active.orInto(matched);
+            for (long[] selection : selections) {
+                if (selection != null) {
+                    and(matched, selection);
+                }
+            }
+
+            int[][] counts = new int[dimensions][];
+            for (int d = 0; d < dimensions; d++) {
+                int others = selectedDimensions - (selections[d] != null ? 1 : 0);
+                if (others == 0) {
+                    counts[d] = cardinalities(d);
+                } else if (others == 1) {
+                    int e = 0;
+                    while (e == d || selections[e] == null) {
+                        e++;
+                    }
+                    counts[d] = countPairs(d, e, selected[e]);
+                } else if (selections[d] == null) {
+                    // the other dimensions' selections are exactly the whole selection
+                    counts[d] = count(d, matched);
+                } else {
+                    long[] mask = new long[words];
+                    active.orInto(mask);
+                    for (int e = 0; e < dimensions; e++) {
+                        if (e != d && selections[e] != null) {
+                            and(mask, selections[e]);
+                        }
+                    }
+                    counts[d] = count(d, mask);
+                }
+            }
+
+            int total = 0;
+            for (long word : matched) {
+                total += Long.bitCount(word);
+            }
+            long[] first = new long[Math.min(Math.max(limit, 0), total)];
+            int n = 0;
+            for (int w = 0; w < words && n < first.length; w++) {
+                for (long word = matched[w]; word != 0 && n < first.length; word &= word - 1) {
+                    first[n++] = products[w << 6 | Long.numberOfTrailingZeros(word)];
+                }
+            }
+            return new Result(total, counts, first);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @param matched  active products matching the whole selection
+     * @param counts   per dimension and value code, the matches if that dimension's selection
+     *                 were that value alone
+     * @param products ids of the first matches, in ordinal order
+     */
+    public record Result(int matched, int[][] counts, long[] products) {
+    }
+
+    private int[] cardinalities(int dimension) {
+        List<CompressedBitmap> values = postings.get(dimension);
+        int[] counts = new int[values.size()];
+        for (int code = 0; code < counts.length; code++) {
+            counts[code] = values.get(code).cardinality();
+        }
+        return counts;
+    }
+
+    // counts per value of dimension d among the products with one of the codes in dimension e
+    private int[] countPairs(int dimension, int other, int[] codes) {
+        int[] counts = new int[postings.get(dimension).size()];
+        boolean[] accepted = new boolean[postings.get(other).size()];
+        int distinct = 0;
+        for (int code : codes) {
+            if (code >= 0 && code < accepted.length && !accepted[code]) {
+                accepted[code] = true;
+                distinct++;
+            }
+        }
+        boolean lower = dimension < other;
+        LongIntHashMap table = pairs[Math.min(dimension, other)][Math.max(dimension, other)];
+        if ((long) distinct * counts.length < table.size()) {
+            // a few selected codes: look up each (value, code) pair
+            for (int otherCode = 0; otherCode < accepted.length; otherCode++) {
+                if (!accepted[otherCode]) {
+                    continue;
+                }
+                for (int code = 0; code < counts.length; code++) {
+                    counts[code] += table.get(lower ? pairKey(code, otherCode) : pairKey(otherCode, code));
+                }
+            }
+        } else {
+            table.forEach((key, products) -> {
+                int lowerCode = (int) (key >>> 32) - 1;
+                int upperCode = (int) key;
+                if (accepted[lower ? upperCode : lowerCode]) {
+                    counts[lower ? lowerCode : upperCode] += products;
+                }
+            });
+        }
+        return counts;
+    }
+
+    // counts per value of dimension d among the ordinals in mask
+    private int[] count(int dimension, long[] mask) {
+        List<CompressedBitmap> values = postings.get(dimension);
+        int[] counts = new int[values.size()];
+        long bits = 0;
+        for (long word : mask) {
+            bits += Long.bitCount(word);
+        }
+        long andCost = 0;
+        for (CompressedBitmap value : values) {
+            andCost += value.andCost();
+        }
+        if (bits * SCAN_COST_PER_BIT < andCost) {
+            int[] column = columns[dimension];
+            for (int w = 0; w < mask.length; w++) {
+                for (long word = mask[w]; word != 0; word &= word - 1) {
+                    int code = column[w << 6 | Long.numberOfTrailingZeros(word)];
+                    if (code >= 0) {
+                        counts[code]++;
+                    }
+                }
+            }
+        } else {
+            for (int code = 0; code < counts.length; code++) {
+                counts[code] = values.get(code).andCardinality(mask);
+            }
+        }
+        return counts;
+    }
+
+    private void move(int dimension, int ordinal, int code) {
+        int previous = columns[dimension][ordinal];
+        if (previous == code) {
+            return;
+        }
+        List<CompressedBitmap> values = postings.get(dimension);
+        if (previous >= 0) {
+            values.get(previous).remove(ordinal);
+        }
+        if (code >= 0) {
+            while (values.size() <= code) {
+                values.add(new CompressedBitmap());
+            }
+            values.get(code).add(ordinal);
+        }
+        columns[dimension][ordinal] = code;
+    }
+
+    private void countPairs(int ordinal, int delta) {
+        for (int d = 0; d < dimensions; d++) {
+            int code = columns[d][ordinal];
+            if (code < 0) {
+                continue;
+            }
+            for (int e = d + 1; e < dimensions; e++) {
+                if (columns[e][ordinal] >= 0) {
+                    pairs[d][e].add(pairKey(code, columns[e][ordinal]), delta);
+                }
+            }
+        }
+    }
+
+    // never 0, which LongIntHashMap reserves
+    private static long pairKey(int code, int otherCode) {
+        return (long) (code + 1) << 32 | otherCode;
+    }
+
+    private int newOrdinal(long productId) {
+        int ordinal = nextOrdinal++;
+        if (ordinal == products.length) {
+            int capacity = products.length * 2;
+            products = Arrays.copyOf(products, capacity);
+            for (int d = 0; d < dimensions; d++) {
+                columns[d] = Arrays.copyOf(columns[d], capacity);
+                Arrays.fill(columns[d], ordinal, capacity, -1);
+            }
+        }
+        products[ordinal] = productId;
+        ordinals.add(productId, ordinal + 1);
+        return ordinal;
+    }
+
+    private static void and(long[] target, long[] mask) {
+        for (int w = 0; w < target.length; w++) {
+            target[w] &= mask[w];
+        }
+    }
+}
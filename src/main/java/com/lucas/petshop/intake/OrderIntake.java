@@ -0,0 +1,312 @@
+package com.lucas.petshop.intake;
+
+import com.lucas.petshop.config.OrderIntakeProperties;
+import com.lucas.petshop.dto.OrderIntakeResponseDTO;
+import com.lucas.petshop.dto.OrderRequestDTO;
+import com.lucas.petshop.service.OrderService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Asynchronous order intake with group commit.
+ *
+ * <p>{@link #submit} puts an already validated order on a bounded queue and returns a handle
+ * right away, or nothing when the queue is full (the caller answers 429). Writer threads
+ * take up to {@code batch-size} orders at a time, waiting at most {@code batch-delay} for
+ * a batch to fill, and create them all through {@link OrderService#createOrder} inside one
+ * transaction: one commit (and one WAL flush) for the whole batch instead of one per order.</p>
+ *
+ * <ul>
+ *   <li>A batch is written in client order, so two writers updating the same client
+ *   summaries lock them in the same order and never deadlock each other.</li>
+ *   <li>If the batch transaction fails (an unknown product, a constraint), it is rolled
+ *   back and its orders are retried one transaction each, so only the bad ones fail.</li>
+ *   <li>Outcomes stay readable through {@link #status} for {@code handle-retention}. The
+ *   queue and the outcomes live in this node's memory: orders still queued are lost if the
+ *   process dies, which is the price of answering before the commit.</li>
+ *   <li>On shutdown new orders are refused and the writers empty the queue, for at most
+ *   {@code drain-timeout}, before the datasource goes away.</li>
+ * </ul>
+ */
+@Slf4j
+public class OrderIntake implements SmartLifecycle {
+
+    public static final String ORDERS_METRIC = "petshop.intake.orders";
+    public static final String QUEUE_METRIC = "petshop.intake.queue";
+    public static final String BATCH_METRIC = "petshop.intake.batch";
+
+    private final OrderService orderService;
+    private final TransactionTemplate transactionTemplate;
+    private final OrderIntakeProperties properties;
+
+    private final BlockingQueue<Ticket> queue;
+    private final Map<String, Ticket> tickets = new ConcurrentHashMap<>();
+    // completed tickets in completion order, for expiry
+    private final Queue<Ticket> completed = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger completedCount = new AtomicInteger();
+    private final List<Thread> writers = new ArrayList<>();
+
+    private final Counter accepted;
+    private final Counter rejected;
+    private final Counter created;
+    private final Counter failed;
+    private final Timer batchTimer;
+    private final DistributionSummary batchSize;
+
+    private volatile boolean accepting;
+    private volatile boolean running;
+
+    public OrderIntake(OrderService orderService, TransactionTemplate transactionTemplate,
+                       OrderIntakeProperties properties, MeterRegistry meterRegistry) {
+        if (properties.getQueueCapacity() < 1 || properties.getWriters() < 1 || properties.getBatchSize() < 1) {
+            throw new IllegalArgumentException("petshop.intake queue-capacity, writers and batch-size must be positive");
+        }
+        this.orderService = orderService;
+        this.transactionTemplate = transactionTemplate;
+        this.properties = properties;
+        this.queue = new ArrayBlockingQueue<>(properties.getQueueCapacity());
+
+        this.accepted = outcome(meterRegistry, "accepted");
+        this.rejected = outcome(meterRegistry, "rejected");
+        this.created = outcome(meterRegistry, "created");
+        this.failed = outcome(meterRegistry, "failed");
+        this.batchTimer = Timer.builder(BATCH_METRIC)
+                .description("Duration of one group-committed batch of orders")
+                .register(meterRegistry);
+        this.batchSize = DistributionSummary.builder(BATCH_METRIC + ".size")
+                .description("Orders per committed batch")
+                .register(meterRegistry);
+        meterRegistry.gauge(QUEUE_METRIC, queue, BlockingQueue::size);
+    }
+
+    /**
+     * Queues a validated order.
+     *
+     * @return the state of the accepted order, or empty when the queue is full or the
+     * intake is shutting down
+     */
+    public Optional<OrderIntakeResponseDTO> submit(OrderRequestDTO request) {
+        if (!accepting) {
+            rejected.increment();
+            return Optional.empty();
+        }
+        Ticket ticket = new Ticket(UUID.randomUUID().toString(), request, LocalDateTime.now());
+        tickets.put(ticket.handle, ticket);
+        if (!queue.offer(ticket)) {
+            tickets.remove(ticket.handle);
+            rejected.increment();
+            return Optional.empty();
+        }
+        accepted.increment();
+        return Optional.of(ticket.toResponse());
+    }
+
+    public Optional<OrderIntakeResponseDTO> status(String handle) {
+        return Optional.ofNullable(tickets.get(handle)).map(Ticket::toResponse);
+    }
+
+    public int queued() {
+        return queue.size();
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        accepting = true;
+        for (int i = 0; i < properties.getWriters(); i++) {
+            writers.add(Thread.ofPlatform().name("order-intake-" + i).daemon().start(this::write));
+        }
+    }
+
+    @Override
+    public void stop() {
+        accepting = false;
+        running = false;
+        long deadline = System.nanoTime() + properties.getDrainTimeout().toNanos();
+        try {
+            for (Thread writer : writers) {
+                writer.join(Math.max(1, TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime())));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (!queue.isEmpty()) {
+            log.error("[ORDER INTAKE] stopped with {} orders still queued; they were not created", queue.size());
+        }
+        writers.forEach(Thread::interrupt);
+        writers.clear();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    // stops after the web server's graceful shutdown (no more submits) and before the
+    // invalidation bus, which the committed batches still publish to
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 1536;
+    }
+
+    private void write() {
+        int maxBatch = properties.getBatchSize();
+        long delayNanos = properties.getBatchDelay().toNanos();
+        List<Ticket> batch = new ArrayList<>(maxBatch);
+        // after stop() the loop goes on until the queue is empty
+        while (running || !queue.isEmpty()) {
+            try {
+                Ticket first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, maxBatch - batch.size());
+                long deadline = System.nanoTime() + delayNanos;
+                while (batch.size() < maxBatch && running) {
+                    Ticket next = queue.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                    queue.drainTo(batch, maxBatch - batch.size());
+                }
+            } catch (InterruptedException e) {
+                if (!running) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+            if (!batch.isEmpty()) {
+                writeBatch(batch);
+                batch.clear();
+            }
+        }
+    }
+
+    private void writeBatch(List<Ticket> batch) {
+        batch.sort(Comparator.comparing(ticket -> ticket.request.getClient()));
+        batch.forEach(ticket -> ticket.state = OrderIntakeStateEnum.WRITING);
+        long start = System.nanoTime();
+        List<Long> ids = new ArrayList<>(batch.size());
+        AtomicBoolean committed = new AtomicBoolean();
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCompletion(int completionStatus) {
+                        committed.set(completionStatus == STATUS_COMMITTED);
+                    }
+                });
+                for (Ticket ticket : batch) {
+                    ids.add(orderService.createOrder(ticket.request));
+                }
+            });
+            batchTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            batchSize.record(batch.size());
+            for (int i = 0; i < batch.size(); i++) {
+                complete(batch.get(i), ids.get(i), null);
+            }
+        } catch (RuntimeException e) {
+            if (committed.get()) {
+                // an after-commit callback failed: the orders exist, writing them again would duplicate them
+                log.warn("[ORDER INTAKE] batch of {} committed but an after-commit step failed: {}",
+                        batch.size(), e.getMessage());
+                for (int i = 0; i < batch.size(); i++) {
+                    complete(batch.get(i), ids.get(i), null);
+                }
+                return;
+            }
+            if (batch.size() == 1) {
+                complete(batch.getFirst(), null, e);
+                return;
+            }
+            log.debug("[ORDER INTAKE] batch of {} rolled back ({}), writing its orders one by one",
+                    batch.size(), e.getMessage());
+            for (Ticket ticket : batch) {
+                writeBatch(new ArrayList<>(List.of(ticket)));
+            }
+        }
+    }
+
+    private void complete(Ticket ticket, Long orderId, RuntimeException error) {
+        ticket.orderId = orderId;
+        ticket.error = error != null ? String.valueOf(error.getMessage()) : null;
+        ticket.completedAt = LocalDateTime.now();
+        ticket.state = error == null ? OrderIntakeStateEnum.CREATED : OrderIntakeStateEnum.FAILED;
+        (error == null ? created : failed).increment();
+        if (error != null) {
+            log.warn("[ORDER INTAKE] order {} of client {} failed: {}", ticket.handle, ticket.request.getClient(),
+                    ticket.error);
+        }
+        completed.add(ticket);
+        completedCount.incrementAndGet();
+        expire();
+    }
+
+    private void expire() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(properties.getHandleRetention());
+        Ticket oldest;
+        while ((oldest = completed.peek()) != null
+                && (completedCount.get() > properties.getMaxTrackedHandles() || oldest.completedAt.isBefore(cutoff))) {
+            if (completed.remove(oldest)) {
+                completedCount.decrementAndGet();
+                tickets.remove(oldest.handle);
+            }
+        }
+    }
+
+    private static Counter outcome(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder(ORDERS_METRIC)
+                .description("Orders through the asynchronous intake")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    private static final class Ticket {
+
+        private final String handle;
+        private final OrderRequestDTO request;
+        private final LocalDateTime acceptedAt;
+
+        // written by one writer thread, read by status requests
+        private volatile OrderIntakeStateEnum state = OrderIntakeStateEnum.QUEUED;
+        private volatile Long orderId;
+        private volatile String error;
+        private volatile LocalDateTime completedAt;
+
+        private Ticket(String handle, OrderRequestDTO request, LocalDateTime acceptedAt) {
+            this.handle = handle;
+            this.request = request;
+            this.acceptedAt = acceptedAt;
+        }
+
+        private OrderIntakeResponseDTO toResponse() {
+            OrderIntakeStateEnum current = state;
+            return new OrderIntakeResponseDTO(handle, current, orderId, error, acceptedAt, completedAt);
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package com.lucas.petshop.intake;
+
+public enum OrderIntakeStateEnum {
+    QUEUED,
+    WRITING,
+    CREATED,
+    FAILED
+}
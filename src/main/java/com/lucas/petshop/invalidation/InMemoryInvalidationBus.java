@@ -0,0 +1,25 @@
+package com.lucas.petshop.invalidation;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Single-process bus: messages are delivered synchronously, on the publishing thread, to every
+ * subscriber. Used by tests and single-node deployments ({@code petshop.invalidation.transport=memory}).
+ */
+public class InMemoryInvalidationBus implements InvalidationBus {
+
+    private final List<InvalidationSubscriber> subscribers = new CopyOnWriteArrayList<>();
+
+    @Override
+    public void publish(InvalidationMessage message) {
+        for (InvalidationSubscriber subscriber : subscribers) {
+            subscriber.onMessage(message);
+        }
+    }
+
+    @Override
+    public void subscribe(InvalidationSubscriber subscriber) {
+        subscribers.add(subscriber);
+    }
+}
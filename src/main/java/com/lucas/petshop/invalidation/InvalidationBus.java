@@ -0,0 +1,15 @@
+package com.lucas.petshop.invalidation;
+
+/**
+ * Transport of {@link InvalidationMessage}s between the nodes of the cluster.
+ *
+ * <p>Delivery is at most once and best effort: a node that loses its connection to the bus
+ * is told so through {@link InvalidationSubscriber#onGap()} and must assume it missed
+ * messages. Every node also receives its own messages; subscribers skip them by origin.</p>
+ */
+public interface InvalidationBus {
+
+    void publish(InvalidationMessage message);
+
+    void subscribe(InvalidationSubscriber subscriber);
+}
@@ -0,0 +1,15 @@
+package com.lucas.petshop.invalidation;
+
+import java.util.Collection;
+
+/**
+ * A local cache that must forget entities changed on another node. Every bean of this type is
+ * called by the {@link LocalCacheInvalidator}, on the bus delivery thread.
+ */
+public interface InvalidationHandler {
+
+    void invalidate(InvalidationTarget target, Collection<Long> ids);
+
+    // messages may have been lost: drop everything
+    void invalidateAll();
+}
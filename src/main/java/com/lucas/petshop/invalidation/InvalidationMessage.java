@@ -0,0 +1,56 @@
+package com.lucas.petshop.invalidation;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * "These entities changed on node {@code origin}": one committed transaction's worth of ids of
+ * one kind, stamped with the origin's {@link VersionClock} so receivers can drop reordered or
+ * duplicated messages.
+ *
+ * <p>On the wire it is a short text, {@code origin|version|target|id,id,...}, e.g.
+ * {@code a1b2c3d4|1729338000123456|p|17,42}, well under PostgreSQL's 8000-byte NOTIFY payload
+ * limit for up to {@link InvalidationPublisher#MAX_IDS_PER_MESSAGE} ids.</p>
+ *
+ * @param origin  node id of the publisher
+ * @param version stamp of the change, increasing per node and causally across nodes
+ * @param target  kind of entity
+ * @param ids     ids of the changed entities
+ */
+public record InvalidationMessage(String origin, long version, InvalidationTarget target, List<Long> ids) {
+
+    private static final char SEPARATOR = '|';
+
+    public InvalidationMessage {
+        ids = List.copyOf(ids);
+    }
+
+    public String encode() {
+        StringBuilder payload = new StringBuilder(32 + ids.size() * 8)
+                .append(origin).append(SEPARATOR)
+                .append(version).append(SEPARATOR)
+                .append(target.code()).append(SEPARATOR);
+        for (int i = 0; i < ids.size(); i++) {
+            if (i > 0) {
+                payload.append(',');
+            }
+            payload.append(ids.get(i));
+        }
+        return payload.toString();
+    }
+
+    public static InvalidationMessage decode(String payload) {
+        String[] parts = payload.split("\\|", -1);
+        if (parts.length != 4 || parts[2].length() != 1) {
+            throw new IllegalArgumentException("Malformed invalidation message: " + payload);
+        }
+        List<Long> ids = new ArrayList<>();
+        if (!parts[3].isEmpty()) {
+            for (String id : parts[3].split(",")) {
+                ids.add(Long.parseLong(id));
+            }
+        }
+        return new InvalidationMessage(parts[0], Long.parseLong(parts[1]),
+                InvalidationTarget.ofCode(parts[2].charAt(0)), ids);
+    }
+}
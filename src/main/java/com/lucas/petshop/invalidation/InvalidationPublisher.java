@@ -0,0 +1,97 @@
+package com.lucas.petshop.invalidation;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Entry point for the services: records which entities a transaction changed and, once it has
+ * committed, broadcasts them on the {@link InvalidationBus}. A rolled back transaction publishes
+ * nothing. Called outside a transaction, it publishes immediately.
+ *
+ * <p>All changes of one transaction are collected and sent together, one message per entity
+ * kind (split every {@link #MAX_IDS_PER_MESSAGE} ids).</p>
+ */
+public class InvalidationPublisher {
+
+    public static final int MAX_IDS_PER_MESSAGE = 300;
+
+    private final InvalidationBus bus;
+    private final VersionClock clock;
+    private final String nodeId;
+    private final Counter published;
+
+    public InvalidationPublisher(InvalidationBus bus, VersionClock clock, String nodeId, MeterRegistry meterRegistry) {
+        if (nodeId.isEmpty() || nodeId.indexOf('|') >= 0) {
+            throw new IllegalArgumentException("Invalid node id: " + nodeId);
+        }
+        this.bus = bus;
+        this.clock = clock;
+        this.nodeId = nodeId;
+        this.published = Counter.builder(LocalCacheInvalidator.METRIC)
+                .description("Cache invalidation messages by outcome")
+                .tag("outcome", "published")
+                .register(meterRegistry);
+    }
+
+    public String nodeId() {
+        return nodeId;
+    }
+
+    public void publishAfterCommit(InvalidationTarget target, Long id) {
+        publishAfterCommit(target, List.of(id));
+    }
+
+    public void publishAfterCommit(InvalidationTarget target, Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            publish(target, ids);
+            return;
+        }
+        pendingChanges().computeIfAbsent(target, t -> new LinkedHashSet<>()).addAll(ids);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<InvalidationTarget, Set<Long>> pendingChanges() {
+        Map<InvalidationTarget, Set<Long>> pending =
+                (Map<InvalidationTarget, Set<Long>>) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            Map<InvalidationTarget, Set<Long>> changes = new EnumMap<>(InvalidationTarget.class);
+            TransactionSynchronizationManager.bindResource(this, changes);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    changes.forEach(InvalidationPublisher.this::publish);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(InvalidationPublisher.this);
+                }
+            });
+            pending = changes;
+        }
+        return pending;
+    }
+
+    private void publish(InvalidationTarget target, Collection<Long> ids) {
+        List<Long> all = new ArrayList<>(ids);
+        long version = clock.next();
+        for (int from = 0; from < all.size(); from += MAX_IDS_PER_MESSAGE) {
+            List<Long> chunk = all.subList(from, Math.min(from + MAX_IDS_PER_MESSAGE, all.size()));
+            bus.publish(new InvalidationMessage(nodeId, version, target, chunk));
+            published.increment();
+        }
+    }
+}
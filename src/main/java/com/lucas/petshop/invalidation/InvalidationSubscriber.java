@@ -0,0 +1,15 @@
+package com.lucas.petshop.invalidation;
+
+/**
+ * Receives the messages of an {@link InvalidationBus}, on the bus's delivery thread.
+ */
+public interface InvalidationSubscriber {
+
+    void onMessage(InvalidationMessage message);
+
+    /**
+     * Messages may have been lost (e.g. the listener connection was re-established):
+     * everything cached locally must be treated as stale.
+     */
+    void onGap();
+}
@@ -0,0 +1,40 @@
+package com.lucas.petshop.invalidation;
+
+import com.lucas.petshop.model.Order;
+import com.lucas.petshop.model.Product;
+import com.lucas.petshop.model.Rating;
+
+/**
+ * Kinds of entity whose changes are broadcast to the other nodes. The code is the one-letter
+ * tag used on the wire, see {@link InvalidationMessage#encode()}.
+ */
+public enum InvalidationTarget {
+    PRODUCT('p', Product.class),
+    ORDER('o', Order.class),
+    RATING('r', Rating.class);
+
+    private final char code;
+    private final Class<?> entityClass;
+
+    InvalidationTarget(char code, Class<?> entityClass) {
+        this.code = code;
+        this.entityClass = entityClass;
+    }
+
+    public char code() {
+        return code;
+    }
+
+    public Class<?> entityClass() {
+        return entityClass;
+    }
+
+    static InvalidationTarget ofCode(char code) {
+        for (InvalidationTarget target : values()) {
+            if (target.code == code) {
+                return target;
+            }
+        }
+        throw new IllegalArgumentException("Unknown invalidation target: " + code);
+    }
+}
@@ -0,0 +1,106 @@
+package com.lucas.petshop.invalidation;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Applies the messages of other nodes to the local caches (every {@link InvalidationHandler}).
+ *
+ * <p>The highest version applied is remembered per entity, and a message id whose version is
+ * not higher is skipped: late, duplicated or reordered deliveries never undo a newer change in
+ * a handler. The memory is bounded; once {@link #MAX_TRACKED_KEYS} entities are tracked it
+ * starts over, which at worst lets one old message through for an entity.</p>
+ */
+@Slf4j
+public class LocalCacheInvalidator implements InvalidationSubscriber {
+
+    public static final String METRIC = "petshop.invalidation.messages";
+
+    static final int MAX_TRACKED_KEYS = 100_000;
+
+    private record Key(InvalidationTarget target, long id) {
+    }
+
+    private final String nodeId;
+    private final VersionClock clock;
+    private final List<InvalidationHandler> handlers;
+    private final Map<Key, Long> appliedVersions = new ConcurrentHashMap<>();
+
+    private final Counter applied;
+    private final Counter stale;
+    private final Counter gaps;
+
+    public LocalCacheInvalidator(String nodeId, VersionClock clock, List<InvalidationHandler> handlers,
+                                 MeterRegistry meterRegistry) {
+        this.nodeId = nodeId;
+        this.clock = clock;
+        this.handlers = List.copyOf(handlers);
+        this.applied = counter(meterRegistry, "applied");
+        this.stale = counter(meterRegistry, "stale");
+        this.gaps = counter(meterRegistry, "gap");
+    }
+
+    @Override
+    public void onMessage(InvalidationMessage message) {
+        clock.observe(message.version());
+        if (nodeId.equals(message.origin())) {
+            // the local caches were already updated by the writing transaction itself
+            return;
+        }
+
+        if (appliedVersions.size() >= MAX_TRACKED_KEYS) {
+            appliedVersions.clear();
+        }
+        List<Long> newer = new ArrayList<>(message.ids().size());
+        for (Long id : message.ids()) {
+            if (advance(new Key(message.target(), id), message.version())) {
+                newer.add(id);
+            }
+        }
+
+        if (newer.size() < message.ids().size()) {
+            stale.increment();
+            log.debug("[INVALIDATION] skipped {} stale ids of {}", message.ids().size() - newer.size(), message.encode());
+        }
+        if (newer.isEmpty()) {
+            return;
+        }
+        for (InvalidationHandler handler : handlers) {
+            handler.invalidate(message.target(), newer);
+        }
+        applied.increment();
+    }
+
+    @Override
+    public void onGap() {
+        gaps.increment();
+        log.warn("[INVALIDATION] possible lost messages, dropping all local caches");
+        handlers.forEach(InvalidationHandler::invalidateAll);
+    }
+
+    // true when version is higher than any applied so far for the key (and is now recorded)
+    private boolean advance(Key key, long version) {
+        boolean[] advanced = {false};
+        appliedVersions.compute(key, (k, previous) -> {
+            if (previous != null && previous >= version) {
+                return previous;
+            }
+            advanced[0] = true;
+            return version;
+        });
+        return advanced[0];
+    }
+
+    private static Counter counter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder(METRIC)
+                .description("Cache invalidation messages by outcome")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,199 @@
+package com.lucas.petshop.invalidation;
+
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bus over PostgreSQL LISTEN/NOTIFY on one channel.
+ *
+ * <ul>
+ *   <li>Publishing runs {@code pg_notify} on a pooled connection from a single background
+ *   thread: the caller is usually in an after-commit callback, where the transaction's
+ *   connection must not be reused, and the messages of one node stay in order.</li>
+ *   <li>Listening holds one dedicated connection per node, opened with the datasource
+ *   credentials outside the pool so it never takes a pool slot. A daemon thread waits on it
+ *   and hands each notification to the subscribers.</li>
+ *   <li>If the listener connection fails it is reopened with a capped exponential backoff,
+ *   and subscribers get {@link InvalidationSubscriber#onGap()}: notifications sent while no
+ *   connection was listening are lost. The application keeps working meanwhile, with
+ *   cross-node staleness bounded by the cache TTLs.</li>
+ * </ul>
+ */
+@Slf4j
+public class PostgresInvalidationBus implements InvalidationBus, SmartLifecycle {
+
+    private static final Duration MAX_RECONNECT_DELAY = Duration.ofSeconds(30);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String jdbcUrl;
+    private final String username;
+    private final String password;
+    private final String channel;
+    private final Duration reconnectDelay;
+    private final Duration pollTimeout;
+
+    private final List<InvalidationSubscriber> subscribers = new CopyOnWriteArrayList<>();
+    private final ExecutorService sender = Executors.newSingleThreadExecutor(
+            Thread.ofPlatform().name("invalidation-sender").daemon().factory());
+
+    private volatile boolean running;
+    private volatile Thread listenerThread;
+    private volatile Connection listenerConnection;
+
+    public PostgresInvalidationBus(JdbcTemplate jdbcTemplate, String jdbcUrl, String username, String password,
+                                   String channel, Duration reconnectDelay, Duration pollTimeout) {
+        if (!channel.matches("[a-z_][a-z0-9_]*")) {
+            throw new IllegalArgumentException("Invalid NOTIFY channel name: " + channel);
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.jdbcUrl = jdbcUrl;
+        this.username = username;
+        this.password = password;
+        this.channel = channel;
+        this.reconnectDelay = reconnectDelay;
+        this.pollTimeout = pollTimeout;
+    }
+
+    @Override
+    public void publish(InvalidationMessage message) {
+        String payload = message.encode();
+        try {
+            sender.execute(() -> {
+                try {
+                    jdbcTemplate.query("SELECT pg_notify(?, ?)", (RowCallbackHandler) rs -> { }, channel, payload);
+                } catch (RuntimeException e) {
+                    // the other nodes keep a stale copy until its TTL; nothing to roll back here
+                    log.warn("[INVALIDATION] could not publish {}: {}", payload, e.getMessage());
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // called after commit: the change is already durable, failing the caller would not undo it
+            log.warn("[INVALIDATION] stopped, not publishing {}", payload);
+        }
+    }
+
+    @Override
+    public void subscribe(InvalidationSubscriber subscriber) {
+        subscribers.add(subscriber);
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        listenerThread = Thread.ofPlatform().name("invalidation-listener").daemon().start(this::listen);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        Thread thread = listenerThread;
+        if (thread != null) {
+            thread.interrupt();
+        }
+        closeQuietly(listenerConnection);
+        sender.shutdown();
+        try {
+            sender.awaitTermination(2, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    // stops after the components that still commit (and publish) during shutdown, such as the order intake
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 1792;
+    }
+
+    private void listen() {
+        long delayMillis = reconnectDelay.toMillis();
+        boolean connectedBefore = false;
+
+        while (running) {
+            try (Connection connection = DriverManager.getConnection(jdbcUrl, username, password)) {
+                listenerConnection = connection;
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + channel);
+                }
+                log.info("[INVALIDATION] listening on channel {}", channel);
+                if (connectedBefore) {
+                    // anything published while no connection was listening is lost
+                    subscribers.forEach(InvalidationSubscriber::onGap);
+                }
+                connectedBefore = true;
+                delayMillis = reconnectDelay.toMillis();
+
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications((int) pollTimeout.toMillis());
+                    if (notifications != null) {
+                        for (PGNotification notification : notifications) {
+                            deliver(notification.getParameter());
+                        }
+                    }
+                }
+            } catch (SQLException e) {
+                if (!running) {
+                    return;
+                }
+                log.warn("[INVALIDATION] listener connection lost, retrying in {} ms: {}", delayMillis, e.getMessage());
+                try {
+                    Thread.sleep(delayMillis);
+                } catch (InterruptedException interrupted) {
+                    return;
+                }
+                delayMillis = Math.min(delayMillis * 2, MAX_RECONNECT_DELAY.toMillis());
+            } finally {
+                listenerConnection = null;
+            }
+        }
+    }
+
+    private void deliver(String payload) {
+        InvalidationMessage message;
+        try {
+            message = InvalidationMessage.decode(payload);
+        } catch (IllegalArgumentException e) {
+            log.warn("[INVALIDATION] ignoring malformed notification: {}", payload);
+            return;
+        }
+        for (InvalidationSubscriber subscriber : subscribers) {
+            try {
+                subscriber.onMessage(message);
+            } catch (RuntimeException e) {
+                log.warn("[INVALIDATION] subscriber failed on {}", payload, e);
+            }
+        }
+    }
+
+    private static void closeQuietly(Connection connection) {
+        if (connection != null) {
+            try {
+                connection.close();
+            } catch (SQLException ignored) {
+                // shutting down
+            }
+        }
+    }
+}
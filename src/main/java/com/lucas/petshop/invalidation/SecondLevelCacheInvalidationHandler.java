@@ -0,0 +1,39 @@
+package com.lucas.petshop.invalidation;
+
+import jakarta.persistence.Cacheable;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+
+import java.util.Collection;
+
+/**
+ * Evicts remotely changed entities from Hibernate's second-level cache. Any change of a cached
+ * entity type also drops the cached query results: the query cache is invalidated through the
+ * update-timestamps region, which is local to each node and never sees remote writes.
+ */
+public class SecondLevelCacheInvalidationHandler implements InvalidationHandler {
+
+    private final SessionFactory sessionFactory;
+
+    public SecondLevelCacheInvalidationHandler(SessionFactory sessionFactory) {
+        this.sessionFactory = sessionFactory;
+    }
+
+    @Override
+    public void invalidate(InvalidationTarget target, Collection<Long> ids) {
+        // orders and ratings are not cached today; their messages only matter to other handlers
+        if (!target.entityClass().isAnnotationPresent(Cacheable.class)) {
+            return;
+        }
+        Cache cache = sessionFactory.getCache();
+        for (Long id : ids) {
+            cache.evictEntityData(target.entityClass(), id);
+        }
+        cache.evictDefaultQueryRegion();
+    }
+
+    @Override
+    public void invalidateAll() {
+        sessionFactory.getCache().evictAllRegions();
+    }
+}
@@ -0,0 +1,24 @@
+package com.lucas.petshop.invalidation;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hybrid logical clock in microseconds: follows the wall clock, never goes backwards, and is
+ * pushed forward by every stamp received from another node. A change published after a node
+ * has seen another node's message therefore always carries a higher stamp than that message,
+ * even when the two wall clocks disagree.
+ */
+public class VersionClock {
+
+    private final AtomicLong last = new AtomicLong();
+
+    public long next() {
+        long now = TimeUnit.MILLISECONDS.toMicros(System.currentTimeMillis());
+        return last.updateAndGet(previous -> Math.max(now, previous + 1));
+    }
+
+    public void observe(long version) {
+        last.accumulateAndGet(version, Math::max);
+    }
+}
@@ -0,0 +1,11 @@
+package com.lucas.petshop.mapper;
+
+import com.lucas.petshop.dto.ClientSummaryResponseDTO;
+import com.lucas.petshop.model.ClientSummary;
+import org.mapstruct.Mapper;
+
+@Mapper (componentModel = "spring")
+public interface ClientSummaryMapper {
+
+    ClientSummaryResponseDTO toResponseDTO(ClientSummary summary);
+}
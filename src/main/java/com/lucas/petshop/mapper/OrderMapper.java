@@ -1,21 +1,32 @@
 package com.lucas.petshop.mapper;
 
+import com.lucas.petshop.dto.OrderItemResponseDTO;
 import com.lucas.petshop.dto.OrderRequestDTO;
 import com.lucas.petshop.dto.OrderResponseDTO;
 import com.lucas.petshop.model.Order;
+import com.lucas.petshop.model.ProductOrder;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 import org.mapstruct.MappingTarget;
 
+import java.util.List;
+
 @Mapper(componentModel = "spring")
 public interface OrderMapper {
 
     OrderResponseDTO toResponseDTO(Order order);
 
+    @Mapping(target = "productId", source = "id.productId")
+    @Mapping(target = "productName", source = "product.name")
+    OrderItemResponseDTO toItemResponseDTO(ProductOrder line);
+
+    List<OrderItemResponseDTO> toItemResponseDTOs(List<ProductOrder> lines);
+
     @Mapping(target = "id", ignore = true)
     @Mapping(target = "orderCreation", ignore = true)
     @Mapping(target = "orderUpdate", ignore = true)
     @Mapping(target = "deletedOrder", ignore = true)
+    @Mapping(target = "version", ignore = true)
     @Mapping(target = "productOrders", ignore = true)
 
     Order toEntity(OrderRequestDTO dto);
@@ -24,6 +35,7 @@ public interface OrderMapper {
     @Mapping(target = "orderCreation", ignore = true)
     @Mapping(target = "orderUpdate", ignore = true)
     @Mapping(target = "deletedOrder", ignore = true)
+    @Mapping(target = "version", ignore = true)
     @Mapping(target = "productOrders", ignore = true)
     void updateEntityFromDto(
             OrderRequestDTO dto,
@@ -2,11 +2,14 @@ package com.lucas.petshop.mapper;
 
 import com.lucas.petshop.dto.ProductRequestDTO;
 import com.lucas.petshop.dto.ProductResponseDTO;
+import com.lucas.petshop.model.Money;
 import com.lucas.petshop.model.Product;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 import org.mapstruct.MappingTarget;
 
+import java.math.BigDecimal;
+
 @Mapper(componentModel = "spring")
 public interface ProductMapper {
 
@@ -16,14 +19,21 @@ public interface ProductMapper {
     @Mapping(target = "createdAt", ignore = true)
     @Mapping(target = "lastUpdate", ignore = true)
     @Mapping(target = "deletedProduct", ignore = true)
+    @Mapping(target = "version", ignore = true)
     Product toEntity(ProductRequestDTO dto);
 
     @Mapping(target = "id", ignore = true)
     @Mapping(target = "createdAt", ignore = true)
     @Mapping(target = "lastUpdate", ignore = true)
     @Mapping(target = "deletedProduct", ignore = true)
+    @Mapping(target = "version", ignore = true)
     void updateEntityFromDto(
             ProductRequestDTO dto,
             @MappingTarget Product product
     );
+
+    // Request DTOs keep BigDecimal so bean validation (@Positive) still applies
+    default Money toMoney(BigDecimal amount) {
+        return amount == null ? null : Money.of(amount);
+    }
 }
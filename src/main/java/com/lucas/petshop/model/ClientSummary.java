@@ -0,0 +1,43 @@
+package com.lucas.petshop.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Data;
+import org.hibernate.annotations.Immutable;
+
+import java.time.LocalDateTime;
+
+/**
+ * Order totals of one client (the {@link Order#getClient()} value), over live orders only.
+ *
+ * <p>Read-only for JPA: rows are written with relative SQL updates by
+ * {@code ClientSummaryRepositoryCustom}, so concurrent orders of the same client never
+ * overwrite each other's increments.</p>
+ */
+@Data
+@Entity
+@Immutable
+@Table(name = "tb_client_summary")
+public class ClientSummary {
+
+    @Id
+    @Column(name = "client", length = 50)
+    private String client;
+
+    // Live (not canceled, not deleted) orders of the client
+    @Column(name = "order_count", nullable = false)
+    private Long orderCount;
+
+    // Sum of the live orders' total_amount
+    @Column(name = "lifetime_spend", nullable = false, precision = 14, scale = 2)
+    private Money lifetimeSpend;
+
+    // Creation time of the client's most recent live order
+    @Column(name = "last_order_at")
+    private LocalDateTime lastOrderAt;
+
+    @Column(name = "last_update")
+    private LocalDateTime lastUpdate;
+}
@@ -0,0 +1,37 @@
+package com.lucas.petshop.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Data;
+import org.hibernate.annotations.Immutable;
+
+import java.time.LocalDateTime;
+
+/**
+ * The single row describing what tb_product_cooccurrence holds: orders up to
+ * {@link #lastOrderId} were counted. On startup the newer orders are added on top.
+ */
+@Data
+@Entity
+@Immutable
+@Table(name = "tb_cooccurrence_checkpoint")
+public class CoOccurrenceCheckpoint {
+
+    // Always 1
+    @Id
+    @Column(name = "checkpoint_id")
+    private Integer id;
+
+    // Highest order id included in the checkpoint
+    @Column(name = "last_order_id", nullable = false)
+    private Long lastOrderId;
+
+    // Rows written to tb_product_cooccurrence
+    @Column(name = "pair_count", nullable = false)
+    private Long pairCount;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+}
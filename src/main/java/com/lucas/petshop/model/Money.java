@@ -0,0 +1,108 @@
+package com.lucas.petshop.model;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Immutable monetary amount stored as a {@code long} number of cents (minor units).
+ *
+ * <p>The database stores prices and totals as {@code DECIMAL(10,2)}, so two decimal
+ * places are enough to represent every persisted value exactly. Keeping the amount
+ * as a primitive avoids the per-operation allocations of {@link BigDecimal} and the
+ * precision loss of {@code double}. All arithmetic is overflow-checked and throws
+ * {@link ArithmeticException} instead of silently wrapping around.</p>
+ *
+ * <p>Conversion to and from {@link BigDecimal} only happens at the boundaries
+ * (JPA via {@link MoneyConverter}, JSON via the Jackson component in the dto package).</p>
+ */
+public final class Money implements Comparable<Money>, Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    // Number of decimal places kept by the amount (matches DECIMAL(10,2) in the schema)
+    public static final int SCALE = 2;
+
+    public static final Money ZERO = new Money(0L);
+
+    private final long cents;
+
+    private Money(long cents) {
+        this.cents = cents;
+    }
+
+    /**
+     * Create an amount from a number of cents.
+     */
+    public static Money ofCents(long cents) {
+        return cents == 0L ? ZERO : new Money(cents);
+    }
+
+    /**
+     * Create an amount from a decimal value with at most two significant decimal places.
+     *
+     * <p>Never rounds: a fraction of a cent is an input error, which the request DTOs reject
+     * with a 400 ({@code @Digits(fraction = 2)}) before it gets here.</p>
+     *
+     * @throws ArithmeticException if the value has more than two significant decimal places
+     *         or does not fit in a {@code long} number of cents
+     */
+    public static Money of(BigDecimal amount) {
+        return ofCents(amount.setScale(SCALE, RoundingMode.UNNECESSARY).unscaledValue().longValueExact());
+    }
+
+    /**
+     * Add the total of one order line ({@code unitPrice * quantity}) to a running total in cents.
+     *
+     * <p>Works on primitives only so a loop over order lines does not allocate.</p>
+     */
+    public static long addLine(long totalCents, Money unitPrice, int quantity) {
+        return Math.addExact(totalCents, Math.multiplyExact(unitPrice.cents, (long) quantity));
+    }
+
+    public long cents() {
+        return cents;
+    }
+
+    public Money plus(Money other) {
+        return ofCents(Math.addExact(cents, other.cents));
+    }
+
+    public Money minus(Money other) {
+        return ofCents(Math.subtractExact(cents, other.cents));
+    }
+
+    public Money times(int quantity) {
+        return ofCents(Math.multiplyExact(cents, (long) quantity));
+    }
+
+    public boolean isPositive() {
+        return cents > 0L;
+    }
+
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(cents, SCALE);
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        return Long.compare(cents, other.cents);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof Money other && other.cents == cents;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(cents);
+    }
+
+    @Override
+    public String toString() {
+        return toBigDecimal().toPlainString();
+    }
+}
@@ -0,0 +1,26 @@
+package com.lucas.petshop.model;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+import java.math.BigDecimal;
+
+/**
+ * JPA converter between {@link Money} attributes and {@code DECIMAL(10,2)} columns.
+ *
+ * <p>Applied automatically to every {@link Money} attribute (Product.price,
+ * ProductOrder.unitPrice and Order.totalAmount).</p>
+ */
+@Converter(autoApply = true)
+public class MoneyConverter implements AttributeConverter<Money, BigDecimal> {
+
+    @Override
+    public BigDecimal convertToDatabaseColumn(Money money) {
+        return money == null ? null : money.toBigDecimal();
+    }
+
+    @Override
+    public Money convertToEntityAttribute(BigDecimal value) {
+        return value == null ? null : Money.of(value);
+    }
+}
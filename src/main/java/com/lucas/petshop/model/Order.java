@@ -3,7 +3,12 @@ package com.lucas.petshop.model;
 import com.lucas.petshop.service.OrderStatusEnum;
 import jakarta.persistence.*;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+import org.hibernate.annotations.ColumnDefault;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.Filter;
+import org.hibernate.annotations.FilterDef;
 import org.hibernate.annotations.UpdateTimestamp;
 
 import java.time.LocalDateTime;
@@ -17,12 +22,26 @@ import java.util.List;
  * mapping and Hibernate annotations to auto-populate creation/update timestamps.
  * Lombok's {@code @Data} generates boilerplate getters/setters/toString/hashCode
  * so the class remains concise.</p>
+ *
+ * <p>Soft-deleted orders (and soft-deleted order lines in {@link #productOrders}) are
+ * filtered out in SQL by the soft-delete filters, see {@link SoftDeleteFilters}.</p>
  */
 @Data
 @Entity
 @Table(name="tb_orders")
+@FilterDef(name = SoftDeleteFilters.ORDER, defaultCondition = "deleted_order = false",
+        autoEnabled = true, applyToLoadByKey = true)
+@Filter(name = SoftDeleteFilters.ORDER)
+@NamedEntityGraph(
+        name = Order.DETAIL_GRAPH,
+        attributeNodes = @NamedAttributeNode(value = "productOrders", subgraph = "lines"),
+        subgraphs = @NamedSubgraph(name = "lines", attributeNodes = @NamedAttributeNode("product"))
+)
 public class Order {
 
+    // Fetch plan for the order detail view: the order, its lines and each line's product in one query
+    public static final String DETAIL_GRAPH = "Order.detail";
+
     // Primary key: database-generated identifier for the order
     @Id
     @Column(name = "order_id")
@@ -37,9 +56,9 @@ public class Order {
     @Column(name = "client", nullable = false)
     private String client;
 
-    // Monetary total for the entire order (currency handling should be done at a higher level)
+    // Monetary total for the entire order, kept in cents (see Money)
     @Column(name = "total_amount", nullable = false)
-    private Double totalAmount;
+    private Money totalAmount;
 
     // Order lifecycle status (uses an enum stored as string in the DB)
     @Enumerated(EnumType.STRING)
@@ -60,7 +79,17 @@ public class Order {
     @Column(name = "deleted_order", nullable = false)
     private Boolean deletedOrder = false;
 
+    // Optimistic-lock version, bumped by every update of the order or of its lines and exposed
+    // as the ETag: a write sent with a stale If-Match fails instead of overwriting a newer change.
+    @Version
+    @ColumnDefault("0")
+    @Column(name = "version", nullable = false)
+    private Long version = 0L;
+
     @OneToMany(mappedBy = "order", fetch = FetchType.LAZY)
+    @Filter(name = SoftDeleteFilters.PRODUCT_ORDER)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     private List<ProductOrder> productOrders;
 
 }
@@ -4,10 +4,14 @@ import com.lucas.petshop.service.ProductAnimalTypeEnum;
 import com.lucas.petshop.service.ProductTypeEnum;
 import jakarta.persistence.*;
 import lombok.Data;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.Filter;
+import org.hibernate.annotations.FilterDef;
 import org.hibernate.annotations.UpdateTimestamp;
 
-import java.math.BigDecimal;
 import java.text.DecimalFormat;
 import java.time.LocalDateTime;
 import java.util.List;
@@ -20,12 +24,26 @@ import java.util.List;
  * Annotations from JPA and Hibernate control persistence behavior; Lombok's
  * {@code @Data} generates the usual boilerplate (getters/setters, toString,
  * equals and hashCode).</p>
+ *
+ * <p>Soft-deleted products are hidden from every Hibernate query and load by id
+ * through the {@link SoftDeleteFilters#PRODUCT} filter.</p>
+ *
+ * <p>Products are read far more often than they change, so they live in the
+ * second-level cache region {@value #CACHE_REGION} (bounded, see ehcache.xml).
+ * READ_WRITE keeps the cache consistent with updates made through Hibernate.</p>
  */
 @Data
 @Entity
 @Table(name = "tb_products")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = Product.CACHE_REGION)
+@FilterDef(name = SoftDeleteFilters.PRODUCT, defaultCondition = "deleted_product = false",
+        autoEnabled = true, applyToLoadByKey = true)
+@Filter(name = SoftDeleteFilters.PRODUCT)
 public class Product {
 
+    public static final String CACHE_REGION = "product";
+
     // Primary key (auto-generated by the database)
     @Id
     @Column(name = "product_id")
@@ -61,9 +79,9 @@ public class Product {
     @Column(name = "stock", nullable = false)
     private Integer stock;
 
-    // Retail price for the product (use a monetary type/strategy if needed in future)
+    // Retail price for the product, kept in cents and converted to DECIMAL by MoneyConverter
     @Column(name = "price", nullable = false)
-    private BigDecimal price;
+    private Money price;
 
     // Size or weight metric for the product (units depend on domain conventions)
     @Column(name = "size_weight", nullable = false)
@@ -80,7 +98,14 @@ public class Product {
     private LocalDateTime lastUpdate;
 
     // Soft-delete flag: when true the product is considered logically deleted
-    // and should typically be excluded from normal queries.
+    // and is excluded from queries by the soft-delete filter.
     @Column(name = "deleted_product", nullable = false)
     private Boolean deletedProduct = false;
+
+    // Optimistic-lock version, bumped by every update (also the set-based ones) and exposed as
+    // the ETag: a write sent with a stale If-Match fails instead of overwriting a newer change.
+    @Version
+    @ColumnDefault("0")
+    @Column(name = "version", nullable = false)
+    private Long version = 0L;
 }
@@ -0,0 +1,29 @@
+package com.lucas.petshop.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.EmbeddedId;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Table;
+import lombok.Data;
+import org.hibernate.annotations.Immutable;
+
+/**
+ * One pair of the checkpointed co-occurrence matrix: how many live orders contain both
+ * products. Each pair is stored once, with {@code productId < otherProductId}.
+ *
+ * <p>Read-only for JPA: the whole table is rewritten by {@code BoughtTogetherServiceImpl}
+ * with batched SQL at every checkpoint, and read back on startup.</p>
+ */
+@Data
+@Entity
+@Immutable
+@Table(name = "tb_product_cooccurrence")
+public class ProductCoOccurrence {
+
+    @EmbeddedId
+    private ProductPairKey id;
+
+    // Live orders containing both products
+    @Column(name = "order_count", nullable = false)
+    private Integer orderCount;
+}
@@ -2,32 +2,78 @@ package com.lucas.petshop.model;
 
 import jakarta.persistence.*;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
+import org.hibernate.annotations.Filter;
+import org.hibernate.annotations.FilterDef;
+import org.springframework.data.domain.Persistable;
 
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
+/**
+ * One line of an order: a product, its quantity and the unit price at the time of purchase.
+ *
+ * <p>Both associations are LAZY so queries on tb_products_orders do not drag in the full
+ * product and order rows. Use cases that need them declare it with an entity graph
+ * ({@link Order#DETAIL_GRAPH} for the order detail, {@link #WITH_PRODUCT_GRAPH} for sales reports).</p>
+ *
+ * <p>The key is assigned from the product and the order, never generated, so Spring Data
+ * cannot tell a new line from an existing one by looking at the id. Implementing
+ * {@link Persistable} makes {@code save()} a plain persist (a batched INSERT) instead of a
+ * merge that first SELECTs the row.</p>
+ */
 @Entity
 @Table(name = "tb_products_orders")
+@FilterDef(name = SoftDeleteFilters.PRODUCT_ORDER, defaultCondition = "deleted_product_order = false",
+        autoEnabled = true, applyToLoadByKey = true)
+@Filter(name = SoftDeleteFilters.PRODUCT_ORDER)
 @Data
-public class ProductOrder {
+@NamedEntityGraph(name = ProductOrder.WITH_PRODUCT_GRAPH, attributeNodes = @NamedAttributeNode("product"))
+public class ProductOrder implements Persistable<ProductOrderKey> {
+
+    // Fetch plan for sales reports: each line with its product, without the owning order
+    public static final String WITH_PRODUCT_GRAPH = "ProductOrder.withProduct";
 
     @EmbeddedId
     private ProductOrderKey id = new ProductOrderKey();
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @MapsId("productId")
     @JoinColumn(name = "product_id")
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     private Product product;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @MapsId("orderId")
     @JoinColumn(name = "order_id")
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     private Order order;
 
     private Integer quantity;
-    private BigDecimal unitPrice;
+    private Money unitPrice;
 
     @Column(name = "created_at")
     private LocalDateTime createdAt = LocalDateTime.now();
+
+    @Column(name = "deleted_product_order", nullable = false)
+    private Boolean deletedProductOrder = false;
+
+    @Transient
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private boolean newLine = true;
+
+    @Override
+    public boolean isNew() {
+        return newLine;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        this.newLine = false;
+    }
 }
@@ -0,0 +1,20 @@
+package com.lucas.petshop.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import lombok.*;
+
+import java.io.Serializable;
+
+@Embeddable
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductPairKey implements Serializable {
+    // the smaller product id of the pair
+    @Column(name = "product_id")
+    private Long productId;
+
+    @Column(name = "other_product_id")
+    private Long otherProductId;
+}
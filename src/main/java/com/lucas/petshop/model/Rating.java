@@ -4,6 +4,8 @@ import com.lucas.petshop.service.RatingStarsEnum;
 import jakarta.persistence.*;
 import lombok.Data;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.Filter;
+import org.hibernate.annotations.FilterDef;
 import org.hibernate.annotations.UpdateTimestamp;
 import org.springframework.cglib.core.Local;
 
@@ -12,6 +14,9 @@ import java.time.LocalDateTime;
 @Data
 @Entity
 @Table(name="tb_rating")
+@FilterDef(name = SoftDeleteFilters.RATING, defaultCondition = "deleted_rating = false",
+        autoEnabled = true, applyToLoadByKey = true)
+@Filter(name = SoftDeleteFilters.RATING)
 public class Rating {
 
     @Id
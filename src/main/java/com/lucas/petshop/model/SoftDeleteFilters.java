@@ -0,0 +1,29 @@
+package com.lucas.petshop.model;
+
+/**
+ * Names of the Hibernate filters that hide soft-deleted rows.
+ *
+ * <p>Each entity with a {@code deleted_*} flag declares an auto-enabled filter, so every
+ * HQL/Criteria query, derived repository query and load by id issued through Hibernate
+ * gets the {@code deleted_* = false} predicate appended in SQL. Native SQL is not
+ * filtered and must add the predicate itself.</p>
+ *
+ * <p>Code that really needs deleted rows (admin tooling, purge jobs) opts out explicitly
+ * through {@link com.lucas.petshop.repository.SoftDeleteFilterScope}.</p>
+ */
+public final class SoftDeleteFilters {
+
+    public static final String PRODUCT = "activeProducts";
+    public static final String ORDER = "activeOrders";
+    public static final String RATING = "activeRatings";
+    public static final String PRODUCT_ORDER = "activeProductOrders";
+
+    private static final String[] ALL = {PRODUCT, ORDER, RATING, PRODUCT_ORDER};
+
+    private SoftDeleteFilters() {
+    }
+
+    public static String[] all() {
+        return ALL.clone();
+    }
+}
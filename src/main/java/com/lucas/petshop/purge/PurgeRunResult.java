@@ -0,0 +1,20 @@
+package com.lucas.petshop.purge;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * Outcome of one purge run.
+ *
+ * @param dryRun        rows were only counted
+ * @param archived      rows were copied to the archive tables before being deleted
+ * @param cutoff        rows soft-deleted before this time were eligible
+ * @param startedAt     start of the run
+ * @param millis        duration of the run
+ * @param rows          rows removed (or eligible, in a dry run) per table
+ * @param rowsPerSecond overall throughput, bounded by petshop.purge.max-rows-per-second
+ * @param completed     false when the run was interrupted (shutdown) or failed part way
+ */
+public record PurgeRunResult(boolean dryRun, boolean archived, LocalDateTime cutoff, LocalDateTime startedAt,
+                             long millis, Map<String, Long> rows, double rowsPerSecond, boolean completed) {
+}
@@ -0,0 +1,24 @@
+package com.lucas.petshop.purge;
+
+import org.springframework.scheduling.annotation.Scheduled;
+
+/**
+ * Runs the {@link SoftDeletePurgeJob} every {@code petshop.purge.interval} (measured from the
+ * end of the previous run, so runs never overlap).
+ */
+public class PurgeScheduler {
+
+    private final SoftDeletePurgeJob job;
+
+    public PurgeScheduler(SoftDeletePurgeJob job) {
+        this.job = job;
+    }
+
+    @Scheduled(initialDelayString = "${petshop.purge.initial-delay:PT10M}",
+            fixedDelayString = "${petshop.purge.interval:PT1H}")
+    public void purge() {
+        if (!job.isRunning()) {
+            job.run();
+        }
+    }
+}
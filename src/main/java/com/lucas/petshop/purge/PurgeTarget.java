@@ -0,0 +1,91 @@
+package com.lucas.petshop.purge;
+
+/**
+ * What the purge removes, in this order (ratings and order lines reference products, so they
+ * go first and may make more products eligible in the same run).
+ *
+ * <p>Each target walks its candidates in key order ({@code key > ?}, {@code LIMIT ?}) on a
+ * partial index over the soft-deleted rows, and deletes a batch by key with the soft-delete
+ * predicate repeated, so a row is only ever removed if it is still eligible.</p>
+ */
+enum PurgeTarget {
+
+    // ratings soft-deleted before the cutoff
+    RATINGS("tb_rating",
+            """
+            SELECT rating_id FROM tb_rating
+             WHERE deleted_rating = true AND last_update < ? AND rating_id > ?
+             ORDER BY rating_id LIMIT ?
+            """,
+            "INSERT INTO tb_rating_archive SELECT * FROM tb_rating WHERE rating_id = ANY (?) AND deleted_rating = true",
+            "DELETE FROM tb_rating WHERE rating_id = ANY (?) AND deleted_rating = true",
+            null),
+
+    // lines of orders soft-deleted before the cutoff; keyed by order
+    ORDER_LINES("tb_products_orders",
+            """
+            SELECT o.order_id FROM tb_orders o
+             WHERE o.deleted_order = true AND o.order_update < ? AND o.order_id > ?
+               AND EXISTS (SELECT 1 FROM tb_products_orders pl WHERE pl.order_id = o.order_id)
+             ORDER BY o.order_id LIMIT ?
+            """,
+            """
+            INSERT INTO tb_products_orders_archive SELECT pl.* FROM tb_products_orders pl
+             WHERE pl.order_id = ANY (?)
+               AND EXISTS (SELECT 1 FROM tb_orders o WHERE o.order_id = pl.order_id AND o.deleted_order = true)
+            """,
+            """
+            DELETE FROM tb_products_orders
+             WHERE order_id = ANY (?)
+               AND EXISTS (SELECT 1 FROM tb_orders o WHERE o.order_id = tb_products_orders.order_id AND o.deleted_order = true)
+            """,
+            "SELECT COUNT(*) FROM tb_products_orders WHERE order_id = ANY (?)"),
+
+    // products soft-deleted before the cutoff that no rating or order line refers to
+    PRODUCTS("tb_products",
+            """
+            SELECT p.product_id FROM tb_products p
+             WHERE p.deleted_product = true AND p.last_update < ? AND p.product_id > ?
+               AND NOT EXISTS (SELECT 1 FROM tb_products_orders pl WHERE pl.product_id = p.product_id)
+               AND NOT EXISTS (SELECT 1 FROM tb_rating r WHERE r.product_id = p.product_id)
+             ORDER BY p.product_id LIMIT ?
+            """,
+            "INSERT INTO tb_products_archive SELECT * FROM tb_products WHERE product_id = ANY (?) AND deleted_product = true",
+            "DELETE FROM tb_products WHERE product_id = ANY (?) AND deleted_product = true",
+            null);
+
+    private final String table;
+    private final String candidatesSql;
+    private final String archiveSql;
+    private final String deleteSql;
+    // rows behind a batch of keys, for dry runs; null when it is one row per key
+    private final String countSql;
+
+    PurgeTarget(String table, String candidatesSql, String archiveSql, String deleteSql, String countSql) {
+        this.table = table;
+        this.candidatesSql = candidatesSql;
+        this.archiveSql = archiveSql;
+        this.deleteSql = deleteSql;
+        this.countSql = countSql;
+    }
+
+    String table() {
+        return table;
+    }
+
+    String candidatesSql() {
+        return candidatesSql;
+    }
+
+    String archiveSql() {
+        return archiveSql;
+    }
+
+    String deleteSql() {
+        return deleteSql;
+    }
+
+    String countSql() {
+        return countSql;
+    }
+}
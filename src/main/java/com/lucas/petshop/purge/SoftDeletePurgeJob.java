@@ -0,0 +1,199 @@
+package com.lucas.petshop.purge;
+
+import com.lucas.petshop.config.PurgeProperties;
+import com.lucas.petshop.exception.ConflictException;
+import com.lucas.petshop.invalidation.InvalidationPublisher;
+import com.lucas.petshop.invalidation.InvalidationTarget;
+import com.lucas.petshop.repository.ProductRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Removes rows that have been soft-deleted for longer than the retention: deleted ratings,
+ * the lines of deleted orders, then deleted products nothing refers to any more.
+ *
+ * <p>Built to stay out of the way of live traffic:</p>
+ * <ul>
+ *   <li>candidates are found by keyset ({@code key > last}) on partial indexes that only hold
+ *   soft-deleted rows, so a batch never scans live data or restarts from the beginning;</li>
+ *   <li>each batch is deleted in its own short transaction, by primary key;</li>
+ *   <li>the run sleeps between batches to stay under {@code max-rows-per-second}.</li>
+ * </ul>
+ *
+ * <p>One run at a time per node. Several nodes may run concurrently: the delete repeats the
+ * eligibility predicate, so the worst case is a batch that deletes nothing.</p>
+ */
+@Slf4j
+public class SoftDeletePurgeJob {
+
+    public static final String ROWS_METRIC = "petshop.purge.rows";
+    public static final String BATCH_METRIC = "petshop.purge.batch";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ProductRepository productRepository;
+    private final InvalidationPublisher invalidationPublisher;
+    private final PurgeProperties properties;
+    private final MeterRegistry meterRegistry;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    // progress of the run in flight (table -> rows so far), and the last finished run
+    private volatile Map<String, Long> progress = Map.of();
+    private volatile LocalDateTime progressStartedAt;
+    private volatile PurgeRunResult lastRun;
+
+    public SoftDeletePurgeJob(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+                              ProductRepository productRepository, InvalidationPublisher invalidationPublisher,
+                              PurgeProperties properties, MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.productRepository = productRepository;
+        this.invalidationPublisher = invalidationPublisher;
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    public PurgeRunResult run() {
+        return run(properties.isDryRun(), properties.isArchive());
+    }
+
+    public PurgeRunResult run(boolean dryRun, boolean archive) {
+        if (!running.compareAndSet(false, true)) {
+            throw new ConflictException("PURGE ALREADY RUNNING");
+        }
+        LocalDateTime startedAt = LocalDateTime.now();
+        LocalDateTime cutoff = startedAt.minus(properties.getRetention());
+        long startNanos = System.nanoTime();
+
+        Map<String, Long> rows = new LinkedHashMap<>();
+        progress = rows;
+        progressStartedAt = startedAt;
+        boolean completed = false;
+        long total = 0;
+        try {
+            for (PurgeTarget target : PurgeTarget.values()) {
+                rows.put(target.table(), 0L);
+                total = purge(target, Timestamp.valueOf(cutoff), dryRun, archive, rows, total, startNanos);
+            }
+            completed = true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.info("[PURGE] interrupted, stopping after {} rows", total);
+        } catch (RuntimeException e) {
+            log.warn("[PURGE] failed after {} rows", total, e);
+        } finally {
+            running.set(false);
+        }
+
+        long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+        PurgeRunResult result = new PurgeRunResult(dryRun, archive && !dryRun, cutoff, startedAt, millis,
+                Map.copyOf(rows), millis == 0 ? total : total * 1000.0 / millis, completed);
+        lastRun = result;
+        log.info("[PURGE] {} {} rows in {} ms (cutoff {}): {}",
+                dryRun ? "found" : "removed", total, millis, cutoff, rows);
+        return result;
+    }
+
+    public boolean isRunning() {
+        return running.get();
+    }
+
+    public Map<String, Long> progress() {
+        return running.get() ? Map.copyOf(progress) : Map.of();
+    }
+
+    public LocalDateTime progressStartedAt() {
+        return running.get() ? progressStartedAt : null;
+    }
+
+    public PurgeRunResult lastRun() {
+        return lastRun;
+    }
+
+    private long purge(PurgeTarget target, Timestamp cutoff, boolean dryRun, boolean archive,
+                       Map<String, Long> rows, long total, long startNanos) throws InterruptedException {
+        int batchSize = properties.getBatchSize();
+        String action = dryRun ? "eligible" : archive ? "archived" : "deleted";
+        Counter counter = Counter.builder(ROWS_METRIC)
+                .description("Soft-deleted rows purged (or found eligible, in dry runs)")
+                .tag("table", target.table())
+                .tag("action", action)
+                .register(meterRegistry);
+        Timer batchTimer = Timer.builder(BATCH_METRIC)
+                .description("Duration of one purge batch")
+                .tag("table", target.table())
+                .register(meterRegistry);
+
+        long lastKey = 0;
+        while (true) {
+            List<Long> keys = jdbcTemplate.queryForList(target.candidatesSql(), Long.class, cutoff, lastKey, batchSize);
+            if (keys.isEmpty()) {
+                return total;
+            }
+
+            long batchStart = System.nanoTime();
+            long removed = dryRun ? count(target, keys) : purgeBatch(target, keys, archive);
+            batchTimer.record(System.nanoTime() - batchStart, TimeUnit.NANOSECONDS);
+
+            counter.increment(removed);
+            rows.merge(target.table(), removed, Long::sum);
+            total += removed;
+            lastKey = keys.getLast();
+
+            pace(total, startNanos);
+            if (keys.size() < batchSize) {
+                return total;
+            }
+        }
+    }
+
+    private long purgeBatch(PurgeTarget target, List<Long> keys, boolean archive) {
+        return transactionTemplate.execute(status -> {
+            if (archive) {
+                updateWithKeys(target.archiveSql(), keys);
+            }
+            int removed = updateWithKeys(target.deleteSql(), keys);
+            if (target == PurgeTarget.PRODUCTS) {
+                productRepository.evictFromCache(keys);
+                invalidationPublisher.publishAfterCommit(InvalidationTarget.PRODUCT, keys);
+            }
+            return (long) removed;
+        });
+    }
+
+    private long count(PurgeTarget target, List<Long> keys) {
+        if (target.countSql() == null) {
+            return keys.size();
+        }
+        Long rows = jdbcTemplate.query(target.countSql(),
+                ps -> ps.setArray(1, ps.getConnection().createArrayOf("bigint", keys.toArray())),
+                rs -> rs.next() ? rs.getLong(1) : 0L);
+        return rows == null ? 0 : rows;
+    }
+
+    private int updateWithKeys(String sql, List<Long> keys) {
+        return jdbcTemplate.update(sql, ps -> ps.setArray(1, ps.getConnection().createArrayOf("bigint", keys.toArray())));
+    }
+
+    // sleeps until `rows` is within the rate limit measured from the start of the run
+    private void pace(long rows, long startNanos) throws InterruptedException {
+        long earliestNanos = rows * TimeUnit.SECONDS.toNanos(1) / properties.getMaxRowsPerSecond();
+        long aheadNanos = earliestNanos - (System.nanoTime() - startNanos);
+        if (aheadNanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(aheadNanos);
+        }
+    }
+}
@@ -0,0 +1,256 @@
+package com.lucas.petshop.recommendation;
+
+import com.lucas.petshop.util.LongIntHashMap;
+import com.lucas.petshop.util.LongObjectHashMap;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongFunction;
+
+/**
+ * Sparse, symmetric product x product matrix of "orders containing both" counts, with the
+ * {@code topK} most frequent neighbours of every product kept sorted as counts change.
+ *
+ * <p>Each product has a {@link Row}: its neighbour counts in a {@link LongIntHashMap} and its
+ * top-K in two primitive arrays. Rows are locked one at a time, so orders of unrelated products
+ * update in parallel and a read of the top-K never waits for more than one row update.</p>
+ *
+ * <p>The rows themselves are spread over {@value #STRIPES} {@link LongObjectHashMap}s by product
+ * id, each behind its own lock, so finding a row neither boxes the id nor serialises all
+ * readers on one lock.</p>
+ */
+public class CoOccurrenceMatrix {
+
+    private static final int STRIPE_BITS = 6;
+    private static final int STRIPES = 1 << STRIPE_BITS;
+
+    @SuppressWarnings("unchecked")
+    private final LongObjectHashMap<Row>[] stripes = new LongObjectHashMap[STRIPES];
+    private final LongAdder pairs = new LongAdder();
+    private final LongFunction<Row> newRow;
+
+    public CoOccurrenceMatrix(int topK) {
+        if (topK < 1) {
+            throw new IllegalArgumentException("topK must be positive");
+        }
+        this.newRow = product -> new Row(topK);
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new LongObjectHashMap<>();
+        }
+    }
+
+    /**
+     * Adds ({@code sign} 1) or removes ({@code sign} -1) one order containing the given
+     * products: every pair of distinct products gets {@code sign} added to its count.
+     */
+    public void addOrder(long[] products, int sign) {
+        long[] distinct = distinct(products);
+        for (int i = 0; i < distinct.length; i++) {
+            for (int j = i + 1; j < distinct.length; j++) {
+                addPair(distinct[i], distinct[j], sign);
+            }
+        }
+    }
+
+    /**
+     * Adds {@code count} orders containing both {@code product} and {@code other}.
+     */
+    public void addPair(long product, long other, int count) {
+        if (product == other || count == 0) {
+            return;
+        }
+        int before = row(product).add(other, count);
+        row(other).add(product, count);
+        if (before == 0 && count > 0) {
+            pairs.increment();
+        } else if (before > 0 && before + count <= 0) {
+            pairs.decrement();
+        }
+    }
+
+    /**
+     * Up to {@code limit} (at most top-K) products most often ordered with {@code product},
+     * most frequent first.
+     */
+    public Neighbours top(long product, int limit) {
+        LongObjectHashMap<Row> stripe = stripe(product);
+        Row row;
+        synchronized (stripe) {
+            row = stripe.get(product);
+        }
+        if (row == null) {
+            return new Neighbours(new long[0], new int[0]);
+        }
+        synchronized (row) {
+            int n = Math.min(Math.max(limit, 0), row.topSize);
+            return new Neighbours(Arrays.copyOf(row.topIds, n), Arrays.copyOf(row.topCounts, n));
+        }
+    }
+
+    /**
+     * Calls {@code entries} once per pair, with {@code product < other}. Each row is copied
+     * under its lock, so concurrent orders are never blocked for the whole walk.
+     */
+    public void forEachPair(PairEntries entries) {
+        for (LongObjectHashMap<Row> stripe : stripes) {
+            long[] products;
+            Row[] stripeRows;
+            synchronized (stripe) {
+                products = new long[stripe.size()];
+                stripeRows = new Row[products.length];
+                int[] next = {0};
+                stripe.forEach((product, row) -> {
+                    products[next[0]] = product;
+                    stripeRows[next[0]++] = row;
+                });
+            }
+            for (int i = 0; i < products.length; i++) {
+                forEachPair(products[i], stripeRows[i], entries);
+            }
+        }
+    }
+
+    public int products() {
+        int products = 0;
+        for (LongObjectHashMap<Row> stripe : stripes) {
+            synchronized (stripe) {
+                products += stripe.size();
+            }
+        }
+        return products;
+    }
+
+    public long pairs() {
+        return pairs.sum();
+    }
+
+    @FunctionalInterface
+    public interface PairEntries {
+        void accept(long product, long other, int count);
+    }
+
+    /**
+     * Neighbour ids and their counts, most frequent first.
+     */
+    public record Neighbours(long[] products, int[] counts) {
+    }
+
+    private Row row(long product) {
+        LongObjectHashMap<Row> stripe = stripe(product);
+        synchronized (stripe) {
+            return stripe.computeIfAbsent(product, newRow);
+        }
+    }
+
+    // the top bits of the hash: the low ones pick the slot inside the stripe
+    private LongObjectHashMap<Row> stripe(long product) {
+        return stripes[(int) ((product * 0x9E3779B97F4A7C15L) >>> (64 - STRIPE_BITS))];
+    }
+
+    private static void forEachPair(long product, Row row, PairEntries entries) {
+        long[] others;
+        int[] counts;
+        synchronized (row) {
+            others = new long[row.counts.size()];
+            counts = new int[others.length];
+            int[] next = {0};
+            row.counts.forEach((other, count) -> {
+                others[next[0]] = other;
+                counts[next[0]++] = count;
+            });
+        }
+        for (int i = 0; i < others.length; i++) {
+            if (product < others[i]) {
+                entries.accept(product, others[i], counts[i]);
+            }
+        }
+    }
+
+    private static long[] distinct(long[] products) {
+        long[] sorted = products.clone();
+        Arrays.sort(sorted);
+        int n = 0;
+        for (int i = 0; i < sorted.length; i++) {
+            if (i == 0 || sorted[i] != sorted[i - 1]) {
+                sorted[n++] = sorted[i];
+            }
+        }
+        return n == sorted.length ? sorted : Arrays.copyOf(sorted, n);
+    }
+
+    private static final class Row {
+
+        private final LongIntHashMap counts = new LongIntHashMap();
+
+        // by count descending, then id ascending
+        private final long[] topIds;
+        private final int[] topCounts;
+        private int topSize;
+
+        private Row(int topK) {
+            topIds = new long[topK];
+            topCounts = new int[topK];
+        }
+
+        // returns the count of other before the change
+        private synchronized int add(long other, int delta) {
+            int before = counts.get(other);
+            int after = counts.add(other, delta);
+            int position = indexOf(other);
+            if (delta > 0) {
+                if (position < 0) {
+                    offer(other, after);
+                } else {
+                    topCounts[position] = after;
+                    moveUp(position);
+                }
+            } else if (position >= 0 || topSize < topIds.length) {
+                // a top neighbour went down: one outside the top may now beat it
+                recompute();
+            }
+            return before;
+        }
+
+        private int indexOf(long other) {
+            for (int i = 0; i < topSize; i++) {
+                if (topIds[i] == other) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        private void offer(long other, int count) {
+            if (topSize < topIds.length) {
+                topIds[topSize] = other;
+                topCounts[topSize] = count;
+                moveUp(topSize++);
+            } else if (before(other, count, topIds[topSize - 1], topCounts[topSize - 1])) {
+                topIds[topSize - 1] = other;
+                topCounts[topSize - 1] = count;
+                moveUp(topSize - 1);
+            }
+        }
+
+        private void moveUp(int position) {
+            long id = topIds[position];
+            int count = topCounts[position];
+            while (position > 0 && before(id, count, topIds[position - 1], topCounts[position - 1])) {
+                topIds[position] = topIds[position - 1];
+                topCounts[position] = topCounts[position - 1];
+                position--;
+            }
+            topIds[position] = id;
+            topCounts[position] = count;
+        }
+
+        private void recompute() {
+            topSize = 0;
+            counts.forEach(this::offer);
+        }
+
+        private static boolean before(long id, int count, long otherId, int otherCount) {
+            return count > otherCount || (count == otherCount && id < otherId);
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.lucas.petshop.repository;
+
+import com.lucas.petshop.model.ClientSummary;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.List;
+
+public interface ClientSummaryRepository extends JpaRepository<ClientSummary, String>, ClientSummaryRepositoryCustom {
+
+    // every client that has (or had) an order, in key order: the unit of work of the backfill
+    @Query(value = "SELECT DISTINCT client FROM tb_orders ORDER BY client", nativeQuery = true)
+    List<String> findAllOrderClients();
+}
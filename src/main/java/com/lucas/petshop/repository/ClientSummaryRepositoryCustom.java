@@ -0,0 +1,25 @@
+package com.lucas.petshop.repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Incremental maintenance of {@code tb_client_summary}. Every method is one relative update of
+ * the client's row (plus an insert for a client's first order) in the caller's transaction.
+ */
+public interface ClientSummaryRepositoryCustom {
+
+    // a live order of the client was placed (or restored): +1 order, +amount
+    void addOrder(String client, BigDecimal amount, LocalDateTime placedAt);
+
+    // a live order changed amount
+    void addSpend(String client, BigDecimal delta);
+
+    // a live order was canceled, deleted or moved to another client: -1 order, -amount;
+    // the last order date is recomputed from the client's other live orders
+    void removeOrder(String client, BigDecimal amount, long orderId);
+
+    // recomputes the rows of these clients from tb_orders; returns the number of rows written
+    int rebuild(List<String> clients);
+}
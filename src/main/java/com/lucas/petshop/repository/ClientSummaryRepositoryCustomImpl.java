@@ -0,0 +1,129 @@
+package com.lucas.petshop.repository;
+
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Array;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+class ClientSummaryRepositoryCustomImpl implements ClientSummaryRepositoryCustom {
+
+    private static final String ADD_ORDER_SQL = """
+            UPDATE tb_client_summary
+               SET order_count = order_count + 1,
+                   lifetime_spend = lifetime_spend + ?,
+                   last_order_at = CASE WHEN last_order_at IS NULL OR last_order_at < ? THEN ? ELSE last_order_at END,
+                   last_update = ?
+             WHERE client = ?
+            """;
+
+    // first order of a client; DO NOTHING when a concurrent first order inserted the row first
+    private static final String INSERT_SQL = """
+            INSERT INTO tb_client_summary (client, order_count, lifetime_spend, last_order_at, last_update)
+            VALUES (?, 1, ?, ?, ?)
+            ON CONFLICT DO NOTHING
+            """;
+
+    private static final String ADD_SPEND_SQL = """
+            UPDATE tb_client_summary
+               SET lifetime_spend = lifetime_spend + ?,
+                   last_update = ?
+             WHERE client = ?
+            """;
+
+    // order_id <> ?: the removed order may not be flushed as deleted yet
+    private static final String REMOVE_ORDER_SQL = """
+            UPDATE tb_client_summary
+               SET order_count = CASE WHEN order_count > 0 THEN order_count - 1 ELSE 0 END,
+                   lifetime_spend = lifetime_spend - ?,
+                   last_order_at = (SELECT MAX(o.order_creation) FROM tb_orders o
+                                     WHERE o.client = ? AND o.deleted_order = false AND o.order_id <> ?),
+                   last_update = ?
+             WHERE client = ?
+            """;
+
+    private static final String REBUILD_INSERT_SQL = """
+            INSERT INTO tb_client_summary (client, order_count, lifetime_spend)
+            VALUES (?, 0, 0)
+            ON CONFLICT DO NOTHING
+            """;
+
+    // in key order, so concurrent rebuilds and order writes lock rows in the same order
+    private static final String REBUILD_LOCK_SQL = """
+            SELECT client FROM tb_client_summary WHERE client = ANY (?) ORDER BY client FOR UPDATE
+            """;
+
+    private static final String REBUILD_UPDATE_SQL = """
+            UPDATE tb_client_summary s
+               SET order_count = (SELECT COUNT(*) FROM tb_orders o
+                                   WHERE o.client = s.client AND o.deleted_order = false),
+                   lifetime_spend = (SELECT COALESCE(SUM(o.total_amount), 0) FROM tb_orders o
+                                      WHERE o.client = s.client AND o.deleted_order = false),
+                   last_order_at = (SELECT MAX(o.order_creation) FROM tb_orders o
+                                     WHERE o.client = s.client AND o.deleted_order = false),
+                   last_update = ?
+             WHERE s.client = ANY (?)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    ClientSummaryRepositoryCustomImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void addOrder(String client, BigDecimal amount, LocalDateTime placedAt) {
+        Timestamp placed = Timestamp.valueOf(placedAt);
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+
+        // a returning client is one statement; only the first order also inserts
+        if (jdbcTemplate.update(ADD_ORDER_SQL, amount, placed, placed, now, client) > 0) {
+            return;
+        }
+        if (jdbcTemplate.update(INSERT_SQL, client, amount, placed, now) == 0) {
+            jdbcTemplate.update(ADD_ORDER_SQL, amount, placed, placed, now, client);
+        }
+    }
+
+    @Override
+    public void addSpend(String client, BigDecimal delta) {
+        jdbcTemplate.update(ADD_SPEND_SQL, delta, Timestamp.valueOf(LocalDateTime.now()), client);
+    }
+
+    @Override
+    public void removeOrder(String client, BigDecimal amount, long orderId) {
+        jdbcTemplate.update(REMOVE_ORDER_SQL, amount, client, orderId, Timestamp.valueOf(LocalDateTime.now()), client);
+    }
+
+    /**
+     * Must run in a transaction. The rows are locked before the orders are aggregated, so an
+     * order committed concurrently is either part of the aggregate or applies its own increment
+     * after this transaction, never both and never neither.
+     */
+    @Override
+    public int rebuild(List<String> clients) {
+        if (clients.isEmpty()) {
+            return 0;
+        }
+        jdbcTemplate.batchUpdate(REBUILD_INSERT_SQL, clients, clients.size(),
+                (ps, client) -> ps.setString(1, client));
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        return jdbcTemplate.execute((ConnectionCallback<Integer>) connection -> {
+            Array keys = connection.createArrayOf("varchar", clients.toArray());
+            try (PreparedStatement lock = connection.prepareStatement(REBUILD_LOCK_SQL)) {
+                lock.setArray(1, keys);
+                lock.executeQuery().close();
+            }
+            try (PreparedStatement update = connection.prepareStatement(REBUILD_UPDATE_SQL)) {
+                update.setTimestamp(1, now);
+                update.setArray(2, keys);
+                return update.executeUpdate();
+            }
+        });
+    }
+}
@@ -1,7 +1,18 @@
 package com.lucas.petshop.repository;
 
 import com.lucas.petshop.model.Order;
+import com.lucas.petshop.service.OrderStatusEnum;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
 
 /**
  * Spring Data JPA repository for the {@link Order} entity.
@@ -13,4 +24,92 @@ import org.springframework.data.jpa.repository.JpaRepository;
  * queries (Spring Data will implement them by method name or via @Query).</p>
  */
 public interface OrderRepository extends JpaRepository<Order, Long>{
-}
\ No newline at end of file
+
+    /**
+     * Load an order together with its (live) lines and their products in a single
+     * statement, using the {@link Order#DETAIL_GRAPH} fetch plan.
+     *
+     * <p>A line whose product has been soft-deleted makes the fetch fail while the product
+     * filter is on; call it through {@code SoftDeleteFilterScope} with
+     * {@link com.lucas.petshop.model.SoftDeleteFilters#PRODUCT} disabled.</p>
+     */
+    @EntityGraph(Order.DETAIL_GRAPH)
+    Optional<Order> findDetailById(Long id);
+
+    /**
+     * Orders of one client, newest first. Served by idx_orders_client_created,
+     * which also provides the ordering so only the requested page is read.
+     */
+    Slice<Order> findByClientOrderByOrderCreationDesc(String client, Pageable pageable);
+
+    /**
+     * Orders whose client starts with the given text, newest first.
+     * The LIKE 'prefix%' predicate is a range scan on idx_orders_client_created
+     * (text_pattern_ops makes it usable regardless of the database collation). The scan
+     * covers several clients, so unlike the exact match the index does not give the
+     * order: every matching row is read and sorted before the page is cut, which is why
+     * OrderServiceImpl rejects prefixes shorter than 3 characters.
+     */
+    Slice<Order> findByClientStartingWithOrderByOrderCreationDesc(String prefix, Pageable pageable);
+
+    /**
+     * Orders whose client is similar to the given text (pg_trgm {@code %} operator,
+     * served by the GIN trigram index idx_orders_client_trgm), newest first.
+     *
+     * <p>Native SQL is not covered by the soft-delete filter, hence the explicit predicate.
+     * Fetch {@code limit = size + 1} rows to find out whether a next page exists. The OFFSET
+     * rows are read and discarded, so OrderServiceImpl caps the page number.</p>
+     */
+    @Query(value = """
+            SELECT * FROM tb_orders o
+            WHERE o.deleted_order = false AND o.client % :client
+            ORDER BY o.order_creation DESC
+            LIMIT :limit OFFSET :offset
+            """, nativeQuery = true)
+    List<Order> findByClientSimilar(@Param("client") String client,
+                                    @Param("limit") int limit,
+                                    @Param("offset") long offset);
+
+    /**
+     * Order count per status and deleted flag, as {@code [status, deleted_order, count]} rows.
+     * Native on purpose: the soft-delete filter would hide the deleted ones.
+     */
+    @Query(value = "SELECT status, deleted_order, COUNT(*) FROM tb_orders GROUP BY status, deleted_order",
+            nativeQuery = true)
+    List<Object[]> countByStatusAndDeleted();
+
+    /**
+     * Orders created in {@code [from, to)}, oldest first, optionally restricted to a status.
+     *
+     * <p>The range predicate is answered by the BRIN index idx_orders_creation_brin: only the
+     * block ranges whose min/max overlap the window are read, so callers keep the window small
+     * (see OrderServiceImpl) rather than sorting a whole month to return one page.</p>
+     */
+    @Query("""
+            SELECT o FROM Order o
+            WHERE o.orderCreation >= :from AND o.orderCreation < :to
+              AND (:status IS NULL OR o.status = :status)
+            ORDER BY o.orderCreation, o.id
+            """)
+    List<Order> findByCreationBetween(@Param("from") LocalDateTime from,
+                                      @Param("to") LocalDateTime to,
+                                      @Param("status") OrderStatusEnum status,
+                                      Limit limit);
+
+    /**
+     * Same range, strictly after the keyset {@code (orderCreation, id)} of the previous page.
+     */
+    @Query("""
+            SELECT o FROM Order o
+            WHERE o.orderCreation >= :from AND o.orderCreation < :to
+              AND (:status IS NULL OR o.status = :status)
+              AND (o.orderCreation > :createdAt OR (o.orderCreation = :createdAt AND o.id > :id))
+            ORDER BY o.orderCreation, o.id
+            """)
+    List<Order> findByCreationBetweenAfter(@Param("from") LocalDateTime from,
+                                           @Param("to") LocalDateTime to,
+                                           @Param("status") OrderStatusEnum status,
+                                           @Param("createdAt") LocalDateTime createdAt,
+                                           @Param("id") Long id,
+                                           Limit limit);
+}
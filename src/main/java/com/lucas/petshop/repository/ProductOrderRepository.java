@@ -2,16 +2,29 @@ package com.lucas.petshop.repository;
 
 import com.lucas.petshop.model.ProductOrder;
 import com.lucas.petshop.model.ProductOrderKey;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.List;
+
 @Repository
 public interface ProductOrderRepository extends JpaRepository<ProductOrder, Long> {
 
     @Modifying // Necessário para operações de DELETE ou UPDATE
     @Query("DELETE FROM ProductOrder po WHERE po.order.id = :orderId")
     void deleteByOrderId(@Param("orderId") Long orderId);
+
+    // Products of the live lines of an order (the bought-together matrix needs the old ones on update)
+    @Query("SELECT po.id.productId FROM ProductOrder po WHERE po.id.orderId = :orderId")
+    List<Long> findProductIdsByOrderId(@Param("orderId") Long orderId);
+
+    // Sales report: live lines in a period with their products, in one statement.
+    // Lines of deleted products need SoftDeleteFilterScope with the product filter off, as for the order detail
+    @EntityGraph(ProductOrder.WITH_PRODUCT_GRAPH)
+    List<ProductOrder> findByCreatedAtBetween(LocalDateTime from, LocalDateTime to);
 }
@@ -1,7 +1,10 @@
 package com.lucas.petshop.repository;
 
 import com.lucas.petshop.model.Product;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -10,27 +13,31 @@ import java.util.Optional;
 /**
  * Spring Data JPA repository for the {@link Product} entity.
  *
- * <p>Provides standard CRUD operations via {@link JpaRepository} and exposes
- * a couple of convenience query methods used by the application to filter
- * out logically-deleted records.</p>
+ * <p>Provides standard CRUD operations via {@link JpaRepository}. Logically-deleted
+ * records never reach the queries: the soft-delete filter declared on
+ * {@link Product} adds {@code deleted_product = false} to the generated SQL.
+ * Loads by id can still be served from the second-level cache, which the filter does
+ * not see, so single loads go through {@link #findActiveById} and bulk loads through
+ * {@link ProductRepositoryCustom#loadAllById}.</p>
  */
 @Repository
-public interface ProductRepository extends JpaRepository<Product, Long> {
+public interface ProductRepository extends JpaRepository<Product, Long>, ProductRepositoryCustom {
 
     /**
-     * Find all products that are not marked as deleted.
-     *
-     * This convenience method relies on Spring Data JPA's query derivation
-     * by method name. It maps to a query that filters where `deletedProduct` is false.
+     * List all active products. The result (a list of ids) is kept in the query cache
+     * and the entities themselves come from the product cache region; Hibernate
+     * invalidates the cached result whenever tb_products changes.
      */
-    List<Product> findByDeletedProductFalse();
+    @Override
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    List<Product> findAll();
 
     /**
-     * Find a product by id only if it is not marked as deleted.
-     *
-     * Returns an Optional which will be empty when the product does not exist
-     * or has been marked deleted. Use this from service layer to implement
-     * soft-delete semantics.
+     * {@link #findById} without deleted products. A product deleted after it was cached is
+     * still in the cache region (READ_WRITE keeps the updated, deleted, state), and a cache
+     * hit does not go through the filter's SQL.
      */
-    Optional<Product> findByIdAndDeletedProductFalse(Long id);
+    default Optional<Product> findActiveById(Long id) {
+        return findById(id).filter(product -> !Boolean.TRUE.equals(product.getDeletedProduct()));
+    }
 }
@@ -0,0 +1,45 @@
+package com.lucas.petshop.repository;
+
+import com.lucas.petshop.model.Product;
+
+import com.lucas.petshop.dto.ProductBulkUpdateDTO;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Custom fragment of {@link ProductRepository} for loads that Spring Data cannot express.
+ */
+public interface ProductRepositoryCustom {
+
+    /**
+     * Load several products by id in at most one statement.
+     *
+     * <p>Ids found in the product cache region are served from it; only the misses are
+     * read from the database, together, in a single {@code IN} query. The result keeps the
+     * order of the requested ids; ids that do not exist (or are soft-deleted) are absent.</p>
+     */
+    Map<Long, Product> loadAllById(Collection<Long> ids);
+
+    /**
+     * Add price and/or stock deltas to many products in the caller's transaction: one
+     * {@code UPDATE ... FROM unnest(...)} statement on PostgreSQL, one JDBC batch elsewhere.
+     *
+     * <p>Soft-deleted products are left untouched, and so is a product whose stock would go
+     * negative or whose price would drop to 0 or below. Bypasses the persistence context, so
+     * the caller evicts the changed products from the second-level cache after commit.</p>
+     *
+     * @return the ids of the updated products, each mapped to its new price, or to null when
+     *         the change left the price as it was
+     */
+    Map<Long, BigDecimal> bulkAdjustPriceAndStock(List<Map.Entry<Long, ProductBulkUpdateDTO>> changes,
+                                                  LocalDateTime lastUpdate);
+
+    /**
+     * Drop products from the second-level cache after they were changed outside Hibernate.
+     */
+    void evictFromCache(Collection<Long> ids);
+}
@@ -0,0 +1,185 @@
+package com.lucas.petshop.repository;
+
+import com.lucas.petshop.dto.ProductBulkUpdateDTO;
+import com.lucas.petshop.model.Money;
+import com.lucas.petshop.model.Product;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+class ProductRepositoryCustomImpl implements ProductRepositoryCustom {
+
+    // PostgreSQL: the whole chunk in one statement; the arrays keep the SQL text constant
+    // whatever the chunk size. A field that is not changed comes as a 0 delta. A row whose
+    // stock would go negative or whose price would drop to 0 is left as it is.
+    private static final String BULK_UPDATE_UNNEST_SQL = """
+            UPDATE tb_products p
+               SET price = p.price + c.price,
+                   stock = p.stock + c.stock,
+                   last_update = ?,
+                   version = p.version + 1
+              FROM unnest(?::bigint[], ?::numeric[], ?::integer[]) AS c(product_id, price, stock)
+             WHERE p.product_id = c.product_id
+               AND p.deleted_product = false
+               AND p.price + c.price > 0
+               AND p.stock + c.stock >= 0
+            RETURNING p.product_id, CASE WHEN c.price <> 0 THEN p.price END
+            """;
+
+    // Other databases (H2 in tests): same update as a JDBC batch, one row per entry
+    private static final String BULK_UPDATE_BATCH_SQL = """
+            UPDATE tb_products
+               SET price = price + ?,
+                   stock = stock + ?,
+                   last_update = ?,
+                   version = version + 1
+             WHERE product_id = ?
+               AND deleted_product = false
+               AND price + ? > 0
+               AND stock + ? >= 0
+            """;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // resolved on first use from the connection metadata
+    private volatile Boolean postgres;
+
+    ProductRepositoryCustomImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public Map<Long, Product> loadAllById(Collection<Long> ids) {
+        List<Long> distinctIds = ids.stream().distinct().toList();
+        if (distinctIds.isEmpty()) {
+            return Map.of();
+        }
+
+        // multi-load: checks the persistence context and the second-level cache first,
+        // then fetches the remaining ids in one batch
+        List<Product> products = entityManager.unwrap(Session.class).findMultiple(Product.class, distinctIds);
+
+        Map<Long, Product> result = new LinkedHashMap<>(products.size() * 2);
+        for (Product product : products) {
+            if (product != null && !Boolean.TRUE.equals(product.getDeletedProduct())) {
+                result.put(product.getId(), product);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public Map<Long, BigDecimal> bulkAdjustPriceAndStock(List<Map.Entry<Long, ProductBulkUpdateDTO>> changes,
+                                                         LocalDateTime lastUpdate) {
+        Timestamp timestamp = Timestamp.valueOf(lastUpdate);
+        return isPostgres() ? updateWithUnnest(changes, timestamp) : updateWithBatch(changes, timestamp);
+    }
+
+    private Map<Long, BigDecimal> updateWithUnnest(List<Map.Entry<Long, ProductBulkUpdateDTO>> changes,
+                                                   Timestamp timestamp) {
+        Long[] ids = new Long[changes.size()];
+        BigDecimal[] prices = new BigDecimal[changes.size()];
+        Integer[] stocks = new Integer[changes.size()];
+        for (int i = 0; i < ids.length; i++) {
+            Map.Entry<Long, ProductBulkUpdateDTO> change = changes.get(i);
+            ids[i] = change.getKey();
+            prices[i] = priceDelta(change.getValue());
+            stocks[i] = stockDelta(change.getValue());
+        }
+
+        Map<Long, BigDecimal> updated = new HashMap<>(ids.length * 2);
+        jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(BULK_UPDATE_UNNEST_SQL);
+            ps.setTimestamp(1, timestamp);
+            ps.setArray(2, connection.createArrayOf("bigint", ids));
+            ps.setArray(3, connection.createArrayOf("numeric", prices));
+            ps.setArray(4, connection.createArrayOf("integer", stocks));
+            return ps;
+        }, (RowCallbackHandler) rs -> updated.put(rs.getLong(1), rs.getBigDecimal(2)));
+        return updated;
+    }
+
+    private Map<Long, BigDecimal> updateWithBatch(List<Map.Entry<Long, ProductBulkUpdateDTO>> changes,
+                                                  Timestamp timestamp) {
+        int[][] counts = jdbcTemplate.batchUpdate(BULK_UPDATE_BATCH_SQL, changes, changes.size(), (ps, change) -> {
+            BigDecimal price = priceDelta(change.getValue());
+            int stock = stockDelta(change.getValue());
+            ps.setBigDecimal(1, price);
+            ps.setInt(2, stock);
+            ps.setTimestamp(3, timestamp);
+            ps.setLong(4, change.getKey());
+            ps.setBigDecimal(5, price);
+            ps.setInt(6, stock);
+        });
+
+        Map<Long, BigDecimal> updated = new HashMap<>(changes.size() * 2);
+        List<Long> repriced = new ArrayList<>();
+        int i = 0;
+        for (int[] batch : counts) {
+            for (int count : batch) {
+                if (count != 0) {
+                    Map.Entry<Long, ProductBulkUpdateDTO> change = changes.get(i);
+                    updated.put(change.getKey(), null);
+                    if (priceDelta(change.getValue()).signum() != 0) {
+                        repriced.add(change.getKey());
+                    }
+                }
+                i++;
+            }
+        }
+
+        // no RETURNING here: read the new prices back, the rows are still locked by this transaction
+        if (!repriced.isEmpty()) {
+            String in = String.join(",", Collections.nCopies(repriced.size(), "?"));
+            jdbcTemplate.query("SELECT product_id, price FROM tb_products WHERE product_id IN (" + in + ")",
+                    (RowCallbackHandler) rs -> updated.put(rs.getLong(1), rs.getBigDecimal(2)),
+                    repriced.toArray());
+        }
+        return updated;
+    }
+
+    // scaled like the entity (Money), so SQL and JPA writes agree
+    private static BigDecimal priceDelta(ProductBulkUpdateDTO values) {
+        return values.price() == null ? Money.ZERO.toBigDecimal() : Money.of(values.price()).toBigDecimal();
+    }
+
+    private static int stockDelta(ProductBulkUpdateDTO values) {
+        return values.stock() == null ? 0 : values.stock();
+    }
+
+    private boolean isPostgres() {
+        Boolean postgres = this.postgres;
+        if (postgres == null) {
+            postgres = jdbcTemplate.execute((ConnectionCallback<Boolean>) connection ->
+                    connection.getMetaData().getDatabaseProductName().equalsIgnoreCase("PostgreSQL"));
+            this.postgres = postgres;
+        }
+        return postgres;
+    }
+
+    @Override
+    public void evictFromCache(Collection<Long> ids) {
+        var cache = entityManager.getEntityManagerFactory().getCache();
+        for (Long id : ids) {
+            cache.evict(Product.class, id);
+        }
+    }
+}
@@ -1,11 +1,48 @@
 package com.lucas.petshop.repository;
 
 import com.lucas.petshop.model.Rating;
+import com.lucas.petshop.service.RatingStarsEnum;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
 public interface RatingRepository extends JpaRepository<Rating, Long> {
+
+    /**
+     * First page of the ratings of a product, newest first, optionally restricted to a star value.
+     *
+     * <p>The soft-delete filter adds {@code deleted_rating = false}, so the query is an
+     * ordered range scan on idx_rating_product_created that stops after {@code limit} rows.</p>
+     */
+    @Query("""
+            SELECT r FROM Rating r
+            WHERE r.product.id = :productId
+              AND (:stars IS NULL OR r.stars = :stars)
+            ORDER BY r.createdAt DESC, r.id DESC
+            """)
+    List<Rating> findFirstPageByProduct(@Param("productId") Long productId,
+                                        @Param("stars") RatingStarsEnum stars,
+                                        Limit limit);
+
+    /**
+     * Page of ratings strictly after the keyset {@code (createdAt, id)} of the previous page.
+     */
+    @Query("""
+            SELECT r FROM Rating r
+            WHERE r.product.id = :productId
+              AND (:stars IS NULL OR r.stars = :stars)
+              AND (r.createdAt < :createdAt OR (r.createdAt = :createdAt AND r.id < :id))
+            ORDER BY r.createdAt DESC, r.id DESC
+            """)
+    List<Rating> findPageByProductAfter(@Param("productId") Long productId,
+                                        @Param("stars") RatingStarsEnum stars,
+                                        @Param("createdAt") LocalDateTime createdAt,
+                                        @Param("id") Long id,
+                                        Limit limit);
 }
@@ -0,0 +1,69 @@
+package com.lucas.petshop.repository;
+
+import com.lucas.petshop.model.SoftDeleteFilters;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.transaction.Transactional;
+import org.hibernate.Session;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Explicit opt-out from the soft-delete filters for admin queries.
+ *
+ * <p>The filters are enabled on every Hibernate session, so regular repository calls
+ * never see deleted rows. Wrapping work in {@link #includingDeleted(Supplier)} disables
+ * them on the current session for the duration of the call, e.g.:</p>
+ *
+ * <pre>
+ * List&lt;Product&gt; all = softDeleteFilterScope.includingDeleted(productRepository::findAll);
+ * </pre>
+ *
+ * <p>Inside the scope, loads by id return deleted rows too: the work checks the
+ * {@code deleted_*} flags itself where it matters.</p>
+ */
+@Component
+public class SoftDeleteFilterScope {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Run the given repository work with deleted rows visible.
+     * Joins the caller's transaction, or opens one so the work shares the unfiltered session.
+     */
+    @Transactional
+    public <T> T includingDeleted(Supplier<T> work) {
+        return includingDeleted(work, SoftDeleteFilters.all());
+    }
+
+    /**
+     * Run the given repository work with the deleted rows of some entities visible, e.g.
+     * {@link SoftDeleteFilters#PRODUCT} alone to reach the (possibly deleted) products of live
+     * order lines; the other filters stay on.
+     *
+     * <p>Only the filters that were on when the scope was entered are turned back on, so a
+     * nested scope does not re-enable what an outer one has disabled.</p>
+     */
+    @Transactional
+    public <T> T includingDeleted(Supplier<T> work, String... filters) {
+        Session session = entityManager.unwrap(Session.class);
+        List<String> disabled = new ArrayList<>(filters.length);
+        for (String filter : filters) {
+            if (session.getEnabledFilter(filter) != null) {
+                session.disableFilter(filter);
+                disabled.add(filter);
+            }
+        }
+        try {
+            return work.get();
+        } finally {
+            for (String filter : disabled) {
+                session.enableFilter(filter);
+            }
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.lucas.petshop.service;
+
+import org.springframework.scheduling.annotation.Scheduled;
+
+/**
+ * Writes the bought-together matrix of {@link BoughtTogetherService} to its table every
+ * {@code petshop.bought-together.checkpoint-interval}, when it changed.
+ */
+public class BoughtTogetherCheckpointer {
+
+    private final BoughtTogetherService boughtTogetherService;
+
+    public BoughtTogetherCheckpointer(BoughtTogetherService boughtTogetherService) {
+        this.boughtTogetherService = boughtTogetherService;
+    }
+
+    @Scheduled(initialDelayString = "${petshop.bought-together.checkpoint-interval:PT10M}",
+            fixedDelayString = "${petshop.bought-together.checkpoint-interval:PT10M}")
+    public void checkpoint() {
+        boughtTogetherService.checkpoint();
+    }
+}
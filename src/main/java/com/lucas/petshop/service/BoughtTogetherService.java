@@ -0,0 +1,35 @@
+package com.lucas.petshop.service;
+
+import com.lucas.petshop.dto.BoughtTogetherRebuildResultDTO;
+import com.lucas.petshop.dto.BoughtTogetherResponseDTO;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface BoughtTogetherService {
+
+    List<BoughtTogetherResponseDTO> getBoughtTogether(Long productId, int limit);
+
+    /**
+     * Records that order {@code orderId} went from containing {@code previousProducts} to
+     * containing {@code products} (empty when it was just created, or deleted). Called inside
+     * the caller's transaction, after the order is written; applied when it commits.
+     */
+    void recordOrder(Long orderId, Collection<Long> previousProducts, Collection<Long> products);
+
+    BoughtTogetherRebuildResultDTO rebuild();
+
+    /**
+     * Writes the matrix to tb_product_cooccurrence if it changed since the last checkpoint.
+     *
+     * @return pairs written, 0 when there was nothing new
+     */
+    long checkpoint();
+
+    int products();
+
+    long pairs();
+
+    LocalDateTime lastCheckpointAt();
+}
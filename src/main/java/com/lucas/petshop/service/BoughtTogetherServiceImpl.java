@@ -0,0 +1,609 @@
+package com.lucas.petshop.service;
+
+import com.lucas.petshop.config.BoughtTogetherProperties;
+import com.lucas.petshop.dto.BoughtTogetherRebuildResultDTO;
+import com.lucas.petshop.dto.BoughtTogetherResponseDTO;
+import com.lucas.petshop.exception.ConflictException;
+import com.lucas.petshop.model.Product;
+import com.lucas.petshop.recommendation.CoOccurrenceMatrix;
+import com.lucas.petshop.repository.ProductRepository;
+import com.lucas.petshop.util.LongIntHashMap;
+import com.lucas.petshop.util.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * "Frequently bought together" from a {@link CoOccurrenceMatrix} kept in memory and updated
+ * by {@link OrderService} as orders are created, changed and deleted, so a product page reads
+ * a sorted top-K instead of self-joining tb_products_orders.
+ *
+ * <ul>
+ *   <li>On startup the matrix is loaded from the last checkpoint and the orders created since
+ *   are added; without a checkpoint it is rebuilt from the whole order history, in parallel
+ *   order id ranges. If the database cannot be read it starts empty, and
+ *   {@code POST /actuator/boughttogether} fills it later.</li>
+ *   <li>It is written back to tb_product_cooccurrence every {@code checkpoint-interval} (see
+ *   {@link BoughtTogetherCheckpointer}) and on shutdown. Updates and deletes of older orders
+ *   made after the last checkpoint by a node that died are not replayed: a rebuild repairs them.</li>
+ *   <li>Like the order counters, the matrix only sees this node's writes until the next
+ *   restart or rebuild.</li>
+ * </ul>
+ *
+ * <p>A rebuild reads the orders up to the highest id at its start while orders keep changing.
+ * A change is recorded before its transaction commits: if the scan has already read that order
+ * (or the order is past the mark) the change goes to the new matrix as well when it commits,
+ * otherwise the scan leaves the order out and it is read again once its transactions are over.
+ * Either way no order is counted both from the database and from a change.</p>
+ */
+@Slf4j
+@Service
+public class BoughtTogetherServiceImpl implements BoughtTogetherService, SmartLifecycle {
+
+    private static final String ORDER_LINES_SQL = """
+            SELECT po.order_id, po.product_id FROM tb_products_orders po
+            JOIN tb_orders o ON o.order_id = po.order_id
+            WHERE po.order_id > ? AND po.order_id <= ?
+              AND o.deleted_order = false AND po.deleted_product_order = false
+            ORDER BY po.order_id
+            """;
+
+    private static final String INSERT_PAIR_SQL =
+            "INSERT INTO tb_product_cooccurrence (product_id, other_product_id, order_count) VALUES (?, ?, ?)";
+
+    // pairs per JDBC batch of a checkpoint
+    private static final int CHECKPOINT_BATCH_SIZE = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ProductRepository productRepository;
+    private final BoughtTogetherProperties properties;
+
+    // pause between the passes re-reading the orders a rebuild left out
+    private static final long REREAD_WAIT_MILLIS = 10;
+
+    private volatile CoOccurrenceMatrix matrix;
+
+    // guards inFlight and the running rebuild's bookkeeping
+    private final Object tracking = new Object();
+    // orders with recorded changes whose transaction has not completed, and how many
+    private final LongIntHashMap inFlight = new LongIntHashMap();
+    private Rebuild rebuilding;
+
+    // restore, rebuild and checkpoint one at a time
+    private final ReentrantLock maintenance = new ReentrantLock();
+    private final LongAdder changesSinceCheckpoint = new LongAdder();
+    private volatile LocalDateTime lastCheckpointAt;
+    // false until restored or rebuilt: an empty matrix must never overwrite a good checkpoint
+    private volatile boolean loaded;
+    private volatile boolean running;
+
+    public BoughtTogetherServiceImpl(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+                                     ProductRepository productRepository, BoughtTogetherProperties properties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.productRepository = productRepository;
+        this.properties = properties;
+        this.matrix = new CoOccurrenceMatrix(properties.getTopK());
+    }
+
+    //GET BOUGHT TOGETHER
+    @Override
+    public List<BoughtTogetherResponseDTO> getBoughtTogether(Long productId, int limit) {
+        long startTime = System.currentTimeMillis();
+
+        CoOccurrenceMatrix.Neighbours top = matrix.top(productId, Math.clamp(limit, 1, properties.getTopK()));
+
+        // names in one IN query (or from the cache); deleted products drop out here
+        List<Long> ids = Arrays.stream(top.products()).boxed().toList();
+        Map<Long, Product> products = productRepository.loadAllById(ids);
+
+        List<BoughtTogetherResponseDTO> result = new ArrayList<>(ids.size());
+        for (int i = 0; i < ids.size(); i++) {
+            Product product = products.get(ids.get(i));
+            if (product != null) {
+                result.add(new BoughtTogetherResponseDTO(product.getId(), product.getName(), top.counts()[i]));
+            }
+        }
+
+        Timer.measure("[GET BOUGHT TOGETHER] - Successfully", startTime);
+        return result;
+    }
+
+    @Override
+    public void recordOrder(Long orderId, Collection<Long> previousProducts, Collection<Long> products) {
+        long[] before = toArray(previousProducts);
+        long[] after = toArray(products);
+        if (before.length < 2 && after.length < 2 || Arrays.equals(before, after)) {
+            return;
+        }
+        Change change;
+        synchronized (tracking) {
+            inFlight.add(orderId, 1);
+            change = new Change(orderId, before, after,
+                    rebuilding != null && rebuilding.read(orderId) ? rebuilding.fresh : null);
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            apply(change);
+            complete(change);
+            return;
+        }
+        pendingChanges().add(change);
+    }
+
+    //REBUILD BOUGHT TOGETHER
+    @Override
+    public BoughtTogetherRebuildResultDTO rebuild() {
+        if (!maintenance.tryLock()) {
+            throw new ConflictException("BOUGHT TOGETHER REBUILD ALREADY RUNNING");
+        }
+        try {
+            return rebuildLocked();
+        } finally {
+            maintenance.unlock();
+        }
+    }
+
+    //CHECKPOINT BOUGHT TOGETHER
+    @Override
+    public long checkpoint() {
+        maintenance.lock();
+        long startTime = System.currentTimeMillis();
+        long changes = changesSinceCheckpoint.sumThenReset();
+        try {
+            if (changes == 0 || !loaded) {
+                changesSinceCheckpoint.add(changes);
+                return 0;
+            }
+            // read before the walk: every order up to this id is in the matrix, or committing right now
+            long lastOrderId = lastOrderId();
+            CoOccurrenceMatrix snapshot = matrix;
+            long[] written = {0};
+            transactionTemplate.executeWithoutResult(status -> {
+                jdbcTemplate.update("DELETE FROM tb_product_cooccurrence");
+                PairBatch batch = new PairBatch();
+                snapshot.forEachPair((product, other, count) -> {
+                    batch.add(product, other, count);
+                    if (batch.size == CHECKPOINT_BATCH_SIZE) {
+                        written[0] += batch.flush();
+                    }
+                });
+                written[0] += batch.flush();
+                jdbcTemplate.update("DELETE FROM tb_cooccurrence_checkpoint");
+                jdbcTemplate.update("INSERT INTO tb_cooccurrence_checkpoint (checkpoint_id, last_order_id, pair_count, created_at) "
+                        + "VALUES (1, ?, ?, ?)", lastOrderId, written[0], Timestamp.valueOf(LocalDateTime.now()));
+            });
+            lastCheckpointAt = LocalDateTime.now();
+
+            Timer.measure("[CHECKPOINT BOUGHT TOGETHER] - Successfully", startTime);
+            return written[0];
+        } catch (RuntimeException e) {
+            changesSinceCheckpoint.add(changes);
+            throw e;
+        } finally {
+            maintenance.unlock();
+        }
+    }
+
+    @Override
+    public int products() {
+        return matrix.products();
+    }
+
+    @Override
+    public long pairs() {
+        return matrix.pairs();
+    }
+
+    @Override
+    public LocalDateTime lastCheckpointAt() {
+        return lastCheckpointAt;
+    }
+
+    // loads the matrix before the intake writers and the web server start taking orders
+    @Override
+    public void start() {
+        running = true;
+        maintenance.lock();
+        try {
+            restore();
+        } catch (RuntimeException e) {
+            // the shop works without recommendations: serve an empty list until a rebuild
+            log.error("[BOUGHT TOGETHER] could not load the matrix, starting empty: {}", e.getMessage());
+        } finally {
+            maintenance.unlock();
+        }
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (properties.isCheckpointEnabled()) {
+            try {
+                checkpoint();
+            } catch (RuntimeException e) {
+                log.warn("[BOUGHT TOGETHER] checkpoint on shutdown failed: {}", e.getMessage());
+            }
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    // below the web server (DEFAULT_PHASE - 2048): the matrix is loaded before the first request
+    // and the order intake (DEFAULT_PHASE - 1536) has drained before it stops
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 2049;
+    }
+
+    private void restore() {
+        long startTime = System.currentTimeMillis();
+        List<Map<String, Object>> checkpoint;
+        try {
+            checkpoint = jdbcTemplate.queryForList(
+                    "SELECT last_order_id, created_at FROM tb_cooccurrence_checkpoint WHERE checkpoint_id = 1");
+        } catch (DataAccessException e) {
+            log.warn("[BOUGHT TOGETHER] no checkpoint table ({}), rebuilding from the orders", e.getMessage());
+            checkpoint = List.of();
+        }
+        if (checkpoint.isEmpty()) {
+            BoughtTogetherRebuildResultDTO rebuilt = rebuildLocked();
+            log.info("[BOUGHT TOGETHER] no checkpoint, rebuilt {} pairs from {} orders in {} ms",
+                    rebuilt.pairs(), rebuilt.orders(), rebuilt.millis());
+            return;
+        }
+
+        long checkpointOrderId = ((Number) checkpoint.getFirst().get("last_order_id")).longValue();
+        CoOccurrenceMatrix restored = new CoOccurrenceMatrix(properties.getTopK());
+        jdbcTemplate.query("SELECT product_id, other_product_id, order_count FROM tb_product_cooccurrence",
+                (RowCallbackHandler) rs -> restored.addPair(rs.getLong(1), rs.getLong(2), rs.getInt(3)));
+        long newOrders = readOrders(restored, checkpointOrderId, lastOrderId(), null);
+        matrix = restored;
+        loaded = true;
+        lastCheckpointAt = ((Timestamp) checkpoint.getFirst().get("created_at")).toLocalDateTime();
+        if (newOrders > 0) {
+            changesSinceCheckpoint.increment();
+        }
+
+        log.info("[BOUGHT TOGETHER] restored {} pairs from the checkpoint of {} and {} newer orders",
+                restored.pairs(), lastCheckpointAt, newOrders);
+        Timer.measure("[RESTORE BOUGHT TOGETHER] - Successfully", startTime);
+    }
+
+    private BoughtTogetherRebuildResultDTO rebuildLocked() {
+        long startTime = System.currentTimeMillis();
+        Rebuild rebuild = new Rebuild(new CoOccurrenceMatrix(properties.getTopK()), properties.getRebuildChunkSize());
+        try {
+            // orders with uncommitted changes are left to the re-read: the scan may or may not see them
+            synchronized (tracking) {
+                inFlight.forEach((orderId, changes) -> rebuild.skip(orderId));
+                rebuilding = rebuild;
+            }
+            long lastOrderId = lastOrderId();
+            synchronized (tracking) {
+                rebuild.mark(lastOrderId);
+            }
+            int chunks = (int) Math.ceilDiv(lastOrderId, (long) properties.getRebuildChunkSize());
+            long orders = readOrders(rebuild.fresh, 0, lastOrderId, rebuild);
+            orders += rereadSkipped(rebuild);
+            loaded = true;
+            changesSinceCheckpoint.increment();
+
+            Timer.measure("[REBUILD BOUGHT TOGETHER] - Successfully", startTime);
+            return new BoughtTogetherRebuildResultDTO(orders, rebuild.fresh.pairs(), chunks,
+                    System.currentTimeMillis() - startTime);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("BOUGHT TOGETHER REBUILD INTERRUPTED");
+        } finally {
+            synchronized (tracking) {
+                rebuilding = null;
+            }
+        }
+    }
+
+    // reads the orders the scan left out once their transactions are over, then serves the new matrix
+    private long rereadSkipped(Rebuild rebuild) throws InterruptedException {
+        long orders = 0;
+        while (true) {
+            long[] ready;
+            synchronized (tracking) {
+                if (rebuild.skipped.size() == 0) {
+                    matrix = rebuild.fresh;
+                    return orders;
+                }
+                ready = rebuild.takeReady(inFlight);
+            }
+            if (ready.length == 0) {
+                TimeUnit.MILLISECONDS.sleep(REREAD_WAIT_MILLIS);
+                continue;
+            }
+            for (long orderId : ready) {
+                OrderLines lines = new OrderLines(rebuild.fresh, rebuild);
+                jdbcTemplate.query(ORDER_LINES_SQL, lines, orderId - 1, orderId);
+                lines.flush();
+                synchronized (tracking) {
+                    rebuild.reread(orderId);
+                }
+                orders += lines.orders;
+            }
+        }
+    }
+
+    // orders with id in (fromId, toId], in parallel chunks of rebuild-chunk-size ids
+    private long readOrders(CoOccurrenceMatrix target, long fromId, long toId, Rebuild rebuild) {
+        int chunkSize = properties.getRebuildChunkSize();
+        try (ExecutorService workers = Executors.newFixedThreadPool(properties.getRebuildThreads(),
+                Thread.ofPlatform().name("bought-together-rebuild-", 0).factory())) {
+            List<CompletableFuture<Long>> chunks = new ArrayList<>();
+            for (long from = fromId; from < toId; from += chunkSize) {
+                long chunkFrom = from;
+                long chunkTo = Math.min(from + chunkSize, toId);
+                chunks.add(CompletableFuture.supplyAsync(() -> readChunk(target, chunkFrom, chunkTo, rebuild), workers));
+            }
+            return chunks.stream().mapToLong(CompletableFuture::join).sum();
+        }
+    }
+
+    private long readChunk(CoOccurrenceMatrix target, long fromId, long toId, Rebuild rebuild) {
+        OrderLines lines = new OrderLines(target, rebuild);
+        jdbcTemplate.query(ORDER_LINES_SQL, lines, fromId, toId);
+        lines.flush();
+        if (rebuild != null) {
+            synchronized (tracking) {
+                rebuild.chunkRead(toId);
+            }
+        }
+        return lines.orders;
+    }
+
+    private long lastOrderId() {
+        Long id = jdbcTemplate.queryForObject("SELECT MAX(order_id) FROM tb_orders", Long.class);
+        return id != null ? id : 0;
+    }
+
+    private void apply(Change change) {
+        CoOccurrenceMatrix current = matrix;
+        current.addOrder(change.before(), -1);
+        current.addOrder(change.after(), 1);
+        if (change.rebuilt() != null && change.rebuilt() != current) {
+            change.rebuilt().addOrder(change.before(), -1);
+            change.rebuilt().addOrder(change.after(), 1);
+        }
+        changesSinceCheckpoint.increment();
+    }
+
+    private void complete(Change change) {
+        synchronized (tracking) {
+            inFlight.add(change.orderId(), -1);
+        }
+    }
+
+    // the changes of one transaction, applied together after commit
+    @SuppressWarnings("unchecked")
+    private List<Change> pendingChanges() {
+        List<Change> pending = (List<Change>) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            List<Change> changes = new ArrayList<>();
+            TransactionSynchronizationManager.bindResource(this, changes);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    changes.forEach(BoughtTogetherServiceImpl.this::apply);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    changes.forEach(BoughtTogetherServiceImpl.this::complete);
+                    TransactionSynchronizationManager.unbindResourceIfPossible(BoughtTogetherServiceImpl.this);
+                }
+            });
+            pending = changes;
+        }
+        return pending;
+    }
+
+    private static long[] toArray(Collection<Long> products) {
+        if (products == null) {
+            return new long[0];
+        }
+        return products.stream().mapToLong(Long::longValue).sorted().distinct().toArray();
+    }
+
+    // one recorded change; rebuilt is the matrix of a rebuild that has already read the order
+    private record Change(long orderId, long[] before, long[] after, CoOccurrenceMatrix rebuilt) {
+    }
+
+    // what a rebuild has read so far, guarded by tracking
+    private static final class Rebuild {
+
+        private final CoOccurrenceMatrix fresh;
+        private final int chunkSize;
+        // orders changed before the scan read them: left out, read again after the scan
+        private final LongIntHashMap skipped = new LongIntHashMap();
+        private final LongIntHashMap rereading = new LongIntHashMap();
+        // the highest order id at the start, -1 until it is known
+        private long mark = -1;
+        // per chunk, the highest order id read so far
+        private long[] progress = new long[0];
+
+        private Rebuild(CoOccurrenceMatrix fresh, int chunkSize) {
+            this.fresh = fresh;
+            this.chunkSize = chunkSize;
+        }
+
+        private void mark(long lastOrderId) {
+            progress = new long[(int) Math.ceilDiv(lastOrderId, (long) chunkSize)];
+            for (int chunk = 0; chunk < progress.length; chunk++) {
+                progress[chunk] = (long) chunk * chunkSize;
+            }
+            mark = lastOrderId;
+        }
+
+        // whether a change to the order recorded now commits after the rebuild has read it
+        // (or will never read it); if not, the order is skipped and read again later
+        private boolean read(long orderId) {
+            boolean read = mark >= 0 && (orderId > mark || progress[chunk(orderId)] >= orderId)
+                    && skipped.get(orderId) == 0 && rereading.get(orderId) == 0;
+            if (!read) {
+                skip(orderId);
+            }
+            return read;
+        }
+
+        private void skip(long orderId) {
+            if (skipped.get(orderId) == 0) {
+                skipped.add(orderId, 1);
+            }
+        }
+
+        // called as the scan or a re-read reaches the order: whether to count what it read
+        private boolean count(long orderId) {
+            if (rereading.get(orderId) != 0) {
+                rereading.add(orderId, -1);
+            } else {
+                progress[chunk(orderId)] = orderId;
+            }
+            return skipped.get(orderId) == 0;
+        }
+
+        private void chunkRead(long toId) {
+            progress[chunk(toId)] = toId;
+        }
+
+        private void reread(long orderId) {
+            rereading.add(orderId, -rereading.get(orderId));
+        }
+
+        // the skipped orders without a transaction in flight, moved to rereading
+        private long[] takeReady(LongIntHashMap inFlight) {
+            long[] ready = new long[skipped.size()];
+            int[] size = {0};
+            skipped.forEach((orderId, skip) -> {
+                if (inFlight.get(orderId) == 0) {
+                    ready[size[0]++] = orderId;
+                }
+            });
+            for (int i = 0; i < size[0]; i++) {
+                skipped.add(ready[i], -1);
+                rereading.add(ready[i], 1);
+            }
+            return Arrays.copyOf(ready, size[0]);
+        }
+
+        private int chunk(long orderId) {
+            return (int) ((orderId - 1) / chunkSize);
+        }
+    }
+
+    // collects the product ids of one order at a time from rows sorted by order id
+    private final class OrderLines implements RowCallbackHandler {
+
+        private final CoOccurrenceMatrix target;
+        private final Rebuild rebuild;
+        private long[] products = new long[16];
+        private int size;
+        private long orderId = -1;
+        private long orders;
+
+        private OrderLines(CoOccurrenceMatrix target, Rebuild rebuild) {
+            this.target = target;
+            this.rebuild = rebuild;
+        }
+
+        @Override
+        public void processRow(ResultSet rs) throws SQLException {
+            long id = rs.getLong(1);
+            if (id != orderId) {
+                flush();
+                orderId = id;
+            }
+            if (size == products.length) {
+                products = Arrays.copyOf(products, size * 2);
+            }
+            products[size++] = rs.getLong(2);
+        }
+
+        private void flush() {
+            if (size > 0) {
+                if (counted()) {
+                    target.addOrder(Arrays.copyOf(products, size), 1);
+                    orders++;
+                }
+                size = 0;
+            }
+        }
+
+        private boolean counted() {
+            if (rebuild == null) {
+                return true;
+            }
+            synchronized (tracking) {
+                return rebuild.count(orderId);
+            }
+        }
+    }
+
+    private final class PairBatch {
+
+        private final long[] products = new long[CHECKPOINT_BATCH_SIZE];
+        private final long[] others = new long[CHECKPOINT_BATCH_SIZE];
+        private final int[] counts = new int[CHECKPOINT_BATCH_SIZE];
+        private int size;
+
+        private void add(long product, long other, int count) {
+            products[size] = product;
+            others[size] = other;
+            counts[size++] = count;
+        }
+
+        private int flush() {
+            if (size == 0) {
+                return 0;
+            }
+            int rows = size;
+            jdbcTemplate.batchUpdate(INSERT_PAIR_SQL, new BatchPreparedStatementSetter() {
+                @Override
+                public void setValues(PreparedStatement ps, int i) throws SQLException {
+                    ps.setLong(1, products[i]);
+                    ps.setLong(2, others[i]);
+                    ps.setInt(3, counts[i]);
+                }
+
+                @Override
+                public int getBatchSize() {
+                    return rows;
+                }
+            });
+            size = 0;
+            return rows;
+        }
+    }
+}
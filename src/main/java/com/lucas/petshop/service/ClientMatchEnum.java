@@ -0,0 +1,13 @@
+package com.lucas.petshop.service;
+
+/**
+ * How the {@code client} parameter of an order search is matched against {@code Order.client}.
+ */
+public enum ClientMatchEnum {
+    // Whole name, case-sensitive
+    EXACT,
+    // Names starting with the given text (at least 3 characters)
+    PREFIX,
+    // Trigram similarity (pg_trgm), tolerant to typos; OFFSET paged, first 10 pages only
+    FUZZY
+}
@@ -0,0 +1,19 @@
+package com.lucas.petshop.service;
+
+import com.lucas.petshop.dto.ClientSummaryBackfillResultDTO;
+import com.lucas.petshop.dto.ClientSummaryResponseDTO;
+
+public interface ClientSummaryService {
+
+    /**
+     * Order count, lifetime spend and last order date of a client, read from its summary row
+     * (a primary key lookup). A client without orders gets a zero summary.
+     */
+    ClientSummaryResponseDTO getSummary(String client);
+
+    /**
+     * Recomputes every client's summary from tb_orders, in parallel chunks of clients, each
+     * in its own transaction. Safe to run while orders are being written.
+     */
+    ClientSummaryBackfillResultDTO backfill();
+}
@@ -0,0 +1,95 @@
+package com.lucas.petshop.service;
+
+import com.lucas.petshop.dto.ClientSummaryBackfillResultDTO;
+import com.lucas.petshop.dto.ClientSummaryResponseDTO;
+import com.lucas.petshop.exception.ConflictException;
+import com.lucas.petshop.mapper.ClientSummaryMapper;
+import com.lucas.petshop.model.Money;
+import com.lucas.petshop.repository.ClientSummaryRepository;
+import com.lucas.petshop.util.Timer;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+@Service
+public class ClientSummaryServiceImpl implements ClientSummaryService {
+
+    // clients per backfill transaction
+    private static final int BACKFILL_CHUNK_SIZE = 500;
+
+    // concurrent backfill transactions; each holds one pooled connection
+    private static final int BACKFILL_THREADS = 4;
+
+    private final ClientSummaryRepository clientSummaryRepository;
+    private final ClientSummaryMapper clientSummaryMapper;
+    private final TransactionTemplate transactionTemplate;
+
+    private final AtomicBoolean backfillRunning = new AtomicBoolean();
+
+    public ClientSummaryServiceImpl(
+            ClientSummaryRepository clientSummaryRepository,
+            ClientSummaryMapper clientSummaryMapper,
+            TransactionTemplate transactionTemplate
+    ) {
+        this.clientSummaryRepository = clientSummaryRepository;
+        this.clientSummaryMapper = clientSummaryMapper;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    //GET CLIENT SUMMARY
+    @Override
+    public ClientSummaryResponseDTO getSummary(String client) {
+        long startTime = System.currentTimeMillis();
+
+        ClientSummaryResponseDTO result = clientSummaryRepository.findById(client)
+                .map(clientSummaryMapper::toResponseDTO)
+                .orElseGet(() -> emptySummary(client));
+
+        Timer.measure("[GET CLIENT SUMMARY] - Successfully", startTime);
+        return result;
+    }
+
+    //BACKFILL CLIENT SUMMARIES
+    @Override
+    public ClientSummaryBackfillResultDTO backfill() {
+        if (!backfillRunning.compareAndSet(false, true)) {
+            throw new ConflictException("CLIENT SUMMARY BACKFILL ALREADY RUNNING");
+        }
+        long startTime = System.currentTimeMillis();
+
+        try (ExecutorService workers = Executors.newFixedThreadPool(BACKFILL_THREADS,
+                Thread.ofPlatform().name("client-summary-backfill-", 0).factory())) {
+
+            List<String> clients = clientSummaryRepository.findAllOrderClients();
+
+            List<CompletableFuture<Integer>> chunks = new ArrayList<>();
+            for (int from = 0; from < clients.size(); from += BACKFILL_CHUNK_SIZE) {
+                List<String> chunk = clients.subList(from, Math.min(from + BACKFILL_CHUNK_SIZE, clients.size()));
+                chunks.add(CompletableFuture.supplyAsync(
+                        () -> transactionTemplate.execute(status -> clientSummaryRepository.rebuild(chunk)), workers));
+            }
+
+            int rows = chunks.stream().mapToInt(CompletableFuture::join).sum();
+
+            Timer.measure("[BACKFILL CLIENT SUMMARIES] - Successfully", startTime);
+            return new ClientSummaryBackfillResultDTO(clients.size(), rows, chunks.size(),
+                    System.currentTimeMillis() - startTime);
+        } finally {
+            backfillRunning.set(false);
+        }
+    }
+
+    private static ClientSummaryResponseDTO emptySummary(String client) {
+        ClientSummaryResponseDTO dto = new ClientSummaryResponseDTO();
+        dto.setClient(client);
+        dto.setOrderCount(0L);
+        dto.setLifetimeSpend(Money.ZERO);
+        return dto;
+    }
+}
@@ -1,9 +1,14 @@
 package com.lucas.petshop.service;
 
+import com.lucas.petshop.dto.KeysetPageResponseDTO;
+import com.lucas.petshop.dto.OrderItemResponseDTO;
 import com.lucas.petshop.dto.OrderRequestDTO;
 import com.lucas.petshop.dto.OrderResponseDTO;
+import com.lucas.petshop.dto.SliceResponseDTO;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.function.Consumer;
 
 
 public interface OrderService {
@@ -13,9 +18,34 @@ public interface OrderService {
 
     OrderResponseDTO getOrderById(Long id);
 
-    Long createOrder(OrderRequestDTO order);
+    List<OrderItemResponseDTO> getOrderItems(Long id);
+
+    SliceResponseDTO<OrderResponseDTO> findOrdersByClient(String client, ClientMatchEnum match, int page, int size);
+
+    KeysetPageResponseDTO<OrderResponseDTO> findOrdersByCreation(LocalDateTime from, LocalDateTime to,
+                                                                 OrderStatusEnum status, String cursor, int size);
 
-    void updateOrder(Long id, OrderRequestDTO order);
+    /**
+     * Hands every order created in {@code [from, to)} to {@code sink}, oldest first, in chunks
+     * read concurrently. The sink is called on the calling thread, one chunk at a time.
+     */
+    void exportOrdersByCreation(LocalDateTime from, LocalDateTime to, OrderStatusEnum status,
+                                Consumer<List<OrderResponseDTO>> sink);
+
+    Long createOrder(OrderRequestDTO order);
 
-    void deleteOrder(Long id);
+    /**
+     * Replaces the order and its lines, if it is still at {@code expectedVersion}.
+     *
+     * @param expectedVersion the version the caller read (the If-Match ETag); null skips the check
+     * @return the new version
+     * @throws com.lucas.petshop.exception.VersionMismatchException when the order has moved on,
+     *         including when a concurrent update commits first
+     */
+    long updateOrder(Long id, OrderRequestDTO order, Long expectedVersion);
+
+    /**
+     * Soft-deletes the order, if it is still at {@code expectedVersion} (null skips the check).
+     */
+    void deleteOrder(Long id, Long expectedVersion);
 }
@@ -1,42 +1,110 @@
 package com.lucas.petshop.service;
 
 
+import com.lucas.petshop.dto.KeysetPageResponseDTO;
+import com.lucas.petshop.dto.OrderItemResponseDTO;
 import com.lucas.petshop.dto.OrderRequestDTO;
 import com.lucas.petshop.dto.OrderResponseDTO;
+import com.lucas.petshop.dto.ProductOrderItemDTO;
+import com.lucas.petshop.dto.SliceResponseDTO;
+import com.lucas.petshop.exception.BadRequestException;
+import com.lucas.petshop.exception.OrderNotFoundException;
+import com.lucas.petshop.exception.ProductNotFoundException;
+import com.lucas.petshop.exception.VersionMismatchException;
+import com.lucas.petshop.invalidation.InvalidationPublisher;
+import com.lucas.petshop.invalidation.InvalidationTarget;
 import com.lucas.petshop.mapper.OrderMapper;
+import com.lucas.petshop.model.Money;
 import com.lucas.petshop.model.ProductOrder;
+import com.lucas.petshop.model.Product;
+import com.lucas.petshop.model.SoftDeleteFilters;
+import com.lucas.petshop.repository.ClientSummaryRepository;
 import com.lucas.petshop.repository.OrderRepository;
 import com.lucas.petshop.model.Order;
 import com.lucas.petshop.repository.ProductOrderRepository;
 import com.lucas.petshop.repository.ProductRepository;
+import com.lucas.petshop.repository.SoftDeleteFilterScope;
+import com.lucas.petshop.util.CreationRange;
+import com.lucas.petshop.util.KeysetCursor;
 import com.lucas.petshop.util.Timer;
 import jakarta.transaction.Transactional;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 
 @Service
 public class OrderServiceImpl implements OrderService {
 
+    private static final int MAX_PAGE_SIZE = 100;
+
+    // a PREFIX search reads and sorts every order of the matching clients: keep the prefix selective
+    private static final int MIN_CLIENT_PREFIX = 3;
+
+    // a FUZZY search pages with OFFSET, so a deep page reads every row before it
+    private static final int MAX_FUZZY_PAGE = 10;
+
+    // first creation-time window read for a page; doubled while the page is not full
+    private static final Duration PAGE_WINDOW = Duration.ofHours(1);
+
+    // creation-time span read by one export query
+    private static final Duration EXPORT_CHUNK = Duration.ofHours(6);
+
+    // concurrent export queries; each holds one pooled connection
+    private static final int EXPORT_THREADS = 4;
+
     private final OrderRepository orderRepository;
     private final OrderMapper orderMapper;
     private final ProductRepository productRepository;
     private final ProductOrderRepository productOrderRepository;
+    private final ClientSummaryRepository clientSummaryRepository;
+    private final InvalidationPublisher invalidationPublisher;
+    private final OrderStatsService orderStatsService;
+    private final BoughtTogetherService boughtTogetherService;
+    private final TransactionTemplate readOnlyTransaction;
+    private final SoftDeleteFilterScope softDeleteFilterScope;
 
     public OrderServiceImpl(
             OrderRepository orderRepository,
             OrderMapper orderMapper,
             ProductRepository productRepository,
-            ProductOrderRepository productOrderRepository
+            ProductOrderRepository productOrderRepository,
+            ClientSummaryRepository clientSummaryRepository,
+            InvalidationPublisher invalidationPublisher,
+            OrderStatsService orderStatsService,
+            BoughtTogetherService boughtTogetherService,
+            TransactionTemplate transactionTemplate,
+            SoftDeleteFilterScope softDeleteFilterScope
     ){
         this.orderRepository = orderRepository;
         this.orderMapper = orderMapper;
         this.productRepository = productRepository;
         this.productOrderRepository = productOrderRepository;
+        this.clientSummaryRepository = clientSummaryRepository;
+        this.invalidationPublisher = invalidationPublisher;
+        this.orderStatsService = orderStatsService;
+        this.boughtTogetherService = boughtTogetherService;
+        this.readOnlyTransaction = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        this.readOnlyTransaction.setReadOnly(true);
+        this.softDeleteFilterScope = softDeleteFilterScope;
     }
 
     //GET ALL ORDERS
@@ -44,9 +112,9 @@ public class OrderServiceImpl implements OrderService {
     public List<OrderResponseDTO> getAllOrders() {
         long startTime = System.currentTimeMillis();
 
+        // deleted orders are excluded in SQL by the soft-delete filter
         List<OrderResponseDTO> result = orderRepository.findAll()
                 .stream()
-                .filter(order -> !Boolean.TRUE.equals(order.getDeletedOrder()))
                 .map(orderMapper::toResponseDTO)
                 .collect(Collectors.toList());
 
@@ -62,15 +130,145 @@ public class OrderServiceImpl implements OrderService {
 
         Order order = getOrderIfExists(id);
 
-        if (Boolean.TRUE.equals(order.getDeletedOrder())) {
-            throw new RuntimeException("ORDER IS DELETED");
-        }
-
         Timer.measure("[GET ORDER BY ID] - Successfully", startTime);
         return orderMapper.toResponseDTO(order);
 
     }
 
+    //FIND ORDERS BY CLIENT
+    @Override
+    public SliceResponseDTO<OrderResponseDTO> findOrdersByClient(String client, ClientMatchEnum match, int page, int size) {
+        long startTime = System.currentTimeMillis();
+
+        if (match == ClientMatchEnum.PREFIX && client.strip().length() < MIN_CLIENT_PREFIX) {
+            throw new BadRequestException("CLIENT PREFIX MUST HAVE AT LEAST " + MIN_CLIENT_PREFIX + " CHARACTERS");
+        }
+        if (match == ClientMatchEnum.FUZZY && page >= MAX_FUZZY_PAGE) {
+            throw new BadRequestException("FUZZY CLIENT SEARCH IS LIMITED TO " + MAX_FUZZY_PAGE + " PAGES");
+        }
+
+        PageRequest pageable = PageRequest.of(Math.max(page, 0), Math.clamp(size, 1, MAX_PAGE_SIZE));
+
+        Slice<Order> orders = switch (match) {
+            case EXACT -> orderRepository.findByClientOrderByOrderCreationDesc(client, pageable);
+            case PREFIX -> orderRepository.findByClientStartingWithOrderByOrderCreationDesc(client, pageable);
+            case FUZZY -> {
+                List<Order> rows = orderRepository.findByClientSimilar(
+                        client, pageable.getPageSize() + 1, pageable.getOffset());
+                boolean hasNext = rows.size() > pageable.getPageSize();
+                yield new SliceImpl<>(hasNext ? rows.subList(0, pageable.getPageSize()) : rows, pageable, hasNext);
+            }
+        };
+
+        SliceResponseDTO<OrderResponseDTO> result = SliceResponseDTO.of(orders.map(orderMapper::toResponseDTO));
+
+        Timer.measure("[FIND ORDERS BY CLIENT] - Successfully", startTime);
+        return result;
+    }
+
+    //FIND ORDERS BY CREATION
+    @Override
+    public KeysetPageResponseDTO<OrderResponseDTO> findOrdersByCreation(LocalDateTime from, LocalDateTime to,
+                                                                        OrderStatusEnum status, String cursor, int size) {
+        long startTime = System.currentTimeMillis();
+
+        CreationRange.check(from, to);
+        int pageSize = Math.clamp(size, 1, MAX_PAGE_SIZE);
+        KeysetCursor after = cursor == null || cursor.isBlank() ? null : KeysetCursor.decode(cursor);
+
+        // read consecutive windows (1h, 2h, 4h, ...) until the page is full: each query only touches
+        // the BRIN block ranges of its window and sorts its rows, never the rest of the range
+        List<Order> rows = new ArrayList<>();
+        LocalDateTime windowStart = after != null && after.createdAt().isAfter(from) ? after.createdAt() : from;
+        Duration window = PAGE_WINDOW;
+        while (rows.size() <= pageSize && windowStart.isBefore(to)) {
+            LocalDateTime windowEnd = earliest(windowStart.plus(window), to);
+            // one extra row tells whether there is a next page
+            Limit limit = Limit.of(pageSize + 1 - rows.size());
+            rows.addAll(after == null
+                    ? orderRepository.findByCreationBetween(windowStart, windowEnd, status, limit)
+                    : orderRepository.findByCreationBetweenAfter(windowStart, windowEnd, status,
+                            after.createdAt(), after.id(), limit));
+            windowStart = windowEnd;
+            window = window.multipliedBy(2);
+        }
+
+        String nextCursor = null;
+        if (rows.size() > pageSize) {
+            rows = rows.subList(0, pageSize);
+            Order last = rows.get(pageSize - 1);
+            nextCursor = new KeysetCursor(last.getOrderCreation(), last.getId()).encode();
+        }
+
+        List<OrderResponseDTO> content = rows.stream().map(orderMapper::toResponseDTO).toList();
+
+        Timer.measure("[FIND ORDERS BY CREATION] - Successfully", startTime);
+        return new KeysetPageResponseDTO<>(content, pageSize, nextCursor);
+    }
+
+    //EXPORT ORDERS BY CREATION
+    @Override
+    public void exportOrdersByCreation(LocalDateTime from, LocalDateTime to, OrderStatusEnum status,
+                                       Consumer<List<OrderResponseDTO>> sink) {
+        long startTime = System.currentTimeMillis();
+
+        CreationRange.check(from, to);
+
+        ExecutorService readers = Executors.newFixedThreadPool(EXPORT_THREADS,
+                Thread.ofPlatform().name("order-export-", 0).factory());
+        try {
+            // chunks are read ahead, at most two per thread, and handed over in range order
+            Deque<CompletableFuture<List<OrderResponseDTO>>> pending = new ArrayDeque<>();
+            LocalDateTime next = from;
+            while (next.isBefore(to) || !pending.isEmpty()) {
+                while (next.isBefore(to) && pending.size() < EXPORT_THREADS * 2) {
+                    LocalDateTime chunkFrom = next;
+                    LocalDateTime chunkTo = earliest(next.plus(EXPORT_CHUNK), to);
+                    pending.add(CompletableFuture.supplyAsync(() -> readChunk(chunkFrom, chunkTo, status), readers));
+                    next = chunkTo;
+                }
+                sink.accept(pending.poll().join());
+            }
+        } catch (RuntimeException e) {
+            // the client went away or a chunk failed: do not run the chunks still queued
+            readers.shutdownNow();
+            throw e;
+        } finally {
+            readers.close();
+        }
+
+        Timer.measure("[EXPORT ORDERS BY CREATION] - Successfully", startTime);
+    }
+
+    private List<OrderResponseDTO> readChunk(LocalDateTime from, LocalDateTime to, OrderStatusEnum status) {
+        return readOnlyTransaction.execute(tx -> orderRepository
+                .findByCreationBetween(from, to, status, Limit.unlimited())
+                .stream()
+                .map(orderMapper::toResponseDTO)
+                .toList());
+    }
+
+    private static LocalDateTime earliest(LocalDateTime a, LocalDateTime b) {
+        return a.isBefore(b) ? a : b;
+    }
+
+    //GET ORDER ITEMS
+    @Override
+    public List<OrderItemResponseDTO> getOrderItems(Long id) {
+        long startTime = System.currentTimeMillis();
+
+        // one statement: order, live lines and their products through the Order.detail entity graph.
+        // The products are read including deleted ones: an order keeps showing what was bought
+        Order order = softDeleteFilterScope.includingDeleted(() -> orderRepository.findDetailById(id),
+                        SoftDeleteFilters.PRODUCT)
+                .orElseThrow(() -> new OrderNotFoundException("ORDER NOT FOUND"));
+
+        List<OrderItemResponseDTO> result = orderMapper.toItemResponseDTOs(order.getProductOrders());
+
+        Timer.measure("[GET ORDER ITEMS] - Successfully", startTime);
+        return result;
+    }
+
     //CREATE ORDER
     @Override
     @Transactional
@@ -79,35 +277,45 @@ public class OrderServiceImpl implements OrderService {
 
         Order order = orderMapper.toEntity(dto);
 
-        BigDecimal calculatedTotal = BigDecimal.ZERO;
+        long calculatedTotalCents = 0L;
         int calculatedItemsCount = 0;
-
-        Order savedOrder = orderRepository.save(order);
+        List<ProductOrder> lines = new ArrayList<>();
 
         if (dto.getItems() != null && !dto.getItems().isEmpty()) {
+            Map<Long, Product> products = loadProducts(dto.getItems());
+
             for (var itemDto : dto.getItems()) {
-                var product = productRepository.findById(itemDto.getProductId())
-                        .orElseThrow(() -> new RuntimeException("PRODUCT NOT FOUND: ID " + itemDto.getProductId()));
+                var product = products.get(itemDto.getProductId());
 
                 ProductOrder productOrder = new ProductOrder();
-                productOrder.setOrder(savedOrder);
                 productOrder.setProduct(product);
                 productOrder.setQuantity(itemDto.getQuantity());
-                productOrder.setUnitPrice(product.getPrice()); // BigDecimal de tb_products
-
-                productOrderRepository.save(productOrder);
+                productOrder.setUnitPrice(product.getPrice());
+                lines.add(productOrder);
 
                 calculatedItemsCount += itemDto.getQuantity();
 
-                BigDecimal itemTotal = product.getPrice().multiply(BigDecimal.valueOf(itemDto.getQuantity()));
-                calculatedTotal = calculatedTotal.add(itemTotal);
+                // primitive, overflow-checked accumulation: no allocation per line
+                calculatedTotalCents = Money.addLine(calculatedTotalCents, product.getPrice(), itemDto.getQuantity());
             }
         }
 
-        savedOrder.setTotalItemsCount(calculatedItemsCount);
-        savedOrder.setTotalAmount(calculatedTotal.doubleValue());
+        // totals are known before the insert (total_items_count and total_amount are NOT NULL)
+        order.setTotalItemsCount(calculatedItemsCount);
+        order.setTotalAmount(Money.ofCents(calculatedTotalCents));
+
+        Order savedOrder = orderRepository.save(order);
+
+        for (ProductOrder productOrder : lines) {
+            productOrder.setOrder(savedOrder);
+            productOrderRepository.save(productOrder);
+        }
 
-        orderRepository.save(savedOrder);
+        clientSummaryRepository.addOrder(savedOrder.getClient(), savedOrder.getTotalAmount().toBigDecimal(),
+                placedAt(savedOrder));
+        orderStatsService.recordChange(null, false, savedOrder.getStatus(), Boolean.TRUE.equals(savedOrder.getDeletedOrder()));
+        boughtTogetherService.recordOrder(savedOrder.getId(), List.of(), productIds(dto));
+        invalidationPublisher.publishAfterCommit(InvalidationTarget.ORDER, savedOrder.getId());
 
         Timer.measure("[CREATE ORDER] - Successfully", startTime);
         return savedOrder.getId();
@@ -116,77 +324,158 @@ public class OrderServiceImpl implements OrderService {
     //UPDATE ORDER
     @Override
     @Transactional
-    public void updateOrder(Long id, OrderRequestDTO dto) {
+    public long updateOrder(Long id, OrderRequestDTO dto, Long expectedVersion) {
         long startTime = System.currentTimeMillis();
 
         Order existing = getOrderIfExists(id);
 
-        if (Boolean.TRUE.equals(existing.getDeletedOrder())) {
-            throw new RuntimeException("CANNOT UPDATE A DELETED ORDER");
-        }
+        checkVersion(existing, expectedVersion);
 
-        productOrderRepository.deleteByOrderId(id);
+        List<Long> previousProducts = productOrderRepository.findProductIdsByOrderId(id);
+        Map<Long, Product> products = dto.getItems() == null || dto.getItems().isEmpty()
+                ? Map.of() : loadProducts(dto.getItems());
+
+        String previousClient = existing.getClient();
+        Money previousAmount = existing.getTotalAmount();
+        OrderStatusEnum previousStatus = existing.getStatus();
 
         orderMapper.updateEntityFromDto(dto, existing);
 
-        BigDecimal calculatedTotal = BigDecimal.ZERO;
+        long calculatedTotalCents = 0L;
         int calculatedItemsCount = 0;
 
-        if (dto.getItems() != null && !dto.getItems().isEmpty()) {
+        if (dto.getItems() != null) {
             for (var itemDto : dto.getItems()) {
-                var product = productRepository.findById(itemDto.getProductId())
-                        .orElseThrow(() -> new RuntimeException("PRODUCT NOT FOUND: ID " + itemDto.getProductId()));
-
-                ProductOrder productOrder = new ProductOrder();
-                productOrder.setOrder(existing);
-                productOrder.setProduct(product);
-                productOrder.setQuantity(itemDto.getQuantity());
-                productOrder.setUnitPrice(product.getPrice());
-
-                productOrderRepository.save(productOrder);
-
+                Product product = products.get(itemDto.getProductId());
                 calculatedItemsCount += itemDto.getQuantity();
-                BigDecimal itemTotal = product.getPrice().multiply(BigDecimal.valueOf(itemDto.getQuantity()));
-                calculatedTotal = calculatedTotal.add(itemTotal);
+                calculatedTotalCents = Money.addLine(calculatedTotalCents, product.getPrice(), itemDto.getQuantity());
             }
         }
 
         existing.setTotalItemsCount(calculatedItemsCount);
-        existing.setTotalAmount(calculatedTotal.doubleValue());
+        existing.setTotalAmount(Money.ofCents(calculatedTotalCents));
 
         if (dto.getStatus() == OrderStatusEnum.CANCELED) {
             existing.setDeletedOrder(true);
         }
 
         existing.setOrderUpdate(LocalDateTime.now());
-        orderRepository.save(existing);
+
+        // the order row goes first, with its version check: of two updates that read the same
+        // version, the second waits on this row and then fails here, before touching any line
+        flushVersioned(existing);
+
+        productOrderRepository.deleteByOrderId(id);
+        if (dto.getItems() != null) {
+            for (var itemDto : dto.getItems()) {
+                var product = products.get(itemDto.getProductId());
+
+                ProductOrder productOrder = new ProductOrder();
+                productOrder.setOrder(existing);
+                productOrder.setProduct(product);
+                productOrder.setQuantity(itemDto.getQuantity());
+                productOrder.setUnitPrice(product.getPrice());
+
+                productOrderRepository.save(productOrder);
+            }
+        }
+
+        updateClientSummary(existing, previousClient, previousAmount);
+        orderStatsService.recordChange(previousStatus, false, existing.getStatus(), Boolean.TRUE.equals(existing.getDeletedOrder()));
+        boughtTogetherService.recordOrder(id, previousProducts,
+                Boolean.TRUE.equals(existing.getDeletedOrder()) ? List.of() : productIds(dto));
+        invalidationPublisher.publishAfterCommit(InvalidationTarget.ORDER, id);
 
         Timer.measure("[UPDATE ORDER] - Successfully", startTime);
+        return existing.getVersion();
     }
 
 
     //DELETE (SOFT DELETE)
     @Override
-    public void deleteOrder(Long id) {
+    @Transactional
+    public void deleteOrder(Long id, Long expectedVersion) {
         long startTime = System.currentTimeMillis();
 
         Order existing = getOrderIfExists(id);
 
-        if(Boolean.TRUE.equals(existing.getDeletedOrder())){
-            throw new RuntimeException("ORDER ALREADY DELETED");
-        }
+        checkVersion(existing, expectedVersion);
 
         existing.setDeletedOrder(true);
         existing.setOrderUpdate(LocalDateTime.now());
 
-        orderRepository.save(existing);
+        flushVersioned(existing);
+        clientSummaryRepository.removeOrder(existing.getClient(), existing.getTotalAmount().toBigDecimal(), id);
+        orderStatsService.recordChange(existing.getStatus(), false, existing.getStatus(), true);
+        boughtTogetherService.recordOrder(id, productOrderRepository.findProductIdsByOrderId(id), List.of());
+        invalidationPublisher.publishAfterCommit(InvalidationTarget.ORDER, id);
 
         Timer.measure("[DELETE ORDER] - Sucessfully", startTime);
     }
 
     //METHODS
+    // applies an update of a live order to the client summaries: cancellation, change of client or amount delta
+    private void updateClientSummary(Order order, String previousClient, Money previousAmount) {
+        BigDecimal previous = previousAmount.toBigDecimal();
+        BigDecimal current = order.getTotalAmount().toBigDecimal();
+
+        if (Boolean.TRUE.equals(order.getDeletedOrder())) {
+            clientSummaryRepository.removeOrder(previousClient, previous, order.getId());
+        } else if (!previousClient.equals(order.getClient())) {
+            // both rows in key order, like the backfill, so the two never deadlock
+            if (previousClient.compareTo(order.getClient()) < 0) {
+                clientSummaryRepository.removeOrder(previousClient, previous, order.getId());
+                clientSummaryRepository.addOrder(order.getClient(), current, placedAt(order));
+            } else {
+                clientSummaryRepository.addOrder(order.getClient(), current, placedAt(order));
+                clientSummaryRepository.removeOrder(previousClient, previous, order.getId());
+            }
+        } else if (current.compareTo(previous) != 0) {
+            clientSummaryRepository.addSpend(order.getClient(), current.subtract(previous));
+        }
+    }
+
+    private static List<Long> productIds(OrderRequestDTO dto) {
+        return dto.getItems() == null ? List.of()
+                : dto.getItems().stream().map(ProductOrderItemDTO::getProductId).toList();
+    }
+
+    private static LocalDateTime placedAt(Order order) {
+        return order.getOrderCreation() != null ? order.getOrderCreation() : LocalDateTime.now();
+    }
+
+    // all products of the order in one round trip (or none, when they are cached)
+    private Map<Long, Product> loadProducts(List<ProductOrderItemDTO> items) {
+        List<Long> ids = items.stream().map(ProductOrderItemDTO::getProductId).toList();
+        Map<Long, Product> products = productRepository.loadAllById(ids);
+
+        for (Long productId : ids) {
+            if (!products.containsKey(productId)) {
+                throw new ProductNotFoundException("PRODUCT NOT FOUND: ID " + productId);
+            }
+        }
+        return products;
+    }
+
+    // fails before any write when the caller's If-Match is already stale
+    private static void checkVersion(Order order, Long expectedVersion) {
+        if (expectedVersion != null && !expectedVersion.equals(order.getVersion())) {
+            throw new VersionMismatchException("ORDER VERSION MISMATCH");
+        }
+    }
+
+    // UPDATE ... WHERE version = ?: a write that committed since our read makes it match nothing
+    private void flushVersioned(Order order) {
+        try {
+            orderRepository.saveAndFlush(order);
+        } catch (OptimisticLockingFailureException e) {
+            throw new VersionMismatchException("ORDER VERSION MISMATCH");
+        }
+    }
+
+    // deleted orders are not returned: the filter applies to loads by key, and orders are not cached
     private Order getOrderIfExists(Long id) {
         return orderRepository.findById(id)
-                .orElseThrow(()-> new RuntimeException("ORDER NOT FOUND"));
+                .orElseThrow(()-> new OrderNotFoundException("ORDER NOT FOUND"));
     }
 }
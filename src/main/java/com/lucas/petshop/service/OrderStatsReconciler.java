@@ -0,0 +1,21 @@
+package com.lucas.petshop.service;
+
+import org.springframework.scheduling.annotation.Scheduled;
+
+/**
+ * Reconciles the order counters of {@link OrderStatsService} with tb_orders every
+ * {@code petshop.order-stats.reconcile-interval}, starting right after startup.
+ */
+public class OrderStatsReconciler {
+
+    private final OrderStatsService orderStatsService;
+
+    public OrderStatsReconciler(OrderStatsService orderStatsService) {
+        this.orderStatsService = orderStatsService;
+    }
+
+    @Scheduled(initialDelay = 0, fixedDelayString = "${petshop.order-stats.reconcile-interval:PT1M}")
+    public void reconcile() {
+        orderStatsService.reconcile();
+    }
+}
@@ -0,0 +1,27 @@
+package com.lucas.petshop.service;
+
+import com.lucas.petshop.dto.OrderStatsResponseDTO;
+
+public interface OrderStatsService {
+
+    /**
+     * Order counts per status and deleted flag, read from in-memory counters (no database access
+     * once the counters have been reconciled for the first time).
+     */
+    OrderStatsResponseDTO getStats();
+
+    /**
+     * Records that an order moved from one status/deleted state to another; {@code fromStatus}
+     * is null for a new order. Applied when the current transaction commits (right away
+     * without one), so rolled back changes are never counted.
+     */
+    void recordChange(OrderStatusEnum fromStatus, boolean fromDeleted, OrderStatusEnum toStatus, boolean toDeleted);
+
+    /**
+     * Corrects the counters against a {@code GROUP BY} over tb_orders; changes made while the
+     * query runs are kept.
+     *
+     * @return orders the counters were off by
+     */
+    long reconcile();
+}
@@ -0,0 +1,174 @@
+package com.lucas.petshop.service;
+
+import com.lucas.petshop.dto.OrderStatsResponseDTO;
+import com.lucas.petshop.repository.OrderRepository;
+import com.lucas.petshop.util.Timer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Order counts per status and deleted flag kept in {@link LongAdder}s, so a read is a handful
+ * of additions and concurrent order writes do not contend on one counter.
+ *
+ * <p>The counters only see the changes made through this node's {@link OrderService}. They are
+ * corrected by {@link #reconcile()} (scheduled by {@link OrderStatsReconciler}), which also
+ * brings in the changes made by other nodes or directly in the database.</p>
+ */
+@Slf4j
+@Service
+public class OrderStatsServiceImpl implements OrderStatsService {
+
+    public static final String METRIC = "petshop.orders.count";
+
+    private static final OrderStatusEnum[] STATUSES = OrderStatusEnum.values();
+
+    private final OrderRepository orderRepository;
+
+    // index: status ordinal * 2 + (deleted ? 1 : 0)
+    private final LongAdder[] counters = new LongAdder[STATUSES.length * 2];
+
+    private volatile LocalDateTime reconciledAt;
+    private volatile long lastDrift;
+
+    public OrderStatsServiceImpl(OrderRepository orderRepository, MeterRegistry meterRegistry) {
+        this.orderRepository = orderRepository;
+        for (OrderStatusEnum status : STATUSES) {
+            for (boolean deleted : new boolean[]{false, true}) {
+                LongAdder counter = new LongAdder();
+                counters[index(status, deleted)] = counter;
+                Gauge.builder(METRIC, counter, LongAdder::sum)
+                        .description("Orders per status and deleted flag")
+                        .tag("status", status.name())
+                        .tag("deleted", String.valueOf(deleted))
+                        .register(meterRegistry);
+            }
+        }
+    }
+
+    //GET ORDER STATS
+    @Override
+    public OrderStatsResponseDTO getStats() {
+        long startTime = System.currentTimeMillis();
+
+        if (reconciledAt == null) {
+            // until the first reconciliation the counters only hold the changes since startup
+            reconcile();
+        }
+
+        Map<OrderStatusEnum, Long> live = new EnumMap<>(OrderStatusEnum.class);
+        Map<OrderStatusEnum, Long> deleted = new EnumMap<>(OrderStatusEnum.class);
+        long totalLive = 0;
+        long totalDeleted = 0;
+        for (OrderStatusEnum status : STATUSES) {
+            long liveCount = counters[index(status, false)].sum();
+            long deletedCount = counters[index(status, true)].sum();
+            live.put(status, liveCount);
+            deleted.put(status, deletedCount);
+            totalLive += liveCount;
+            totalDeleted += deletedCount;
+        }
+
+        Timer.measure("[GET ORDER STATS] - Successfully", startTime);
+        return new OrderStatsResponseDTO(live, deleted, totalLive, totalDeleted, reconciledAt, lastDrift);
+    }
+
+    @Override
+    public void recordChange(OrderStatusEnum fromStatus, boolean fromDeleted, OrderStatusEnum toStatus, boolean toDeleted) {
+        if (fromStatus == toStatus && fromDeleted == toDeleted) {
+            return;
+        }
+        long[] delta = TransactionSynchronizationManager.isSynchronizationActive()
+                ? pendingDelta()
+                : new long[counters.length];
+        if (fromStatus != null) {
+            delta[index(fromStatus, fromDeleted)]--;
+        }
+        delta[index(toStatus, toDeleted)]++;
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            apply(delta);
+        }
+    }
+
+    //RECONCILE ORDER STATS
+    @Override
+    public synchronized long reconcile() {
+        long startTime = System.currentTimeMillis();
+
+        long[] before = new long[counters.length];
+        for (int i = 0; i < counters.length; i++) {
+            before[i] = counters[i].sum();
+        }
+
+        long[] actual = new long[counters.length];
+        for (Object[] row : orderRepository.countByStatusAndDeleted()) {
+            try {
+                OrderStatusEnum status = OrderStatusEnum.valueOf((String) row[0]);
+                actual[index(status, Boolean.TRUE.equals(row[1]))] += ((Number) row[2]).longValue();
+            } catch (IllegalArgumentException e) {
+                log.warn("[RECONCILE ORDER STATS] ignoring {} orders with unknown status {}", row[2], row[0]);
+            }
+        }
+
+        // shift each counter by its error at the time of the query: changes applied while the query
+        // ran stay counted (a change committing in that very window can be off by one until the next run)
+        long drift = 0;
+        for (int i = 0; i < counters.length; i++) {
+            long error = actual[i] - before[i];
+            counters[i].add(error);
+            drift += Math.abs(error);
+        }
+        // the first run is the initial load, not an error of the counters
+        boolean initial = reconciledAt == null;
+        lastDrift = initial ? 0 : drift;
+        reconciledAt = LocalDateTime.now();
+
+        if (drift > 0 && !initial) {
+            log.info("[RECONCILE ORDER STATS] counters were off by {} orders", drift);
+        }
+        Timer.measure("[RECONCILE ORDER STATS] - Successfully", startTime);
+        return drift;
+    }
+
+    // one delta per transaction, applied after commit: a batch of orders costs one synchronization
+    private long[] pendingDelta() {
+        long[] pending = (long[]) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            long[] delta = new long[counters.length];
+            TransactionSynchronizationManager.bindResource(this, delta);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply(delta);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(OrderStatsServiceImpl.this);
+                }
+            });
+            pending = delta;
+        }
+        return pending;
+    }
+
+    private void apply(long[] delta) {
+        for (int i = 0; i < delta.length; i++) {
+            if (delta[i] != 0) {
+                counters[i].add(delta[i]);
+            }
+        }
+    }
+
+    private static int index(OrderStatusEnum status, boolean deleted) {
+        return status.ordinal() * 2 + (deleted ? 1 : 0);
+    }
+}
@@ -0,0 +1,41 @@
+package com.lucas.petshop.service;
+
+import com.lucas.petshop.dto.ProductFacetsResponseDTO;
+import com.lucas.petshop.model.Product;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.Map;
+
+public interface ProductFacetService {
+
+    /**
+     * Active products with one of the given values in every non-empty filter, and the facet
+     * counts under that selection.
+     */
+    ProductFacetsResponseDTO getFacets(Collection<ProductTypeEnum> types,
+                                       Collection<ProductAnimalTypeEnum> animalTypes,
+                                       Collection<String> brands,
+                                       Collection<String> prices,
+                                       int size);
+
+    /**
+     * Indexes the product as it is now (a deleted product leaves the index). Applied when the
+     * caller's transaction commits.
+     */
+    void recordProduct(Product product);
+
+    /**
+     * New prices of indexed products, applied when the caller's transaction commits.
+     */
+    void recordPrices(Map<Long, BigDecimal> prices);
+
+    /**
+     * Rebuilds the index from tb_products.
+     *
+     * @return products indexed
+     */
+    int reload();
+
+    int size();
+}
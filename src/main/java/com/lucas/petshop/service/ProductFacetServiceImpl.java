@@ -0,0 +1,425 @@
+package com.lucas.petshop.service;
+
+import com.lucas.petshop.config.ProductFacetProperties;
+import com.lucas.petshop.dto.ProductFacetsResponseDTO;
+import com.lucas.petshop.exception.BadRequestException;
+import com.lucas.petshop.exception.ConflictException;
+import com.lucas.petshop.facet.FacetIndex;
+import com.lucas.petshop.invalidation.InvalidationHandler;
+import com.lucas.petshop.invalidation.InvalidationTarget;
+import com.lucas.petshop.model.Money;
+import com.lucas.petshop.model.Product;
+import com.lucas.petshop.util.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.ToIntFunction;
+
+/**
+ * Storefront filter counts per product type, animal type, brand and price bucket from a
+ * {@link FacetIndex} over the active products, instead of a GROUP BY over tb_products per click.
+ *
+ * <ul>
+ *   <li>The index is loaded from tb_products on startup, in keyset batches. If the database
+ *   cannot be read it starts empty until the next reload.</li>
+ *   <li>{@link ProductService} reports every product it creates, changes or deletes, applied
+ *   when its transaction commits. Products changed on other nodes arrive as invalidation
+ *   messages and are re-read; a lost message reloads the whole index.</li>
+ *   <li>A product changed while a reload is reading it may keep its older values until it
+ *   changes again.</li>
+ * </ul>
+ */
+@Slf4j
+@Service
+public class ProductFacetServiceImpl implements ProductFacetService, InvalidationHandler, SmartLifecycle {
+
+    private static final String PRODUCT_COLUMNS =
+            "SELECT product_id, type, animal_type, brand, price, deleted_product FROM tb_products ";
+
+    private static final String LOAD_SQL = PRODUCT_COLUMNS
+            + "WHERE product_id > ? AND deleted_product = false ORDER BY product_id LIMIT ?";
+
+    // upper bound of product ids per facet response
+    private static final int MAX_PRODUCT_IDS = 100;
+
+    // ids per IN list when re-reading products changed on another node
+    private static final int REFRESH_CHUNK_SIZE = 1000;
+
+    // dimensions of the index
+    private static final int TYPE = 0;
+    private static final int ANIMAL_TYPE = 1;
+    private static final int BRAND = 2;
+    private static final int PRICE = 3;
+    private static final int DIMENSIONS = 4;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ProductFacetProperties properties;
+
+    // price bucket boundaries in cents, and the bucket labels
+    private final long[] priceEdges;
+    private final List<String> priceLabels;
+
+    // brand codes only grow, so they stay valid across reloads
+    private final Map<String, Integer> brandCodes = new ConcurrentHashMap<>();
+    private final List<String> brandNames = new CopyOnWriteArrayList<>();
+
+    private volatile FacetIndex index = new FacetIndex(DIMENSIONS);
+    // the index a reload is filling, if any: committed changes go to both
+    private volatile FacetIndex building;
+
+    private final ReentrantLock reloading = new ReentrantLock();
+    private volatile boolean running;
+
+    public ProductFacetServiceImpl(JdbcTemplate jdbcTemplate, ProductFacetProperties properties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.properties = properties;
+        this.priceEdges = properties.getPriceEdges().stream()
+                .mapToLong(edge -> Money.of(edge).cents())
+                .sorted()
+                .distinct()
+                .toArray();
+        this.priceLabels = priceLabels(priceEdges);
+    }
+
+    //GET PRODUCT FACETS
+    @Override
+    public ProductFacetsResponseDTO getFacets(Collection<ProductTypeEnum> types,
+                                              Collection<ProductAnimalTypeEnum> animalTypes,
+                                              Collection<String> brands,
+                                              Collection<String> prices,
+                                              int size) {
+        long startTime = System.currentTimeMillis();
+
+        int[][] selected = new int[DIMENSIONS][];
+        selected[TYPE] = codes(types, ProductTypeEnum::ordinal);
+        selected[ANIMAL_TYPE] = codes(animalTypes, ProductAnimalTypeEnum::ordinal);
+        selected[BRAND] = codes(brands, brand -> brandCodes.getOrDefault(brand, -1));
+        selected[PRICE] = codes(prices, this::priceBucket);
+
+        FacetIndex.Result result = index.query(selected, Math.clamp(size, 0, MAX_PRODUCT_IDS));
+        int[][] counts = result.counts();
+
+        Map<ProductTypeEnum, Integer> typeCounts = new EnumMap<>(ProductTypeEnum.class);
+        for (ProductTypeEnum type : ProductTypeEnum.values()) {
+            typeCounts.put(type, count(counts[TYPE], type.ordinal()));
+        }
+        Map<ProductAnimalTypeEnum, Integer> animalTypeCounts = new EnumMap<>(ProductAnimalTypeEnum.class);
+        for (ProductAnimalTypeEnum animalType : ProductAnimalTypeEnum.values()) {
+            animalTypeCounts.put(animalType, count(counts[ANIMAL_TYPE], animalType.ordinal()));
+        }
+        Map<String, Integer> priceCounts = new LinkedHashMap<>();
+        for (int bucket = 0; bucket < priceLabels.size(); bucket++) {
+            priceCounts.put(priceLabels.get(bucket), count(counts[PRICE], bucket));
+        }
+
+        ProductFacetsResponseDTO response = new ProductFacetsResponseDTO(
+                result.matched(),
+                Arrays.stream(result.products()).boxed().toList(),
+                typeCounts,
+                animalTypeCounts,
+                brandCounts(counts[BRAND], brands),
+                priceCounts);
+
+        Timer.measure("[GET PRODUCT FACETS] - Successfully", startTime);
+        return response;
+    }
+
+    @Override
+    public void recordProduct(Product product) {
+        long id = product.getId();
+        if (Boolean.TRUE.equals(product.getDeletedProduct())) {
+            record(facets -> facets.remove(id));
+            return;
+        }
+        int[] codes = codes(product.getType(), product.getAnimalType(), product.getBrand(),
+                product.getPrice() != null ? priceBucket(product.getPrice().cents()) : -1);
+        record(facets -> facets.put(id, codes));
+    }
+
+    @Override
+    public void recordPrices(Map<Long, BigDecimal> prices) {
+        long[] ids = new long[prices.size()];
+        int[] buckets = new int[ids.length];
+        int i = 0;
+        for (Map.Entry<Long, BigDecimal> price : prices.entrySet()) {
+            ids[i] = price.getKey();
+            buckets[i++] = priceBucket(Money.of(price.getValue()).cents());
+        }
+        if (ids.length > 0) {
+            record(facets -> {
+                for (int j = 0; j < ids.length; j++) {
+                    facets.set(ids[j], PRICE, buckets[j]);
+                }
+            });
+        }
+    }
+
+    //RELOAD PRODUCT FACETS
+    @Override
+    public int reload() {
+        if (!reloading.tryLock()) {
+            throw new ConflictException("PRODUCT FACET RELOAD ALREADY RUNNING");
+        }
+        try {
+            return reloadLocked();
+        } finally {
+            reloading.unlock();
+        }
+    }
+
+    @Override
+    public int size() {
+        return index.size();
+    }
+
+    // products changed on another node: read them again
+    @Override
+    public void invalidate(InvalidationTarget target, Collection<Long> ids) {
+        if (target != InvalidationTarget.PRODUCT || ids.isEmpty()) {
+            return;
+        }
+        List<Long> pending = List.copyOf(ids);
+        for (int from = 0; from < pending.size(); from += REFRESH_CHUNK_SIZE) {
+            List<Long> chunk = pending.subList(from, Math.min(from + REFRESH_CHUNK_SIZE, pending.size()));
+            Map<Long, int[]> found = new LinkedHashMap<>();
+            jdbcTemplate.query(PRODUCT_COLUMNS + "WHERE product_id IN ("
+                            + String.join(", ", Collections.nCopies(chunk.size(), "?")) + ")",
+                    (RowCallbackHandler) rs -> found.put(rs.getLong(1), rs.getBoolean(6) ? null : codes(rs)),
+                    chunk.toArray());
+            apply(facets -> {
+                for (Long id : chunk) {
+                    int[] codes = found.get(id);
+                    if (codes == null) {
+                        facets.remove(id);
+                    } else {
+                        facets.put(id, codes);
+                    }
+                }
+            });
+        }
+    }
+
+    @Override
+    public void invalidateAll() {
+        reloading.lock();
+        try {
+            reloadLocked();
+        } finally {
+            reloading.unlock();
+        }
+    }
+
+    // loads the index before the web server starts serving the storefront
+    @Override
+    public void start() {
+        running = true;
+        try {
+            int products = reload();
+            log.info("[PRODUCT FACETS] indexed {} products", products);
+        } catch (RuntimeException e) {
+            // the catalog works without facets: serve empty counts until a reload
+            log.error("[PRODUCT FACETS] could not load the index, starting empty: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    // below the web server's start/stop lifecycle (DEFAULT_PHASE - 2048), so start() runs first
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 2049;
+    }
+
+    private int reloadLocked() {
+        long startTime = System.currentTimeMillis();
+        FacetIndex fresh = new FacetIndex(DIMENSIONS);
+        // products committed from now on reach the new index through record/invalidate; the rest is read
+        building = fresh;
+        try {
+            int batchSize = properties.getLoadBatchSize();
+            long[] lastId = {0};
+            int[] rows = {batchSize};
+            while (rows[0] == batchSize) {
+                rows[0] = 0;
+                jdbcTemplate.query(LOAD_SQL, (RowCallbackHandler) rs -> {
+                    lastId[0] = rs.getLong(1);
+                    rows[0]++;
+                    fresh.put(lastId[0], codes(rs));
+                }, lastId[0], batchSize);
+            }
+            index = fresh;
+
+            Timer.measure("[RELOAD PRODUCT FACETS] - Successfully", startTime);
+            return fresh.size();
+        } finally {
+            building = null;
+        }
+    }
+
+    private void record(Consumer<FacetIndex> change) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            apply(change);
+            return;
+        }
+        pendingChanges().add(() -> apply(change));
+    }
+
+    private void apply(Consumer<FacetIndex> change) {
+        FacetIndex current = index;
+        FacetIndex next = building;
+        change.accept(current);
+        if (next != null && next != current) {
+            change.accept(next);
+        }
+    }
+
+    // the changes of one transaction, applied together after commit
+    @SuppressWarnings("unchecked")
+    private List<Runnable> pendingChanges() {
+        List<Runnable> pending = (List<Runnable>) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            List<Runnable> changes = new ArrayList<>();
+            TransactionSynchronizationManager.bindResource(this, changes);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    changes.forEach(Runnable::run);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(ProductFacetServiceImpl.this);
+                }
+            });
+            pending = changes;
+        }
+        return pending;
+    }
+
+    private int[] codes(ResultSet rs) throws SQLException {
+        BigDecimal price = rs.getBigDecimal(5);
+        return codes(enumValue(ProductTypeEnum.class, rs.getString(2)),
+                enumValue(ProductAnimalTypeEnum.class, rs.getString(3)),
+                rs.getString(4),
+                price != null ? priceBucket(Money.of(price).cents()) : -1);
+    }
+
+    private int[] codes(ProductTypeEnum type, ProductAnimalTypeEnum animalType, String brand, int priceBucket) {
+        int[] codes = new int[DIMENSIONS];
+        codes[TYPE] = type != null ? type.ordinal() : -1;
+        codes[ANIMAL_TYPE] = animalType != null ? animalType.ordinal() : -1;
+        codes[BRAND] = brand != null ? brandCode(brand) : -1;
+        codes[PRICE] = priceBucket;
+        return codes;
+    }
+
+    private int brandCode(String brand) {
+        return brandCodes.computeIfAbsent(brand, name -> {
+            synchronized (brandNames) {
+                brandNames.add(name);
+                return brandNames.size() - 1;
+            }
+        });
+    }
+
+    // bucket i holds prices in [edge i-1, edge i)
+    private int priceBucket(long cents) {
+        int at = Arrays.binarySearch(priceEdges, cents);
+        return at >= 0 ? at + 1 : -at - 1;
+    }
+
+    private int priceBucket(String label) {
+        int bucket = priceLabels.indexOf(label);
+        if (bucket < 0) {
+            throw new BadRequestException("UNKNOWN PRICE BUCKET: " + label + " (EXPECTED ONE OF " + priceLabels + ")");
+        }
+        return bucket;
+    }
+
+    // brands by count, most first, up to max-brands; selected brands are listed even at 0
+    private Map<String, Integer> brandCounts(int[] counts, Collection<String> selected) {
+        int nonZero = 0;
+        long[] ranked = new long[counts.length];
+        for (int code = 0; code < counts.length; code++) {
+            if (counts[code] > 0) {
+                ranked[nonZero++] = (long) (Integer.MAX_VALUE - counts[code]) << 32 | code;
+            }
+        }
+        Arrays.sort(ranked, 0, nonZero);
+
+        Map<String, Integer> brands = new LinkedHashMap<>();
+        for (int i = 0; i < Math.min(nonZero, properties.getMaxBrands()); i++) {
+            int code = (int) ranked[i];
+            brands.put(brandNames.get(code), counts[code]);
+        }
+        if (selected != null) {
+            for (String brand : selected) {
+                brands.putIfAbsent(brand, count(counts, brandCodes.getOrDefault(brand, -1)));
+            }
+        }
+        return brands;
+    }
+
+    // null (any value) for an empty filter
+    private static <T> int[] codes(Collection<T> values, ToIntFunction<T> code) {
+        if (values == null || values.isEmpty()) {
+            return null;
+        }
+        return values.stream().mapToInt(code).toArray();
+    }
+
+    private static int count(int[] counts, int code) {
+        return code >= 0 && code < counts.length ? counts[code] : 0;
+    }
+
+    private static <E extends Enum<E>> E enumValue(Class<E> type, String name) {
+        if (name == null) {
+            return null;
+        }
+        try {
+            return Enum.valueOf(type, name);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static List<String> priceLabels(long[] edges) {
+        List<String> labels = new ArrayList<>(edges.length + 1);
+        String from = "0";
+        for (long edge : edges) {
+            String to = Money.ofCents(edge).toBigDecimal().stripTrailingZeros().toPlainString();
+            labels.add(from + "-" + to);
+            from = to;
+        }
+        labels.add(from + "+");
+        return List.copyOf(labels);
+    }
+}
@@ -1,10 +1,15 @@
 package com.lucas.petshop.service;
 
+import com.lucas.petshop.dto.ProductBulkUpdateDTO;
+import com.lucas.petshop.dto.ProductBulkUpdateResultDTO;
+import com.lucas.petshop.dto.ProductMultiGetResponseDTO;
 import com.lucas.petshop.dto.ProductRequestDTO;
 import com.lucas.petshop.dto.ProductResponseDTO;
 import com.lucas.petshop.dto.ProductUpdateDTO;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Service contract for product-related business operations.
@@ -32,6 +37,16 @@ public interface ProductService {
      */
     ProductResponseDTO getProductById(Long id);
 
+    /**
+     * Get several products at once. Cached products are served from the second-level
+     * cache; the rest are read with a single {@code IN} query.
+     *
+     * @param ids the product ids (duplicates are ignored); more than 500 distinct ids, or a null
+     *            id, is a {@code BadRequestException}
+     * @return the products keyed by id, and the ids that are unknown or deleted
+     */
+    ProductMultiGetResponseDTO getProductsByIds(Collection<Long> ids);
+
     /**
      * Create a new product from the provided request DTO.
      *
@@ -62,7 +77,20 @@ public interface ProductService {
      *
      * @param id the id of the product to patch
      * @param product the patch data (fields optional)
-     * @return the updated {@link ProductResponseDTO}
+     * @param expectedVersion the version the caller read (the If-Match ETag); null skips the check
+     * @return the updated {@link ProductResponseDTO}, with its new version
+     * @throws com.lucas.petshop.exception.VersionMismatchException when the product has moved on
+     */
+    ProductResponseDTO partialUpdateProduct(Long id, ProductUpdateDTO product, Long expectedVersion);
+
+    /**
+     * Add price and/or stock deltas to many products at once with set-based SQL.
+     * Changes are applied in chunks, each in its own transaction; soft-deleted and unknown
+     * products, and changes that would leave a negative stock or a price of 0 or below, are
+     * skipped and reported.
+     *
+     * @param changes price/stock delta per product id
+     * @return counts and the ids that were not updated
      */
-    ProductResponseDTO partialUpdateProduct(Long id, ProductUpdateDTO product);
+    ProductBulkUpdateResultDTO bulkUpdateProducts(Map<Long, ProductBulkUpdateDTO> changes);
 }
@@ -1,34 +1,66 @@
 package com.lucas.petshop.service;
 
+import com.lucas.petshop.dto.ProductBulkUpdateDTO;
+import com.lucas.petshop.dto.ProductBulkUpdateResultDTO;
+import com.lucas.petshop.dto.ProductMultiGetResponseDTO;
 import com.lucas.petshop.dto.ProductRequestDTO;
 import com.lucas.petshop.dto.ProductResponseDTO;
 import com.lucas.petshop.dto.ProductUpdateDTO;
+import com.lucas.petshop.exception.BadRequestException;
+import com.lucas.petshop.exception.ProductNotFoundException;
+import com.lucas.petshop.exception.VersionMismatchException;
+import com.lucas.petshop.invalidation.InvalidationPublisher;
+import com.lucas.petshop.invalidation.InvalidationTarget;
 import com.lucas.petshop.mapper.ProductMapper;
 import com.lucas.petshop.model.Product;
 import com.lucas.petshop.repository.ProductRepository;
 import jakarta.transaction.Transactional;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 import com.lucas.petshop.util.Timer;
 
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 
 @Service
 public class ProductServiceImpl implements ProductService {
 
+    // upper bound of ids per multi-get request
+    private static final int MAX_MULTI_GET_IDS = 500;
+
+    // rows per transaction (and per JDBC batch) in bulkUpdateProducts
+    private static final int BULK_CHUNK_SIZE = 5000;
+
     private final ProductRepository productRepository;
     private final ProductMapper productMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final InvalidationPublisher invalidationPublisher;
+    private final ProductFacetService productFacetService;
 
     public ProductServiceImpl(
             ProductRepository productRepository,
-            ProductMapper productMapper
+            ProductMapper productMapper,
+            TransactionTemplate transactionTemplate,
+            InvalidationPublisher invalidationPublisher,
+            ProductFacetService productFacetService
     ) {
 
         this.productRepository = productRepository;
         this.productMapper = productMapper;
+        this.transactionTemplate = transactionTemplate;
+        this.invalidationPublisher = invalidationPublisher;
+        this.productFacetService = productFacetService;
     }
 
 
@@ -38,9 +70,9 @@ public class ProductServiceImpl implements ProductService {
     public List<ProductResponseDTO> getAllProducts(){
         long startTime = System.currentTimeMillis();
 
+        // deleted products are excluded in SQL by the soft-delete filter
         List<ProductResponseDTO> result = productRepository.findAll()
                 .stream()
-                .filter(product -> !Boolean.TRUE.equals(product.getDeletedProduct()))
                 .map(productMapper::toResponseDTO)
                 .collect(Collectors.toList());
 
@@ -56,15 +88,44 @@ public class ProductServiceImpl implements ProductService {
 
         Product product = getProductIfExists(id);
 
-        if(Boolean.TRUE.equals(product.getDeletedProduct())){
-            throw new RuntimeException("PRODUCT IS DELETED");
-        }
-
         Timer.measure("[GET PRODUCT BY ID] - Successfully", startTime);
 
         return productMapper.toResponseDTO(product);
     }
 
+    //GET PRODUCTS BY IDS
+    @Override
+    public ProductMultiGetResponseDTO getProductsByIds(Collection<Long> ids){
+        long startTime = System.currentTimeMillis();
+
+        List<Long> distinctIds = ids.stream().distinct().toList();
+        if (distinctIds.size() > MAX_MULTI_GET_IDS) {
+            throw new BadRequestException("AT MOST " + MAX_MULTI_GET_IDS + " PRODUCT IDS PER REQUEST");
+        }
+        // a null in the lookup body (or an empty element of ?ids=) is not an id to look up
+        if (distinctIds.contains(null)) {
+            throw new BadRequestException("PRODUCT IDS MUST NOT BE NULL");
+        }
+
+        // cache hits first, then one IN query for the misses; deleted products are left out
+        Map<Long, Product> found = productRepository.loadAllById(distinctIds);
+
+        Map<Long, ProductResponseDTO> products = new LinkedHashMap<>(found.size() * 2);
+        List<Long> missing = new ArrayList<>();
+        for (Long id : distinctIds) {
+            Product product = found.get(id);
+            if (product == null) {
+                missing.add(id);
+            } else {
+                products.put(id, productMapper.toResponseDTO(product));
+            }
+        }
+
+        Timer.measure("[GET PRODUCTS BY IDS] - Successfully", startTime);
+
+        return new ProductMultiGetResponseDTO(products, missing);
+    }
+
     //CREATE PRODUCT
     @Override
     @Transactional
@@ -73,6 +134,9 @@ public class ProductServiceImpl implements ProductService {
 
         Product product = productMapper.toEntity(dto);
         Product savedProduct = productRepository.save(product);
+        // other nodes hold the product listing in their query cache
+        invalidationPublisher.publishAfterCommit(InvalidationTarget.PRODUCT, savedProduct.getId());
+        productFacetService.recordProduct(savedProduct);
 
         Timer.measure("[CREATE PRODUCT] - Successfully", startTime);
 
@@ -87,14 +151,12 @@ public class ProductServiceImpl implements ProductService {
 
         Product existing = getProductIfExists(id);
 
-        if (Boolean.TRUE.equals(existing.getDeletedProduct())){
-            throw new RuntimeException("CANNOT UPDATE A DELETED PRODUCT");
-        }
-
         productMapper.updateEntityFromDto(dto, existing);
         existing.setLastUpdate(LocalDateTime.now());
 
         productRepository.save(existing);
+        invalidationPublisher.publishAfterCommit(InvalidationTarget.PRODUCT, id);
+        productFacetService.recordProduct(existing);
 
         Timer.measure("[UPDATE PRODUCT] - Successfully", startTime);
 
@@ -106,14 +168,12 @@ public class ProductServiceImpl implements ProductService {
         long startTime = System.currentTimeMillis();
         Product existing = getProductIfExists(id);
 
-        if (Boolean.TRUE.equals(existing.getDeletedProduct())){
-            throw new RuntimeException("PRODUCT ALREADY DELETED");
-        }
-
         existing.setDeletedProduct(true);
         existing.setLastUpdate(LocalDateTime.now());
 
         productRepository.save(existing);
+        invalidationPublisher.publishAfterCommit(InvalidationTarget.PRODUCT, id);
+        productFacetService.recordProduct(existing);
 
         Timer.measure("[DELETE PRODUCT] - Successfully", startTime);
     }
@@ -121,18 +181,24 @@ public class ProductServiceImpl implements ProductService {
 
     @Override
     @Transactional
-    public ProductResponseDTO partialUpdateProduct(Long id, ProductUpdateDTO dto){
+    public ProductResponseDTO partialUpdateProduct(Long id, ProductUpdateDTO dto, Long expectedVersion){
         long startTime = System.currentTimeMillis();
 
         Product existing = getProductIfExists(id);
 
-        if(Boolean.TRUE.equals(existing.getDeletedProduct())){
-            throw new RuntimeException("CANNOT UPDATE A DELETED PRODUCT");
-        }
+        checkVersion(existing, expectedVersion);
 
         dto.applyTo(existing);
 
-        productRepository.save(existing);
+        // flushed here, so a concurrent patch that committed first fails as a mismatch and the
+        // response carries the new version
+        try {
+            productRepository.saveAndFlush(existing);
+        } catch (OptimisticLockingFailureException e) {
+            throw new VersionMismatchException("PRODUCT VERSION MISMATCH");
+        }
+        invalidationPublisher.publishAfterCommit(InvalidationTarget.PRODUCT, id);
+        productFacetService.recordProduct(existing);
 
         Timer.measure("[PATCH PRODUCT] - Successfully", startTime);
 
@@ -140,10 +206,76 @@ public class ProductServiceImpl implements ProductService {
     }
 
 
+    //BULK UPDATE PRICE AND STOCK
+    @Override
+    public ProductBulkUpdateResultDTO bulkUpdateProducts(Map<Long, ProductBulkUpdateDTO> changes){
+        long startTime = System.currentTimeMillis();
+
+        List<Map.Entry<Long, ProductBulkUpdateDTO>> pending = new ArrayList<>(changes.size());
+        List<Long> skipped = new ArrayList<>();
+        for (Map.Entry<Long, ProductBulkUpdateDTO> change : changes.entrySet()) {
+            if (change.getValue() == null || change.getValue().isEmpty()) {
+                skipped.add(change.getKey());
+            } else {
+                pending.add(change);
+            }
+        }
+
+        int updated = 0;
+        LocalDateTime now = LocalDateTime.now();
+
+        // one short transaction per chunk: a large push never holds thousands of row locks at once
+        for (int from = 0; from < pending.size(); from += BULK_CHUNK_SIZE) {
+            List<Map.Entry<Long, ProductBulkUpdateDTO>> chunk =
+                    pending.subList(from, Math.min(from + BULK_CHUNK_SIZE, pending.size()));
+
+            Set<Long> changedIds = transactionTemplate.execute(status -> {
+                Map<Long, BigDecimal> prices = productRepository.bulkAdjustPriceAndStock(chunk, now);
+                invalidationPublisher.publishAfterCommit(InvalidationTarget.PRODUCT, prices.keySet());
+                productFacetService.recordPrices(newPrices(prices));
+                return prices.keySet();
+            });
+
+            for (Map.Entry<Long, ProductBulkUpdateDTO> change : chunk) {
+                if (!changedIds.contains(change.getKey())) {
+                    skipped.add(change.getKey());
+                }
+            }
+            // the SQL bypassed Hibernate, so cached copies of these products are now stale
+            productRepository.evictFromCache(changedIds);
+            updated += changedIds.size();
+        }
+
+        Timer.measure("[BULK UPDATE PRODUCTS] - Successfully", startTime);
+
+        return new ProductBulkUpdateResultDTO(changes.size(), updated, skipped);
+    }
+
+
     //METHODS
+    // fails before any write when the caller's If-Match is already stale
+    private static void checkVersion(Product product, Long expectedVersion) {
+        if (expectedVersion != null && !expectedVersion.equals(product.getVersion())) {
+            throw new VersionMismatchException("PRODUCT VERSION MISMATCH");
+        }
+    }
+
+    // a deleted product can still be in the cache region, where the filter does not reach
     private Product getProductIfExists(Long id) {
-        return productRepository.findById(id)
-                .orElseThrow(()-> new RuntimeException("PRODUCT NOT FOUND"));
+        return productRepository.findActiveById(id)
+                .orElseThrow(()-> new ProductNotFoundException("PRODUCT NOT FOUND"));
+    }
+
+    // the prices a bulk chunk actually changed, for the facet index's price buckets
+    // (stock-only changes map to null: those products keep their bucket)
+    private static Map<Long, BigDecimal> newPrices(Map<Long, BigDecimal> updatedPrices) {
+        Map<Long, BigDecimal> prices = new HashMap<>();
+        updatedPrices.forEach((id, price) -> {
+            if (price != null) {
+                prices.put(id, price);
+            }
+        });
+        return prices;
     }
 
 
@@ -1,5 +1,6 @@
 package com.lucas.petshop.service;
 
+import com.lucas.petshop.dto.KeysetPageResponseDTO;
 import com.lucas.petshop.dto.RatingRequestDTO;
 import com.lucas.petshop.dto.RatingResponseDTO;
 
@@ -11,6 +12,8 @@ public interface RatingService {
 
     RatingResponseDTO getRatingById(Long id);
 
+    KeysetPageResponseDTO<RatingResponseDTO> getRatingsByProduct(Long productId, RatingStarsEnum stars, String cursor, int size);
+
     void createRating (RatingRequestDTO rating);
 
     void updateRating (Long id, RatingRequestDTO rating);
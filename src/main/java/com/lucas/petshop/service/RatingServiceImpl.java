@@ -1,16 +1,23 @@
 package com.lucas.petshop.service;
 
 
+import com.lucas.petshop.dto.KeysetPageResponseDTO;
 import com.lucas.petshop.dto.RatingRequestDTO;
 import com.lucas.petshop.dto.RatingResponseDTO;
+import com.lucas.petshop.exception.ProductNotFoundException;
+import com.lucas.petshop.exception.RatingNotFoundException;
+import com.lucas.petshop.invalidation.InvalidationPublisher;
+import com.lucas.petshop.invalidation.InvalidationTarget;
 import com.lucas.petshop.mapper.RatingMapper;
 import com.lucas.petshop.model.Product;
 import com.lucas.petshop.model.Rating;
 import com.lucas.petshop.repository.ProductRepository;
 import com.lucas.petshop.repository.RatingRepository;
+import com.lucas.petshop.util.KeysetCursor;
 import com.lucas.petshop.util.Timer;
 import jakarta.transaction.Transactional;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
@@ -20,6 +27,8 @@ import java.util.stream.Collectors;
 @Service
 public class RatingServiceImpl implements RatingService {
 
+    private static final int MAX_PAGE_SIZE = 100;
+
     @Autowired
     private RatingRepository ratingRepository;
 
@@ -29,14 +38,17 @@ public class RatingServiceImpl implements RatingService {
     @Autowired
     private RatingMapper ratingMapper;
 
+    @Autowired
+    private InvalidationPublisher invalidationPublisher;
+
     @Override
     public List<RatingResponseDTO> getAllRatings(){
         var startTime = System.currentTimeMillis();
 
 
+        // deleted ratings are excluded in SQL by the soft-delete filter
         List<RatingResponseDTO> result = ratingRepository.findAll()
                 .stream()
-                .filter(rating -> !Boolean.TRUE.equals(rating.getDeletedRating()))
                 .map(ratingMapper::toResponseDTO)
                 .collect(Collectors.toList());
 
@@ -50,26 +62,53 @@ public class RatingServiceImpl implements RatingService {
 
         Rating rating = getRatingIfExists(id);
 
-        if(Boolean.TRUE.equals(rating.getDeletedRating())){
-            throw new RuntimeException("RATING IS DELETED");
-        }
-
         Timer.measure("[GET RATING BY ID] - Successfully", startTime);
         return ratingMapper.toResponseDTO(rating);
     }
 
+    @Override
+    public KeysetPageResponseDTO<RatingResponseDTO> getRatingsByProduct(Long productId, RatingStarsEnum stars,
+                                                                       String cursor, int size) {
+        var startTime = System.currentTimeMillis();
+
+        int pageSize = Math.clamp(size, 1, MAX_PAGE_SIZE);
+        // one extra row tells whether there is a next page
+        Limit limit = Limit.of(pageSize + 1);
+
+        List<Rating> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = ratingRepository.findFirstPageByProduct(productId, stars, limit);
+        } else {
+            KeysetCursor after = KeysetCursor.decode(cursor);
+            rows = ratingRepository.findPageByProductAfter(productId, stars, after.createdAt(), after.id(), limit);
+        }
+
+        String nextCursor = null;
+        if (rows.size() > pageSize) {
+            rows = rows.subList(0, pageSize);
+            Rating last = rows.get(pageSize - 1);
+            nextCursor = new KeysetCursor(last.getCreatedAt(), last.getId()).encode();
+        }
+
+        List<RatingResponseDTO> content = rows.stream().map(ratingMapper::toResponseDTO).toList();
+
+        Timer.measure("[GET RATINGS BY PRODUCT] - Successfully", startTime);
+        return new KeysetPageResponseDTO<>(content, pageSize, nextCursor);
+    }
+
     @Override
     @Transactional
     public void createRating(RatingRequestDTO dto) {
         var startTime = System.currentTimeMillis();
 
-        Product product = productRepository.findById(dto.getProductId())
-                .orElseThrow(() -> new RuntimeException("PRODUCT NOT FOUND"));
+        Product product = productRepository.findActiveById(dto.getProductId())
+                .orElseThrow(() -> new ProductNotFoundException("PRODUCT NOT FOUND"));
 
         Rating rating = ratingMapper.toEntity(dto);
 
         rating.setProduct(product);
         ratingRepository.save(rating);
+        invalidationPublisher.publishAfterCommit(InvalidationTarget.RATING, rating.getId());
 
         Timer.measure("[CREATE RATING] - Successfully", startTime);
     }
@@ -81,14 +120,11 @@ public class RatingServiceImpl implements RatingService {
 
         Rating existing = getRatingIfExists(id);
 
-        if(Boolean.TRUE.equals(existing.getDeletedRating())){
-            throw new RuntimeException("CANNOT UPDATE A DELETED RATING");
-        }
-
         ratingMapper.updateEntityFromDto(dto, existing);
         existing.setLastUpdate(LocalDateTime.now());
 
         ratingRepository.save(existing);
+        invalidationPublisher.publishAfterCommit(InvalidationTarget.RATING, id);
 
         Timer.measure("[UPDATE RATING] - Successfully", startTime);
     }
@@ -100,18 +136,16 @@ public class RatingServiceImpl implements RatingService {
 
         Rating existing = getRatingIfExists(id);
 
-        if(Boolean.TRUE.equals(existing.getDeletedRating())){
-            throw new RuntimeException("RATING ALREADY DELETED");
-        }
-
         existing.setDeletedRating(true);
         existing.setLastUpdate(LocalDateTime.now());
         ratingRepository.save(existing);
+        invalidationPublisher.publishAfterCommit(InvalidationTarget.RATING, id);
     }
 
+    // deleted ratings are not returned: the filter applies to loads by key, and ratings are not cached
     private Rating getRatingIfExists(Long id) {
         return ratingRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("RATING NOT FOUND"));
+                .orElseThrow(() -> new RatingNotFoundException("RATING NOT FOUND"));
 
     }
 }
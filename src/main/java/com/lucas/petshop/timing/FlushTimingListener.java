@@ -0,0 +1,33 @@
+package com.lucas.petshop.timing;
+
+import org.hibernate.SessionEventListener;
+
+/**
+ * Attributes Hibernate flush time (dirty checking, action queue) to {@link RequestPhase#FLUSH}.
+ *
+ * <p>Registered for every session through {@code hibernate.session.events.auto}, so Hibernate
+ * instantiates it and it needs a public no-arg constructor. The statements issued by the
+ * flush are counted as DB time, not flush time.</p>
+ */
+public class FlushTimingListener implements SessionEventListener {
+
+    @Override
+    public void flushStart() {
+        RequestTimings.current().start(RequestPhase.FLUSH);
+    }
+
+    @Override
+    public void flushEnd(int numberOfEntities, int numberOfCollections) {
+        RequestTimings.current().stop(RequestPhase.FLUSH);
+    }
+
+    @Override
+    public void partialFlushStart() {
+        RequestTimings.current().start(RequestPhase.FLUSH);
+    }
+
+    @Override
+    public void partialFlushEnd(int numberOfEntities, int numberOfCollections) {
+        RequestTimings.current().stop(RequestPhase.FLUSH);
+    }
+}
@@ -0,0 +1,38 @@
+package com.lucas.petshop.timing;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.util.ClassUtils;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+
+/**
+ * Wraps every MapStruct mapper ({@code @Mapper}) bean so the time spent in its methods is attributed to
+ * {@link RequestPhase#MAPPING}. Mappers are injected by interface, so a JDK proxy is enough.
+ */
+public class MapperTimingPostProcessor implements BeanPostProcessor {
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        Class<?>[] interfaces = ClassUtils.getAllInterfaces(bean);
+        for (Class<?> type : interfaces) {
+            // @Mapper is not retained at runtime: recognise MapStruct's <Name>Mapper -> <Name>MapperImpl
+            // convention (other *Impl beans, e.g. repository fragments, are left alone)
+            if (type.getSimpleName().endsWith("Mapper") && bean.getClass().getName().equals(type.getName() + "Impl")) {
+                return Proxy.newProxyInstance(bean.getClass().getClassLoader(), interfaces,
+                        (proxy, method, args) -> {
+                            RequestTimings timings = RequestTimings.current();
+                            timings.start(RequestPhase.MAPPING);
+                            try {
+                                return method.invoke(bean, args);
+                            } catch (InvocationTargetException e) {
+                                throw e.getTargetException();
+                            } finally {
+                                timings.stop(RequestPhase.MAPPING);
+                            }
+                        });
+            }
+        }
+        return bean;
+    }
+}
@@ -0,0 +1,24 @@
+package com.lucas.petshop.timing;
+
+/**
+ * Phases a request's time is attributed to. Each phase is measured exclusive of the others:
+ * JDBC time spent inside a flush, a mapping or the serialization (lazy loading) counts as DB.
+ */
+public enum RequestPhase {
+    DB("db"),
+    FLUSH("flush"),
+    MAPPING("mapping"),
+    SERIALIZATION("serialization");
+
+    static final RequestPhase[] VALUES = values();
+
+    private final String metricName;
+
+    RequestPhase(String metricName) {
+        this.metricName = metricName;
+    }
+
+    public String metricName() {
+        return metricName;
+    }
+}
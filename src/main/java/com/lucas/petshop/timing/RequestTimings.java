@@ -0,0 +1,108 @@
+package com.lucas.petshop.timing;
+
+/**
+ * Per-thread accumulator of the time a request spends in each {@link RequestPhase}.
+ *
+ * <p>One instance per thread is reused across requests, so recording is a {@code nanoTime()}
+ * call and a few array writes, without allocation. Outside a request (no {@link #begin()})
+ * every method returns immediately. Nested starts of the same phase, e.g. one mapper calling
+ * another, are counted once by the outermost call.</p>
+ */
+public final class RequestTimings {
+
+    private static final ThreadLocal<RequestTimings> CURRENT = ThreadLocal.withInitial(RequestTimings::new);
+
+    private static final int DB = RequestPhase.DB.ordinal();
+
+    private final long[] nanos = new long[RequestPhase.VALUES.length];
+    private final long[] startedAt = new long[RequestPhase.VALUES.length];
+    private final long[] dbNanosAtStart = new long[RequestPhase.VALUES.length];
+    private final int[] depth = new int[RequestPhase.VALUES.length];
+
+    private boolean active;
+    private long requestStartedAt;
+    private long dbStartedAt;
+    private int dbStatements;
+
+    private RequestTimings() {
+    }
+
+    public static RequestTimings current() {
+        return CURRENT.get();
+    }
+
+    void begin() {
+        for (int i = 0; i < nanos.length; i++) {
+            nanos[i] = 0;
+            depth[i] = 0;
+        }
+        dbStatements = 0;
+        requestStartedAt = System.nanoTime();
+        active = true;
+    }
+
+    void end() {
+        active = false;
+    }
+
+    public boolean isActive() {
+        return active;
+    }
+
+    // JDBC executions are never nested on one thread, so they only need a start timestamp
+    public void dbStart() {
+        if (active) {
+            dbStartedAt = System.nanoTime();
+        }
+    }
+
+    public void dbEnd() {
+        if (active) {
+            nanos[DB] += System.nanoTime() - dbStartedAt;
+            dbStatements++;
+        }
+    }
+
+    public void start(RequestPhase phase) {
+        if (!active) {
+            return;
+        }
+        int i = phase.ordinal();
+        if (depth[i]++ == 0) {
+            startedAt[i] = System.nanoTime();
+            dbNanosAtStart[i] = nanos[DB];
+        }
+    }
+
+    public void stop(RequestPhase phase) {
+        if (!active) {
+            return;
+        }
+        int i = phase.ordinal();
+        if (depth[i] > 0 && --depth[i] == 0) {
+            long elapsed = System.nanoTime() - startedAt[i];
+            nanos[i] += elapsed - (nanos[DB] - dbNanosAtStart[i]);
+        }
+    }
+
+    // closes a phase left open, e.g. serialization that ends when the filter chain returns
+    void stopIfOpen(RequestPhase phase) {
+        int i = phase.ordinal();
+        if (depth[i] > 0) {
+            depth[i] = 1;
+            stop(phase);
+        }
+    }
+
+    long nanos(RequestPhase phase) {
+        return nanos[phase.ordinal()];
+    }
+
+    long totalNanos() {
+        return System.nanoTime() - requestStartedAt;
+    }
+
+    int dbStatements() {
+        return dbStatements;
+    }
+}
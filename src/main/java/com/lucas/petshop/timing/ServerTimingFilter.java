@@ -0,0 +1,202 @@
+package com.lucas.petshop.timing;
+
+import com.lucas.petshop.config.ServerTimingProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+import org.springframework.web.util.WebUtils;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Starts and finishes the {@link RequestTimings} of each request, records the phases as
+ * {@code petshop.request.phase} timers tagged by endpoint, and (opt-in) reports them in a
+ * {@code Server-Timing} response header, e.g.
+ * {@code db;dur=4.12;desc="3 statements", flush;dur=0.20, mapping;dur=0.05, serialization;dur=0.61, app;dur=1.30}.
+ *
+ * <p>The header must be set before the body is committed, so when it is enabled the body is
+ * buffered with a {@link ContentCachingResponseWrapper} and written after the chain returns.
+ * Streaming responses ({@code application/x-ndjson}, {@code text/event-stream}) are never
+ * buffered, and a request that goes async (the order export) gets neither the header nor
+ * recorded phases: its body is written after the first dispatch has returned, so the phases
+ * would only cover the part before it. Whatever an async request wrote to the buffer is
+ * copied out when its last dispatch ends.</p>
+ */
+public class ServerTimingFilter extends OncePerRequestFilter {
+
+    public static final String METRIC = "petshop.request.phase";
+
+    private static final String HEADER = "Server-Timing";
+
+    private static final List<MediaType> STREAMING = List.of(MediaType.APPLICATION_NDJSON, MediaType.TEXT_EVENT_STREAM);
+
+    // endpoint ("GET /orders/{id}") -> one timer per phase, plus "app" for the remainder
+    private final Map<String, Timer[]> timers = new ConcurrentHashMap<>();
+
+    private final ServerTimingProperties properties;
+    private final MeterRegistry meterRegistry;
+
+    public ServerTimingFilter(ServerTimingProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    // async dispatches come through too, to write out what an async request left in the buffer
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        if (isAsyncDispatch(request)) {
+            try {
+                chain.doFilter(request, response);
+            } finally {
+                BufferedResponse buffered = WebUtils.getNativeResponse(response, BufferedResponse.class);
+                if (buffered != null && !isAsyncStarted(request)) {
+                    buffered.copyBodyToResponse();
+                }
+            }
+            return;
+        }
+
+        RequestTimings timings = RequestTimings.current();
+        timings.begin();
+        try {
+            if (properties.isHeader()) {
+                BufferedResponse buffered = new BufferedResponse(response);
+                try {
+                    chain.doFilter(request, buffered);
+                } finally {
+                    timings.stopIfOpen(RequestPhase.SERIALIZATION);
+                    if (!isAsyncStarted(request)) {
+                        if (!buffered.streaming) {
+                            response.setHeader(HEADER, header(timings));
+                        }
+                        buffered.copyBodyToResponse();
+                    }
+                }
+            } else {
+                try {
+                    chain.doFilter(request, response);
+                } finally {
+                    timings.stopIfOpen(RequestPhase.SERIALIZATION);
+                }
+            }
+            if (!isAsyncStarted(request)) {
+                record(request, timings);
+            }
+        } finally {
+            timings.end();
+        }
+    }
+
+    private void record(HttpServletRequest request, RequestTimings timings) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        if (pattern == null) {
+            // not routed to a controller (static resource, 404): no endpoint to tag
+            return;
+        }
+        Timer[] endpointTimers = timers.computeIfAbsent(request.getMethod() + " " + pattern, this::newTimers);
+
+        long attributed = 0;
+        for (RequestPhase phase : RequestPhase.VALUES) {
+            long nanos = timings.nanos(phase);
+            endpointTimers[phase.ordinal()].record(nanos, TimeUnit.NANOSECONDS);
+            attributed += nanos;
+        }
+        endpointTimers[RequestPhase.VALUES.length].record(
+                Math.max(0, timings.totalNanos() - attributed), TimeUnit.NANOSECONDS);
+    }
+
+    private Timer[] newTimers(String endpoint) {
+        Timer[] result = new Timer[RequestPhase.VALUES.length + 1];
+        for (RequestPhase phase : RequestPhase.VALUES) {
+            result[phase.ordinal()] = timer(endpoint, phase.metricName());
+        }
+        result[RequestPhase.VALUES.length] = timer(endpoint, "app");
+        return result;
+    }
+
+    private Timer timer(String endpoint, String phase) {
+        return Timer.builder(METRIC)
+                .description("Request time attributed to db, flush, mapping, serialization and the rest (app)")
+                .tag("endpoint", endpoint)
+                .tag("phase", phase)
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+    }
+
+    private static String header(RequestTimings timings) {
+        StringBuilder header = new StringBuilder(160);
+        long attributed = 0;
+        for (RequestPhase phase : RequestPhase.VALUES) {
+            long nanos = timings.nanos(phase);
+            attributed += nanos;
+            header.append(phase.metricName()).append(";dur=").append(millis(nanos));
+            if (phase == RequestPhase.DB) {
+                header.append(";desc=\"").append(timings.dbStatements()).append(" statements\"");
+            }
+            header.append(", ");
+        }
+        header.append("app;dur=").append(millis(Math.max(0, timings.totalNanos() - attributed)));
+        return header.toString();
+    }
+
+    private static String millis(long nanos) {
+        return String.format(Locale.ROOT, "%.2f", nanos / 1_000_000.0);
+    }
+
+    // buffers the body unless the content type is set to a streaming one before the body is opened
+    private static final class BufferedResponse extends ContentCachingResponseWrapper {
+
+        private boolean streaming;
+
+        private BufferedResponse(HttpServletResponse response) {
+            super(response);
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            return passThrough() ? getResponse().getOutputStream() : super.getOutputStream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            return passThrough() ? getResponse().getWriter() : super.getWriter();
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            if (streaming) {
+                getResponse().flushBuffer();
+            } else {
+                super.flushBuffer();
+            }
+        }
+
+        private boolean passThrough() {
+            if (!streaming && getContentSize() == 0 && getContentType() != null) {
+                MediaType type = MediaType.parseMediaType(getContentType());
+                streaming = STREAMING.stream().anyMatch(type::isCompatibleWith);
+            }
+            return streaming;
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.lucas.petshop.timing;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+
+import java.util.List;
+
+/**
+ * Attributes JDBC execution time to the {@link RequestPhase#DB} phase of the current request.
+ */
+public class TimingQueryListener implements QueryExecutionListener {
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        RequestTimings.current().dbStart();
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        RequestTimings.current().dbEnd();
+    }
+}
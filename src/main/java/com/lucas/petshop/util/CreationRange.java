@@ -0,0 +1,25 @@
+package com.lucas.petshop.util;
+
+import com.lucas.petshop.exception.BadRequestException;
+
+import java.time.LocalDateTime;
+
+/**
+ * Validation of a half-open {@code [from, to)} creation range, shared by the paged query and
+ * the export: the export has to reject a bad range before its 200 goes out, the service
+ * checks it for every other caller.
+ */
+public final class CreationRange {
+
+    private CreationRange() {
+    }
+
+    /**
+     * @throws BadRequestException if either bound is missing or the range is empty
+     */
+    public static void check(LocalDateTime from, LocalDateTime to) {
+        if (from == null || to == null || !from.isBefore(to)) {
+            throw new BadRequestException("INVALID ORDER CREATION RANGE");
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.lucas.petshop.util;
+
+import com.lucas.petshop.exception.BadRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * Opaque cursor for keyset pagination over {@code (created_at, id)}, newest or oldest first.
+ *
+ * <p>Encodes the sort key of the last row of a page; the next page starts strictly after
+ * it, so its cost depends only on the page size and not on how deep the client has paged.</p>
+ */
+public record KeysetCursor(LocalDateTime createdAt, long id) {
+
+    public String encode() {
+        String raw = createdAt + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @throws BadRequestException if the cursor was not produced by {@link #encode()}: it comes
+     *         from the query string, so a malformed one is the client's error (400)
+     */
+    public static KeysetCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.indexOf('|');
+            return new KeysetCursor(LocalDateTime.parse(raw.substring(0, separator)),
+                    Long.parseLong(raw.substring(separator + 1)));
+        } catch (RuntimeException e) {
+            throw new BadRequestException("INVALID CURSOR");
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.lucas.petshop.util;
+
+/**
+ * Open-addressing map from non-zero {@code long} keys to {@code int} counts, with linear
+ * probing over two parallel primitive arrays: no entry objects and no boxed keys, so a
+ * product with thousands of co-purchased products costs 12 bytes per neighbour.
+ *
+ * <p>A key whose count drops to zero is removed (backward-shift deletion, no tombstones).
+ * Not thread-safe: the co-occurrence matrix guards each map with its row lock, the facet
+ * index with its write lock.</p>
+ */
+public final class LongIntHashMap {
+
+    private static final int MIN_CAPACITY = 8;
+
+    // 0 marks a free slot: database ids start at 1
+    private long[] keys;
+    private int[] values;
+    private int size;
+
+    public LongIntHashMap() {
+        keys = new long[MIN_CAPACITY];
+        values = new int[MIN_CAPACITY];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int get(long key) {
+        int mask = keys.length - 1;
+        for (int slot = slot(key, mask); ; slot = (slot + 1) & mask) {
+            long current = keys[slot];
+            if (current == key) {
+                return values[slot];
+            }
+            if (current == 0) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Adds {@code delta} to the count of {@code key} and returns the new count; a count
+     * that reaches zero or below removes the key and returns 0.
+     */
+    public int add(long key, int delta) {
+        if (key == 0) {
+            throw new IllegalArgumentException("key 0 is reserved");
+        }
+        int mask = keys.length - 1;
+        int slot = slot(key, mask);
+        while (keys[slot] != 0 && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        if (keys[slot] == key) {
+            int value = values[slot] + delta;
+            if (value > 0) {
+                values[slot] = value;
+                return value;
+            }
+            remove(slot);
+            return 0;
+        }
+        if (delta <= 0) {
+            return 0;
+        }
+        keys[slot] = key;
+        values[slot] = delta;
+        // at most 3/4 full, so probe sequences stay short
+        if (++size * 4 > keys.length * 3) {
+            resize(keys.length * 2);
+        }
+        return delta;
+    }
+
+    public void forEach(Entries entries) {
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (keys[slot] != 0) {
+                entries.accept(keys[slot], values[slot]);
+            }
+        }
+    }
+
+    @FunctionalInterface
+    public interface Entries {
+        void accept(long key, int value);
+    }
+
+    // shifts back the entries that probed past the freed slot, so lookups never stop early
+    private void remove(int freed) {
+        int mask = keys.length - 1;
+        int slot = freed;
+        while (true) {
+            slot = (slot + 1) & mask;
+            long key = keys[slot];
+            if (key == 0) {
+                break;
+            }
+            int home = slot(key, mask);
+            // the entry can move to the freed slot unless its home lies cyclically in (freed, slot]
+            boolean homeBetween = freed <= slot ? freed < home && home <= slot : freed < home || home <= slot;
+            if (!homeBetween) {
+                keys[freed] = key;
+                values[freed] = values[slot];
+                freed = slot;
+            }
+        }
+        keys[freed] = 0;
+        values[freed] = 0;
+        size--;
+    }
+
+    private void resize(int capacity) {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        keys = new long[capacity];
+        values = new int[capacity];
+        int mask = capacity - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != 0) {
+                int slot = slot(oldKeys[i], mask);
+                while (keys[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    // sequential ids would cluster in neighbouring slots: spread them with a multiplicative hash
+    private static int slot(long key, int mask) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+}
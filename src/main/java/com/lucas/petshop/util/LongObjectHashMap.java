@@ -0,0 +1,104 @@
+package com.lucas.petshop.util;
+
+import java.util.function.LongFunction;
+
+/**
+ * Open-addressing map from non-zero {@code long} keys to values, with linear probing over a
+ * key array and a value array: the keys are never boxed, so a lookup allocates nothing.
+ *
+ * <p>Entries are never removed. Not thread-safe: the co-occurrence matrix stripes its rows
+ * over several of these, each guarded by its own lock.</p>
+ */
+public final class LongObjectHashMap<V> {
+
+    private static final int MIN_CAPACITY = 8;
+
+    // 0 marks a free slot: database ids start at 1
+    private long[] keys;
+    private Object[] values;
+    private int size;
+
+    public LongObjectHashMap() {
+        keys = new long[MIN_CAPACITY];
+        values = new Object[MIN_CAPACITY];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V get(long key) {
+        int mask = keys.length - 1;
+        for (int slot = slot(key, mask); ; slot = (slot + 1) & mask) {
+            long current = keys[slot];
+            if (current == key) {
+                return (V) values[slot];
+            }
+            if (current == 0) {
+                return null;
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    public V computeIfAbsent(long key, LongFunction<V> create) {
+        if (key == 0) {
+            throw new IllegalArgumentException("key 0 is reserved");
+        }
+        int mask = keys.length - 1;
+        int slot = slot(key, mask);
+        while (keys[slot] != 0 && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        if (keys[slot] == key) {
+            return (V) values[slot];
+        }
+        V value = create.apply(key);
+        keys[slot] = key;
+        values[slot] = value;
+        // at most 3/4 full, so probe sequences stay short
+        if (++size * 4 > keys.length * 3) {
+            resize(keys.length * 2);
+        }
+        return value;
+    }
+
+    @SuppressWarnings("unchecked")
+    public void forEach(Entries<V> entries) {
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (keys[slot] != 0) {
+                entries.accept(keys[slot], (V) values[slot]);
+            }
+        }
+    }
+
+    @FunctionalInterface
+    public interface Entries<V> {
+        void accept(long key, V value);
+    }
+
+    private void resize(int capacity) {
+        long[] oldKeys = keys;
+        Object[] oldValues = values;
+        keys = new long[capacity];
+        values = new Object[capacity];
+        int mask = capacity - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != 0) {
+                int slot = slot(oldKeys[i], mask);
+                while (keys[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    // same spreading as LongIntHashMap: sequential ids would otherwise fill neighbouring slots
+    private static int slot(long key, int mask) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+}
@@ -10,7 +10,8 @@ price DECIMAL(10,2) NOT NULL,
 size_weight DECIMAL(5,2),
 created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
 last_update TIMESTAMP,
-deleted_product BOOLEAN NOT NULL DEFAULT FALSE
+deleted_product BOOLEAN NOT NULL DEFAULT FALSE,
+version BIGINT NOT NULL DEFAULT 0
 );
 
 CREATE TABLE tb_rating (
@@ -33,7 +34,8 @@ total_amount DECIMAL(10,2),
 status  VARCHAR(20) NOT NULL,
 order_creation TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
 order_update TIMESTAMP,
-deleted_order BOOLEAN NOT NULL DEFAULT FALSE
+deleted_order BOOLEAN NOT NULL DEFAULT FALSE,
+version BIGINT NOT NULL DEFAULT 0
 );
 
 CREATE TABLE tb_products_orders (
@@ -44,8 +46,73 @@ CREATE TABLE tb_products_orders (
     unit_price DECIMAL(10,2) NOT NULL,
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     last_update TIMESTAMP,
-    deleted_product_order BOOLEAN DEFAULT FALSE,
+    deleted_product_order BOOLEAN NOT NULL DEFAULT FALSE,
 
     CONSTRAINT fk_product FOREIGN KEY (product_id) REFERENCES tb_products(product_id),
     CONSTRAINT fk_order FOREIGN KEY (order_id) REFERENCES tb_orders(order_id)
-);
\ No newline at end of file
+);
+
+-- Partial indexes over live rows: every query generated by Hibernate carries the
+-- soft-delete predicate (see SoftDeleteFilters), so these match it exactly.
+CREATE INDEX idx_products_active ON tb_products (product_id) WHERE deleted_product = false;
+CREATE INDEX idx_orders_active ON tb_orders (order_id) WHERE deleted_order = false;
+CREATE INDEX idx_products_orders_active_order ON tb_products_orders (order_id) WHERE deleted_product_order = false;
+
+-- Order lookup by client (OrderRepository.findByClient*). An exact match reads the btree
+-- already in newest-first order, so only the requested page is read. A prefix match
+-- (LIKE 'prefix%') is a range scan over every matching client: their rows still have to
+-- be sorted on order_creation DESC. Fuzzy matches come from the trigram index.
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+CREATE INDEX idx_orders_client_created ON tb_orders (client text_pattern_ops, order_creation DESC) WHERE deleted_order = false;
+CREATE INDEX idx_orders_client_trgm ON tb_orders USING gin (client gin_trgm_ops) WHERE deleted_order = false;
+
+-- Orders by creation time (OrderRepository.findByCreationBetween*, /orders?from=&to=): order_creation
+-- only grows with order_id, so a BRIN index (min/max per block range) prunes the table to the
+-- requested window while staying a few pages big, where a btree would grow with every row.
+-- Block ranges filled after the last VACUUM are not summarized and always read: autosummarize
+-- has autovacuum summarize each range as soon as it is full.
+CREATE INDEX idx_orders_creation_brin ON tb_orders USING brin (order_creation)
+    WITH (pages_per_range = 32, autosummarize = on);
+
+-- Ratings of a product, newest first (RatingRepository.find*PageByProduct*): equality on the
+-- first two columns, then the index order is the keyset order so a page is a bounded range scan.
+CREATE INDEX idx_rating_product_created ON tb_rating (product_id, deleted_rating, created_at DESC, rating_id DESC);
+
+-- Per-client order totals, maintained incrementally by OrderServiceImpl (ClientSummaryRepository)
+-- and rebuilt from tb_orders by the clientsummaries actuator endpoint. Live orders only.
+CREATE TABLE tb_client_summary (
+client VARCHAR(50) PRIMARY KEY,
+order_count BIGINT NOT NULL DEFAULT 0,
+lifetime_spend DECIMAL(14,2) NOT NULL DEFAULT 0,
+last_order_at TIMESTAMP,
+last_update TIMESTAMP
+);
+
+-- Soft-delete purge (SoftDeletePurgeJob): small partial indexes over the deleted rows only,
+-- walked in key order, and the reference checks done before a product can be removed.
+CREATE INDEX idx_rating_purge ON tb_rating (rating_id) WHERE deleted_rating = true;
+CREATE INDEX idx_orders_purge ON tb_orders (order_id) WHERE deleted_order = true;
+CREATE INDEX idx_products_purge ON tb_products (product_id) WHERE deleted_product = true;
+CREATE INDEX idx_products_orders_product ON tb_products_orders (product_id);
+
+-- Purged rows land here when petshop.purge.archive is on (same columns, no constraints)
+CREATE TABLE tb_rating_archive (LIKE tb_rating);
+CREATE TABLE tb_products_orders_archive (LIKE tb_products_orders);
+CREATE TABLE tb_products_archive (LIKE tb_products);
+
+-- Checkpoint of the in-memory bought-together matrix (BoughtTogetherServiceImpl): rewritten as a
+-- whole every petshop.bought-together.checkpoint-interval, read once on startup. Orders with an id
+-- above last_order_id are added on top of it from tb_products_orders.
+CREATE TABLE tb_product_cooccurrence (
+product_id BIGINT NOT NULL,
+other_product_id BIGINT NOT NULL,
+order_count INTEGER NOT NULL,
+PRIMARY KEY (product_id, other_product_id)
+);
+
+CREATE TABLE tb_cooccurrence_checkpoint (
+checkpoint_id INTEGER PRIMARY KEY,
+last_order_id BIGINT NOT NULL,
+pair_count BIGINT NOT NULL,
+created_at TIMESTAMP NOT NULL
+);
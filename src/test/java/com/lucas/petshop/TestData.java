@@ -0,0 +1,78 @@
+package com.lucas.petshop;
+
+import com.lucas.petshop.dto.OrderRequestDTO;
+import com.lucas.petshop.dto.ProductOrderItemDTO;
+import com.lucas.petshop.dto.ProductRequestDTO;
+import com.lucas.petshop.service.OrderStatusEnum;
+import com.lucas.petshop.service.ProductAnimalTypeEnum;
+import com.lucas.petshop.service.ProductTypeEnum;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Fixtures shared by the Spring Boot tests: a second-level cache reset and request DTOs
+ * with valid defaults, so each test only spells out what it asserts on.
+ */
+public final class TestData {
+
+    private TestData() {
+    }
+
+    /**
+     * Evicts every second-level cache region. The JCache CacheManager is shared by every test
+     * context in the JVM, so entries cached by another test class would otherwise leak in.
+     */
+    public static void clearSecondLevelCache(EntityManagerFactory entityManagerFactory) {
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictAllRegions();
+    }
+
+    public static ProductRequestDTO product(String name) {
+        return product(name, "10.00");
+    }
+
+    public static ProductRequestDTO product(String name, String price) {
+        return product(name, ProductTypeEnum.FOOD, ProductAnimalTypeEnum.DOG, price);
+    }
+
+    public static ProductRequestDTO product(String name, ProductTypeEnum type, ProductAnimalTypeEnum animalType,
+                                            String price) {
+        ProductRequestDTO dto = new ProductRequestDTO();
+        dto.setName(name);
+        dto.setType(type);
+        dto.setAnimalType(animalType);
+        dto.setBrand("Acme");
+        dto.setDescription("Test product description");
+        dto.setStock(10);
+        dto.setPrice(new BigDecimal(price));
+        dto.setSizeWeight(1.5);
+        return dto;
+    }
+
+    // a PENDING order with one of each product
+    public static OrderRequestDTO order(String client, long... productIds) {
+        return order(client, OrderStatusEnum.PENDING, productIds);
+    }
+
+    // a PENDING order of quantity units of one product
+    public static OrderRequestDTO order(String client, long productId, int quantity) {
+        return order(client, OrderStatusEnum.PENDING, new ProductOrderItemDTO(productId, quantity));
+    }
+
+    public static OrderRequestDTO order(String client, OrderStatusEnum status, long... productIds) {
+        return order(client, status, Arrays.stream(productIds)
+                .mapToObj(id -> new ProductOrderItemDTO(id, 1))
+                .toArray(ProductOrderItemDTO[]::new));
+    }
+
+    public static OrderRequestDTO order(String client, OrderStatusEnum status, ProductOrderItemDTO... items) {
+        OrderRequestDTO dto = new OrderRequestDTO();
+        dto.setClient(client);
+        dto.setStatus(status);
+        dto.setItems(List.of(items));
+        return dto;
+    }
+}
@@ -0,0 +1,73 @@
+package com.lucas.petshop.benchmark;
+
+import com.lucas.petshop.controller.RestExceptionHandler;
+import com.lucas.petshop.exception.ProductNotFoundException;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.http.ProblemDetail;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the exception part of a 404: throwing from a service call {@code depth} frames
+ * deep, catching it where the controller advice would, and building the problem detail.
+ *
+ * <p>{@code stackful} reproduces the previous path (a plain {@code RuntimeException},
+ * which walks and records the stack in its constructor); {@code stackless} is the current
+ * {@link ProductNotFoundException}. The depth stands for the Tomcat, filter, Spring MVC
+ * and proxy frames between the servlet thread and the service, which is usually
+ * well over a hundred. Unwinding those frames costs the same on both paths; the
+ * difference is the stack walk of {@code fillInStackTrace}, which grows with the depth.</p>
+ *
+ * <pre>
+ * ./mvnw test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=com.lucas.petshop.benchmark.NotFoundBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NotFoundBenchmark {
+
+    @Param({"10", "150"})
+    int depth;
+
+    private final RestExceptionHandler handler = new RestExceptionHandler();
+
+    @Benchmark
+    public ProblemDetail stackful() {
+        try {
+            return found(depth, false);
+        } catch (RuntimeException e) {
+            return handler.notFound(e);
+        }
+    }
+
+    @Benchmark
+    public ProblemDetail stackless() {
+        try {
+            return found(depth, true);
+        } catch (RuntimeException e) {
+            return handler.notFound(e);
+        }
+    }
+
+    @CompilerControl(CompilerControl.Mode.DONT_INLINE)
+    private static ProblemDetail found(int depth, boolean stackless) {
+        if (depth > 0) {
+            return found(depth - 1, stackless);
+        }
+        throw stackless ? new ProductNotFoundException("PRODUCT NOT FOUND") : new RuntimeException("PRODUCT NOT FOUND");
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(NotFoundBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
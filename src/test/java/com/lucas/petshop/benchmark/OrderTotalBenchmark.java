@@ -0,0 +1,78 @@
+package com.lucas.petshop.benchmark;
+
+import com.lucas.petshop.model.Money;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.math.BigDecimal;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the order total computation used by OrderServiceImpl before and after
+ * the switch to {@link Money}.
+ *
+ * <p>{@code bigDecimal} reproduces the previous path (BigDecimal multiply/add per line,
+ * then {@code doubleValue()}); {@code money} is the current primitive accumulation.
+ * Run with {@code -prof gc} to see the allocation rate of each path.</p>
+ *
+ * <pre>
+ * ./mvnw test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=com.lucas.petshop.benchmark.OrderTotalBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OrderTotalBenchmark {
+
+    @Param({"1", "10", "100"})
+    int lines;
+
+    BigDecimal[] decimalPrices;
+    Money[] moneyPrices;
+    int[] quantities;
+
+    @Setup
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+        decimalPrices = new BigDecimal[lines];
+        moneyPrices = new Money[lines];
+        quantities = new int[lines];
+        for (int i = 0; i < lines; i++) {
+            long cents = random.nextLong(100, 50_000);
+            decimalPrices[i] = BigDecimal.valueOf(cents, 2);
+            moneyPrices[i] = Money.ofCents(cents);
+            quantities[i] = random.nextInt(1, 10);
+        }
+    }
+
+    @Benchmark
+    public double bigDecimal() {
+        BigDecimal total = BigDecimal.ZERO;
+        for (int i = 0; i < lines; i++) {
+            total = total.add(decimalPrices[i].multiply(BigDecimal.valueOf(quantities[i])));
+        }
+        return total.doubleValue();
+    }
+
+    @Benchmark
+    public Money money() {
+        long totalCents = 0L;
+        for (int i = 0; i < lines; i++) {
+            totalCents = Money.addLine(totalCents, moneyPrices[i], quantities[i]);
+        }
+        return Money.ofCents(totalCents);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(OrderTotalBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
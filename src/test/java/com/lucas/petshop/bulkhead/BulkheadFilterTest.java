@@ -0,0 +1,147 @@
+package com.lucas.petshop.bulkhead;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BulkheadFilterTest {
+
+    private static final long THRESHOLD = TimeUnit.MILLISECONDS.toNanos(100);
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(5);
+    private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(500);
+
+    @Test
+    void slowRequestsShrinkTheLimitOncePerCohortAndFastOnesGrowItBack() {
+        AimdLimit limit = new AimdLimit(10, 2, 12, THRESHOLD, 0.5);
+
+        // ten slow requests admitted together: one decrease, not ten
+        acquire(limit, 10);
+        for (int i = 0; i < 10; i++) {
+            limit.release(1_000, SLOW);
+        }
+        assertThat(limit.limit()).isEqualTo(5);
+        assertThat(limit.inFlight()).isZero();
+
+        // the next cohort, admitted after that decrease, halves it again, down to the minimum
+        for (int round = 0; round < 3; round++) {
+            acquire(limit, 1);
+            limit.release(1_000 + (round + 1) * SLOW * 2, SLOW);
+        }
+        assertThat(limit.limit()).isEqualTo(2);
+
+        // fast requests add about one per limit's worth while the group is busy, up to the maximum
+        for (int i = 0; i < 500; i++) {
+            acquire(limit, limit.limit());
+            for (int j = limit.inFlight(); j > 0; j--) {
+                limit.release(10_000_000_000L, FAST);
+            }
+        }
+        assertThat(limit.limit()).isEqualTo(12);
+    }
+
+    @Test
+    void idleGroupDoesNotGrow() {
+        AimdLimit limit = new AimdLimit(10, 1, 100, THRESHOLD, 0.9);
+        for (int i = 0; i < 1_000; i++) {
+            acquire(limit, 1);
+            limit.release(i, FAST);
+        }
+        assertThat(limit.limit()).isEqualTo(10);
+    }
+
+    @Test
+    void fullGroupIsShedWithoutTouchingTheOthers() throws Exception {
+        Bulkhead listings = new Bulkhead("listings", List.of("GET /orders"), new AimdLimit(1, 1, 1, THRESHOLD, 0.9));
+        Bulkhead catalog = new Bulkhead("catalog", List.of("GET /orders/**", "* /products/**"),
+                new AimdLimit(1, 1, 1, THRESHOLD, 0.9));
+        BulkheadFilter filter = new BulkheadFilter(List.of(listings, catalog), Duration.ofSeconds(2));
+
+        // a slow listing holds the only listings slot
+        CountDownLatch inside = new CountDownLatch(1);
+        CountDownLatch finish = new CountDownLatch(1);
+        CompletableFuture<MockHttpServletResponse> slow = CompletableFuture.supplyAsync(() -> {
+            MockHttpServletResponse response = new MockHttpServletResponse();
+            try {
+                filter.doFilter(request("GET", "/orders"), response, (req, res) -> {
+                    inside.countDown();
+                    await(finish);
+                });
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+            return response;
+        });
+        assertThat(inside.await(5, TimeUnit.SECONDS)).isTrue();
+
+        MockHttpServletResponse rejected = call(filter, "GET", "/orders");
+        assertThat(rejected.getStatus()).isEqualTo(503);
+        assertThat(rejected.getHeader(HttpHeaders.RETRY_AFTER)).isEqualTo("2");
+        assertThat(rejected.getContentAsString()).contains("BULKHEAD listings IS FULL");
+
+        // first match wins: /orders/{id} is catalog, and so is any method on products
+        assertThat(call(filter, "GET", "/orders/7").getStatus()).isEqualTo(200);
+        assertThat(call(filter, "PATCH", "/products/7").getStatus()).isEqualTo(200);
+        // no group: never limited
+        assertThat(call(filter, "POST", "/orders").getStatus()).isEqualTo(200);
+
+        finish.countDown();
+        assertThat(slow.get(5, TimeUnit.SECONDS).getStatus()).isEqualTo(200);
+        assertThat(call(filter, "GET", "/orders").getStatus()).isEqualTo(200);
+        assertThat(listings.accepted()).isEqualTo(2);
+        assertThat(listings.rejected()).isEqualTo(1);
+        assertThat(catalog.limit().inFlight()).isZero();
+    }
+
+    @Test
+    void streamedResponseKeepsItsSlotUntilTheStreamCompletes() throws Exception {
+        AimdLimit limit = new AimdLimit(1, 1, 1, THRESHOLD, 0.9);
+        BulkheadFilter filter = new BulkheadFilter(
+                List.of(new Bulkhead("listings", List.of("GET /orders/export"), limit)), Duration.ofSeconds(1));
+
+        MockHttpServletRequest export = request("GET", "/orders/export");
+        export.setAsyncSupported(true);
+        filter.doFilter(export, new MockHttpServletResponse(), (req, res) -> req.startAsync());
+
+        assertThat(limit.inFlight()).isEqualTo(1);
+        assertThat(call(filter, "GET", "/orders/export").getStatus()).isEqualTo(503);
+
+        export.getAsyncContext().complete();
+        assertThat(limit.inFlight()).isZero();
+    }
+
+    private static void acquire(AimdLimit limit, int requests) {
+        for (int i = 0; i < requests; i++) {
+            assertThat(limit.tryAcquire()).isTrue();
+        }
+    }
+
+    private static MockHttpServletResponse call(BulkheadFilter filter, String method, String path) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request(method, path), response, new MockFilterChain());
+        return response;
+    }
+
+    private static MockHttpServletRequest request(String method, String path) {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, "/petshop" + path);
+        request.setContextPath("/petshop");
+        return request;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.lucas.petshop.config;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SlowQueryListenerTest {
+
+    @Test
+    void subMillisecondStatementsAreRecordedInNanoseconds() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        SlowQueryListener listener = new SlowQueryListener(new SqlLoggingProperties(), registry);
+
+        for (int i = 0; i < 10; i++) {
+            execute(listener, "SELECT p.product_id FROM tb_products p WHERE p.product_id = ?");
+        }
+
+        Timer timer = registry.get(SlowQueryListener.METRIC).tag("table", "tb_products").timer();
+        assertThat(timer.count()).isEqualTo(10);
+        // ExecutionInfo's elapsed time is 0 ms here; the listener's own clock is not
+        assertThat(timer.totalTime(TimeUnit.NANOSECONDS)).isPositive();
+    }
+
+    @Test
+    void statementsPastMaxShapesShareOneTimer() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        SqlLoggingProperties properties = new SqlLoggingProperties();
+        properties.setMaxShapes(2);
+        SlowQueryListener listener = new SlowQueryListener(properties, registry);
+
+        for (String table : List.of("tb_a", "tb_b", "tb_c", "tb_d", "tb_e")) {
+            execute(listener, "SELECT * FROM " + table + " WHERE id = ?");
+        }
+
+        // two shapes plus the pre-registered "other": no meter per overflowing statement
+        assertThat(registry.find(SlowQueryListener.METRIC).timers()).hasSize(3);
+        assertThat(registry.get(SlowQueryListener.METRIC).tag("shape", SlowQueryListener.OTHER_SHAPE).timer().count())
+                .isEqualTo(3);
+        assertThat(listener.shapes()).hasSize(2);
+    }
+
+    private static void execute(SlowQueryListener listener, String sql) {
+        ExecutionInfo execInfo = new ExecutionInfo();
+        List<QueryInfo> queries = List.of(new QueryInfo(sql));
+        listener.beforeQuery(execInfo, queries);
+        execInfo.setElapsedTime(0);
+        execInfo.setSuccess(true);
+        listener.afterQuery(execInfo, queries);
+    }
+}
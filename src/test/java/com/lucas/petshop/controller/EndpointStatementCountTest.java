@@ -0,0 +1,313 @@
+package com.lucas.petshop.controller;
+
+import com.lucas.petshop.dto.OrderRequestDTO;
+import com.lucas.petshop.dto.RatingRequestDTO;
+import com.lucas.petshop.model.Rating;
+import com.lucas.petshop.repository.RatingRepository;
+import com.lucas.petshop.service.OrderService;
+import com.lucas.petshop.service.ProductService;
+import com.lucas.petshop.service.RatingService;
+import com.lucas.petshop.service.RatingStarsEnum;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.stream.LongStream;
+
+import static com.lucas.petshop.TestData.clearSecondLevelCache;
+import static com.lucas.petshop.TestData.order;
+import static com.lucas.petshop.TestData.product;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * SQL budget per endpoint.
+ *
+ * <p>Every request runs with a cold second-level cache (the worst case) against H2 and is
+ * measured through a datasource-proxy. The bounds are exact upper limits: a change that adds a
+ * query per row (N+1), drops a fetch plan or turns an INSERT into a merge fails here.
+ * Raise a bound only together with the change that justifies it.</p>
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:statements;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Import(EndpointStatementCountTest.CounterConfig.class)
+class EndpointStatementCountTest {
+
+    @TestConfiguration
+    static class CounterConfig {
+        @Bean
+        static StatementCounter statementCounter() {
+            return new StatementCounter();
+        }
+    }
+
+    private static final JsonMapper JSON = JsonMapper.builder().build();
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private StatementCounter counter;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private RatingService ratingService;
+
+    @Autowired
+    private RatingRepository ratingRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @BeforeEach
+    void seed() {
+        clearSecondLevelCache(entityManagerFactory);
+        for (int i = 0; i < 3; i++) {
+            long productId = productService.createProduct(product("Seed product " + i));
+            orderService.createOrder(order("Seed client " + i, productId));
+            ratingService.createRating(rating(productId));
+        }
+    }
+
+    // PRODUCTS
+
+    @Test
+    void getAllProducts() throws Exception {
+        assertBudget(get("/products"), 1, 1, rowsOf("/products"));
+    }
+
+    @Test
+    void getProductById() throws Exception {
+        long id = productService.createProduct(product("Budget product"));
+        assertBudget(get("/products/{id}", id), 1, 1, 1);
+    }
+
+    @Test
+    void getProductsByIds() throws Exception {
+        long[] ids = products(50);
+        String idList = String.join(",", LongStream.of(ids).mapToObj(String::valueOf).toList());
+        // one IN query whatever the number of ids
+        assertBudget(get("/products").param("ids", idList), 1, 1, 50);
+    }
+
+    @Test
+    void lookupProducts() throws Exception {
+        long[] ids = products(50);
+        assertBudget(post("/products/lookup").contentType(MediaType.APPLICATION_JSON)
+                .content(JSON.writeValueAsString(ids)), 1, 1, 50);
+    }
+
+    @Test
+    void getRatingsOfProduct() throws Exception {
+        long id = productService.createProduct(product("Rated product"));
+        for (int i = 0; i < 5; i++) {
+            ratingService.createRating(rating(id));
+        }
+        // size + 1 rows: the extra one only tells whether there is a next page
+        assertBudget(get("/products/{id}/ratings?size=3", id), 1, 1, 4);
+    }
+
+    @Test
+    void createProduct() throws Exception {
+        assertBudget(post("/products").contentType(MediaType.APPLICATION_JSON)
+                .content(JSON.writeValueAsString(product("Posted product"))), 1, 1, 1);
+    }
+
+    @Test
+    void updateProduct() throws Exception {
+        long id = productService.createProduct(product("Put product"));
+        assertBudget(put("/products/{id}", id).contentType(MediaType.APPLICATION_JSON)
+                .content(JSON.writeValueAsString(product("Put product v2"))), 2, 2, 1);
+    }
+
+    @Test
+    void partialUpdateProduct() throws Exception {
+        long id = productService.createProduct(product("Patched product"));
+        assertBudget(patch("/products/{id}", id).header(HttpHeaders.IF_MATCH, "\"0\"")
+                .contentType(MediaType.APPLICATION_JSON).content("{\"stock\": 3}"), 2, 2, 1);
+    }
+
+    @Test
+    void bulkUpdateProducts() throws Exception {
+        long[] ids = products(3);
+        Map<String, Object> changes = new LinkedHashMap<>();
+        for (int i = 0; i < 5500; i++) {
+            changes.put(String.valueOf(ids[i % ids.length] + 1_000_000L * (i / ids.length)), Map.of("stock", i));
+        }
+        // one JDBC batch per chunk of 5000 rows, nothing read back
+        assertBudget(patch("/products/bulk").contentType(MediaType.APPLICATION_JSON)
+                .content(JSON.writeValueAsString(changes)), 2, 2, 0);
+    }
+
+    @Test
+    void bulkUpdateRejectsInvalidValues() throws Exception {
+        long id = productService.createProduct(product("Invalid bulk"));
+        mockMvc.perform(patch("/products/bulk").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"" + id + "\": {\"price\": 0.001}}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void deleteProduct() throws Exception {
+        long id = productService.createProduct(product("Deleted product"));
+        assertBudget(delete("/products/{id}", id), 2, 2, 1);
+    }
+
+    // ORDERS
+
+    @Test
+    void getAllOrders() throws Exception {
+        assertBudget(get("/orders"), 1, 1, rowsOf("/orders"));
+    }
+
+    @Test
+    void getOrderById() throws Exception {
+        long id = orderService.createOrder(order("Budget client", productService.createProduct(product("Single product"))));
+        assertBudget(get("/orders/{id}", id), 1, 1, 1);
+    }
+
+    @Test
+    void getOrderItems() throws Exception {
+        long id = orderService.createOrder(order("Items client", products(10)));
+        // order x lines join: one row per line
+        assertBudget(get("/orders/{id}/items", id), 1, 1, 10);
+    }
+
+    @Test
+    void findOrdersByClient() throws Exception {
+        long productId = productService.createProduct(product("Client product"));
+        for (int i = 0; i < 5; i++) {
+            orderService.createOrder(order("Paged client", productId));
+        }
+        // page size + 1 rows for the hasNext probe
+        assertBudget(get("/orders").param("client", "Paged client").param("size", "2"), 1, 1, 3);
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 5, 25})
+    void createOrderDoesNotGrowWithItems(int items) throws Exception {
+        // a returning client: its summary row already exists
+        OrderRequestDTO dto = order("Seed client 0", products(items));
+
+        // products (one IN query) + order INSERT + one batched INSERT for all lines + client summary UPDATE
+        assertBudget(post("/orders").contentType(MediaType.APPLICATION_JSON)
+                .content(JSON.writeValueAsString(dto)), 4, 4, items + 1);
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 25})
+    void updateOrderDoesNotGrowWithItems(int items) throws Exception {
+        long id = orderService.createOrder(order("Put client", products(items)));
+        OrderRequestDTO dto = order("Put client", products(items));
+
+        // order + old line products (for bought-together) + products + versioned order UPDATE
+        // + bulk line DELETE + batched line INSERT + client summary UPDATE
+        assertBudget(put("/orders/{id}", id).header(HttpHeaders.IF_MATCH, "\"0\"")
+                .contentType(MediaType.APPLICATION_JSON).content(JSON.writeValueAsString(dto)), 7, 7, 2L * items + 1);
+    }
+
+    @Test
+    void deleteOrder() throws Exception {
+        long id = orderService.createOrder(order("Deleted client", productService.createProduct(product("Single product"))));
+        // order SELECT + soft-delete UPDATE + client summary UPDATE + line products (for bought-together)
+        assertBudget(delete("/orders/{id}", id).header(HttpHeaders.IF_MATCH, "\"0\""), 4, 4, 2);
+    }
+
+    // RATINGS
+
+    @Test
+    void getAllRatings() throws Exception {
+        assertBudget(get("/ratings"), 1, 1, rowsOf("/ratings"));
+    }
+
+    @Test
+    void getRatingById() throws Exception {
+        assertBudget(get("/ratings/{id}", anyRatingId()), 1, 1, 1);
+    }
+
+    @Test
+    void createRating() throws Exception {
+        long productId = productService.createProduct(product("Rating target"));
+        assertBudget(post("/ratings").contentType(MediaType.APPLICATION_JSON)
+                .content(JSON.writeValueAsString(rating(productId))), 2, 2, 2);
+    }
+
+    @Test
+    void updateRating() throws Exception {
+        long productId = productService.createProduct(product("Rating update target"));
+        ratingService.createRating(rating(productId));
+        assertBudget(put("/ratings/{id}", anyRatingId()).contentType(MediaType.APPLICATION_JSON)
+                .content(JSON.writeValueAsString(rating(productId))), 2, 2, 1);
+    }
+
+    @Test
+    void deleteRating() throws Exception {
+        assertBudget(delete("/ratings/{id}", anyRatingId()), 2, 2, 1);
+    }
+
+    // HELPERS
+
+    private void assertBudget(RequestBuilder request, long statements, long roundTrips, long rowsFetched)
+            throws Exception {
+        clearSecondLevelCache(entityManagerFactory);
+
+        StatementCounter.Usage usage = counter.measure(
+                () -> mockMvc.perform(request).andExpect(status().is2xxSuccessful()));
+
+        assertThat(usage.statements()).as("statements").isLessThanOrEqualTo(statements);
+        assertThat(usage.roundTrips()).as("round trips").isLessThanOrEqualTo(roundTrips);
+        assertThat(usage.rowsFetched()).as("rows fetched").isLessThanOrEqualTo(rowsFetched);
+    }
+
+    // a listing may read exactly the rows it returns
+    private long rowsOf(String listing) throws Exception {
+        String body = mockMvc.perform(get(listing)).andReturn().getResponse().getContentAsString();
+        return JSON.readTree(body).size();
+    }
+
+    private long anyRatingId() {
+        return ratingRepository.findAll().stream().mapToLong(Rating::getId).max().orElseThrow();
+    }
+
+    private long[] products(int count) {
+        return LongStream.range(0, count)
+                .map(i -> productService.createProduct(product("Line product " + i)))
+                .toArray();
+    }
+
+    private static RatingRequestDTO rating(long productId) {
+        RatingRequestDTO dto = new RatingRequestDTO();
+        dto.setProductId(productId);
+        dto.setStars(RatingStarsEnum.FIVE);
+        dto.setClient("Reviewer");
+        dto.setComments("Good");
+        return dto;
+    }
+}
@@ -0,0 +1,153 @@
+package com.lucas.petshop.controller;
+
+import com.lucas.petshop.dto.OrderItemResponseDTO;
+import com.lucas.petshop.service.OrderService;
+import com.lucas.petshop.service.ProductService;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.IntStream;
+
+import static com.lucas.petshop.TestData.clearSecondLevelCache;
+import static com.lucas.petshop.TestData.order;
+import static com.lucas.petshop.TestData.product;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class OptimisticConcurrencyTest {
+
+    private static final JsonMapper JSON = JsonMapper.builder().build();
+
+    private static final int WRITERS = 4;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @BeforeEach
+    void setUp() {
+        clearSecondLevelCache(entityManagerFactory);
+    }
+
+    @Test
+    void concurrentUpdatesWithTheSameETagDoNotLoseOrMixLines() throws Exception {
+        long[] products = IntStream.range(0, WRITERS)
+                .mapToLong(i -> productService.createProduct(product("Race product " + i)))
+                .toArray();
+        ExecutorService pool = Executors.newFixedThreadPool(WRITERS);
+        try {
+            for (int round = 0; round < 10; round++) {
+                long id = orderService.createOrder(order("Race client", products[0], 1));
+                String etag = mockMvc.perform(get("/orders/{id}", id)).andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+                // every writer read the same version and replaces the lines with its own product
+                CountDownLatch start = new CountDownLatch(1);
+                List<Future<Integer>> statuses = IntStream.range(0, WRITERS)
+                        .mapToObj(i -> pool.submit((Callable<Integer>) () -> {
+                            start.await();
+                            return mockMvc.perform(put("/orders/{id}", id).header(HttpHeaders.IF_MATCH, etag)
+                                            .contentType(MediaType.APPLICATION_JSON)
+                                            .content(JSON.writeValueAsString(order("Racer " + i, products[i], i + 1))))
+                                    .andReturn().getResponse().getStatus();
+                        }))
+                        .toList();
+                start.countDown();
+
+                int winner = -1;
+                for (int i = 0; i < WRITERS; i++) {
+                    int status = statuses.get(i).get();
+                    assertThat(status).isIn(204, 412);
+                    if (status == 204) {
+                        assertThat(winner).as("only one writer of version %s succeeds", etag).isEqualTo(-1);
+                        winner = i;
+                    }
+                }
+                assertThat(winner).isNotEqualTo(-1);
+
+                // exactly the winner's line: nothing left over from the losers, nothing duplicated
+                List<OrderItemResponseDTO> items = orderService.getOrderItems(id);
+                assertThat(items).extracting(OrderItemResponseDTO::getProductId).containsExactly(products[winner]);
+                assertThat(orderService.getOrderById(id).getClient()).isEqualTo("Racer " + winner);
+                assertThat(orderService.getOrderById(id).getTotalItemsCount()).isEqualTo(winner + 1);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void writesRequireTheCurrentETag() throws Exception {
+        long productId = productService.createProduct(product("Versioned product"));
+        long id = orderService.createOrder(order("Versioned client", productId, 1));
+        String body = JSON.writeValueAsString(order("Versioned client", productId, 3));
+
+        mockMvc.perform(put("/orders/{id}", id).contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isPreconditionRequired());
+
+        String etag = mockMvc.perform(get("/orders/{id}", id)).andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(etag).isEqualTo("\"0\"");
+
+        String next = mockMvc.perform(put("/orders/{id}", id).header(HttpHeaders.IF_MATCH, etag)
+                        .contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isNoContent())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(next).isEqualTo("\"1\"");
+
+        // the first ETag is stale now: neither a second update nor a delete based on it goes through
+        mockMvc.perform(put("/orders/{id}", id).header(HttpHeaders.IF_MATCH, etag)
+                        .contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isPreconditionFailed());
+        mockMvc.perform(delete("/orders/{id}", id).header(HttpHeaders.IF_MATCH, etag))
+                .andExpect(status().isPreconditionFailed());
+        mockMvc.perform(delete("/orders/{id}", id).header(HttpHeaders.IF_MATCH, next))
+                .andExpect(status().isNoContent());
+    }
+
+    @Test
+    void stalePatchDoesNotOverwriteANewerOne() throws Exception {
+        long id = productService.createProduct(product("Patched twice"));
+        String etag = mockMvc.perform(get("/products/{id}", id)).andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(patch("/products/{id}", id).header(HttpHeaders.IF_MATCH, etag)
+                        .contentType(MediaType.APPLICATION_JSON).content("{\"stock\": 3}"))
+                .andExpect(status().isNoContent());
+        mockMvc.perform(patch("/products/{id}", id).header(HttpHeaders.IF_MATCH, etag)
+                        .contentType(MediaType.APPLICATION_JSON).content("{\"stock\": 7}"))
+                .andExpect(status().isPreconditionFailed());
+        mockMvc.perform(patch("/products/{id}", id).contentType(MediaType.APPLICATION_JSON).content("{\"stock\": 7}"))
+                .andExpect(status().isPreconditionRequired());
+
+        assertThat(JSON.readTree(mockMvc.perform(get("/products/{id}", id)).andReturn().getResponse().getContentAsString())
+                .get("version").asLong()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,178 @@
+package com.lucas.petshop.controller;
+
+import com.lucas.petshop.exception.OrderNotFoundException;
+import com.lucas.petshop.exception.ProductNotFoundException;
+import com.lucas.petshop.model.Money;
+import com.lucas.petshop.service.OrderService;
+import com.lucas.petshop.service.ProductService;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.util.stream.LongStream;
+
+import static com.lucas.petshop.TestData.clearSecondLevelCache;
+import static com.lucas.petshop.TestData.order;
+import static com.lucas.petshop.TestData.product;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.hamcrest.Matchers.startsWith;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class RestExceptionHandlerTest {
+
+    private static final JsonMapper JSON = JsonMapper.builder().build();
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @BeforeEach
+    void setUp() {
+        clearSecondLevelCache(entityManagerFactory);
+    }
+
+    @Test
+    void missesAreNotFoundProblems() throws Exception {
+        mockMvc.perform(get("/products/{id}", 987_654_321L))
+                .andExpect(status().isNotFound())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_PROBLEM_JSON))
+                .andExpect(jsonPath("$.status").value(404))
+                .andExpect(jsonPath("$.detail").value("PRODUCT NOT FOUND"));
+        mockMvc.perform(get("/orders/{id}", 987_654_321L))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.detail").value("ORDER NOT FOUND"));
+        mockMvc.perform(get("/ratings/{id}", 987_654_321L))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.detail").value("RATING NOT FOUND"));
+    }
+
+    @Test
+    void deletedEntitiesAndMissingReferencesAreNotFound() throws Exception {
+        long productId = productService.createProduct(product("Soon deleted"));
+        long orderId = orderService.createOrder(order("Problem client", productId));
+
+        // an order line naming a product that does not exist
+        mockMvc.perform(put("/orders/{id}", orderId).header(HttpHeaders.IF_MATCH, "*")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(JSON.writeValueAsString(order("Problem client", 987_654_321L))))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.detail").value("PRODUCT NOT FOUND: ID 987654321"));
+
+        mockMvc.perform(delete("/products/{id}", productId)).andExpect(status().isNoContent());
+        mockMvc.perform(get("/products/{id}", productId)).andExpect(status().isNotFound());
+        mockMvc.perform(delete("/products/{id}", productId)).andExpect(status().isNotFound());
+        // the deleted product is still in the cache region: rating it must not find it there
+        mockMvc.perform(post("/ratings").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"productId\": " + productId + ", \"stars\": \"FIVE\", \"client\": \"Late reviewer\"}"))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.detail").value("PRODUCT NOT FOUND"));
+
+        mockMvc.perform(delete("/orders/{id}", orderId).header(HttpHeaders.IF_MATCH, "*"))
+                .andExpect(status().isNoContent());
+        mockMvc.perform(get("/orders/{id}", orderId)).andExpect(status().isNotFound());
+    }
+
+    @Test
+    void productLookupRejectsNullAndTooManyIds() throws Exception {
+        mockMvc.perform(post("/products/lookup").contentType(MediaType.APPLICATION_JSON).content("[1, null, 2]"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.detail").value("PRODUCT IDS MUST NOT BE NULL"));
+        mockMvc.perform(post("/products/lookup").contentType(MediaType.APPLICATION_JSON)
+                        .content(JSON.writeValueAsString(LongStream.rangeClosed(1, 501).toArray())))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.detail").value("AT MOST 500 PRODUCT IDS PER REQUEST"));
+    }
+
+    @Test
+    void invertedCreationRangeIsABadRequest() throws Exception {
+        mockMvc.perform(get("/orders").param("from", "2025-02-01T00:00").param("to", "2025-01-01T00:00"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.detail").value("INVALID ORDER CREATION RANGE"));
+        // the export checks it before streaming, so it still gets a problem body rather than an empty 200
+        mockMvc.perform(get("/orders/export").accept(MediaType.APPLICATION_NDJSON)
+                        .param("from", "2025-01-01T00:00").param("to", "2025-01-01T00:00"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.detail").value("INVALID ORDER CREATION RANGE"));
+    }
+
+    @Test
+    void fractionsOfACentAreBadRequestsNotRounded() throws Exception {
+        mockMvc.perform(post("/products").contentType(MediaType.APPLICATION_JSON)
+                        .content(JSON.writeValueAsString(product("Fractional kibble", "9.999"))))
+                .andExpect(status().isBadRequest());
+        long productId = productService.createProduct(product("Whole cents kibble", "9.990"));
+        mockMvc.perform(patch("/products/bulk").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"" + productId + "\": {\"price\": 1.005}}"))
+                .andExpect(status().isBadRequest());
+        assertThat(productService.getProductById(productId).getPrice()).isEqualTo(Money.ofCents(999));
+    }
+
+    @Test
+    void unboundedClientSearchesAreBadRequests() throws Exception {
+        mockMvc.perform(get("/orders").param("client", "a").param("match", "PREFIX"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.detail").value("CLIENT PREFIX MUST HAVE AT LEAST 3 CHARACTERS"));
+        mockMvc.perform(get("/orders").param("client", "Ana").param("match", "FUZZY").param("page", "10"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.detail").value("FUZZY CLIENT SEARCH IS LIMITED TO 10 PAGES"));
+        mockMvc.perform(get("/orders").param("client", "Ana").param("match", "PREFIX"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void unknownPriceBucketIsABadRequest() throws Exception {
+        mockMvc.perform(get("/products/facets").param("price", "7-8"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.detail").value(startsWith("UNKNOWN PRICE BUCKET: 7-8")));
+    }
+
+    @Test
+    void malformedCursorIsABadRequest() throws Exception {
+        long productId = productService.createProduct(product("Paged ratings"));
+        // not base64, then base64 of something that is not a cursor
+        mockMvc.perform(get("/products/{id}/ratings", productId).param("cursor", "%%%"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.detail").value("INVALID CURSOR"));
+        mockMvc.perform(get("/orders").param("from", "2025-01-01T00:00").param("to", "2025-02-01T00:00")
+                        .param("cursor", "Zm9v"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.detail").value("INVALID CURSOR"));
+    }
+
+    @Test
+    void expectedMissesCarryNoStackTrace() {
+        assertThatThrownBy(() -> productService.getProductById(987_654_321L))
+                .isInstanceOf(ProductNotFoundException.class)
+                .satisfies(e -> assertThat(e.getStackTrace()).isEmpty());
+        assertThatThrownBy(() -> orderService.getOrderById(987_654_321L))
+                .isInstanceOf(OrderNotFoundException.class)
+                .satisfies(e -> assertThat(e.getStackTrace()).isEmpty());
+    }
+}
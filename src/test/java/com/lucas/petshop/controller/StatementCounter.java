@@ -0,0 +1,86 @@
+package com.lucas.petshop.controller;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.MethodExecutionContext;
+import net.ttddyy.dsproxy.listener.MethodExecutionListener;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+
+import javax.sql.DataSource;
+import java.sql.ResultSet;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Wraps the application DataSource in a datasource-proxy and counts, per measured block:
+ * <ul>
+ *   <li>statements: SQL statements sent (a JDBC batch of one INSERT counts once),</li>
+ *   <li>round trips: execute/executeQuery/executeUpdate/executeBatch calls,</li>
+ *   <li>rows fetched: successful {@code ResultSet.next()} calls.</li>
+ * </ul>
+ */
+class StatementCounter implements BeanPostProcessor {
+
+    record Usage(long statements, long roundTrips, long rowsFetched) {
+    }
+
+    @FunctionalInterface
+    interface Block {
+        void run() throws Exception;
+    }
+
+    private final AtomicLong statements = new AtomicLong();
+    private final AtomicLong roundTrips = new AtomicLong();
+    private final AtomicLong rowsFetched = new AtomicLong();
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof DataSource dataSource) {
+            return ProxyDataSourceBuilder.create(dataSource)
+                    .name("statement-counter")
+                    .listener(queryListener)
+                    .methodListener(rowListener)
+                    .proxyResultSet()
+                    .build();
+        }
+        return bean;
+    }
+
+    Usage measure(Block block) throws Exception {
+        statements.set(0);
+        roundTrips.set(0);
+        rowsFetched.set(0);
+        block.run();
+        return new Usage(statements.get(), roundTrips.get(), rowsFetched.get());
+    }
+
+    // not beans themselves: the application's datasource proxy picks up QueryExecutionListener beans
+    private final QueryExecutionListener queryListener = new QueryExecutionListener() {
+        @Override
+        public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        }
+
+        @Override
+        public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+            roundTrips.incrementAndGet();
+            statements.addAndGet(queryInfoList.size());
+        }
+    };
+
+    private final MethodExecutionListener rowListener = new MethodExecutionListener() {
+        @Override
+        public void beforeMethod(MethodExecutionContext executionContext) {
+        }
+
+        @Override
+        public void afterMethod(MethodExecutionContext executionContext) {
+            if (executionContext.getTarget() instanceof ResultSet
+                    && "next".equals(executionContext.getMethod().getName())
+                    && Boolean.TRUE.equals(executionContext.getResult())) {
+                rowsFetched.incrementAndGet();
+            }
+        }
+    };
+}
@@ -0,0 +1,133 @@
+package com.lucas.petshop.facet;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FacetIndexTest {
+
+    @Test
+    void compressedBitmapAgreesWithBitSetAcrossContainerConversions() {
+        Random random = new Random(42);
+        CompressedBitmap bitmap = new CompressedBitmap();
+        BitSet expected = new BitSet();
+
+        // three chunks; the first swings across the array/bitmap limit in both directions
+        for (int round = 0; round < 6; round++) {
+            boolean adding = round % 2 == 0;
+            for (int i = 0; i < 30_000; i++) {
+                int value = random.nextInt(3) == 0 ? random.nextInt(200_000) : random.nextInt(8_000);
+                boolean changed = adding ? bitmap.add(value) : bitmap.remove(value);
+                assertThat(changed).isEqualTo(adding != expected.get(value));
+                expected.set(value, adding);
+            }
+            assertThat(bitmap.cardinality()).isEqualTo(expected.cardinality());
+        }
+
+        long[] words = new long[200_000 / 64 + 1];
+        bitmap.orInto(words);
+        assertThat(BitSet.valueOf(words)).isEqualTo(expected);
+
+        long[] mask = new long[words.length];
+        for (int i = 0; i < mask.length; i++) {
+            mask[i] = random.nextLong();
+        }
+        BitSet masked = (BitSet) expected.clone();
+        masked.and(BitSet.valueOf(mask));
+        assertThat(bitmap.andCardinality(mask)).isEqualTo(masked.cardinality());
+        for (int value = 0; value < 10_000; value++) {
+            assertThat(bitmap.contains(value)).isEqualTo(expected.get(value));
+        }
+    }
+
+    @Test
+    void queryAgreesWithABruteForceScan() {
+        Random random = new Random(7);
+        int[] values = {8, 5, 300, 6};
+        FacetIndex index = new FacetIndex(values.length);
+        Map<Long, int[]> products = new HashMap<>();
+
+        for (int i = 0; i < 60_000; i++) {
+            long id = 1 + random.nextInt(20_000);
+            int action = random.nextInt(10);
+            if (action == 0) {
+                index.remove(id);
+                products.remove(id);
+            } else if (action == 1) {
+                int price = random.nextInt(values[3]);
+                if (index.set(id, 3, price)) {
+                    products.get(id)[3] = price;
+                } else {
+                    assertThat(products).doesNotContainKey(id);
+                }
+            } else {
+                int[] codes = new int[values.length];
+                for (int d = 0; d < values.length; d++) {
+                    // a few products without a brand
+                    codes[d] = d == 2 && random.nextInt(50) == 0 ? -1 : random.nextInt(values[d]);
+                }
+                index.put(id, codes);
+                products.put(id, codes.clone());
+            }
+        }
+        assertThat(index.size()).isEqualTo(products.size());
+
+        int[][][] selections = {
+                {null, null, null, null},
+                {{3}, null, null, null},
+                {null, null, {17, 250}, null},
+                {{1, 2}, {4}, null, null},
+                {{0}, {1}, null, {2, 3}},
+                {{5}, {0, 1, 2}, {1, 2, 3, 4, 5, 6, 7, 8, 9}, {1}},
+                {{2}, null, {-1}, null},
+        };
+        for (int[][] selected : selections) {
+            FacetIndex.Result result = index.query(selected, 10);
+
+            int matched = 0;
+            int[][] expected = new int[values.length][];
+            for (int d = 0; d < values.length; d++) {
+                expected[d] = new int[values[d]];
+            }
+            for (int[] codes : products.values()) {
+                boolean all = true;
+                for (int d = 0; d < values.length; d++) {
+                    all &= accepts(selected[d], codes[d]);
+                }
+                matched += all ? 1 : 0;
+                for (int d = 0; d < values.length; d++) {
+                    boolean others = true;
+                    for (int e = 0; e < values.length; e++) {
+                        others &= e == d || accepts(selected[e], codes[e]);
+                    }
+                    if (others && codes[d] >= 0) {
+                        expected[d][codes[d]]++;
+                    }
+                }
+            }
+
+            assertThat(result.matched()).as(Arrays.deepToString(selected)).isEqualTo(matched);
+            assertThat(result.products()).hasSize(Math.min(10, matched));
+            for (long id : result.products()) {
+                int[] codes = products.get(id);
+                for (int d = 0; d < values.length; d++) {
+                    assertThat(accepts(selected[d], codes[d])).isTrue();
+                }
+            }
+            for (int d = 0; d < values.length; d++) {
+                int[] counts = Arrays.copyOf(result.counts()[d], values[d]);
+                assertThat(counts).as(Arrays.deepToString(selected) + " dimension " + d).isEqualTo(expected[d]);
+            }
+        }
+    }
+
+    private static boolean accepts(int[] selected, int code) {
+        return selected == null || Arrays.stream(selected).anyMatch(s -> s >= 0 && s == code);
+    }
+}
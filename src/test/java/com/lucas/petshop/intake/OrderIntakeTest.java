@@ -0,0 +1,165 @@
+package com.lucas.petshop.intake;
+
+import com.lucas.petshop.config.OrderIntakeProperties;
+import com.lucas.petshop.dto.OrderIntakeResponseDTO;
+import com.lucas.petshop.model.Money;
+import com.lucas.petshop.service.ClientSummaryService;
+import com.lucas.petshop.service.OrderService;
+import com.lucas.petshop.service.ProductService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.support.TransactionTemplate;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static com.lucas.petshop.TestData.clearSecondLevelCache;
+import static com.lucas.petshop.TestData.order;
+import static com.lucas.petshop.TestData.product;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {"petshop.intake.enabled=true", "petshop.intake.batch-delay=20ms"})
+@ActiveProfiles("test")
+@AutoConfigureMockMvc
+class OrderIntakeTest {
+
+    private static final JsonMapper JSON = JsonMapper.builder().build();
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private OrderIntake orderIntake;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ClientSummaryService clientSummaryService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private long product;
+
+    @BeforeEach
+    void setUp() {
+        clearSecondLevelCache(entityManagerFactory);
+        product = productService.createProduct(product("Intake kibble", "12.50"));
+    }
+
+    @Test
+    void postAnswersAcceptedWithAHandleThatReportsTheCreatedOrder() throws Exception {
+        MvcResult result = mockMvc.perform(post("/orders")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(JSON.writeValueAsString(order("Async Alice", product, 2))))
+                .andExpect(status().isAccepted())
+                .andReturn();
+        String handle = JSON.readTree(result.getResponse().getContentAsString()).get("handle").asString();
+        assertThat(result.getResponse().getHeader(HttpHeaders.LOCATION)).endsWith("/orders/intake/" + handle);
+
+        OrderIntakeResponseDTO done = awaitCompletion(handle);
+
+        assertThat(done.state()).isEqualTo(OrderIntakeStateEnum.CREATED);
+        assertThat(orderService.getOrderById(done.orderId()).getTotalAmount()).isEqualTo(Money.ofCents(2500));
+        assertThat(clientSummaryService.getSummary("Async Alice").getOrderCount()).isEqualTo(1);
+        mockMvc.perform(get("/orders/intake/" + handle)).andExpect(status().isOk());
+        mockMvc.perform(get("/orders/intake/unknown")).andExpect(status().isNotFound());
+    }
+
+    @Test
+    void aFailingOrderDoesNotTakeItsBatchDown() {
+        List<String> good = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            good.add(orderIntake.submit(order("Batch buyer " + (i % 3), product, 1)).orElseThrow().handle());
+        }
+        String bad = orderIntake.submit(order("Batch buyer 1", Long.MAX_VALUE, 1)).orElseThrow().handle();
+
+        for (String handle : good) {
+            OrderIntakeResponseDTO done = awaitCompletion(handle);
+            assertThat(done.state()).isEqualTo(OrderIntakeStateEnum.CREATED);
+            assertThat(done.orderId()).isNotNull();
+        }
+        OrderIntakeResponseDTO failed = awaitCompletion(bad);
+        assertThat(failed.state()).isEqualTo(OrderIntakeStateEnum.FAILED);
+        assertThat(failed.error()).isEqualTo("PRODUCT NOT FOUND: ID " + Long.MAX_VALUE);
+        assertThat(clientSummaryService.getSummary("Batch buyer 1").getOrderCount()).isEqualTo(3);
+    }
+
+    @Test
+    void fullQueueIsRejectedAndShutdownDrainsWhatWasAccepted() throws Exception {
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        OrderService blocking = Mockito.mock(OrderService.class);
+        Mockito.when(blocking.createOrder(any())).thenAnswer(invocation -> {
+            writing.countDown();
+            release.await();
+            return 1L;
+        });
+        OrderIntakeProperties properties = new OrderIntakeProperties();
+        properties.setQueueCapacity(1);
+        properties.setWriters(1);
+        properties.setBatchSize(1);
+        properties.setDrainTimeout(Duration.ofSeconds(10));
+        OrderIntake intake = new OrderIntake(blocking, transactionTemplate, properties, new SimpleMeterRegistry());
+        intake.start();
+
+        String first = intake.submit(order("Rush buyer", product, 1)).orElseThrow().handle();
+        assertThat(writing.await(5, TimeUnit.SECONDS)).isTrue();
+        String queued = intake.submit(order("Rush buyer", product, 1)).orElseThrow().handle();
+        assertThat(intake.submit(order("Rush buyer", product, 1))).isEmpty();
+
+        release.countDown();
+        intake.stop();
+
+        assertThat(intake.status(first).orElseThrow().state()).isEqualTo(OrderIntakeStateEnum.CREATED);
+        assertThat(intake.status(queued).orElseThrow().state()).isEqualTo(OrderIntakeStateEnum.CREATED);
+        assertThat(intake.submit(order("Late buyer", product, 1))).isEmpty();
+    }
+
+    private OrderIntakeResponseDTO awaitCompletion(String handle) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (System.nanoTime() < deadline) {
+            OrderIntakeResponseDTO state = orderIntake.status(handle).orElseThrow();
+            if (state.state() == OrderIntakeStateEnum.CREATED || state.state() == OrderIntakeStateEnum.FAILED) {
+                return state;
+            }
+            sleep(10);
+        }
+        throw new AssertionError("Order " + handle + " was not written in time");
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AssertionError(e);
+        }
+    }
+}
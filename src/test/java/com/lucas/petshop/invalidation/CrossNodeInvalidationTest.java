@@ -0,0 +1,159 @@
+package com.lucas.petshop.invalidation;
+
+import com.lucas.petshop.model.Money;
+import com.lucas.petshop.service.ProductService;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static com.lucas.petshop.TestData.clearSecondLevelCache;
+import static com.lucas.petshop.TestData.product;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class CrossNodeInvalidationTest {
+
+    @TestConfiguration
+    static class RecordingConfig {
+        @Bean
+        RecordingSubscriber recordingSubscriber(InvalidationBus bus) {
+            RecordingSubscriber subscriber = new RecordingSubscriber();
+            bus.subscribe(subscriber);
+            return subscriber;
+        }
+    }
+
+    static class RecordingSubscriber implements InvalidationSubscriber {
+        final List<InvalidationMessage> messages = new CopyOnWriteArrayList<>();
+
+        @Override
+        public void onMessage(InvalidationMessage message) {
+            messages.add(message);
+        }
+
+        @Override
+        public void onGap() {
+        }
+    }
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private InvalidationBus bus;
+
+    @Autowired
+    private InvalidationPublisher publisher;
+
+    @Autowired
+    private VersionClock clock;
+
+    @Autowired
+    private RecordingSubscriber recorded;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @BeforeEach
+    void setUp() {
+        clearSecondLevelCache(entityManagerFactory);
+        recorded.messages.clear();
+    }
+
+    @Test
+    void productChangesArePublishedAfterCommit() {
+        long id = productService.createProduct(product("Bus kibble", "10.00"));
+        productService.updateProduct(id, product("Bus kibble", "11.00"));
+
+        assertThat(recorded.messages)
+                .hasSize(2)
+                .allSatisfy(message -> {
+                    assertThat(message.origin()).isEqualTo(publisher.nodeId());
+                    assertThat(message.target()).isEqualTo(InvalidationTarget.PRODUCT);
+                    assertThat(message.ids()).containsExactly(id);
+                });
+        assertThat(recorded.messages.get(1).version()).isGreaterThan(recorded.messages.get(0).version());
+    }
+
+    @Test
+    void rolledBackChangesAreNotPublished() {
+        transactionTemplate.executeWithoutResult(status -> {
+            publisher.publishAfterCommit(InvalidationTarget.PRODUCT, List.of(1L, 2L));
+            status.setRollbackOnly();
+        });
+
+        assertThat(recorded.messages).isEmpty();
+    }
+
+    @Test
+    void remoteChangeEvictsTheLocallyCachedProduct() {
+        long id = productService.createProduct(product("Remote toy", "10.00"));
+        assertThat(productService.getProductById(id).getPrice()).isEqualTo(Money.ofCents(1000));
+
+        // another node commits a new price: this node's cache does not see the write...
+        jdbcTemplate.update("UPDATE tb_products SET price = 15.00 WHERE product_id = ?", id);
+        assertThat(productService.getProductById(id).getPrice()).isEqualTo(Money.ofCents(1000));
+
+        // ...until its invalidation message arrives
+        bus.publish(new InvalidationMessage("node-b", clock.next(), InvalidationTarget.PRODUCT, List.of(id)));
+
+        assertThat(productService.getProductById(id).getPrice()).isEqualTo(Money.ofCents(1500));
+    }
+
+    @Test
+    void reorderedMessagesAreSkipped() {
+        long id = productService.createProduct(product("Reordered bed", "30.00"));
+        long older = clock.next();
+        long newer = clock.next();
+        double staleBefore = staleCount();
+
+        bus.publish(new InvalidationMessage("node-b", newer, InvalidationTarget.PRODUCT, List.of(id)));
+        bus.publish(new InvalidationMessage("node-c", older, InvalidationTarget.PRODUCT, List.of(id)));
+        bus.publish(new InvalidationMessage("node-b", newer, InvalidationTarget.PRODUCT, List.of(id)));
+
+        assertThat(staleCount()).isEqualTo(staleBefore + 2);
+    }
+
+    @Test
+    void remoteStampsAdvanceTheLocalClock() {
+        long remote = clock.next() + 60_000_000L;
+
+        bus.publish(new InvalidationMessage("node-b", remote, InvalidationTarget.ORDER, List.of(1L)));
+
+        assertThat(clock.next()).isGreaterThan(remote);
+    }
+
+    @Test
+    void messagesRoundTripThroughTheWireFormat() {
+        InvalidationMessage message =
+                new InvalidationMessage("a1b2c3d4", 1729338000123456L, InvalidationTarget.RATING, List.of(17L, 42L));
+
+        assertThat(message.encode()).isEqualTo("a1b2c3d4|1729338000123456|r|17,42");
+        assertThat(InvalidationMessage.decode(message.encode())).isEqualTo(message);
+    }
+
+    private double staleCount() {
+        return meterRegistry.get(LocalCacheInvalidator.METRIC).tag("outcome", "stale").counter().count();
+    }
+}
@@ -0,0 +1,120 @@
+package com.lucas.petshop.loadtest;
+
+import com.lucas.petshop.PetshopApplication;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.concurrent.Executors;
+
+/**
+ * Reproducible HTTP load test against the real controllers.
+ *
+ * <p>By default it starts an embedded PostgreSQL, creates the schema, seeds synthetic
+ * data (generated by {@link SeedDataGenerator} and loaded by {@link SeedLoader}, as
+ * {@link SeedMain} does), boots the application on a random port and drives one scenario
+ * with an open-model arrival rate. The JSON report is written to {@code --out}
+ * (see {@link LoadTestOptions} for all options).</p>
+ *
+ * <pre>
+ * ./mvnw test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=com.lucas.petshop.loadtest.LoadTestMain \
+ *     -Dexec.args="--scenario=checkout-heavy --rate=500 --duration=120 --label=$(git rev-parse --short HEAD)"
+ * </pre>
+ */
+public class LoadTestMain {
+
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options = LoadTestOptions.parse(args);
+        Scenario scenario = Scenarios.byName(options.scenario());
+        Scenario.DataSet data = new Scenario.DataSet(options.products(), options.orders(), options.ratings());
+
+        EmbeddedPostgres postgres = null;
+        ConfigurableApplicationContext app = null;
+        try {
+            URI baseUri;
+            if (options.baseUrl() != null) {
+                baseUri = URI.create(options.baseUrl());
+            } else {
+                String jdbcUrl = options.jdbcUrl();
+                String user = options.jdbcUser();
+                String password = options.jdbcPassword();
+                if (jdbcUrl == null) {
+                    postgres = EmbeddedPostgres.start();
+                    jdbcUrl = postgres.getJdbcUrl("postgres", "postgres");
+                    user = "postgres";
+                    password = "postgres";
+                    try (Connection connection = DriverManager.getConnection(jdbcUrl, user, password)) {
+                        ScriptUtils.executeSqlScript(connection, new ClassPathResource("db/sql/create_tables.sql"));
+                    }
+                }
+                seed(jdbcUrl, user, password, data, options.seed());
+                app = startApplication(jdbcUrl, user, password);
+                String port = app.getEnvironment().getProperty("local.server.port");
+                baseUri = URI.create("http://localhost:" + port + "/petshop");
+            }
+
+            try (HttpClient client = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .connectTimeout(Duration.ofSeconds(5))
+                    .executor(Executors.newVirtualThreadPerTaskExecutor())
+                    .build()) {
+                LoadTestReport report = new OpenModelLoadGenerator(client, baseUri, scenario, data,
+                        options.rate(), options.poisson(), options.maxInFlight(), options.seed())
+                        .run(options.warmup(), options.duration());
+                report.write(options.out(), options.label());
+            }
+        } finally {
+            if (app != null) {
+                app.close();
+            }
+            if (postgres != null) {
+                postgres.close();
+            }
+        }
+    }
+
+    // CSV shards in a temporary directory, streamed in with COPY, then dropped
+    private static void seed(String jdbcUrl, String user, String password, Scenario.DataSet data, long seed)
+            throws IOException, SQLException, InterruptedException {
+        int cores = Runtime.getRuntime().availableProcessors();
+        Path dir = Files.createTempDirectory("petshop-loadtest-seed");
+        try {
+            new SeedDataGenerator(new SeedDataGenerator.Sizes(data.products(), data.orders(), data.ratings(), 2 * cores),
+                    seed, LocalDate.now().atStartOfDay())
+                    .generate(dir);
+            new SeedLoader(jdbcUrl, user, password, cores).load(dir);
+        } finally {
+            FileSystemUtils.deleteRecursively(dir);
+        }
+    }
+
+    private static ConfigurableApplicationContext startApplication(String jdbcUrl, String user, String password) {
+        // devtools would otherwise try to restart the application from this main method
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        // passed as command line arguments so they take precedence over application.yaml
+        String[] args = {
+                "--spring.datasource.url=" + jdbcUrl,
+                "--spring.datasource.username=" + user,
+                "--spring.datasource.password=" + password,
+                "--spring.docker.compose.enabled=false",
+                "--spring.jpa.show-sql=false",
+                "--server.port=0",
+                "--logging.level.root=WARN"
+        };
+        return new SpringApplicationBuilder(PetshopApplication.class).run(args);
+    }
+}
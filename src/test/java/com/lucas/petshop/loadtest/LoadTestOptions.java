@@ -0,0 +1,78 @@
+package com.lucas.petshop.loadtest;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Command line options of {@link LoadTestMain}, given as {@code --key=value} pairs.
+ *
+ * <ul>
+ *   <li>{@code --scenario} browse-heavy | checkout-heavy | rating-storm (default browse-heavy)</li>
+ *   <li>{@code --rate} target arrival rate in requests per second (default 200)</li>
+ *   <li>{@code --arrival} constant | poisson inter-arrival times (default poisson)</li>
+ *   <li>{@code --warmup} / {@code --duration} ISO-8601 or seconds (default 10s / 60s)</li>
+ *   <li>{@code --products} / {@code --orders} / {@code --ratings} synthetic data sizes</li>
+ *   <li>{@code --jdbc-url}, {@code --jdbc-user}, {@code --jdbc-password} use an existing database
+ *       instead of the embedded one (the schema must already exist and be empty)</li>
+ *   <li>{@code --base-url} target an already running service (no database or app is started;
+ *       the data sizes must match what the target holds)</li>
+ *   <li>{@code --max-in-flight} safety cap on outstanding requests (default 10000)</li>
+ *   <li>{@code --seed} random seed, {@code --label} free text stored in the report (e.g. a commit id)</li>
+ *   <li>{@code --out} report file (default target/loadtest/&lt;scenario&gt;.json)</li>
+ * </ul>
+ */
+record LoadTestOptions(
+        String scenario,
+        double rate,
+        boolean poisson,
+        Duration warmup,
+        Duration duration,
+        int products,
+        int orders,
+        int ratings,
+        String jdbcUrl,
+        String jdbcUser,
+        String jdbcPassword,
+        String baseUrl,
+        int maxInFlight,
+        long seed,
+        String label,
+        Path out
+) {
+
+    static LoadTestOptions parse(String[] args) {
+        Map<String, String> values = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --key=value but got '" + arg + "'");
+            }
+            int eq = arg.indexOf('=');
+            values.put(arg.substring(2, eq), arg.substring(eq + 1));
+        }
+        String scenario = values.getOrDefault("scenario", "browse-heavy");
+        return new LoadTestOptions(
+                scenario,
+                Double.parseDouble(values.getOrDefault("rate", "200")),
+                !"constant".equals(values.getOrDefault("arrival", "poisson")),
+                duration(values.getOrDefault("warmup", "10")),
+                duration(values.getOrDefault("duration", "60")),
+                Integer.parseInt(values.getOrDefault("products", "10000")),
+                Integer.parseInt(values.getOrDefault("orders", "10000")),
+                Integer.parseInt(values.getOrDefault("ratings", "10000")),
+                values.get("jdbc-url"),
+                values.getOrDefault("jdbc-user", "petshop"),
+                values.getOrDefault("jdbc-password", "12345"),
+                values.get("base-url"),
+                Integer.parseInt(values.getOrDefault("max-in-flight", "10000")),
+                Long.parseLong(values.getOrDefault("seed", "42")),
+                values.getOrDefault("label", ""),
+                Path.of(values.getOrDefault("out", "target/loadtest/" + scenario + ".json"))
+        );
+    }
+
+    private static Duration duration(String value) {
+        return value.startsWith("P") ? Duration.parse(value) : Duration.ofSeconds(Long.parseLong(value));
+    }
+}
@@ -0,0 +1,86 @@
+package com.lucas.petshop.loadtest;
+
+import org.HdrHistogram.Histogram;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Result of one load-test run: throughput, latency percentiles (milliseconds) and
+ * error rate, overall and per request type, written as JSON so runs on different
+ * commits can be diffed or plotted.
+ */
+final class LoadTestReport {
+
+    private final String scenario;
+    private final double targetRate;
+    private final boolean poisson;
+    private final Duration duration;
+    private final Histogram total = new Histogram(3);
+    private final Map<String, Object> byRequest = new LinkedHashMap<>();
+    private long requests;
+    private long errors;
+
+    LoadTestReport(String scenario, double targetRate, boolean poisson, Duration duration) {
+        this.scenario = scenario;
+        this.targetRate = targetRate;
+        this.poisson = poisson;
+        this.duration = duration;
+    }
+
+    void add(String requestName, Histogram histogram, long completed, long failed) {
+        total.add(histogram);
+        requests += completed;
+        errors += failed;
+        byRequest.put(requestName, summary(histogram, completed, failed));
+    }
+
+    Map<String, Object> toMap(String label) {
+        Map<String, Object> root = new LinkedHashMap<>();
+        root.put("scenario", scenario);
+        root.put("label", label);
+        root.put("timestamp", Instant.now().toString());
+        root.put("arrival", poisson ? "poisson" : "constant");
+        root.put("targetRatePerSecond", targetRate);
+        root.put("durationSeconds", duration.toSeconds());
+        root.putAll(summary(total, requests, errors));
+        root.put("requestsByType", byRequest);
+        return root;
+    }
+
+    void write(Path file, String label) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        String json = JsonMapper.builder().build().writerWithDefaultPrettyPrinter().writeValueAsString(toMap(label));
+        Files.writeString(file, json);
+        System.out.println(json);
+    }
+
+    private Map<String, Object> summary(Histogram histogram, long completed, long failed) {
+        Map<String, Object> summary = new LinkedHashMap<>();
+        double seconds = Math.max(1, duration.toMillis()) / 1000.0;
+        summary.put("requests", completed);
+        summary.put("errors", failed);
+        summary.put("errorRate", completed == 0 ? 0.0 : (double) failed / completed);
+        summary.put("throughputPerSecond", (completed - failed) / seconds);
+        Map<String, Object> latency = new LinkedHashMap<>();
+        latency.put("p50", millis(histogram.getValueAtPercentile(50)));
+        latency.put("p99", millis(histogram.getValueAtPercentile(99)));
+        latency.put("p999", millis(histogram.getValueAtPercentile(99.9)));
+        latency.put("max", millis(histogram.getMaxValue()));
+        summary.put("latencyMs", latency);
+        return summary;
+    }
+
+    private static double millis(long micros) {
+        return micros / 1000.0;
+    }
+}
@@ -0,0 +1,129 @@
+package com.lucas.petshop.loadtest;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-model load generator: requests are issued on a fixed arrival schedule,
+ * independently of how fast the service answers.
+ *
+ * <p>Latency is measured from the <em>intended</em> send time, so a stalled service
+ * shows up in the percentiles instead of silently lowering the offered load
+ * (no coordinated omission). Requests scheduled during the warm-up are sent but not recorded.</p>
+ */
+final class OpenModelLoadGenerator {
+
+    // Highest latency the histograms can record (microseconds)
+    private static final long MAX_LATENCY_MICROS = TimeUnit.MINUTES.toMicros(2);
+
+    private final HttpClient client;
+    private final URI baseUri;
+    private final Scenario scenario;
+    private final Scenario.DataSet data;
+    private final double ratePerSecond;
+    private final boolean poisson;
+    private final int maxInFlight;
+    private final SplittableRandom random;
+
+    OpenModelLoadGenerator(HttpClient client, URI baseUri, Scenario scenario, Scenario.DataSet data,
+                           double ratePerSecond, boolean poisson, int maxInFlight, long seed) {
+        this.client = client;
+        this.baseUri = baseUri;
+        this.scenario = scenario;
+        this.data = data;
+        this.ratePerSecond = ratePerSecond;
+        this.poisson = poisson;
+        this.maxInFlight = maxInFlight;
+        this.random = new SplittableRandom(seed);
+    }
+
+    LoadTestReport run(Duration warmup, Duration duration) throws InterruptedException {
+        int types = scenario.requests().size();
+        int[] cumulative = scenario.cumulativeWeights();
+        int totalWeight = cumulative[types - 1];
+
+        Recorder[] recorders = new Recorder[types];
+        for (int i = 0; i < types; i++) {
+            recorders[i] = new Recorder(MAX_LATENCY_MICROS, 3);
+        }
+        AtomicLongArray completed = new AtomicLongArray(types);
+        AtomicLongArray errors = new AtomicLongArray(types);
+        AtomicInteger inFlight = new AtomicInteger();
+
+        double meanIntervalNanos = TimeUnit.SECONDS.toNanos(1) / ratePerSecond;
+        long start = System.nanoTime();
+        long measureFrom = start + warmup.toNanos();
+        long end = measureFrom + duration.toNanos();
+        double nextArrival = start;
+
+        while (true) {
+            long intended = (long) nextArrival;
+            if (intended >= end) {
+                break;
+            }
+            nextArrival += poisson ? -Math.log(1.0 - random.nextDouble()) * meanIntervalNanos : meanIntervalNanos;
+
+            long wait = intended - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+
+            int type = Arrays.binarySearch(cumulative, random.nextInt(totalWeight) + 1);
+            if (type < 0) {
+                type = -type - 1;
+            }
+            boolean measured = intended >= measureFrom;
+
+            if (inFlight.get() >= maxInFlight) {
+                // the generator itself is saturated: count it as a failed arrival
+                if (measured) {
+                    completed.incrementAndGet(type);
+                    errors.incrementAndGet(type);
+                }
+                continue;
+            }
+
+            HttpRequest request = scenario.requests().get(type).factory().create(baseUri, random, data);
+            inFlight.incrementAndGet();
+            final int requestType = type;
+            client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, failure) -> {
+                        inFlight.decrementAndGet();
+                        if (!measured) {
+                            return;
+                        }
+                        long latencyMicros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - intended);
+                        recorders[requestType].recordValue(Math.min(latencyMicros, MAX_LATENCY_MICROS));
+                        completed.incrementAndGet(requestType);
+                        if (failure != null || response.statusCode() >= 400) {
+                            errors.incrementAndGet(requestType);
+                        }
+                    });
+        }
+
+        // let outstanding requests finish (they are part of the measured window)
+        long drainDeadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (inFlight.get() > 0 && System.nanoTime() < drainDeadline) {
+            Thread.sleep(10);
+        }
+
+        LoadTestReport report = new LoadTestReport(scenario.name(), ratePerSecond, poisson, duration);
+        for (int i = 0; i < types; i++) {
+            Histogram histogram = recorders[i].getIntervalHistogram();
+            report.add(scenario.requests().get(i).name(), histogram, completed.get(i), errors.get(i));
+        }
+        return report;
+    }
+}
@@ -0,0 +1,43 @@
+package com.lucas.petshop.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * A named mix of request types, each picked with a probability proportional to its weight.
+ */
+record Scenario(String name, List<WeightedRequest> requests) {
+
+    /**
+     * Builds one concrete request. Called from the single scheduling thread, so the
+     * random source does not need to be thread-safe.
+     */
+    @FunctionalInterface
+    interface RequestFactory {
+        HttpRequest create(URI baseUri, SplittableRandom random, DataSet data);
+    }
+
+    record WeightedRequest(String name, int weight, RequestFactory factory) {
+    }
+
+    /**
+     * Sizes of the data set the requests draw ids from (ids are 1..count).
+     */
+    record DataSet(int products, int orders, int ratings) {
+    }
+
+    /**
+     * Cumulative weights, used to pick a request type with a single random draw.
+     */
+    int[] cumulativeWeights() {
+        int[] cumulative = new int[requests.size()];
+        int sum = 0;
+        for (int i = 0; i < requests.size(); i++) {
+            sum += requests.get(i).weight();
+            cumulative[i] = sum;
+        }
+        return cumulative;
+    }
+}
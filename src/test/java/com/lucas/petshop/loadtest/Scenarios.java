@@ -0,0 +1,103 @@
+package com.lucas.petshop.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.time.Duration;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Built-in traffic mixes against the real controllers.
+ */
+final class Scenarios {
+
+    private static final String[] STARS = {"ONE", "TWO", "THREE", "FOUR", "FIVE"};
+    private static final Duration TIMEOUT = Duration.ofSeconds(30);
+
+    private Scenarios() {
+    }
+
+    static Scenario byName(String name) {
+        return switch (name) {
+            case "browse-heavy" -> browseHeavy();
+            case "checkout-heavy" -> checkoutHeavy();
+            case "rating-storm" -> ratingStorm();
+            default -> throw new IllegalArgumentException("Unknown scenario: '" + name + "'");
+        };
+    }
+
+    // Storefront traffic: mostly product pages, some listings
+    static Scenario browseHeavy() {
+        return new Scenario("browse-heavy", List.of(
+                new Scenario.WeightedRequest("GET /products/{id}", 70, Scenarios::getProduct),
+                new Scenario.WeightedRequest("GET /products", 5, (base, random, data) -> get(base, "/products")),
+                new Scenario.WeightedRequest("GET /ratings/{id}", 15, Scenarios::getRating),
+                new Scenario.WeightedRequest("GET /orders/{id}", 10, Scenarios::getOrder)
+        ));
+    }
+
+    // Flash-sale traffic: order creation dominates
+    static Scenario checkoutHeavy() {
+        return new Scenario("checkout-heavy", List.of(
+                new Scenario.WeightedRequest("POST /orders", 50, Scenarios::postOrder),
+                new Scenario.WeightedRequest("GET /products/{id}", 30, Scenarios::getProduct),
+                new Scenario.WeightedRequest("GET /orders/{id}", 20, Scenarios::getOrder)
+        ));
+    }
+
+    // Review campaign: burst of rating writes
+    static Scenario ratingStorm() {
+        return new Scenario("rating-storm", List.of(
+                new Scenario.WeightedRequest("POST /ratings", 80, Scenarios::postRating),
+                new Scenario.WeightedRequest("GET /ratings/{id}", 20, Scenarios::getRating)
+        ));
+    }
+
+    private static HttpRequest getProduct(URI base, SplittableRandom random, Scenario.DataSet data) {
+        return get(base, "/products/" + (1 + random.nextInt(data.products())));
+    }
+
+    private static HttpRequest getOrder(URI base, SplittableRandom random, Scenario.DataSet data) {
+        return get(base, "/orders/" + (1 + random.nextInt(data.orders())));
+    }
+
+    private static HttpRequest getRating(URI base, SplittableRandom random, Scenario.DataSet data) {
+        return get(base, "/ratings/" + (1 + random.nextInt(data.ratings())));
+    }
+
+    private static HttpRequest postOrder(URI base, SplittableRandom random, Scenario.DataSet data) {
+        int lines = 1 + random.nextInt(5);
+        StringBuilder items = new StringBuilder();
+        long firstProduct = 1 + random.nextInt(data.products());
+        for (int i = 0; i < lines; i++) {
+            if (i > 0) items.append(',');
+            // consecutive ids keep the products of one order distinct
+            long productId = 1 + (firstProduct - 1 + i) % data.products();
+            items.append("{\"productId\":").append(productId)
+                    .append(",\"quantity\":").append(1 + random.nextInt(3)).append('}');
+        }
+        String body = "{\"client\":\"load-client-" + random.nextInt(1000)
+                + "\",\"status\":\"PENDING\",\"items\":[" + items + "]}";
+        return post(base, "/orders", body);
+    }
+
+    private static HttpRequest postRating(URI base, SplittableRandom random, Scenario.DataSet data) {
+        String body = "{\"productId\":" + (1 + random.nextInt(data.products()))
+                + ",\"stars\":\"" + STARS[random.nextInt(STARS.length)]
+                + "\",\"client\":\"load-client-" + random.nextInt(1000)
+                + "\",\"comments\":\"synthetic rating\"}";
+        return post(base, "/ratings", body);
+    }
+
+    private static HttpRequest get(URI base, String path) {
+        return HttpRequest.newBuilder(base.resolve(base.getPath() + path)).timeout(TIMEOUT).GET().build();
+    }
+
+    private static HttpRequest post(URI base, String path, String json) {
+        return HttpRequest.newBuilder(base.resolve(base.getPath() + path))
+                .timeout(TIMEOUT)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json))
+                .build();
+    }
+}
@@ -0,0 +1,303 @@
+package com.lucas.petshop.loadtest;
+
+import com.lucas.petshop.service.OrderStatusEnum;
+import com.lucas.petshop.service.ProductAnimalTypeEnum;
+import com.lucas.petshop.service.ProductTypeEnum;
+import com.lucas.petshop.service.RatingStarsEnum;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Writes a large, internally consistent data set as CSV shards (see {@link SeedTable}):
+ * <ul>
+ *   <li>products with ids 1..products, type and animal drawn from a weighted catalogue mix and
+ *       log-normal prices;</li>
+ *   <li>orders with ids 1..orders, spread over the last {@link #HISTORY_DAYS} days in id order,
+ *       with a Zipfian number of lines, Zipfian quantities and Zipfian clients; totals and item
+ *       counts match the lines, which carry the product price as unit price;</li>
+ *   <li>ratings with ids 1..ratings, skewed towards the top stars.</li>
+ * </ul>
+ * Lines and ratings pick products by Zipfian popularity over a shuffled id order, so the
+ * best sellers are spread over the id range. Orders and ratings are generated in
+ * {@code shards} independent slices, in parallel; each slice has its own random stream
+ * derived from the seed, so the output only depends on the seed and the sizes.
+ */
+final class SeedDataGenerator {
+
+    record Sizes(int products, int orders, int ratings, int shards) {
+    }
+
+    record Summary(long products, long orders, long orderLines, long ratings, int shards, long millis) {
+    }
+
+    static final int HISTORY_DAYS = 365;
+    private static final int MAX_LINES_PER_ORDER = 20;
+    private static final int MAX_QUANTITY = 10;
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private static final Map<ProductTypeEnum, Integer> TYPE_WEIGHTS = weights(ProductTypeEnum.class,
+            ProductTypeEnum.FOOD, 35, ProductTypeEnum.TOY, 15, ProductTypeEnum.HYGIENE, 12,
+            ProductTypeEnum.ACCESSORY, 12, ProductTypeEnum.MEDICINE, 8, ProductTypeEnum.HEALTH, 8,
+            ProductTypeEnum.COMFORT, 6, ProductTypeEnum.SANITARY, 4);
+    private static final Map<ProductAnimalTypeEnum, Integer> ANIMAL_WEIGHTS = weights(ProductAnimalTypeEnum.class,
+            ProductAnimalTypeEnum.DOG, 40, ProductAnimalTypeEnum.CAT, 30, ProductAnimalTypeEnum.BIRD, 8,
+            ProductAnimalTypeEnum.FISH, 7, ProductAnimalTypeEnum.RODENT, 6, ProductAnimalTypeEnum.RABBIT, 4,
+            ProductAnimalTypeEnum.REPTILE, 3, ProductAnimalTypeEnum.EXOTIC, 2);
+    private static final Map<OrderStatusEnum, Integer> STATUS_WEIGHTS = weights(OrderStatusEnum.class,
+            OrderStatusEnum.COMPLETED, 60, OrderStatusEnum.PAID, 20, OrderStatusEnum.IN_PROGRESS, 8,
+            OrderStatusEnum.PENDING, 7, OrderStatusEnum.CANCELED, 5);
+    private static final Map<RatingStarsEnum, Integer> STAR_WEIGHTS = weights(RatingStarsEnum.class,
+            RatingStarsEnum.ONE, 6, RatingStarsEnum.TWO, 5, RatingStarsEnum.THREE, 10,
+            RatingStarsEnum.FOUR, 29, RatingStarsEnum.FIVE, 50);
+
+    private final Sizes sizes;
+    private final long seed;
+    private final long endEpochSecond;
+
+    /**
+     * @param end the newest order timestamp; orders reach back {@link #HISTORY_DAYS} days from it
+     */
+    SeedDataGenerator(Sizes sizes, long seed, LocalDateTime end) {
+        if (sizes.products() < 1 || sizes.orders() < 0 || sizes.ratings() < 0 || sizes.shards() < 1) {
+            throw new IllegalArgumentException("Invalid sizes " + sizes);
+        }
+        this.sizes = sizes;
+        this.seed = seed;
+        this.endEpochSecond = end.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    Summary generate(Path dir) throws IOException, InterruptedException {
+        long start = System.nanoTime();
+        Files.createDirectories(dir);
+        SplittableRandom random = new SplittableRandom(seed);
+        long[] priceCents = writeProducts(dir.resolve(SeedTable.PRODUCTS.fileName(0)), random);
+        int[] popularity = shuffledIds(sizes.products(), random);
+        Zipf productZipf = new Zipf(sizes.products(), 1.0);
+        int clients = Math.max(1, sizes.orders() / 4);
+        Zipf clientZipf = new Zipf(clients, 0.8);
+
+        AtomicLong lines = new AtomicLong();
+        List<Future<?>> work = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(
+                Math.min(sizes.shards(), Runtime.getRuntime().availableProcessors()))) {
+            for (int shard = 0; shard < sizes.shards(); shard++) {
+                int s = shard;
+                work.add(executor.submit(() -> lines.addAndGet(
+                        writeOrders(dir, s, priceCents, popularity, productZipf, clientZipf))));
+                work.add(executor.submit(() -> writeRatings(dir, s, popularity, productZipf, clientZipf)));
+            }
+            for (Future<?> future : work) {
+                await(future);
+            }
+        }
+        return new Summary(sizes.products(), sizes.orders(), lines.get(), sizes.ratings(), sizes.shards(),
+                (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private long[] writeProducts(Path file, SplittableRandom random) throws IOException {
+        long[] priceCents = new long[sizes.products() + 1];
+        long newestProduct = endEpochSecond - HISTORY_DAYS * 86_400L;
+        StringBuilder row = new StringBuilder(256);
+        try (Writer out = writer(file)) {
+            for (int id = 1; id <= sizes.products(); id++) {
+                ProductTypeEnum type = pick(TYPE_WEIGHTS, random);
+                ProductAnimalTypeEnum animal = pick(ANIMAL_WEIGHTS, random);
+                // log-normal around 30.00, clamped to what DECIMAL(10,2) and the catalogue allow
+                priceCents[id] = Math.clamp(Math.round(Math.exp(Math.log(3000) + random.nextGaussian())), 99, 999_999);
+                row.setLength(0);
+                row.append(id).append(',')
+                        .append(type).append(' ').append(animal).append(" product ").append(id).append(',')
+                        .append(type).append(',')
+                        .append(animal).append(',')
+                        .append("Brand ").append(random.nextInt(200)).append(',')
+                        .append("Synthetic ").append(type).append(" for ").append(animal).append(" number ").append(id).append(',')
+                        .append(random.nextInt(1001)).append(',');
+                appendCents(row, priceCents[id]).append(',');
+                appendCents(row, 1 + random.nextInt(99_999)).append(',')
+                        .append(timestamp(newestProduct - random.nextLong(HISTORY_DAYS * 86_400L)))
+                        .append('\n');
+                out.append(row);
+            }
+        }
+        return priceCents;
+    }
+
+    private long writeOrders(Path dir, int shard, long[] priceCents, int[] popularity, Zipf productZipf, Zipf clientZipf)
+            throws IOException {
+        SplittableRandom random = new SplittableRandom(seed + 1 + shard);
+        Zipf lineCountZipf = new Zipf(Math.min(MAX_LINES_PER_ORDER, sizes.products()), 1.6);
+        Zipf quantityZipf = new Zipf(MAX_QUANTITY, 2.0);
+        long span = HISTORY_DAYS * 86_400L;
+        long first = sliceStart(sizes.orders(), shard);
+        long last = sliceStart(sizes.orders(), shard + 1);
+        long lines = 0;
+        int[] productIds = new int[MAX_LINES_PER_ORDER];
+        StringBuilder row = new StringBuilder(128);
+        try (Writer orders = writer(dir.resolve(SeedTable.ORDERS.fileName(shard)));
+             Writer lineOut = writer(dir.resolve(SeedTable.ORDER_LINES.fileName(shard)))) {
+            for (long id = first + 1; id <= last; id++) {
+                // increasing with the id, like a real insert stream, plus up to an hour of jitter
+                String placedAt = timestamp(endEpochSecond - span + span * id / Math.max(1, sizes.orders())
+                        - random.nextInt(3600));
+                int lineCount = distinctProducts(lineCountZipf.sample(random), productIds, popularity, productZipf, random);
+                int items = 0;
+                long totalCents = 0;
+                for (int i = 0; i < lineCount; i++) {
+                    int productId = productIds[i];
+                    int quantity = quantityZipf.sample(random);
+                    items += quantity;
+                    totalCents += priceCents[productId] * quantity;
+                    row.setLength(0);
+                    row.append(productId).append(',').append(id).append(',').append(quantity).append(',');
+                    appendCents(row, priceCents[productId]).append(',').append(placedAt).append('\n');
+                    lineOut.append(row);
+                }
+                lines += lineCount;
+                row.setLength(0);
+                row.append(id).append(',').append(items).append(',')
+                        .append("client-").append(clientZipf.sample(random)).append(',');
+                appendCents(row, totalCents).append(',')
+                        .append(pick(STATUS_WEIGHTS, random)).append(',')
+                        .append(placedAt).append('\n');
+                orders.append(row);
+            }
+        }
+        return lines;
+    }
+
+    private Void writeRatings(Path dir, int shard, int[] popularity, Zipf productZipf, Zipf clientZipf)
+            throws IOException {
+        SplittableRandom random = new SplittableRandom(seed + 1_000_003L + shard);
+        long span = HISTORY_DAYS * 86_400L;
+        long first = sliceStart(sizes.ratings(), shard);
+        long last = sliceStart(sizes.ratings(), shard + 1);
+        StringBuilder row = new StringBuilder(128);
+        try (Writer out = writer(dir.resolve(SeedTable.RATINGS.fileName(shard)))) {
+            for (long id = first + 1; id <= last; id++) {
+                RatingStarsEnum stars = pick(STAR_WEIGHTS, random);
+                row.setLength(0);
+                row.append(id).append(',')
+                        .append(popularity[productZipf.sample(random)]).append(',')
+                        .append(stars).append(',')
+                        .append("client-").append(clientZipf.sample(random)).append(',')
+                        .append("Synthetic ").append(stars).append(" star rating ").append(id).append(',')
+                        .append(timestamp(endEpochSecond - random.nextLong(span)))
+                        .append('\n');
+                out.append(row);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Fills {@code productIds} with up to {@code wanted} distinct products by popularity; popular
+     * products collide often, so a few redraws are allowed before settling for a shorter order.
+     */
+    private static int distinctProducts(int wanted, int[] productIds, int[] popularity, Zipf productZipf,
+                                        SplittableRandom random) {
+        int count = 0;
+        for (int attempt = 0; count < wanted && attempt < wanted * 4; attempt++) {
+            int candidate = popularity[productZipf.sample(random)];
+            boolean duplicate = false;
+            for (int i = 0; i < count && !duplicate; i++) {
+                duplicate = productIds[i] == candidate;
+            }
+            if (!duplicate) {
+                productIds[count++] = candidate;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * @return popularity rank (1-based index) to product id, a random permutation of 1..n
+     */
+    private static int[] shuffledIds(int n, SplittableRandom random) {
+        int[] ids = new int[n + 1];
+        for (int i = 1; i <= n; i++) {
+            ids[i] = i;
+        }
+        for (int i = n; i > 1; i--) {
+            int j = 1 + random.nextInt(i);
+            int swap = ids[i];
+            ids[i] = ids[j];
+            ids[j] = swap;
+        }
+        return ids;
+    }
+
+    private long sliceStart(long total, int shard) {
+        return total * shard / sizes.shards();
+    }
+
+    private static <E extends Enum<E>> E pick(Map<E, Integer> weights, SplittableRandom random) {
+        int draw = random.nextInt(100);
+        for (Map.Entry<E, Integer> entry : weights.entrySet()) {
+            draw -= entry.getValue();
+            if (draw < 0) {
+                return entry.getKey();
+            }
+        }
+        throw new IllegalStateException("Weights do not add up to 100: " + weights);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <E extends Enum<E>> Map<E, Integer> weights(Class<E> type, Object... pairs) {
+        Map<E, Integer> weights = new EnumMap<>(type);
+        int sum = 0;
+        for (int i = 0; i < pairs.length; i += 2) {
+            weights.put((E) pairs[i], (Integer) pairs[i + 1]);
+            sum += (Integer) pairs[i + 1];
+        }
+        if (sum != 100 || weights.size() != type.getEnumConstants().length) {
+            throw new IllegalStateException("Every " + type.getSimpleName() + " needs a weight and they must add up to 100");
+        }
+        return weights;
+    }
+
+    private static StringBuilder appendCents(StringBuilder row, long cents) {
+        long fraction = cents % 100;
+        return row.append(cents / 100).append('.').append(fraction < 10 ? "0" : "").append(fraction);
+    }
+
+    private static String timestamp(long epochSecond) {
+        return LocalDateTime.ofEpochSecond(epochSecond, 0, ZoneOffset.UTC).toString();
+    }
+
+    private static Writer writer(Path file) throws IOException {
+        return new BufferedWriter(new OutputStreamWriter(Files.newOutputStream(file), StandardCharsets.UTF_8), BUFFER_SIZE);
+    }
+
+    private static void await(Future<?> future) throws IOException, InterruptedException {
+        try {
+            future.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException io) {
+                throw io;
+            }
+            if (e.getCause() instanceof UncheckedIOException io) {
+                throw io.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+}
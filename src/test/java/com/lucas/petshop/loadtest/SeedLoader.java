@@ -0,0 +1,149 @@
+package com.lucas.petshop.loadtest;
+
+import org.postgresql.PGConnection;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Streams the CSV shards of {@link SeedDataGenerator} into an existing schema, table by table
+ * in foreign key order and, within a table, one shard per connection in parallel.
+ *
+ * <p>On PostgreSQL every shard goes through {@code COPY ... FROM STDIN} with asynchronous
+ * commit, and afterwards the id sequences are moved past the loaded ids and the tables
+ * vacuumed and analyzed. Other databases get batched inserts committed every {@link #COMMIT_ROWS} rows.
+ * Files are read as they are sent, so memory use does not grow with the data set.</p>
+ */
+final class SeedLoader {
+
+    record Result(Map<SeedTable, Long> rows, boolean copy, long millis) {
+    }
+
+    private static final int BATCH_SIZE = 1000;
+    private static final int COMMIT_ROWS = 50_000;
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final String jdbcUrl;
+    private final String user;
+    private final String password;
+    private final int threads;
+
+    SeedLoader(String jdbcUrl, String user, String password, int threads) {
+        this.jdbcUrl = jdbcUrl;
+        this.user = user;
+        this.password = password;
+        this.threads = Math.max(1, threads);
+    }
+
+    Result load(Path dir) throws IOException, SQLException, InterruptedException {
+        long start = System.nanoTime();
+        boolean copy;
+        try (Connection connection = connect()) {
+            copy = connection.isWrapperFor(PGConnection.class);
+        }
+        Map<SeedTable, Long> rows = new EnumMap<>(SeedTable.class);
+        try (ExecutorService executor = Executors.newFixedThreadPool(threads)) {
+            for (SeedTable table : SeedTable.values()) {
+                List<Future<Long>> shards = new ArrayList<>();
+                for (Path file : shardFiles(dir, table)) {
+                    shards.add(executor.submit(() -> copy ? copyShard(table, file) : insertShard(table, file)));
+                }
+                long loaded = 0;
+                for (Future<Long> shard : shards) {
+                    loaded += await(shard);
+                }
+                rows.put(table, loaded);
+            }
+        }
+        if (copy) {
+            try (Connection connection = connect(); Statement statement = connection.createStatement()) {
+                for (SeedTable table : SeedTable.values()) {
+                    if (table.idColumn() != null) {
+                        statement.execute("SELECT setval(pg_get_serial_sequence('" + table.table() + "', '"
+                                + table.idColumn() + "'), (SELECT COALESCE(MAX(" + table.idColumn() + "), 0) + 1 FROM "
+                                + table.table() + "), false)");
+                    }
+                    // VACUUM also summarizes the new block ranges of idx_orders_creation_brin
+                    statement.execute("VACUUM ANALYZE " + table.table());
+                }
+            }
+        }
+        return new Result(rows, copy, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private long copyShard(SeedTable table, Path file) throws IOException, SQLException {
+        try (Connection connection = connect();
+             Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            try (Statement statement = connection.createStatement()) {
+                // a crash can at worst lose the tail of a seed run, which is simply rerun
+                statement.execute("SET synchronous_commit TO OFF");
+            }
+            return connection.unwrap(PGConnection.class).getCopyAPI().copyIn(table.copySql(), reader, BUFFER_SIZE);
+        }
+    }
+
+    private long insertShard(SeedTable table, Path file) throws IOException, SQLException {
+        long rows = 0;
+        try (Connection connection = connect();
+             BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8);
+             PreparedStatement ps = connection.prepareStatement(table.insertSql())) {
+            connection.setAutoCommit(false);
+            String line;
+            while ((line = reader.readLine()) != null) {
+                table.bind(ps, line);
+                ps.addBatch();
+                rows++;
+                if (rows % BATCH_SIZE == 0) {
+                    ps.executeBatch();
+                }
+                if (rows % COMMIT_ROWS == 0) {
+                    connection.commit();
+                }
+            }
+            ps.executeBatch();
+            connection.commit();
+        }
+        return rows;
+    }
+
+    private static List<Path> shardFiles(Path dir, SeedTable table) throws IOException {
+        try (var files = Files.list(dir)) {
+            return files.filter(f -> f.getFileName().toString().matches(table.filePrefix() + "-\\d+\\.csv"))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private Connection connect() throws SQLException {
+        return DriverManager.getConnection(jdbcUrl, user, password);
+    }
+
+    private static long await(Future<Long> future) throws IOException, SQLException, InterruptedException {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            switch (e.getCause()) {
+                case IOException io -> throw io;
+                case SQLException sql -> throw sql;
+                default -> throw new IllegalStateException(e.getCause());
+            }
+        }
+    }
+}
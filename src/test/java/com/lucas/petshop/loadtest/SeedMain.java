@@ -0,0 +1,69 @@
+package com.lucas.petshop.loadtest;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.time.LocalDate;
+
+/**
+ * Generates a synthetic data set for scale tests as CSV shards ({@link SeedDataGenerator})
+ * and streams it into PostgreSQL with parallel {@code COPY} ({@link SeedLoader}).
+ * See {@link SeedOptions} for all options.
+ *
+ * <pre>
+ * ./mvnw test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=com.lucas.petshop.loadtest.SeedMain \
+ *     -Dexec.args="--orders=3000000 --jdbc-url=jdbc:postgresql://localhost:5432/petshop"
+ * </pre>
+ *
+ * <p>The ids are 1..N per table, so {@link LoadTestMain} (which seeds its own database the
+ * same way) can also drive a service running on a database seeded here, with
+ * {@code --base-url} and matching sizes.</p>
+ */
+public class SeedMain {
+
+    public static void main(String[] args) throws Exception {
+        SeedOptions options = SeedOptions.parse(args);
+
+        if (options.generate()) {
+            SeedDataGenerator.Summary summary = new SeedDataGenerator(
+                    new SeedDataGenerator.Sizes(options.products(), options.orders(), options.ratings(), options.shards()),
+                    options.seed(), LocalDate.now().atStartOfDay())
+                    .generate(options.dir());
+            System.out.printf("Generated %d products, %d orders, %d order lines and %d ratings in %d shards into %s (%d ms)%n",
+                    summary.products(), summary.orders(), summary.orderLines(), summary.ratings(), summary.shards(),
+                    options.dir(), summary.millis());
+        }
+        if (!options.load()) {
+            return;
+        }
+
+        EmbeddedPostgres postgres = null;
+        try {
+            String jdbcUrl = options.jdbcUrl();
+            String user = options.jdbcUser();
+            String password = options.jdbcPassword();
+            if (jdbcUrl == null) {
+                postgres = EmbeddedPostgres.start();
+                jdbcUrl = postgres.getJdbcUrl("postgres", "postgres");
+                user = "postgres";
+                password = "postgres";
+                try (Connection connection = DriverManager.getConnection(jdbcUrl, user, password)) {
+                    ScriptUtils.executeSqlScript(connection, new ClassPathResource("db/sql/create_tables.sql"));
+                }
+            }
+            SeedLoader.Result result = new SeedLoader(jdbcUrl, user, password, options.threads()).load(options.dir());
+            long total = result.rows().values().stream().mapToLong(Long::longValue).sum();
+            System.out.printf("Loaded %s with %s in %d ms (%.0f rows/s)%n", result.rows(),
+                    result.copy() ? "COPY" : "batched inserts", result.millis(),
+                    total * 1000.0 / Math.max(1, result.millis()));
+        } finally {
+            if (postgres != null) {
+                postgres.close();
+            }
+        }
+    }
+}
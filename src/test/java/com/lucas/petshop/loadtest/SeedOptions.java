@@ -0,0 +1,62 @@
+package com.lucas.petshop.loadtest;
+
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Command line options of {@link SeedMain}, given as {@code --key=value} pairs.
+ *
+ * <ul>
+ *   <li>{@code --dir} where the CSV shards are written and read (default target/seed)</li>
+ *   <li>{@code --products} / {@code --orders} / {@code --ratings} data set sizes
+ *       (default 100000 / 3000000 / 1000000; about 3.5 lines per order)</li>
+ *   <li>{@code --shards} slices per table, generated and loaded in parallel (default 2 per core)</li>
+ *   <li>{@code --threads} loader connections (default one per core)</li>
+ *   <li>{@code --generate} / {@code --load} run either step only (both default true)</li>
+ *   <li>{@code --jdbc-url}, {@code --jdbc-user}, {@code --jdbc-password} target database with an
+ *       empty schema; without a url an embedded PostgreSQL is started and dropped at the end</li>
+ *   <li>{@code --seed} random seed</li>
+ * </ul>
+ */
+record SeedOptions(
+        Path dir,
+        int products,
+        int orders,
+        int ratings,
+        int shards,
+        int threads,
+        boolean generate,
+        boolean load,
+        String jdbcUrl,
+        String jdbcUser,
+        String jdbcPassword,
+        long seed
+) {
+
+    static SeedOptions parse(String[] args) {
+        Map<String, String> values = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --key=value but got '" + arg + "'");
+            }
+            int eq = arg.indexOf('=');
+            values.put(arg.substring(2, eq), arg.substring(eq + 1));
+        }
+        int cores = Runtime.getRuntime().availableProcessors();
+        return new SeedOptions(
+                Path.of(values.getOrDefault("dir", "target/seed")),
+                Integer.parseInt(values.getOrDefault("products", "100000")),
+                Integer.parseInt(values.getOrDefault("orders", "3000000")),
+                Integer.parseInt(values.getOrDefault("ratings", "1000000")),
+                Integer.parseInt(values.getOrDefault("shards", String.valueOf(2 * cores))),
+                Integer.parseInt(values.getOrDefault("threads", String.valueOf(cores))),
+                Boolean.parseBoolean(values.getOrDefault("generate", "true")),
+                Boolean.parseBoolean(values.getOrDefault("load", "true")),
+                values.get("jdbc-url"),
+                values.getOrDefault("jdbc-user", "petshop"),
+                values.getOrDefault("jdbc-password", "12345"),
+                Long.parseLong(values.getOrDefault("seed", "42"))
+        );
+    }
+}
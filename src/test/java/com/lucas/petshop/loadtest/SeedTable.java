@@ -0,0 +1,110 @@
+package com.lucas.petshop.loadtest;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * The CSV shards written by {@link SeedDataGenerator} and read by {@link SeedLoader}: one
+ * file per table and shard ({@code <prefix>-<shard>.csv}), columns in the order listed here,
+ * no header, no quoting (the generator never writes commas or quotes inside a value).
+ * Listed parents first, the order the loader has to follow for the foreign keys.
+ */
+enum SeedTable {
+
+    PRODUCTS("products", "tb_products", "product_id", List.of(
+            column("product_id", Type.LONG), column("name", Type.TEXT), column("type", Type.TEXT),
+            column("animal_type", Type.TEXT), column("brand", Type.TEXT), column("description", Type.TEXT),
+            column("stock", Type.INT), column("price", Type.DECIMAL), column("size_weight", Type.DECIMAL),
+            column("created_at", Type.TIMESTAMP))),
+    ORDERS("orders", "tb_orders", "order_id", List.of(
+            column("order_id", Type.LONG), column("total_items_count", Type.INT), column("client", Type.TEXT),
+            column("total_amount", Type.DECIMAL), column("status", Type.TEXT), column("order_creation", Type.TIMESTAMP))),
+    // no explicit id: the lines of an order shard are only counted while it is generated
+    ORDER_LINES("order-lines", "tb_products_orders", null, List.of(
+            column("product_id", Type.LONG), column("order_id", Type.LONG), column("quantity", Type.INT),
+            column("unit_price", Type.DECIMAL), column("created_at", Type.TIMESTAMP))),
+    RATINGS("ratings", "tb_rating", "rating_id", List.of(
+            column("rating_id", Type.LONG), column("product_id", Type.LONG), column("stars", Type.TEXT),
+            column("client", Type.TEXT), column("comments", Type.TEXT), column("created_at", Type.TIMESTAMP)));
+
+    enum Type {
+        LONG, INT, DECIMAL, TEXT, TIMESTAMP
+    }
+
+    record Column(String name, Type type) {
+    }
+
+    private final String filePrefix;
+    private final String table;
+    private final String idColumn;
+    private final List<Column> columns;
+
+    SeedTable(String filePrefix, String table, String idColumn, List<Column> columns) {
+        this.filePrefix = filePrefix;
+        this.table = table;
+        this.idColumn = idColumn;
+        this.columns = columns;
+    }
+
+    String fileName(int shard) {
+        return "%s-%03d.csv".formatted(filePrefix, shard);
+    }
+
+    String filePrefix() {
+        return filePrefix;
+    }
+
+    String table() {
+        return table;
+    }
+
+    /**
+     * @return the serial id column whose sequence has to be moved past the loaded ids, or null
+     */
+    String idColumn() {
+        return idColumn;
+    }
+
+    String columnList() {
+        return String.join(", ", columns.stream().map(Column::name).toList());
+    }
+
+    String copySql() {
+        return "COPY " + table + " (" + columnList() + ") FROM STDIN WITH (FORMAT csv)";
+    }
+
+    String insertSql() {
+        return "INSERT INTO " + table + " (" + columnList() + ") VALUES ("
+                + String.join(", ", columns.stream().map(c -> "?").toList()) + ")";
+    }
+
+    /**
+     * Binds one CSV line to {@link #insertSql()}, for databases without {@code COPY}.
+     */
+    void bind(PreparedStatement ps, String line) throws SQLException {
+        String[] values = line.split(",", -1);
+        if (values.length != columns.size()) {
+            throw new IllegalArgumentException(table + ": expected " + columns.size()
+                    + " values but got " + values.length + " in '" + line + "'");
+        }
+        for (int i = 0; i < values.length; i++) {
+            String value = values[i];
+            int index = i + 1;
+            switch (columns.get(i).type()) {
+                case LONG -> ps.setLong(index, Long.parseLong(value));
+                case INT -> ps.setInt(index, Integer.parseInt(value));
+                case DECIMAL -> ps.setBigDecimal(index, new BigDecimal(value));
+                case TEXT -> ps.setString(index, value);
+                case TIMESTAMP -> ps.setTimestamp(index, Timestamp.valueOf(LocalDateTime.parse(value)));
+            }
+        }
+    }
+
+    private static Column column(String name, Type type) {
+        return new Column(name, type);
+    }
+}
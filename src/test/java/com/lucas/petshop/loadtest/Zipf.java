@@ -0,0 +1,42 @@
+package com.lucas.petshop.loadtest;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Zipf distribution over the ranks 1..n: rank k is drawn with probability proportional
+ * to 1/k^s. Sampling is a binary search over the precomputed cumulative weights, so a
+ * draw costs O(log n) and an instance can be shared by threads with their own random source.
+ */
+final class Zipf {
+
+    private final double[] cumulative;
+
+    Zipf(int n, double exponent) {
+        if (n < 1) {
+            throw new IllegalArgumentException("n must be at least 1 but was " + n);
+        }
+        cumulative = new double[n];
+        double sum = 0;
+        for (int k = 1; k <= n; k++) {
+            sum += 1 / Math.pow(k, exponent);
+            cumulative[k - 1] = sum;
+        }
+        for (int i = 0; i < n; i++) {
+            cumulative[i] /= sum;
+        }
+    }
+
+    int size() {
+        return cumulative.length;
+    }
+
+    /**
+     * @return a rank in 1..n, rank 1 being the most likely
+     */
+    int sample(SplittableRandom random) {
+        int index = Arrays.binarySearch(cumulative, random.nextDouble());
+        // not found: -(insertion point) - 1, the first cumulative weight above the draw
+        return Math.min(index >= 0 ? index : -index - 1, cumulative.length - 1) + 1;
+    }
+}
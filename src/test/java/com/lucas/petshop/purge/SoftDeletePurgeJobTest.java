@@ -0,0 +1,181 @@
+package com.lucas.petshop.purge;
+
+import com.lucas.petshop.config.PurgeProperties;
+import com.lucas.petshop.dto.RatingRequestDTO;
+import com.lucas.petshop.service.OrderService;
+import com.lucas.petshop.service.ProductService;
+import com.lucas.petshop.service.RatingService;
+import com.lucas.petshop.service.RatingStarsEnum;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static com.lucas.petshop.TestData.clearSecondLevelCache;
+import static com.lucas.petshop.TestData.order;
+import static com.lucas.petshop.TestData.product;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class SoftDeletePurgeJobTest {
+
+    @Autowired
+    private SoftDeletePurgeJob job;
+
+    @Autowired
+    private PurgeProperties properties;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private RatingService ratingService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private int batchSize;
+    private int maxRowsPerSecond;
+
+    @BeforeEach
+    void setUp() {
+        clearSecondLevelCache(entityManagerFactory);
+        batchSize = properties.getBatchSize();
+        maxRowsPerSecond = properties.getMaxRowsPerSecond();
+    }
+
+    @AfterEach
+    void restoreProperties() {
+        properties.setBatchSize(batchSize);
+        properties.setMaxRowsPerSecond(maxRowsPerSecond);
+    }
+
+    @Test
+    void removesExpiredRowsAndKeepsEverythingStillInUseOrRecoverable() {
+        long live = productService.createProduct(product("Purge live"));
+        long unreferenced = deletedProduct("Purge unreferenced", true);
+        long recent = deletedProduct("Purge recent", false);
+        long stillOrdered = productService.createProduct(product("Purge still ordered"));
+        orderService.createOrder(order("Live buyer", stillOrdered));
+        productService.deleteProduct(stillOrdered);
+        expire("tb_products", "product_id", "last_update", stillOrdered);
+
+        long expiredRating = deletedRating(live, true);
+        long recentRating = deletedRating(live, false);
+
+        // an expired deleted order releases its lines, and then the deleted product they pointed to
+        long orderedOnce = productService.createProduct(product("Purge ordered once"));
+        long deletedOrder = orderService.createOrder(order("Gone buyer", orderedOnce));
+        orderService.deleteOrder(deletedOrder, null);
+        expire("tb_orders", "order_id", "order_update", deletedOrder);
+        productService.deleteProduct(orderedOnce);
+        expire("tb_products", "product_id", "last_update", orderedOnce);
+
+        PurgeRunResult result = job.run(false, false);
+
+        assertThat(result.completed()).isTrue();
+        assertThat(exists("tb_products", "product_id", unreferenced)).isFalse();
+        assertThat(exists("tb_products", "product_id", orderedOnce)).isFalse();
+        assertThat(exists("tb_products_orders", "order_id", deletedOrder)).isFalse();
+        assertThat(exists("tb_rating", "rating_id", expiredRating)).isFalse();
+
+        assertThat(exists("tb_products", "product_id", live)).isTrue();
+        assertThat(exists("tb_products", "product_id", recent)).isTrue();
+        assertThat(exists("tb_products", "product_id", stillOrdered)).isTrue();
+        assertThat(exists("tb_rating", "rating_id", recentRating)).isTrue();
+        // the order itself is kept, only its lines go
+        assertThat(exists("tb_orders", "order_id", deletedOrder)).isTrue();
+    }
+
+    @Test
+    void dryRunOnlyCounts() {
+        long product = deletedProduct("Dry run product", true);
+        long rating = deletedRating(productService.createProduct(product("Dry run rated")), true);
+
+        PurgeRunResult result = job.run(true, false);
+
+        assertThat(result.dryRun()).isTrue();
+        assertThat(result.rows().get("tb_products")).isPositive();
+        assertThat(result.rows().get("tb_rating")).isPositive();
+        assertThat(exists("tb_products", "product_id", product)).isTrue();
+        assertThat(exists("tb_rating", "rating_id", rating)).isTrue();
+    }
+
+    @Test
+    void archiveCopiesRowsBeforeDeletingThem() {
+        for (String table : List.of("tb_rating", "tb_products_orders", "tb_products")) {
+            jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + table + "_archive AS SELECT * FROM " + table + " WITH NO DATA");
+        }
+        long product = deletedProduct("Archived product", true);
+
+        PurgeRunResult result = job.run(false, true);
+
+        assertThat(result.archived()).isTrue();
+        assertThat(exists("tb_products", "product_id", product)).isFalse();
+        assertThat(exists("tb_products_archive", "product_id", product)).isTrue();
+    }
+
+    @Test
+    void staysUnderTheRowRate() {
+        for (int i = 0; i < 4; i++) {
+            deletedProduct("Throttled product " + i, true);
+        }
+        properties.setBatchSize(1);
+        properties.setMaxRowsPerSecond(20);
+
+        PurgeRunResult result = job.run(false, false);
+
+        long rows = result.rows().values().stream().mapToLong(Long::longValue).sum();
+        assertThat(rows).isGreaterThanOrEqualTo(4);
+        assertThat(result.millis()).isGreaterThanOrEqualTo(rows * 1000 / 20 - 1);
+    }
+
+    private long deletedProduct(String name, boolean expired) {
+        long id = productService.createProduct(product(name));
+        productService.deleteProduct(id);
+        if (expired) {
+            expire("tb_products", "product_id", "last_update", id);
+        }
+        return id;
+    }
+
+    private long deletedRating(long productId, boolean expired) {
+        RatingRequestDTO dto = new RatingRequestDTO();
+        dto.setProductId(productId);
+        dto.setStars(RatingStarsEnum.TWO);
+        dto.setClient("Purge reviewer");
+        ratingService.createRating(dto);
+        long id = jdbcTemplate.queryForObject("SELECT MAX(rating_id) FROM tb_rating", Long.class);
+        ratingService.deleteRating(id);
+        if (expired) {
+            expire("tb_rating", "rating_id", "last_update", id);
+        }
+        return id;
+    }
+
+    // moves the soft-delete time of a row past the retention
+    private void expire(String table, String key, String updatedColumn, long id) {
+        Timestamp longAgo = Timestamp.valueOf(LocalDateTime.now().minus(properties.getRetention()).minusDays(1));
+        jdbcTemplate.update("UPDATE " + table + " SET " + updatedColumn + " = ? WHERE " + key + " = ?", longAgo, id);
+    }
+
+    private boolean exists(String table, String key, long id) {
+        Long count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table + " WHERE " + key + " = ?", Long.class, id);
+        return count != null && count > 0;
+    }
+}
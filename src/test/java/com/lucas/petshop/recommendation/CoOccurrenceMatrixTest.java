@@ -0,0 +1,90 @@
+package com.lucas.petshop.recommendation;
+
+import com.lucas.petshop.util.LongIntHashMap;
+import com.lucas.petshop.util.LongObjectHashMap;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CoOccurrenceMatrixTest {
+
+    @Test
+    void hashMapAgreesWithJavaUtilUnderRandomAddsAndRemovals() {
+        Random random = new Random(42);
+        LongIntHashMap map = new LongIntHashMap();
+        Map<Long, Integer> expected = new HashMap<>();
+
+        for (int i = 0; i < 200_000; i++) {
+            // few distinct keys and many removals: long probe chains get shifted back all the time
+            long key = 1 + random.nextInt(500) * 64L;
+            int delta = random.nextInt(3) - 1;
+            int count = map.add(key, delta);
+            int next = expected.getOrDefault(key, 0) + delta;
+            if (next > 0) {
+                expected.put(key, next);
+            } else {
+                expected.remove(key);
+            }
+            assertThat(count).isEqualTo(Math.max(next, 0));
+        }
+
+        assertThat(map.size()).isEqualTo(expected.size());
+        expected.forEach((key, count) -> assertThat(map.get(key)).isEqualTo(count));
+        Map<Long, Integer> iterated = new HashMap<>();
+        map.forEach(iterated::put);
+        assertThat(iterated).isEqualTo(expected);
+    }
+
+    @Test
+    void rowsOfManyProductsAreAllFoundAndWalked() {
+        LongObjectHashMap<String> map = new LongObjectHashMap<>();
+        for (long key = 1; key <= 10_000; key++) {
+            assertThat(map.computeIfAbsent(key * 64, Long::toString)).isEqualTo(Long.toString(key * 64));
+        }
+        assertThat(map.computeIfAbsent(64, key -> "again")).isEqualTo("64");
+        assertThat(map.size()).isEqualTo(10_000);
+        assertThat(map.get(640_000)).isEqualTo("640000");
+        assertThat(map.get(65)).isNull();
+
+        // a chain 1-2, 2-3, ... spread over every stripe
+        CoOccurrenceMatrix matrix = new CoOccurrenceMatrix(3);
+        for (long product = 1; product < 5_000; product++) {
+            matrix.addOrder(new long[]{product, product + 1}, 1);
+        }
+        long[] walked = {0};
+        matrix.forEachPair((product, other, count) -> {
+            assertThat(other).isEqualTo(product + 1);
+            walked[0]++;
+        });
+        assertThat(walked[0]).isEqualTo(4_999);
+        assertThat(matrix.products()).isEqualTo(5_000);
+        assertThat(matrix.top(2_500, 10).products()).containsExactly(2_499, 2_501);
+    }
+
+    @Test
+    void topNeighboursFollowIncrementsAndDecrements() {
+        CoOccurrenceMatrix matrix = new CoOccurrenceMatrix(2);
+        matrix.addOrder(new long[]{1, 2, 3}, 1);
+        matrix.addOrder(new long[]{1, 3}, 1);
+        matrix.addOrder(new long[]{1, 4, 4}, 1);
+        matrix.addOrder(new long[]{1, 4}, 1);
+        matrix.addOrder(new long[]{1, 4}, 1);
+
+        assertThat(matrix.top(1, 10).products()).containsExactly(4, 3);
+        assertThat(matrix.top(1, 10).counts()).containsExactly(3, 2);
+        assertThat(matrix.pairs()).isEqualTo(4);
+
+        // 4 falls to 1: 2 was outside the top-2 and ties with it, the lower id wins
+        matrix.addOrder(new long[]{1, 4}, -1);
+        matrix.addOrder(new long[]{1, 4}, -1);
+        assertThat(matrix.top(1, 10).products()).containsExactly(3, 2);
+
+        matrix.addOrder(new long[]{1, 4}, -1);
+        assertThat(matrix.top(4, 10).products()).isEmpty();
+        assertThat(matrix.pairs()).isEqualTo(3);
+    }
+}
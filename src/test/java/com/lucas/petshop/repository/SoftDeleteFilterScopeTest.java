@@ -0,0 +1,65 @@
+package com.lucas.petshop.repository;
+
+import com.lucas.petshop.model.SoftDeleteFilters;
+import com.lucas.petshop.service.ProductService;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.lucas.petshop.TestData.clearSecondLevelCache;
+import static com.lucas.petshop.TestData.product;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class SoftDeleteFilterScopeTest {
+
+    @Autowired
+    private SoftDeleteFilterScope softDeleteFilterScope;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @BeforeEach
+    void setUp() {
+        clearSecondLevelCache(entityManagerFactory);
+    }
+
+    @Test
+    void nestedScopeLeavesTheOuterScopeFiltersOff() {
+        long productId = productService.createProduct(product("Scoped kibble"));
+        productService.deleteProduct(productId);
+
+        // existsById is a query, so unlike a load by id it is never answered by the persistence context
+        List<Boolean> visible = transactionTemplate.execute(status -> {
+            List<Boolean> seen = new ArrayList<>();
+            softDeleteFilterScope.includingDeleted(() -> {
+                seen.add(softDeleteFilterScope.includingDeleted(
+                        () -> productRepository.existsById(productId), SoftDeleteFilters.PRODUCT));
+                seen.add(productRepository.existsById(productId));
+                return null;
+            }, SoftDeleteFilters.PRODUCT);
+            seen.add(productRepository.existsById(productId));
+            return seen;
+        });
+
+        // inner scope, outer scope after the inner one has returned, outside both
+        assertThat(visible).containsExactly(true, true, false);
+    }
+}
@@ -0,0 +1,163 @@
+package com.lucas.petshop.service;
+
+import com.lucas.petshop.config.BoughtTogetherProperties;
+import com.lucas.petshop.dto.BoughtTogetherRebuildResultDTO;
+import com.lucas.petshop.dto.BoughtTogetherResponseDTO;
+import com.lucas.petshop.repository.ProductRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static com.lucas.petshop.TestData.clearSecondLevelCache;
+import static com.lucas.petshop.TestData.order;
+import static com.lucas.petshop.TestData.product;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class BoughtTogetherTest {
+
+    private static final String CLIENT = "Together client";
+
+    @Autowired
+    private BoughtTogetherService boughtTogetherService;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private BoughtTogetherProperties properties;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private long leash;
+    private long collar;
+    private long bowl;
+    private long treats;
+
+    @BeforeEach
+    void setUp() {
+        clearSecondLevelCache(entityManagerFactory);
+        leash = productService.createProduct(product("Leash"));
+        collar = productService.createProduct(product("Collar"));
+        bowl = productService.createProduct(product("Bowl"));
+        treats = productService.createProduct(product("Treats"));
+    }
+
+    @Test
+    void ordersUpdateTheTopNeighboursAsTheyCommit() {
+        orderService.createOrder(order(CLIENT, leash, collar));
+        orderService.createOrder(order(CLIENT, leash, collar, bowl));
+        long bowlOrder = orderService.createOrder(order(CLIENT, leash, bowl));
+        orderService.createOrder(order(CLIENT, collar, leash));
+
+        assertThat(boughtTogetherService.getBoughtTogether(leash, 10))
+                .extracting(BoughtTogetherResponseDTO::name, BoughtTogetherResponseDTO::orders)
+                .containsExactly(tuple("Collar", 3), tuple("Bowl", 2));
+
+        // bowl replaced by treats, then the order is deleted: bowl drops, treats never stays
+        orderService.updateOrder(bowlOrder, order(CLIENT, leash, treats), null);
+        assertThat(boughtTogetherService.getBoughtTogether(leash, 10))
+                .extracting(BoughtTogetherResponseDTO::productId, BoughtTogetherResponseDTO::orders)
+                .containsExactly(tuple(collar, 3), tuple(bowl, 1), tuple(treats, 1));
+        orderService.deleteOrder(bowlOrder, null);
+        assertThat(boughtTogetherService.getBoughtTogether(leash, 1))
+                .extracting(BoughtTogetherResponseDTO::productId).containsExactly(collar);
+        assertThat(boughtTogetherService.getBoughtTogether(treats, 10)).isEmpty();
+    }
+
+    @Test
+    void rolledBackOrdersAreNotCounted() {
+        assertThatThrownBy(() -> transactionTemplate.executeWithoutResult(status -> {
+            orderService.createOrder(order(CLIENT, bowl, treats));
+            throw new IllegalStateException("rollback");
+        })).isInstanceOf(IllegalStateException.class);
+
+        assertThat(boughtTogetherService.getBoughtTogether(bowl, 10)).isEmpty();
+    }
+
+    @Test
+    void rebuildAndCheckpointRestoreAgreeWithTheIncrementalCounts() {
+        orderService.createOrder(order(CLIENT, leash, collar, bowl));
+        orderService.createOrder(order(CLIENT, collar, bowl));
+        long changed = orderService.createOrder(order(CLIENT, collar, treats));
+        orderService.updateOrder(changed, order(CLIENT, collar, bowl, treats), null);
+
+        List<BoughtTogetherResponseDTO> incremental = boughtTogetherService.getBoughtTogether(collar, 10);
+        assertThat(incremental).extracting(BoughtTogetherResponseDTO::productId, BoughtTogetherResponseDTO::orders)
+                .containsExactly(tuple(bowl, 3), tuple(leash, 1), tuple(treats, 1));
+
+        assertThat(boughtTogetherService.rebuild().orders()).isPositive();
+        assertThat(boughtTogetherService.getBoughtTogether(collar, 10)).isEqualTo(incremental);
+
+        assertThat(boughtTogetherService.checkpoint()).isPositive();
+        assertThat(boughtTogetherService.checkpoint()).isZero();
+        // created after the checkpoint: replayed from tb_products_orders on restart
+        orderService.createOrder(order(CLIENT, collar, leash));
+
+        BoughtTogetherServiceImpl restarted = new BoughtTogetherServiceImpl(jdbcTemplate, transactionTemplate,
+                productRepository, properties);
+        restarted.start();
+        assertThat(restarted.getBoughtTogether(collar, 10))
+                .extracting(BoughtTogetherResponseDTO::productId, BoughtTogetherResponseDTO::orders)
+                .containsExactly(tuple(bowl, 3), tuple(leash, 2), tuple(treats, 1));
+        assertThat(restarted.pairs()).isEqualTo(boughtTogetherService.pairs());
+        assertThat(restarted.lastCheckpointAt()).isNotNull();
+    }
+
+    @Test
+    void rebuildCountsAnOrderChangedDuringItOnce() throws Exception {
+        long changed = orderService.createOrder(order(CLIENT, leash, collar));
+        CountDownLatch recorded = new CountDownLatch(1);
+        CountDownLatch commit = new CountDownLatch(1);
+
+        try (ExecutorService executor = Executors.newFixedThreadPool(2)) {
+            // the update is recorded before the rebuild starts and commits while it runs
+            Future<?> update = executor.submit(() -> transactionTemplate.executeWithoutResult(status -> {
+                orderService.updateOrder(changed, order(CLIENT, leash, bowl), null);
+                recorded.countDown();
+                try {
+                    commit.await();
+                } catch (InterruptedException e) {
+                    throw new IllegalStateException(e);
+                }
+            }));
+            recorded.await();
+            Future<BoughtTogetherRebuildResultDTO> rebuild = executor.submit(boughtTogetherService::rebuild);
+            commit.countDown();
+            update.get(10, TimeUnit.SECONDS);
+            rebuild.get(10, TimeUnit.SECONDS);
+        }
+
+        assertThat(boughtTogetherService.getBoughtTogether(leash, 10))
+                .extracting(BoughtTogetherResponseDTO::productId, BoughtTogetherResponseDTO::orders)
+                .containsExactly(tuple(bowl, 1));
+    }
+}
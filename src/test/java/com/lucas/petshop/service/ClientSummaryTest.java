@@ -0,0 +1,118 @@
+package com.lucas.petshop.service;
+
+import com.lucas.petshop.dto.ClientSummaryBackfillResultDTO;
+import com.lucas.petshop.dto.ClientSummaryResponseDTO;
+import com.lucas.petshop.dto.OrderRequestDTO;
+import com.lucas.petshop.model.Money;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import static com.lucas.petshop.TestData.clearSecondLevelCache;
+import static com.lucas.petshop.TestData.order;
+import static com.lucas.petshop.TestData.product;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class ClientSummaryTest {
+
+    @Autowired
+    private ClientSummaryService clientSummaryService;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private long product;
+
+    @BeforeEach
+    void setUp() {
+        clearSecondLevelCache(entityManagerFactory);
+        product = productService.createProduct(product("Summary kibble", "10.00"));
+    }
+
+    @Test
+    void unknownClientHasAnEmptySummary() {
+        ClientSummaryResponseDTO summary = clientSummaryService.getSummary("Nobody");
+
+        assertThat(summary.getOrderCount()).isZero();
+        assertThat(summary.getLifetimeSpend()).isEqualTo(Money.ZERO);
+        assertThat(summary.getLastOrderAt()).isNull();
+    }
+
+    @Test
+    void ordersAreAddedAsTheyArePlaced() {
+        orderService.createOrder(order("Loyal Ana", product, 2));
+        long last = orderService.createOrder(order("Loyal Ana", product, 1));
+
+        ClientSummaryResponseDTO summary = clientSummaryService.getSummary("Loyal Ana");
+
+        assertThat(summary.getOrderCount()).isEqualTo(2);
+        assertThat(summary.getLifetimeSpend()).isEqualTo(Money.ofCents(3000));
+        assertThat(summary.getLastOrderAt()).isEqualTo(orderService.getOrderById(last).getOrderCreation());
+    }
+
+    @Test
+    void updatesApplyAmountDeltasCancellationsAndClientChanges() {
+        long first = orderService.createOrder(order("Edited Bia", product, 1));
+        long second = orderService.createOrder(order("Edited Bia", product, 1));
+
+        orderService.updateOrder(first, order("Edited Bia", product, 4), null);
+        assertThat(clientSummaryService.getSummary("Edited Bia").getLifetimeSpend()).isEqualTo(Money.ofCents(5000));
+
+        orderService.updateOrder(second, order("Edited Caio", product, 1), null);
+        assertThat(clientSummaryService.getSummary("Edited Bia").getOrderCount()).isEqualTo(1);
+        assertThat(clientSummaryService.getSummary("Edited Caio").getOrderCount()).isEqualTo(1);
+        assertThat(clientSummaryService.getSummary("Edited Caio").getLifetimeSpend()).isEqualTo(Money.ofCents(1000));
+
+        OrderRequestDTO cancel = order("Edited Bia", product, 4);
+        cancel.setStatus(OrderStatusEnum.CANCELED);
+        orderService.updateOrder(first, cancel, null);
+
+        ClientSummaryResponseDTO bia = clientSummaryService.getSummary("Edited Bia");
+        assertThat(bia.getOrderCount()).isZero();
+        assertThat(bia.getLifetimeSpend()).isEqualTo(Money.ZERO);
+        assertThat(bia.getLastOrderAt()).isNull();
+    }
+
+    @Test
+    void deleteRemovesTheOrderAndRecomputesTheLastOrderDate() {
+        long first = orderService.createOrder(order("Deleting Dan", product, 1));
+        long second = orderService.createOrder(order("Deleting Dan", product, 2));
+
+        orderService.deleteOrder(second, null);
+
+        ClientSummaryResponseDTO summary = clientSummaryService.getSummary("Deleting Dan");
+        assertThat(summary.getOrderCount()).isEqualTo(1);
+        assertThat(summary.getLifetimeSpend()).isEqualTo(Money.ofCents(1000));
+        assertThat(summary.getLastOrderAt()).isEqualTo(orderService.getOrderById(first).getOrderCreation());
+    }
+
+    @Test
+    void backfillRebuildsTheIncrementalState() {
+        orderService.createOrder(order("Backfill Eva", product, 1));
+        orderService.createOrder(order("Backfill Eva", product, 3));
+        long canceled = orderService.createOrder(order("Backfill Eva", product, 5));
+        orderService.deleteOrder(canceled, null);
+        ClientSummaryResponseDTO incremental = clientSummaryService.getSummary("Backfill Eva");
+
+        jdbcTemplate.update("DELETE FROM tb_client_summary");
+        ClientSummaryBackfillResultDTO result = clientSummaryService.backfill();
+
+        assertThat(result.rows()).isEqualTo(result.clients()).isPositive();
+        assertThat(clientSummaryService.getSummary("Backfill Eva")).isEqualTo(incremental);
+    }
+}
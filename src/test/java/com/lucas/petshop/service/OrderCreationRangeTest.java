@@ -0,0 +1,128 @@
+package com.lucas.petshop.service;
+
+import com.lucas.petshop.dto.KeysetPageResponseDTO;
+import com.lucas.petshop.dto.OrderResponseDTO;
+import com.lucas.petshop.exception.BadRequestException;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.lucas.petshop.TestData.clearSecondLevelCache;
+import static com.lucas.petshop.TestData.order;
+import static com.lucas.petshop.TestData.product;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@AutoConfigureMockMvc
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class OrderCreationRangeTest {
+
+    private static final JsonMapper JSON = JsonMapper.builder().build();
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    // a month of orders no other test writes into, one every 7 hours: spans several page windows and export chunks
+    private final LocalDateTime monthStart = LocalDateTime.of(2001, 3, 1, 0, 0);
+    private final List<Long> created = new ArrayList<>();
+
+    @BeforeAll
+    void setUp() {
+        clearSecondLevelCache(entityManagerFactory);
+
+        long product = productService.createProduct(product("Range kibble"));
+        for (int i = 0; i < 100; i++) {
+            long id = orderService.createOrder(order("Range client", i % 4 == 0 ? OrderStatusEnum.CANCELED : OrderStatusEnum.PAID, product));
+            jdbcTemplate.update("UPDATE tb_orders SET order_creation = ? WHERE order_id = ?", monthStart.plusHours(7L * i), id);
+            created.add(id);
+        }
+        // same timestamp as the previous order: the keyset breaks the tie by id
+        jdbcTemplate.update("UPDATE tb_orders SET order_creation = ? WHERE order_id = ?",
+                monthStart.plusHours(7L * 98), created.get(99));
+    }
+
+    @Test
+    void pagesWalkTheRangeOldestFirstWithoutGapsOrRepeats() {
+        List<Long> seen = new ArrayList<>();
+        String cursor = null;
+        do {
+            KeysetPageResponseDTO<OrderResponseDTO> page = orderService.findOrdersByCreation(
+                    monthStart, monthStart.plusMonths(1), null, cursor, 7);
+            page.getContent().forEach(order -> seen.add(order.getId()));
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+
+        assertThat(seen).containsExactlyElementsOf(created);
+    }
+
+    @Test
+    void rangeIsHalfOpenAndStatusFilters() {
+        KeysetPageResponseDTO<OrderResponseDTO> page = orderService.findOrdersByCreation(
+                monthStart.plusHours(7), monthStart.plusHours(7 * 9), OrderStatusEnum.CANCELED, null, 100);
+
+        // orders 1..8 are in range, of which 4 and 8 are canceled
+        assertThat(page.getContent()).extracting(OrderResponseDTO::getId)
+                .containsExactly(created.get(4), created.get(8));
+        assertThat(page.getNextCursor()).isNull();
+    }
+
+    @Test
+    void exportStreamsTheWholeRangeInOrder() throws Exception {
+        MvcResult result = mockMvc.perform(get("/orders/export")
+                        .param("from", monthStart.toString())
+                        .param("to", monthStart.plusMonths(1).toString())
+                        .param("status", "PAID"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        result.getAsyncResult();
+
+        List<Long> ids = result.getResponse().getContentAsString().lines()
+                .map(line -> JSON.readTree(line).get("id").asLong())
+                .toList();
+        List<Long> paid = new ArrayList<>();
+        for (int i = 0; i < created.size(); i++) {
+            if (i % 4 != 0) {
+                paid.add(created.get(i));
+            }
+        }
+        assertThat(ids).containsExactlyElementsOf(paid);
+    }
+
+    @Test
+    void emptyOrReversedRangeIsRejected() {
+        assertThatThrownBy(() -> orderService.findOrdersByCreation(monthStart, monthStart, null, null, 20))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessage("INVALID ORDER CREATION RANGE");
+        assertThatThrownBy(() -> orderService.exportOrdersByCreation(monthStart.plusDays(1), monthStart, null, chunk -> {
+        })).isInstanceOf(BadRequestException.class).hasMessage("INVALID ORDER CREATION RANGE");
+    }
+}
@@ -0,0 +1,129 @@
+package com.lucas.petshop.service;
+
+import com.lucas.petshop.dto.OrderItemResponseDTO;
+import com.lucas.petshop.dto.ProductOrderItemDTO;
+import com.lucas.petshop.exception.ProductNotFoundException;
+import com.lucas.petshop.model.Money;
+import com.lucas.petshop.model.ProductOrder;
+import com.lucas.petshop.repository.ProductOrderRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Hibernate;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static com.lucas.petshop.TestData.clearSecondLevelCache;
+import static com.lucas.petshop.TestData.order;
+import static com.lucas.petshop.TestData.product;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class OrderFetchPlanTest {
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductOrderRepository productOrderRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        clearSecondLevelCache(entityManagerFactory);
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void orderDetailIsLoadedInOneStatement() {
+        long food = productService.createProduct(product("Detail kibble", "10.00"));
+        long toy = productService.createProduct(product("Detail ball", "2.50"));
+        long orderId = orderService.createOrder(order("Detail Client", OrderStatusEnum.PENDING, new ProductOrderItemDTO(food, 2), new ProductOrderItemDTO(toy, 3)));
+
+        statistics.clear();
+        List<OrderItemResponseDTO> items = orderService.getOrderItems(orderId);
+
+        assertThat(items).hasSize(2);
+        assertThat(items).extracting(OrderItemResponseDTO::getProductName)
+                .containsExactlyInAnyOrder("Detail kibble", "Detail ball");
+        assertThat(items).extracting(OrderItemResponseDTO::getUnitPrice)
+                .containsExactlyInAnyOrder(Money.ofCents(1000), Money.ofCents(250));
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void orderDetailStillListsDeletedProducts() {
+        long food = productService.createProduct(product("Discontinued kibble", "7.00"));
+        long toy = productService.createProduct(product("Current ball", "1.00"));
+        long orderId = orderService.createOrder(order("Loyal Client", OrderStatusEnum.PENDING, new ProductOrderItemDTO(food, 1), new ProductOrderItemDTO(toy, 1)));
+        productService.deleteProduct(food);
+
+        // from the database too, not only from the second-level cache
+        clearSecondLevelCache(entityManagerFactory);
+        statistics.clear();
+        List<OrderItemResponseDTO> items = orderService.getOrderItems(orderId);
+
+        assertThat(items).extracting(OrderItemResponseDTO::getProductId).containsExactlyInAnyOrder(food, toy);
+        assertThat(items).extracting(OrderItemResponseDTO::getProductName)
+                .containsExactlyInAnyOrder("Discontinued kibble", "Current ball");
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        // the product itself stays hidden everywhere else
+        assertThatThrownBy(() -> productService.getProductById(food)).isInstanceOf(ProductNotFoundException.class);
+    }
+
+    @Test
+    void productOrderQueriesDoNotLoadProductsOrOrders() {
+        long food = productService.createProduct(product("Lazy kibble", "10.00"));
+        orderService.createOrder(order("Lazy Client", OrderStatusEnum.PENDING, new ProductOrderItemDTO(food, 1)));
+
+        statistics.clear();
+        List<ProductOrder> lines = transactionTemplate.execute(status -> {
+            List<ProductOrder> all = productOrderRepository.findAll();
+            all.forEach(line -> {
+                assertThat(Hibernate.isInitialized(line.getProduct())).isFalse();
+                assertThat(Hibernate.isInitialized(line.getOrder())).isFalse();
+            });
+            return all;
+        });
+
+        assertThat(lines).isNotEmpty();
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(statistics.getEntityLoadCount()).isEqualTo(lines.size());
+    }
+
+    @Test
+    void salesReportLoadsLinesWithProductsInOneStatement() {
+        LocalDateTime from = LocalDateTime.now().minusMinutes(1);
+        long food = productService.createProduct(product("Report kibble", "4.00"));
+        orderService.createOrder(order("Report Client", OrderStatusEnum.PENDING, new ProductOrderItemDTO(food, 5)));
+
+        statistics.clear();
+        long statements = transactionTemplate.execute(status -> {
+            List<ProductOrder> lines = productOrderRepository.findByCreatedAtBetween(from, LocalDateTime.now());
+            lines.forEach(line -> assertThat(Hibernate.isInitialized(line.getProduct())).isTrue());
+            assertThat(lines).anyMatch(line -> line.getProduct().getName().equals("Report kibble"));
+            return statistics.getPrepareStatementCount();
+        });
+
+        assertThat(statements).isEqualTo(1);
+    }
+}
@@ -0,0 +1,100 @@
+package com.lucas.petshop.service;
+
+import com.lucas.petshop.dto.OrderStatsResponseDTO;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static com.lucas.petshop.TestData.clearSecondLevelCache;
+import static com.lucas.petshop.TestData.order;
+import static com.lucas.petshop.TestData.product;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class OrderStatsTest {
+
+    @Autowired
+    private OrderStatsService orderStatsService;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private long product;
+
+    @BeforeEach
+    void setUp() {
+        clearSecondLevelCache(entityManagerFactory);
+        product = productService.createProduct(product("Stats kibble"));
+        orderStatsService.reconcile();
+    }
+
+    @Test
+    void countersFollowCreateUpdateAndDelete() {
+        OrderStatsResponseDTO before = orderStatsService.getStats();
+
+        long first = orderService.createOrder(order("Stats client", OrderStatusEnum.PENDING, product));
+        long second = orderService.createOrder(order("Stats client", OrderStatusEnum.PENDING, product));
+        long third = orderService.createOrder(order("Stats client", OrderStatusEnum.PENDING, product));
+        orderService.updateOrder(first, order("Stats client", OrderStatusEnum.PAID, product), null);
+        orderService.updateOrder(second, order("Stats client", OrderStatusEnum.CANCELED, product), null);
+        orderService.deleteOrder(third, null);
+
+        OrderStatsResponseDTO after = orderStatsService.getStats();
+        assertThat(after.live().get(OrderStatusEnum.PENDING)).isEqualTo(before.live().get(OrderStatusEnum.PENDING));
+        assertThat(after.live().get(OrderStatusEnum.PAID)).isEqualTo(before.live().get(OrderStatusEnum.PAID) + 1);
+        assertThat(after.deleted().get(OrderStatusEnum.CANCELED)).isEqualTo(before.deleted().get(OrderStatusEnum.CANCELED) + 1);
+        assertThat(after.deleted().get(OrderStatusEnum.PENDING)).isEqualTo(before.deleted().get(OrderStatusEnum.PENDING) + 1);
+        assertThat(after.totalLive()).isEqualTo(before.totalLive() + 1);
+        assertThat(after.totalDeleted()).isEqualTo(before.totalDeleted() + 2);
+
+        // everything went through the service: nothing to correct
+        assertThat(orderStatsService.reconcile()).isZero();
+    }
+
+    @Test
+    void rolledBackChangesAreNotCounted() {
+        long before = orderStatsService.getStats().totalLive();
+
+        assertThatThrownBy(() -> transactionTemplate.executeWithoutResult(status -> {
+            orderService.createOrder(order("Stats client", OrderStatusEnum.PENDING, product));
+            throw new IllegalStateException("rollback");
+        })).isInstanceOf(IllegalStateException.class);
+
+        assertThat(orderStatsService.getStats().totalLive()).isEqualTo(before);
+        assertThat(orderStatsService.reconcile()).isZero();
+    }
+
+    @Test
+    void reconciliationPicksUpChangesMadeOutsideTheService() {
+        long completed = orderStatsService.getStats().live().get(OrderStatusEnum.COMPLETED);
+        jdbcTemplate.update("INSERT INTO tb_orders (total_items_count, client, total_amount, status, order_creation, deleted_order) "
+                + "VALUES (1, 'Other node', 1.00, 'COMPLETED', CURRENT_TIMESTAMP, false)");
+
+        assertThat(orderStatsService.getStats().live().get(OrderStatusEnum.COMPLETED)).isEqualTo(completed);
+        assertThat(orderStatsService.reconcile()).isEqualTo(1);
+
+        OrderStatsResponseDTO stats = orderStatsService.getStats();
+        assertThat(stats.live().get(OrderStatusEnum.COMPLETED)).isEqualTo(completed + 1);
+        assertThat(stats.lastDrift()).isEqualTo(1);
+        assertThat(stats.reconciledAt()).isNotNull();
+    }
+}
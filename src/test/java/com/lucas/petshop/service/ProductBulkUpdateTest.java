@@ -0,0 +1,114 @@
+package com.lucas.petshop.service;
+
+import com.lucas.petshop.dto.ProductBulkUpdateDTO;
+import com.lucas.petshop.dto.ProductBulkUpdateResultDTO;
+import com.lucas.petshop.model.Money;
+import com.lucas.petshop.model.Product;
+import com.lucas.petshop.repository.ProductRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static com.lucas.petshop.TestData.clearSecondLevelCache;
+import static com.lucas.petshop.TestData.product;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class ProductBulkUpdateTest {
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @BeforeEach
+    void setUp() {
+        clearSecondLevelCache(entityManagerFactory);
+    }
+
+    @Test
+    void appliesPriceAndStockIndependently() {
+        long priced = productService.createProduct(product("Bulk kibble"));
+        long stocked = productService.createProduct(product("Bulk toy"));
+
+        Map<Long, ProductBulkUpdateDTO> changes = new LinkedHashMap<>();
+        changes.put(priced, new ProductBulkUpdateDTO(new BigDecimal("2.35"), null));
+        changes.put(stocked, new ProductBulkUpdateDTO(null, -10));
+
+        ProductBulkUpdateResultDTO result = productService.bulkUpdateProducts(changes);
+
+        assertThat(result.getUpdated()).isEqualTo(2);
+        assertThat(result.getSkipped()).isEmpty();
+
+        Product pricedNow = productRepository.findById(priced).orElseThrow();
+        assertThat(pricedNow.getPrice()).isEqualTo(Money.ofCents(1235));
+        assertThat(pricedNow.getStock()).isEqualTo(10);
+        assertThat(pricedNow.getLastUpdate()).isNotNull();
+
+        Product stockedNow = productRepository.findById(stocked).orElseThrow();
+        assertThat(stockedNow.getPrice()).isEqualTo(Money.ofCents(1000));
+        assertThat(stockedNow.getStock()).isZero();
+    }
+
+    @Test
+    void skipsDeletedUnknownAndEmptyEntries() {
+        long live = productService.createProduct(product("Bulk live"));
+        long deleted = productService.createProduct(product("Bulk deleted"));
+        long unchanged = productService.createProduct(product("Bulk unchanged"));
+        productService.deleteProduct(deleted);
+
+        Map<Long, ProductBulkUpdateDTO> changes = new LinkedHashMap<>();
+        changes.put(live, new ProductBulkUpdateDTO(null, 1));
+        changes.put(deleted, new ProductBulkUpdateDTO(null, 1));
+        changes.put(unchanged, new ProductBulkUpdateDTO(null, null));
+        changes.put(999_999L, new ProductBulkUpdateDTO(null, 1));
+
+        ProductBulkUpdateResultDTO result = productService.bulkUpdateProducts(changes);
+
+        assertThat(result.getRequested()).isEqualTo(4);
+        assertThat(result.getUpdated()).isEqualTo(1);
+        assertThat(result.getSkipped()).containsExactlyInAnyOrder(deleted, unchanged, 999_999L);
+    }
+
+    @Test
+    void skipsChangesThatWouldLeaveNegativeStockOrNoPrice() {
+        long oversold = productService.createProduct(product("Bulk oversold"));
+        long free = productService.createProduct(product("Bulk free"));
+
+        Map<Long, ProductBulkUpdateDTO> changes = new LinkedHashMap<>();
+        changes.put(oversold, new ProductBulkUpdateDTO(new BigDecimal("1.00"), -11));
+        changes.put(free, new ProductBulkUpdateDTO(new BigDecimal("-10.00"), null));
+
+        ProductBulkUpdateResultDTO result = productService.bulkUpdateProducts(changes);
+
+        assertThat(result.getUpdated()).isZero();
+        assertThat(result.getSkipped()).containsExactly(oversold, free);
+        Product oversoldNow = productRepository.findById(oversold).orElseThrow();
+        assertThat(oversoldNow.getPrice()).isEqualTo(Money.ofCents(1000));
+        assertThat(oversoldNow.getStock()).isEqualTo(10);
+    }
+
+    @Test
+    void cachedProductsSeeTheNewValues() {
+        long id = productService.createProduct(product("Bulk cached"));
+        productRepository.findById(id);
+
+        productService.bulkUpdateProducts(Map.of(id, new ProductBulkUpdateDTO(new BigDecimal("-7.00"), 7)));
+
+        Product now = productRepository.findById(id).orElseThrow();
+        assertThat(now.getPrice()).isEqualTo(Money.ofCents(300));
+        assertThat(now.getStock()).isEqualTo(17);
+    }
+}
@@ -0,0 +1,97 @@
+package com.lucas.petshop.service;
+
+import com.lucas.petshop.dto.ProductMultiGetResponseDTO;
+import com.lucas.petshop.model.Money;
+import com.lucas.petshop.model.Product;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+
+import static com.lucas.petshop.TestData.clearSecondLevelCache;
+import static com.lucas.petshop.TestData.product;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class ProductCacheTest {
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        clearSecondLevelCache(entityManagerFactory);
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void repeatedReadsAreServedFromTheSecondLevelCache() {
+        long id = productService.createProduct(product("Cached kibble", "10.00"));
+        productService.getProductById(id);
+
+        CacheRegionStatistics region = statistics.getDomainDataRegionStatistics(Product.CACHE_REGION);
+        long hits = region.getHitCount();
+        long statements = statistics.getPrepareStatementCount();
+
+        productService.getProductById(id);
+        productService.getProductById(id);
+
+        assertThat(region.getHitCount()).isEqualTo(hits + 2);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(statements);
+    }
+
+    @Test
+    void updateInvalidatesTheCachedProduct() {
+        long id = productService.createProduct(product("Cached toy", "10.00"));
+        assertThat(productService.getProductById(id).getPrice()).isEqualTo(Money.ofCents(1000));
+
+        productService.updateProduct(id, product("Cached toy", "12.50"));
+
+        assertThat(productService.getProductById(id).getPrice()).isEqualTo(Money.ofCents(1250));
+    }
+
+    @Test
+    void deleteRemovesTheProductFromCachedReads() {
+        long id = productService.createProduct(product("Cached bed", "30.00"));
+        productService.getAllProducts();
+        productService.getProductById(id);
+
+        productService.deleteProduct(id);
+
+        assertThat(productService.getAllProducts()).noneMatch(p -> p.getName().equals("Cached bed"));
+    }
+
+    @Test
+    void multiGetReadsOnlyTheMissesFromTheDatabase() {
+        long cached = productService.createProduct(product("Multi cached", "1.00"));
+        long uncached = productService.createProduct(product("Multi uncached", "2.00"));
+        long deleted = productService.createProduct(product("Multi deleted", "3.00"));
+        productService.deleteProduct(deleted);
+        clearSecondLevelCache(entityManagerFactory);
+        productService.getProductById(cached);
+
+        CacheRegionStatistics region = statistics.getDomainDataRegionStatistics(Product.CACHE_REGION);
+        long hits = region.getHitCount();
+        long statements = statistics.getPrepareStatementCount();
+
+        ProductMultiGetResponseDTO result = productService.getProductsByIds(List.of(cached, uncached, deleted, cached));
+
+        assertThat(result.getProducts()).containsOnlyKeys(cached, uncached);
+        assertThat(result.getMissing()).containsExactly(deleted);
+        assertThat(region.getHitCount()).isEqualTo(hits + 1);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(statements + 1);
+    }
+}
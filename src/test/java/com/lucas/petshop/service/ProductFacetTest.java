@@ -0,0 +1,129 @@
+package com.lucas.petshop.service;
+
+import com.lucas.petshop.dto.ProductBulkUpdateDTO;
+import com.lucas.petshop.dto.ProductFacetsResponseDTO;
+import com.lucas.petshop.dto.ProductRequestDTO;
+import com.lucas.petshop.dto.ProductUpdateDTO;
+import com.lucas.petshop.invalidation.InvalidationHandler;
+import com.lucas.petshop.invalidation.InvalidationTarget;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+import static com.lucas.petshop.TestData.clearSecondLevelCache;
+import static com.lucas.petshop.TestData.product;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class ProductFacetTest {
+
+    @Autowired
+    private ProductFacetService productFacetService;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @BeforeEach
+    void setUp() {
+        clearSecondLevelCache(entityManagerFactory);
+    }
+
+    @Test
+    void productChangesMoveThroughTheFacets() {
+        long kibble = productService.createProduct(facetProduct("Facet kibble", ProductTypeEnum.FOOD, ProductAnimalTypeEnum.DOG, "8.00"));
+        long ball = productService.createProduct(facetProduct("Facet ball", ProductTypeEnum.TOY, ProductAnimalTypeEnum.DOG, "30.00"));
+        long tuna = productService.createProduct(facetProduct("Facet tuna", ProductTypeEnum.FOOD, ProductAnimalTypeEnum.CAT, "120.00"));
+
+        ProductFacetsResponseDTO all = facets(null, null);
+        assertThat(all.matched()).isEqualTo(3);
+        assertThat(all.productIds()).containsExactly(kibble, ball, tuna);
+        assertThat(all.types()).containsEntry(ProductTypeEnum.FOOD, 2).containsEntry(ProductTypeEnum.TOY, 1);
+        assertThat(all.brands()).containsEntry("Facet Co", 3);
+        assertThat(all.prices()).containsEntry("0-10", 1).containsEntry("25-50", 1).containsEntry("100-250", 1);
+
+        // the type counts ignore the type filter itself: TOY still shows what a click would add
+        ProductFacetsResponseDTO food = facets(List.of(ProductTypeEnum.FOOD), null);
+        assertThat(food.matched()).isEqualTo(2);
+        assertThat(food.productIds()).containsExactly(kibble, tuna);
+        assertThat(food.types()).containsEntry(ProductTypeEnum.FOOD, 2).containsEntry(ProductTypeEnum.TOY, 1);
+        assertThat(food.animalTypes()).containsEntry(ProductAnimalTypeEnum.DOG, 1).containsEntry(ProductAnimalTypeEnum.CAT, 1);
+
+        productService.updateProduct(ball, facetProduct("Facet ball", ProductTypeEnum.FOOD, ProductAnimalTypeEnum.DOG, "30.00"));
+        productService.partialUpdateProduct(tuna, new ProductUpdateDTO(null, null, "DOG", null, null, null, null, null), null);
+        productService.bulkUpdateProducts(Map.of(kibble, new ProductBulkUpdateDTO(new BigDecimal("52.00"), null)));
+        productService.deleteProduct(tuna);
+
+        ProductFacetsResponseDTO after = facets(List.of(ProductTypeEnum.FOOD), List.of("25-50", "50-100"));
+        assertThat(after.matched()).isEqualTo(2);
+        assertThat(after.productIds()).containsExactly(kibble, ball);
+        assertThat(after.animalTypes()).containsEntry(ProductAnimalTypeEnum.DOG, 2).containsEntry(ProductAnimalTypeEnum.CAT, 0);
+        assertThat(after.prices()).containsEntry("25-50", 1).containsEntry("50-100", 1).containsEntry("100-250", 0);
+    }
+
+    @Test
+    void rolledBackProductsAreNotIndexed() {
+        int before = productFacetService.size();
+
+        assertThatThrownBy(() -> transactionTemplate.executeWithoutResult(status -> {
+            productService.createProduct(facetProduct("Facet rollback", ProductTypeEnum.TOY, ProductAnimalTypeEnum.BIRD, "5.00"));
+            throw new IllegalStateException("rollback");
+        })).isInstanceOf(IllegalStateException.class);
+
+        assertThat(productFacetService.size()).isEqualTo(before);
+    }
+
+    @Test
+    void productsChangedOnAnotherNodeAreReadAgain() {
+        jdbcTemplate.update("INSERT INTO tb_products (name, type, animal_type, brand, description, stock, price, size_weight, created_at, deleted_product) "
+                + "VALUES ('Remote perch', 'ACCESSORY', 'BIRD', 'Remote Co', 'Inserted by another node', 3, 15.00, 0.5, CURRENT_TIMESTAMP, false)");
+        long perch = jdbcTemplate.queryForObject("SELECT product_id FROM tb_products WHERE name = 'Remote perch'", Long.class);
+        InvalidationHandler handler = (InvalidationHandler) productFacetService;
+
+        assertThat(productFacetService.getFacets(null, null, List.of("Remote Co"), null, 10).matched()).isZero();
+
+        handler.invalidate(InvalidationTarget.PRODUCT, List.of(perch));
+        ProductFacetsResponseDTO remote = productFacetService.getFacets(null, null, List.of("Remote Co"), null, 10);
+        assertThat(remote.productIds()).containsExactly(perch);
+        assertThat(remote.prices()).containsEntry("10-25", 1);
+
+        jdbcTemplate.update("UPDATE tb_products SET deleted_product = true WHERE product_id = ?", perch);
+        handler.invalidate(InvalidationTarget.PRODUCT, List.of(perch));
+        assertThat(productFacetService.getFacets(null, null, List.of("Remote Co"), null, 10).brands())
+                .containsEntry("Remote Co", 0);
+
+        handler.invalidateAll();
+        assertThat(productFacetService.size()).isEqualTo(
+                jdbcTemplate.queryForObject("SELECT COUNT(*) FROM tb_products WHERE deleted_product = false", Integer.class));
+    }
+
+    private ProductFacetsResponseDTO facets(List<ProductTypeEnum> types, List<String> prices) {
+        return productFacetService.getFacets(types, null, List.of("Facet Co"), prices, 10);
+    }
+
+    private static ProductRequestDTO facetProduct(String name, ProductTypeEnum type, ProductAnimalTypeEnum animalType,
+                                                  String price) {
+        ProductRequestDTO dto = product(name, type, animalType, price);
+        dto.setBrand("Facet Co");
+        return dto;
+    }
+}
@@ -0,0 +1,88 @@
+package com.lucas.petshop.timing;
+
+import com.lucas.petshop.service.OrderService;
+import com.lucas.petshop.service.ProductService;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import static com.lucas.petshop.TestData.clearSecondLevelCache;
+import static com.lucas.petshop.TestData.order;
+import static com.lucas.petshop.TestData.product;
+import static org.assertj.core.api.Assertions.assertThat;
+
+// on a real server: MockMvc does not run the container's async dispatch the way Tomcat does
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "petshop.server-timing.header=true")
+@ActiveProfiles("test")
+class ServerTimingHeaderTest {
+
+    private final HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+
+    @Value("http://localhost:${local.server.port}${server.servlet.context-path}")
+    private String baseUrl;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private long orderId;
+
+    @BeforeEach
+    void setUp() {
+        clearSecondLevelCache(entityManagerFactory);
+        orderId = orderService.createOrder(order("Timed export client",
+                productService.createProduct(product("Timed kibble"))));
+    }
+
+    @Test
+    void bufferedResponsesCarryTheHeader() throws Exception {
+        HttpResponse<String> response = get("/orders/" + orderId, "application/json");
+
+        assertThat(response.statusCode()).isEqualTo(200);
+        assertThat(response.headers().firstValue("Server-Timing")).hasValueSatisfying(
+                header -> assertThat(header).startsWith("db;dur=").contains("app;dur="));
+    }
+
+    @Test
+    void streamedExportIsPassedThroughUntimed() throws Exception {
+        LocalDateTime now = LocalDateTime.now();
+        HttpResponse<String> response = get("/orders/export?from=" + now.minusHours(1) + "&to=" + now.plusHours(1),
+                "application/x-ndjson");
+
+        assertThat(response.statusCode()).isEqualTo(200);
+        assertThat(response.headers().firstValue("Server-Timing")).isEmpty();
+        assertThat(response.body().lines()).anyMatch(line -> line.contains("Timed export client"));
+        // the first dispatch ends before the body is written: its phases would be partial
+        assertThat(meterRegistry.find(ServerTimingFilter.METRIC).tag("endpoint", "GET /orders/export").timers())
+                .isEmpty();
+    }
+
+    private HttpResponse<String> get(String path, String accept) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .header("Accept", accept)
+                .timeout(Duration.ofSeconds(20))
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+}